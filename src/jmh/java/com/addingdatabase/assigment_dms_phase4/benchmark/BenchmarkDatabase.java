@@ -0,0 +1,226 @@
+package com.addingdatabase.assigment_dms_phase4.benchmark;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * BenchmarkDatabase.java
+ *
+ * This class prepares the SQLite databases the JMH benchmarks run against and starts the
+ * application context on them.
+ *
+ * Key Features:
+ * - Seeds a database of a given size once (target/jmh/seed-<rows>.db) from a generator based on
+ *   the sample rows of dms_db.sql: names, positions, departments and salaries are recombined from
+ *   those rows with a fixed random seed, so every run and every commit sees the same data.
+ * - The schema comes from the Flyway migrations, exactly as for the application, and rows are
+ *   written through EmployeeRepository.saveAll(), so the search triggers and indexes are populated.
+ * - Every trial works on a fresh copy of the seed (target/jmh/work-<rows>.db), so write benchmarks
+ *   cannot change the data seen by later trials or later runs.
+ * - The memory-mapped engine gets its own seed (target/jmh/seed-<rows>.dat) with the same generated
+ *   rows, written through its saveAll(), and a fresh working copy per trial as well.
+ * - Starts the application without the web server, console prompt, banner or INFO logging.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.AssigmentDmsPhase4Application;
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class BenchmarkDatabase {
+
+    private static final Path DIRECTORY = Path.of("target", "jmh");
+
+    private static final int SEED_BATCH_SIZE = 5000;
+
+    private static final long RANDOM_SEED = 20250715L;
+
+    /**
+     * One sample row of the INSERT statement in dms_db.sql, e.g. ('Bob Smith', 'Developer', 85000, '2018-01-12', 'IT', 1).
+     */
+    private static final Pattern SAMPLE_ROW =
+            Pattern.compile("\\('([^']*)', '([^']*)', (\\d+), '([^']*)', '([^']*)', ([01])\\)");
+
+    private static final LocalDate FIRST_HIRE_DATE = LocalDate.of(2000, 1, 1);
+
+    private static final LocalDate LAST_HIRE_DATE = LocalDate.of(2025, 6, 30);
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Creates a fresh working copy of the seed database with the given number of employees,
+     * seeding it first if it does not exist yet.
+     *
+     * @param rows the number of employees
+     * @return the path of the working copy
+     */
+    static Path prepare(int rows) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Path seed = DIRECTORY.resolve("seed-" + rows + ".db");
+            if (!Files.exists(seed)) {
+                seed(seed, rows, false);
+            }
+            Path work = DIRECTORY.resolve("work-" + rows + ".db");
+            Files.deleteIfExists(DIRECTORY.resolve("work-" + rows + ".db-wal"));
+            Files.deleteIfExists(DIRECTORY.resolve("work-" + rows + ".db-shm"));
+            Files.copy(seed, work, StandardCopyOption.REPLACE_EXISTING);
+            return work;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Creates a fresh working copy of the memory-mapped store with the given number of employees,
+     * seeding it first if it does not exist yet.
+     *
+     * @param rows the number of employees
+     * @return the path of the working copy, for dms.repository.mapped.path
+     */
+    static Path prepareMapped(int rows) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Path seed = DIRECTORY.resolve("seed-" + rows + ".dat");
+            if (!Files.exists(seed)) {
+                seed(seed, rows, true);
+            }
+            Path work = DIRECTORY.resolve("work-" + rows + ".dat");
+            Files.copy(seed, work, StandardCopyOption.REPLACE_EXISTING);
+            return work;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Starts the application on a database file and the memory-mapped store.
+     *
+     * @param database   the SQLite file; still opened and migrated, but not read by the repository
+     * @param store      the log file of the memory-mapped engine
+     * @param properties extra properties in key=value form
+     * @return the running context; the caller closes it
+     */
+    static ConfigurableApplicationContext startMapped(Path database, Path store, String... properties) {
+        List<String> all = new ArrayList<>(List.of("dms.repository.engine=mapped",
+                "dms.repository.mapped.path=" + store.toAbsolutePath()));
+        all.addAll(List.of(properties));
+        return start(database, all.toArray(String[]::new));
+    }
+
+    /**
+     * Starts the application on a database file.
+     *
+     * @param database   the SQLite file
+     * @param properties extra properties in key=value form, e.g. "dms.snapshot.enabled=true"
+     * @return the running context; the caller closes it
+     */
+    static ConfigurableApplicationContext start(Path database, String... properties) {
+        // Passed as command-line arguments, which take precedence over application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:sqlite:" + database.toAbsolutePath(),
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.hikari.register-mbeans=false"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(AssigmentDmsPhase4Application.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Creates the seed database: runs the migrations, then writes the generated employees in batches.
+     * The file is written under a temporary name and renamed when complete, so an interrupted
+     * run never leaves a half-seeded database behind.
+     *
+     * @param mapped true to seed the log of the memory-mapped engine instead of a SQLite file
+     */
+    private static void seed(Path seed, int rows, boolean mapped) throws IOException {
+        Path partial = DIRECTORY.resolve(seed.getFileName() + ".partial");
+        Files.deleteIfExists(partial);
+
+        List<Employee> samples = readSamples();
+        Random random = new Random(RANDOM_SEED);
+        int hireDays = (int) (LAST_HIRE_DATE.toEpochDay() - FIRST_HIRE_DATE.toEpochDay()) + 1;
+
+        try (ConfigurableApplicationContext context = mapped
+                ? startMapped(DIRECTORY.resolve("mapped-seed.db"), partial)
+                : start(partial)) {
+            EmployeeRepository repository = context.getBean(EmployeeRepository.class);
+            List<Employee> batch = new ArrayList<>(SEED_BATCH_SIZE);
+            for (int i = 0; i < rows; i++) {
+                Employee role = samples.get(random.nextInt(samples.size()));
+                String first = firstName(samples.get(random.nextInt(samples.size())));
+                String last = lastName(samples.get(random.nextInt(samples.size())));
+                double salary = Math.round(role.getSalary() * (0.8 + 0.4 * random.nextDouble()));
+                LocalDate hireDate = FIRST_HIRE_DATE.plusDays(random.nextInt(hireDays));
+
+                batch.add(new Employee(first + " " + last, role.getPosition(), salary, hireDate,
+                        role.getDepartment(), random.nextInt(10) != 0));
+                if (batch.size() == SEED_BATCH_SIZE) {
+                    repository.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            repository.saveAll(batch);
+        }
+        // Closing the last pooled connection checkpointed the WAL into the file (or the mapped store was flushed)
+        Files.move(partial, seed, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the sample employees from the INSERT statement of dms_db.sql.
+     */
+    private static List<Employee> readSamples() throws IOException {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/dms_db.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("dms_db.sql is not on the classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<Employee> samples = new ArrayList<>();
+        Matcher m = SAMPLE_ROW.matcher(script);
+        while (m.find()) {
+            samples.add(new Employee(m.group(1), m.group(2), Double.parseDouble(m.group(3)),
+                    LocalDate.parse(m.group(4)), m.group(5), "1".equals(m.group(6))));
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalStateException("No sample rows found in dms_db.sql");
+        }
+        return samples;
+    }
+
+    private static String firstName(Employee e) {
+        String name = e.getName();
+        int space = name.indexOf(' ');
+        return space < 0 ? name : name.substring(0, space);
+    }
+
+    private static String lastName(Employee e) {
+        String name = e.getName();
+        return name.substring(name.lastIndexOf(' ') + 1);
+    }
+}
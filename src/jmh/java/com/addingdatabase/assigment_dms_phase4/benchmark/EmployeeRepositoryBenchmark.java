@@ -0,0 +1,132 @@
+package com.addingdatabase.assigment_dms_phase4.benchmark;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeRepositoryBenchmark.java
+ *
+ * JMH benchmarks of the EmployeeRepository operations every page of the application goes through.
+ *
+ * Key Features:
+ * - Runs against seeded databases of 10k, 100k and 1M employees (the "rows" parameter), on the
+ *   SQLite engine and on the memory-mapped engine (the "engine" parameter: jdbc or mapped).
+ * - findAll() reads the whole table; findById() looks up a random existing ID.
+ * - insert and update go through save(); deleteById() removes a row inserted just before
+ *   the measured call, so the table size stays the same during the trial.
+ * - Reports throughput; the gc profiler (enabled by the jmh Maven profile) adds allocation rates.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeRepositoryBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"10000", "100000", "1000000"})
+        int rows;
+
+        @Param({"jdbc", "mapped"})
+        String engine;
+
+        ConfigurableApplicationContext context;
+        EmployeeRepository repository;
+
+        @Setup(Level.Trial)
+        public void start() {
+            Path database = BenchmarkDatabase.prepare(rows);
+            context = "mapped".equals(engine)
+                    ? BenchmarkDatabase.startMapped(database, BenchmarkDatabase.prepareMapped(rows))
+                    : BenchmarkDatabase.start(database);
+            repository = context.getBean(EmployeeRepository.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        long randomId() {
+            return ThreadLocalRandom.current().nextLong(1, rows + 1);
+        }
+    }
+
+    /**
+     * A row inserted before each deleteById() call, outside the measured time.
+     */
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insert(Database db) {
+            Employee e = newEmployee();
+            db.repository.save(e);
+            id = e.getId();
+        }
+    }
+
+    @Benchmark
+    public List<Employee> findAll(Database db) {
+        return db.repository.findAll();
+    }
+
+    @Benchmark
+    public Employee findById(Database db) {
+        return db.repository.findById(db.randomId());
+    }
+
+    @Benchmark
+    public Employee insert(Database db) {
+        Employee e = newEmployee();
+        db.repository.save(e);
+        return e;
+    }
+
+    @Benchmark
+    public Employee update(Database db) {
+        Employee e = db.repository.findById(db.randomId());
+        e.setSalary(e.getSalary() + 1);
+        db.repository.save(e);
+        return e;
+    }
+
+    @Benchmark
+    public void deleteById(Database db, DeleteTarget target) {
+        db.repository.deleteById(target.id);
+    }
+
+    private static Employee newEmployee() {
+        return new Employee("Benchmark Employee", "Developer", 80000, LocalDate.of(2024, 1, 15), "IT", true);
+    }
+}
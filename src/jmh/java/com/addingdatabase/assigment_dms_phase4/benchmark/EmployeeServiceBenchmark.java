@@ -0,0 +1,76 @@
+package com.addingdatabase.assigment_dms_phase4.benchmark;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeServiceBenchmark.java
+ *
+ * JMH benchmarks of the EmployeeService report paths.
+ *
+ * Key Features:
+ * - Runs against seeded databases of 10k, 100k and 1M employees (the "rows" parameter).
+ * - getTenureReport() (which replaced getEmployeesGroupedByTenure()) is measured both ways it can
+ *   run: counted by SQL over the hire_date index, and scanned from the in-memory EmployeeSnapshot
+ *   (the "snapshot" parameter).
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.TenureBucket;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EmployeeServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        @Param({"10000", "100000", "1000000"})
+        int rows;
+
+        @Param({"false", "true"})
+        boolean snapshot;
+
+        ConfigurableApplicationContext context;
+        EmployeeService employeeService;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkDatabase.start(BenchmarkDatabase.prepare(rows),
+                    "dms.snapshot.enabled=" + snapshot);
+            employeeService = context.getBean(EmployeeService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<TenureBucket> getTenureReport(Service service) {
+        return service.employeeService.getTenureReport();
+    }
+}
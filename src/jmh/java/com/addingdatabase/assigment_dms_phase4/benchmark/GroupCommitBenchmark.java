@@ -0,0 +1,116 @@
+package com.addingdatabase.assigment_dms_phase4.benchmark;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * GroupCommitBenchmark.java
+ *
+ * JMH benchmark of EmployeeRepository.save() under many concurrent editors, with and without
+ * group commit.
+ *
+ * Key Features:
+ * - 16 threads each update their own employees of a 100k-row database (the table size stays the same).
+ *   The sets do not overlap, so no update is refused by the version check of another editor's save.
+ * - The "groupCommit" parameter switches dms.repository.group-commit.enabled.
+ * - The "synchronous" parameter sets the SQLite synchronous pragma: NORMAL (the application default,
+ *   WAL commits are not synced) and FULL (every commit waits for an fsync of the WAL).
+ * - Reports the total number of saves per second across all threads.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GroupCommitBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final int EMPLOYEES_PER_EDITOR = 100;
+
+    private static final AtomicInteger EDITORS = new AtomicInteger();
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"false", "true"})
+        boolean groupCommit;
+
+        @Param({"NORMAL", "FULL"})
+        String synchronous;
+
+        ConfigurableApplicationContext context;
+        EmployeeRepository repository;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = BenchmarkDatabase.start(BenchmarkDatabase.prepare(ROWS),
+                    "dms.repository.group-commit.enabled=" + groupCommit,
+                    "spring.datasource.hikari.data-source-properties.synchronous=" + synchronous);
+            repository = context.getBean(EmployeeRepository.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    /**
+     * The employees one editor thread updates, loaded outside the measured time: a range of IDs
+     * no other editor touches. save() advances the version of each object, so it stays current.
+     */
+    @State(Scope.Thread)
+    public static class Editor {
+
+        final List<Employee> employees = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void load(Database db) {
+            long first = (long) (EDITORS.getAndIncrement() % (ROWS / EMPLOYEES_PER_EDITOR)) * EMPLOYEES_PER_EDITOR + 1;
+            for (long id = first; id < first + EMPLOYEES_PER_EDITOR; id++) {
+                employees.add(db.repository.findById(id));
+            }
+        }
+
+        Employee next() {
+            return employees.get(ThreadLocalRandom.current().nextInt(employees.size()));
+        }
+    }
+
+    @Benchmark
+    public Employee update(Database db, Editor editor) {
+        Employee e = editor.next();
+        e.setSalary(e.getSalary() + 1);
+        db.repository.save(e);
+        return e;
+    }
+}
@@ -0,0 +1,108 @@
+package com.addingdatabase.assigment_dms_phase4.benchmark;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * ShardedWriteBenchmark.java
+ *
+ * JMH benchmark of EmployeeRepository.save() inserts under many concurrent editors, with the
+ * employees in one SQLite file or sharded over several (ShardedEmployeeRepository).
+ *
+ * Key Features:
+ * - 16 threads each insert new employees into a database that starts with 1k rows.
+ * - The "shards" parameter sets dms.repository.shards; each shard has its own writer thread, so
+ *   inserts to different shards run in parallel (given the cores to run them on).
+ * - The "synchronous" parameter sets the SQLite synchronous pragma (NORMAL or FULL).
+ * - Reports the total number of inserts per second across all threads.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ShardedWriteBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"1", "4"})
+        int shards;
+
+        @Param({"NORMAL", "FULL"})
+        String synchronous;
+
+        ConfigurableApplicationContext context;
+        EmployeeRepository repository;
+
+        @Setup(Level.Trial)
+        public void start() {
+            Path database = BenchmarkDatabase.prepare(ROWS);
+            deleteShards(database);
+            context = BenchmarkDatabase.start(database,
+                    "dms.repository.shards=" + shards,
+                    "spring.datasource.hikari.data-source-properties.synchronous=" + synchronous);
+            repository = context.getBean(EmployeeRepository.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        /**
+         * Removes the shard files a previous trial left next to the working copy.
+         */
+        private static void deleteShards(Path database) {
+            String name = database.getFileName().toString();
+            String base = name.substring(0, name.lastIndexOf('.'));
+            try {
+                for (int k = 1; k < 64; k++) {
+                    for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                        Files.deleteIfExists(database.resolveSibling(base + "-shard" + k + ".db" + suffix));
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    @Benchmark
+    public Employee insert(Database db) {
+        Employee e = new Employee("Load Tester", "Clerk", 1000, LocalDate.of(2020, 1, 1), "Load", true);
+        db.repository.save(e);
+        return e;
+    }
+}
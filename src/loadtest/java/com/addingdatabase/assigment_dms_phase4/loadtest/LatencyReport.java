@@ -0,0 +1,150 @@
+package com.addingdatabase.assigment_dms_phase4.loadtest;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * LatencyReport.java
+ *
+ * This class collects the latencies of a load test run per operation and reports them.
+ *
+ * Key Features:
+ * - One HdrHistogram Recorder per operation, in microseconds with 3 significant digits; the driver
+ *   threads record into it without locking.
+ * - The table lists per operation (and for all operations): count, errors, version conflicts,
+ *   throughput and the 50th, 90th, 99th and 99.9th percentile and maximum latency in milliseconds.
+ * - Each operation's full percentile distribution is written as a .hgrm file, which the HdrHistogram
+ *   plotter draws, so two runs can be laid over each other.
+ */
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LatencyReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<LoadDriver.Operation, Recorder> recorders = new EnumMap<>(LoadDriver.Operation.class);
+    private final Map<LoadDriver.Operation, LongAdder> errors = new EnumMap<>(LoadDriver.Operation.class);
+    private final Map<LoadDriver.Operation, LongAdder> conflicts = new EnumMap<>(LoadDriver.Operation.class);
+    private final Map<LoadDriver.Operation, Histogram> histograms = new EnumMap<>(LoadDriver.Operation.class);
+    private long elapsedNanos;
+
+    LatencyReport() {
+        for (LoadDriver.Operation operation : LoadDriver.Operation.values()) {
+            recorders.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+            conflicts.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Records the latency of a completed operation.
+     *
+     * @param operation the operation
+     * @param nanos     the time from the (intended) start to the end of the response
+     */
+    void record(LoadDriver.Operation operation, long nanos) {
+        recorders.get(operation).recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * Counts an operation that failed: an unexpected status or no response.
+     *
+     * @param operation the operation
+     */
+    void error(LoadDriver.Operation operation) {
+        errors.get(operation).increment();
+    }
+
+    /**
+     * Counts a save that was refused because another user saved the employee first.
+     *
+     * @param operation the operation
+     */
+    void conflict(LoadDriver.Operation operation) {
+        conflicts.get(operation).increment();
+    }
+
+    /**
+     * Ends the measurement: takes the recorded latencies out of the recorders.
+     *
+     * @param elapsedNanos the length of the measurement, for the throughput
+     */
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        for (Map.Entry<LoadDriver.Operation, Recorder> entry : recorders.entrySet()) {
+            histograms.put(entry.getKey(), entry.getValue().getIntervalHistogram());
+        }
+    }
+
+    /**
+     * Prints the latency table.
+     *
+     * @param out the stream to print to
+     */
+    void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf(Locale.ROOT, "%-8s %9s %7s %9s %10s %9s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "conflicts", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+        long allErrors = 0;
+        long allConflicts = 0;
+        for (LoadDriver.Operation operation : LoadDriver.Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            long operationErrors = errors.get(operation).sum();
+            long operationConflicts = conflicts.get(operation).sum();
+            if (histogram.getTotalCount() == 0 && operationErrors == 0) {
+                continue;
+            }
+            printRow(out, operation.label(), histogram, operationErrors, operationConflicts, seconds);
+            all.add(histogram);
+            allErrors += operationErrors;
+            allConflicts += operationConflicts;
+        }
+        printRow(out, "all", all, allErrors, allConflicts, seconds);
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, long errors, long conflicts,
+                                 double seconds) {
+        out.printf(Locale.ROOT, "%-8s %9d %7d %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                label, histogram.getTotalCount(), errors, conflicts, histogram.getTotalCount() / seconds,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Writes the percentile distribution of each operation that ran to &lt;operation&gt;.hgrm, in milliseconds.
+     *
+     * @param directory the directory the files are written to
+     * @throws IOException if a file cannot be written
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<LoadDriver.Operation, Histogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(entry.getKey().label() + ".hgrm")), false, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.addingdatabase.assigment_dms_phase4.loadtest;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * LoadDriver.java
+ *
+ * This class sends the load test traffic to the web pages of a running server, as a number of
+ * browser users would: list, edit, save, delete and the tenure report, in a configurable mix.
+ *
+ * Key Features:
+ * - Closed loop: a fixed number of users, each sending its next request when the previous response
+ *   has arrived (after an optional think time). Shows the throughput the server sustains.
+ * - Open loop: requests start at a fixed rate whatever the server does, over a bounded number of
+ *   connections. Latency is measured from the time a request was due, so time spent waiting for a
+ *   free connection while the server is slow counts (no coordinated omission).
+ * - list: GET /employees with a random sort key and direction, a quarter of them filtered by
+ *   department. edit: GET /update/{id}. save: opens the edit form (recorded as edit), changes the
+ *   salary and posts the form back with its hidden version, like a browser; a conflict answer
+ *   (the form shown again because someone else saved first) is counted, not an error.
+ *   delete: GET /delete/{id}. tenure: GET /tenure.
+ * - IDs are drawn from 1 to N (the generated database); deleted IDs are not drawn again.
+ * - Each user (closed loop) or the scheduler (open loop) has its own seeded Random, so the
+ *   sequence of requests is the same from run to run.
+ * - Requests before the end of the warm-up are sent but not recorded.
+ */
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class LoadDriver {
+
+    /**
+     * The operations of the mix.
+     */
+    enum Operation {
+        LIST, EDIT, SAVE, DELETE, TENURE;
+
+        /**
+         * Gets the name used in the mix option and the report.
+         *
+         * @return the lower-case name
+         */
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final String[] SORT_KEYS = {"id", "name", "salary", "hire_date"};
+
+    private static final Pattern INPUT = Pattern.compile("<input\\b[^>]*>");
+
+    private static final Pattern ATTRIBUTE = Pattern.compile("([\\w-]+)=\"([^\"]*)\"");
+
+    private static final String CONFLICT_MESSAGE = "changed by someone else";
+
+    private final HttpClient client;
+    private final URI base;
+    private final int maxId;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param base  the address of the server, e.g. http://localhost:8080
+     * @param maxId the highest employee ID of the generated database
+     * @param mix   the relative weight of each operation
+     */
+    LoadDriver(URI base, int maxId, Map<Operation, Integer> mix) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.base = base;
+        this.maxId = maxId;
+
+        List<Operation> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The mix has no operation with a weight above 0");
+        }
+        this.operations = weighted.toArray(Operation[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Parses a mix such as "list=40,edit=25,save=15,delete=5,tenure=15".
+     *
+     * @param mix the mix
+     * @return the weight of each operation named
+     * @throws IllegalArgumentException if an operation is unknown or a weight is not a number
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.strip().split("=", 2);
+            try {
+                weights.put(Operation.valueOf(pair[0].strip().toUpperCase(Locale.ROOT)),
+                        Integer.parseInt(pair[1].strip()));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', expected e.g. list=40", ex);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Runs a closed loop: each user sends one request at a time.
+     *
+     * @param users     the number of concurrent users
+     * @param thinkTime the pause of a user between a response and its next request
+     * @param warmup    the time requests are sent without being recorded
+     * @param duration  the time requests are recorded
+     * @param seed      the seed of the users' choices
+     * @return the report of the recorded requests
+     * @throws InterruptedException if interrupted while waiting for the users
+     */
+    LatencyReport runClosedLoop(int users, Duration thinkTime, Duration warmup, Duration duration, long seed)
+            throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        ExecutorService threads = Executors.newFixedThreadPool(users, daemonThreads("loadtest-user-"));
+        List<Future<?>> running = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            Random random = new Random(seed + user);
+            running.add(threads.submit(() -> {
+                for (long start = System.nanoTime(); start < end; start = System.nanoTime()) {
+                    send(next(random), random, start, start >= measureFrom ? report : null);
+                    if (!thinkTime.isZero()) {
+                        Thread.sleep(thinkTime.toMillis());
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> user : running) {
+                user.get();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Load test user failed: " + ex.getCause(), ex.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+        report.finish(end - measureFrom);
+        return report;
+    }
+
+    /**
+     * Runs an open loop: requests are due at a fixed rate and wait for a free connection if the
+     * server falls behind; that wait is part of their latency.
+     *
+     * @param rate        the requests started per second
+     * @param connections the most requests in flight at once
+     * @param warmup      the time requests are sent without being recorded
+     * @param duration    the time requests are recorded
+     * @param seed        the seed of the request sequence
+     * @return the report of the recorded requests
+     * @throws InterruptedException if interrupted while sending or waiting for the last responses
+     */
+    LatencyReport runOpenLoop(double rate, int connections, Duration warmup, Duration duration, long seed)
+            throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        long interval = Math.max(1, Math.round(1e9 / rate));
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        ExecutorService threads = Executors.newFixedThreadPool(connections, daemonThreads("loadtest-connection-"));
+        Random random = new Random(seed);
+        for (long due = start; due < end; due += interval) {
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = next(random);
+            Random requestRandom = new Random(random.nextLong());
+            long dueAt = due;
+            LatencyReport target = due >= measureFrom ? report : null;
+            threads.execute(() -> {
+                try {
+                    send(operation, requestRandom, dueAt, target);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        threads.shutdown();
+        if (!threads.awaitTermination(duration.toNanos() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS)) {
+            threads.shutdownNow();
+            System.err.println("The server did not keep up: requests still queued at the end were dropped");
+        }
+        report.finish(end - measureFrom);
+        return report;
+    }
+
+    private Operation next(Random random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (r >= cumulativeWeights[i]) {
+            i++;
+        }
+        return operations[i];
+    }
+
+    /**
+     * Sends one operation and records it.
+     *
+     * @param start  the time the operation started, or was due to start
+     * @param report where the operation is recorded, or null during the warm-up
+     */
+    private void send(Operation operation, Random random, long start, LatencyReport report) throws InterruptedException {
+        try {
+            switch (operation) {
+                case LIST -> expect(operation, get(listPath(random)), 200, start, report);
+                case EDIT -> expect(operation, get("/update/" + liveId(random)), 200, start, report);
+                case SAVE -> save(random, start, report);
+                case DELETE -> {
+                    long id = liveId(random);
+                    deleted.add(id);
+                    expect(operation, get("/delete/" + id), 302, start, report);
+                }
+                case TENURE -> expect(operation, get("/tenure"), 200, start, report);
+            }
+        } catch (IOException ex) {
+            if (report != null) {
+                report.error(operation);
+            }
+        }
+    }
+
+    /**
+     * Opens the edit form of an employee and posts it back with a changed salary.
+     */
+    private void save(Random random, long start, LatencyReport report) throws IOException, InterruptedException {
+        HttpResponse<String> form = get("/update/" + liveId(random));
+        if (!expect(Operation.EDIT, form, 200, start, report)) {
+            return;
+        }
+        Map<String, String> fields = formFields(form.body());
+        double salary = Double.parseDouble(fields.getOrDefault("salary", "50000"));
+        fields.put("salary", Long.toString(Math.round(salary * (0.95 + 0.1 * random.nextDouble()))));
+
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            body.append(body.length() == 0 ? "" : "&")
+                    .append(URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8));
+        }
+        long saveStart = System.nanoTime();
+        HttpResponse<String> saved = client.send(HttpRequest.newBuilder(base.resolve("/save"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (report != null && saved.statusCode() == 200 && saved.body().contains(CONFLICT_MESSAGE)) {
+            report.record(Operation.SAVE, System.nanoTime() - saveStart);
+            report.conflict(Operation.SAVE);
+        } else {
+            expect(Operation.SAVE, saved, 302, saveStart, report);
+        }
+    }
+
+    /**
+     * Reads the fields a browser would submit from the inputs of a form: every named input, a
+     * checkbox only when it is checked.
+     */
+    private static Map<String, String> formFields(String html) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        Matcher input = INPUT.matcher(html);
+        while (input.find()) {
+            Map<String, String> attributes = new LinkedHashMap<>();
+            Matcher attribute = ATTRIBUTE.matcher(input.group());
+            while (attribute.find()) {
+                attributes.put(attribute.group(1), unescape(attribute.group(2)));
+            }
+            String name = attributes.get("name");
+            if (name == null || ("checkbox".equals(attributes.get("type")) && !attributes.containsKey("checked"))) {
+                continue;
+            }
+            fields.put(name, attributes.getOrDefault("value", "on"));
+        }
+        return fields;
+    }
+
+    private static String unescape(String text) {
+        return text.replace("&quot;", "\"").replace("&#39;", "'").replace("&lt;", "<").replace("&gt;", ">")
+                .replace("&amp;", "&");
+    }
+
+    private String listPath(Random random) {
+        StringBuilder path = new StringBuilder("/employees?sort=").append(SORT_KEYS[random.nextInt(SORT_KEYS.length)])
+                .append("&dir=").append(random.nextBoolean() ? "asc" : "desc");
+        if (random.nextInt(4) == 0) {
+            String department = LoadTestData.DEPARTMENT_NAMES.get(random.nextInt(LoadTestData.DEPARTMENT_NAMES.size()));
+            path.append("&department=").append(URLEncoder.encode(department, StandardCharsets.UTF_8));
+        }
+        return path.toString();
+    }
+
+    /**
+     * Draws an ID of the generated database that this run has not deleted.
+     */
+    private long liveId(Random random) {
+        long id;
+        int attempts = 0;
+        do {
+            id = 1 + random.nextInt(maxId);
+        } while (deleted.contains(id) && ++attempts < 100);
+        return id;
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(base.resolve(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Records an operation as completed if the response has the expected status, else as an error.
+     *
+     * @return true if the status was the expected one
+     */
+    private static boolean expect(Operation operation, HttpResponse<?> response, int status, long start,
+                                  LatencyReport report) {
+        boolean ok = response.statusCode() == status;
+        if (report != null) {
+            if (ok) {
+                report.record(operation, System.nanoTime() - start);
+            } else {
+                report.error(operation);
+            }
+        }
+        return ok;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threads = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
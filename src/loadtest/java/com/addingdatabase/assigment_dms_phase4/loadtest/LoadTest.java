@@ -0,0 +1,138 @@
+package com.addingdatabase.assigment_dms_phase4.loadtest;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * LoadTest.java
+ *
+ * This class runs the end-to-end load test: it generates the database, starts the application
+ * with its embedded web server on it, drives the web pages with LoadDriver and prints the
+ * LatencyReport. Run it with the loadtest Maven profile (see pom.xml and README.md).
+ *
+ * Key Features:
+ * - Options as --name=value: rows (employees, 100000), users (closed-loop users, or open-loop
+ *   connections, 16), rate (open-loop requests per second; 0 for a closed loop), think (closed-loop
+ *   think time, PT0S), warmup (PT10S), duration (PT60S), mix (list=40,edit=25,save=15,delete=5,tenure=15)
+ *   and seed.
+ * - Options starting with dms., spring. or server. (with or without the dashes) are passed to the
+ *   application, e.g. dms.repository.group-commit.enabled=false, to compare configurations on the
+ *   same data.
+ * - The server runs with the template cache on (production), on a free port, in the same JVM as
+ *   the driver; --url=http://host:port drives a server that was started separately on a database
+ *   written by LoadTestData instead.
+ * - The table is printed and written to target/loadtest/report.txt, the distributions to
+ *   target/loadtest/<operation>.hgrm.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.AssigmentDmsPhase4Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class LoadTest {
+
+    static final long DEFAULT_SEED = 20250715L;
+
+    private static final List<String> SERVER_PREFIXES = List.of("dms.", "spring.", "server.");
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the options, as --name=value
+     * @throws Exception if the test cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> serverArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.main.log-startup-info=false",
+                "--logging.level.root=WARN",
+                "--spring.datasource.hikari.register-mbeans=false",
+                "--spring.thymeleaf.cache=true"));
+        for (String arg : args) {
+            // Maven passes several application properties as one argument, separated by spaces
+            for (String part : arg.strip().split("\\s+")) {
+                String option = part.startsWith("--") ? part.substring(2) : part;
+                String[] pair = option.split("=", 2);
+                if (pair.length != 2 || pair[1].isEmpty()) {
+                    // An empty Maven property (-Dloadtest.url=) leaves the option out
+                    continue;
+                }
+                if (SERVER_PREFIXES.stream().anyMatch(pair[0]::startsWith)) {
+                    serverArgs.add("--" + option);
+                } else {
+                    options.put(pair[0], pair[1]);
+                }
+            }
+        }
+
+        int rows = Integer.parseInt(options.getOrDefault("rows", "100000"));
+        int users = Integer.parseInt(options.getOrDefault("users", "16"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        Duration think = Duration.parse(options.getOrDefault("think", "PT0S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        Map<LoadDriver.Operation, Integer> mix =
+                LoadDriver.parseMix(options.getOrDefault("mix", "list=40,edit=25,save=15,delete=5,tenure=15"));
+        long seed = Long.parseLong(options.getOrDefault("seed", Long.toString(DEFAULT_SEED)));
+
+        PrintStream out = System.out;
+        Path database = LoadTestData.prepare(rows, seed);
+        ConfigurableApplicationContext server = null;
+        URI base;
+        if (options.containsKey("url")) {
+            base = URI.create(options.get("url"));
+            out.println("Driving " + base + "; it must serve a database written by LoadTestData with "
+                    + rows + " employees, e.g. a copy of " + database.toAbsolutePath());
+        } else {
+            serverArgs.add(0, "--spring.datasource.url=jdbc:sqlite:" + database.toAbsolutePath());
+            server = new SpringApplicationBuilder(AssigmentDmsPhase4Application.class).run(serverArgs.toArray(String[]::new));
+            base = URI.create("http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort());
+        }
+
+        try {
+            LoadDriver driver = new LoadDriver(base, rows, mix);
+            String header = (rate > 0)
+                    ? String.format(Locale.ROOT, "Open loop: %.0f requests/s over %d connections", rate, users)
+                    : String.format(Locale.ROOT, "Closed loop: %d users, think time %s", users, think);
+            header += String.format(Locale.ROOT, ", %d employees, warm-up %s, measured %s, mix %s",
+                    rows, warmup, duration, mix);
+            out.println(header);
+
+            LatencyReport report = (rate > 0)
+                    ? driver.runOpenLoop(rate, users, warmup, duration, seed)
+                    : driver.runClosedLoop(users, think, warmup, duration, seed);
+
+            report.print(out);
+            try (PrintStream file = new PrintStream(
+                    Files.newOutputStream(LoadTestData.DIRECTORY.resolve("report.txt")), false, "UTF-8")) {
+                file.println(header);
+                report.print(file);
+            }
+            report.writeDistributions(LoadTestData.DIRECTORY);
+            out.println("Latency distributions written to " + LoadTestData.DIRECTORY.toAbsolutePath());
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
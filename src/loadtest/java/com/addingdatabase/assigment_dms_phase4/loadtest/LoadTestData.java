@@ -0,0 +1,281 @@
+package com.addingdatabase.assigment_dms_phase4.loadtest;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * LoadTestData.java
+ *
+ * This class generates the SQLite database the load test runs against: N employees of a fictional
+ * company that was founded in 2000 and has grown since.
+ *
+ * Key Features:
+ * - Deterministic: the employees depend only on the row count and the seed, so two runs (or two
+ *   commits) are measured against the same data.
+ * - Departments have realistic weights (Engineering about 30%, Legal about 3%), each with its own
+ *   positions, junior positions being the most common, and a salary band per position.
+ * - Hire dates follow the growth of the company: about 10% more hires every year up to
+ *   AS_OF (2025-06-30), spread over the days of the year. The longer ago an employee was hired,
+ *   the more likely they have left (inactive); salaries rise with the years of service.
+ * - Names are combined from first and last names, some with diacritics, as the search folds them.
+ * - The schema comes from the Flyway migrations and the rows are written with
+ *   EmployeeRepository.saveAll(), so the indexes and search tables are filled as in production.
+ *   The IDs of a generated database are 1 to N.
+ * - The seed file (target/loadtest/seed-N-SEED.db) is written once and reused; every run works on a
+ *   fresh copy, since the load test edits and deletes employees.
+ * - main(file, rows, seed) writes a database to any path, e.g. to start a separate server on it.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.AssigmentDmsPhase4Application;
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+final class LoadTestData {
+
+    static final Path DIRECTORY = Path.of("target", "loadtest");
+
+    /**
+     * The day the generated company is seen on: no hire date is later.
+     */
+    static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+
+    private static final int FIRST_YEAR = 2000;
+
+    private static final double HIRING_GROWTH = 1.10;
+
+    /**
+     * Chance that an employee is still employed after each year of service.
+     */
+    private static final double YEARLY_RETENTION = 0.95;
+
+    private static final int BATCH_SIZE = 5000;
+
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+            "Daniel", "Lisa", "Matthew", "Nancy", "Anthony", "Sandra", "Mark", "Ashley", "Minh", "Ngoc",
+            "José", "Zoë", "Chloé", "Renée", "André", "Søren", "Łukasz", "Ana", "Wei", "Priya"};
+
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Perez", "Thompson", "White", "Harris", "Clark", "Lewis", "Walker", "Tran", "Nguyen",
+            "Nguyễn", "Müller", "Sánchez", "Gómez", "Dvořák", "Öztürk", "Kowalski", "Evans", "Patel", "Chen"};
+
+    /**
+     * The departments with their share of the headcount and their positions.
+     */
+    private static final Department[] DEPARTMENTS = {
+            new Department("Engineering", 30,
+                    new Position("Software Engineer", 50, 95_000),
+                    new Position("QA Engineer", 20, 78_000),
+                    new Position("Senior Software Engineer", 22, 125_000),
+                    new Position("Engineering Manager", 8, 145_000)),
+            new Department("Sales", 18,
+                    new Position("Sales Representative", 55, 55_000),
+                    new Position("Account Executive", 35, 70_000),
+                    new Position("Sales Manager", 10, 105_000)),
+            new Department("Operations", 14,
+                    new Position("Logistics Coordinator", 50, 52_000),
+                    new Position("Operations Analyst", 38, 62_000),
+                    new Position("Operations Manager", 12, 98_000)),
+            new Department("Customer Support", 12,
+                    new Position("Support Specialist", 85, 45_000),
+                    new Position("Support Team Lead", 15, 60_000)),
+            new Department("Marketing", 8,
+                    new Position("Marketing Specialist", 50, 60_000),
+                    new Position("Content Writer", 35, 55_000),
+                    new Position("Marketing Manager", 15, 100_000)),
+            new Department("Finance", 7,
+                    new Position("Accountant", 55, 68_000),
+                    new Position("Financial Analyst", 35, 75_000),
+                    new Position("Controller", 10, 120_000)),
+            new Department("HR", 6,
+                    new Position("HR Generalist", 50, 58_000),
+                    new Position("Recruiter", 35, 60_000),
+                    new Position("HR Manager", 15, 95_000)),
+            new Department("Legal", 3,
+                    new Position("Paralegal", 60, 56_000),
+                    new Position("Counsel", 40, 150_000)),
+            new Department("Executive", 2,
+                    new Position("Director", 75, 170_000),
+                    new Position("Vice President", 25, 210_000))};
+
+    /**
+     * The names of the generated departments, for filtered list requests.
+     */
+    static final List<String> DEPARTMENT_NAMES = Arrays.stream(DEPARTMENTS).map(d -> d.name).toList();
+
+    private LoadTestData() {
+    }
+
+    /**
+     * Writes a database to a path.
+     *
+     * @param args the file, the number of employees and optionally the seed
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadTestData <file.db> <rows> [seed]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        long seed = (args.length > 2) ? Long.parseLong(args[2]) : LoadTest.DEFAULT_SEED;
+        try {
+            Files.deleteIfExists(file);
+            generate(file, rows, seed);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        System.out.println("Wrote " + rows + " employees to " + file.toAbsolutePath());
+    }
+
+    /**
+     * Creates a fresh working copy of the generated database, generating it first if it does not
+     * exist yet.
+     *
+     * @param rows the number of employees
+     * @param seed the seed of the generator
+     * @return the path of the working copy
+     */
+    static Path prepare(int rows, long seed) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Path generated = DIRECTORY.resolve("seed-" + rows + "-" + seed + ".db");
+            if (!Files.exists(generated)) {
+                // Written under a temporary name, so an interrupted run never leaves a partial file behind
+                Path partial = DIRECTORY.resolve(generated.getFileName() + ".partial");
+                Files.deleteIfExists(partial);
+                generate(partial, rows, seed);
+                Files.move(partial, generated, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Path work = DIRECTORY.resolve("work.db");
+            Files.deleteIfExists(DIRECTORY.resolve("work.db-wal"));
+            Files.deleteIfExists(DIRECTORY.resolve("work.db-shm"));
+            Files.copy(generated, work, StandardCopyOption.REPLACE_EXISTING);
+            return work;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Runs the migrations on a new file and writes the generated employees in batches.
+     */
+    private static void generate(Path file, int rows, long seed) {
+        Random random = new Random(seed);
+        double[] yearWeights = new double[AS_OF.getYear() - FIRST_YEAR + 1];
+        for (int i = 0; i < yearWeights.length; i++) {
+            yearWeights[i] = Math.pow(HIRING_GROWTH, i);
+        }
+        // Only the first half of the last year has passed
+        yearWeights[yearWeights.length - 1] *= AS_OF.getDayOfYear() / (double) Year.of(AS_OF.getYear()).length();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AssigmentDmsPhase4Application.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:sqlite:" + file.toAbsolutePath(),
+                        "--spring.main.banner-mode=off",
+                        "--spring.main.log-startup-info=false",
+                        "--logging.level.root=WARN",
+                        "--spring.datasource.hikari.register-mbeans=false")) {
+            EmployeeRepository repository = context.getBean(EmployeeRepository.class);
+            List<Employee> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < rows; i++) {
+                batch.add(employee(random, yearWeights));
+                if (batch.size() == BATCH_SIZE) {
+                    repository.saveAll(batch);
+                    batch.clear();
+                }
+            }
+            repository.saveAll(batch);
+        }
+        // Closing the last pooled connection checkpointed the WAL into the file
+    }
+
+    private static Employee employee(Random random, double[] yearWeights) {
+        Department department = DEPARTMENTS[pick(random, DEPARTMENTS.length, i -> DEPARTMENTS[i].weight)];
+        Position position = department.positions[pick(random, department.positions.length,
+                i -> department.positions[i].weight)];
+
+        int year = FIRST_YEAR + pick(random, yearWeights.length, i -> yearWeights[i]);
+        LocalDate first = LocalDate.of(year, 1, 1);
+        LocalDate last = (year == AS_OF.getYear()) ? AS_OF : LocalDate.of(year, 12, 31);
+        LocalDate hireDate = first.plusDays(random.nextInt((int) (last.toEpochDay() - first.toEpochDay()) + 1));
+
+        double years = (AS_OF.toEpochDay() - hireDate.toEpochDay()) / 365.25;
+        boolean active = random.nextDouble() < Math.pow(YEARLY_RETENTION, years);
+        double salary = Math.round(position.salary * (0.85 + 0.3 * random.nextDouble()) * (1 + 0.02 * years) / 100) * 100.0;
+
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return new Employee(name, position.title, salary, hireDate, department.name, active);
+    }
+
+    /**
+     * Picks an index with a probability proportional to its weight.
+     */
+    private static int pick(Random random, int size, IntToDoubleFunction weight) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += weight.applyAsDouble(i);
+        }
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < size - 1; i++) {
+            r -= weight.applyAsDouble(i);
+            if (r < 0) {
+                return i;
+            }
+        }
+        return size - 1;
+    }
+
+    /**
+     * A department: its share of the headcount and its positions.
+     */
+    private static final class Department {
+
+        private final String name;
+        private final double weight;
+        private final Position[] positions;
+
+        private Department(String name, double weight, Position... positions) {
+            this.name = name;
+            this.weight = weight;
+            this.positions = positions;
+        }
+    }
+
+    /**
+     * A position: its share of the department and the middle of its salary band.
+     */
+    private static final class Position {
+
+        private final String title;
+        private final double weight;
+        private final double salary;
+
+        private Position(String title, double weight, double salary) {
+            this.title = title;
+            this.weight = weight;
+            this.salary = salary;
+        }
+    }
+}
@@ -12,20 +12,26 @@ package com.addingdatabase.assigment_dms_phase4;
  * This is the main entry point for the Data Management System (DMS) Phase 4 Spring Boot application.
  *
  * Key Features:
- * - Prompts the user to input the file path to the SQLite database at runtime.
- * - Dynamically sets the Spring datasource URL property based on the user input.
- * - Validates the user input to ensure a valid database path is provided.
- * - Launches the Spring Boot application with the configured datasource.
+ * - Starts without user interaction: the SQLite file is the dms.db.path property (dms.db by default),
+ *   which spring.datasource.url is built from in application.properties.
+ * - The path can be given like any Spring property: --dms.db.path=... on the command line, the
+ *   DMS_DB_PATH environment variable, -Ddms.db.path=... or an external application.properties.
+ * - The --prompt argument restores the console prompt for the file path, for interactive use.
+ * - The "lean" profile (application-lean.properties) leaves out the JPA/Hibernate bootstrap, which
+ *   nothing uses: EmployeeRepository works on plain JDBC.
  *
  * Usage:
- * When the application starts, it asks for the SQLite file path via the console.
- * The input is used to configure the datasource URL before the application fully boots up.
+ * java -jar app.jar --dms.db.path=data/dms.db --spring.profiles.active=lean
+ * The cds Maven profile builds a launcher with Spring AOT and a class data sharing archive (see pom.xml).
  */
 
 // Import Spring Boot application classes
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 // Import Scanner for reading input from the console
 import java.util.Scanner;
 
@@ -33,35 +39,41 @@ import java.util.Scanner;
 @SpringBootApplication
 public class AssigmentDmsPhase4Application {
 
+    /** Command-line argument that asks for the database path on the console before starting. */
+    static final String PROMPT_ARGUMENT = "--prompt";
+
     /**
      * The main method is the entry point of the Spring Boot application.
-     * It prompts the user to enter the SQLite database file path,
-     * validates the input, sets the Spring datasource URL property dynamically,
-     * and then launches the Spring Boot application.
+     * It launches the application with the database configured by the dms.db.path property.
+     * With the --prompt argument it first asks for the SQLite file path on the console,
+     * validates it and uses it as dms.db.path.
      *
      * @param args Command line arguments passed to the application.
      */
     public static void main(String[] args) {
-        // Create a Scanner object to read user input from the console
-        Scanner scanner = new Scanner(System.in);
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (arguments.remove(PROMPT_ARGUMENT)) {
+            // Create a Scanner object to read user input from the console
+            Scanner scanner = new Scanner(System.in);
 
-        // Prompt the user to enter the SQLite database file path
-        System.out.print("Enter SQLite file path: ");
+            // Prompt the user to enter the SQLite database file path
+            System.out.print("Enter SQLite file path: ");
 
-        // Read the user input as a string
-        String dbPath = scanner.nextLine();
+            // Read the user input; null when the input stream is closed
+            String dbPath = scanner.hasNextLine() ? scanner.nextLine() : null;
 
-        // Validate the input: check if the path is null or blank
-        if (dbPath == null || dbPath.isBlank()) {
-            // If input is invalid, display an error message and exit the program
-            System.out.println("Invalid path. Exiting.");
-            return;
-        }
+            // Validate the input: check if the path is null or blank
+            if (dbPath == null || dbPath.isBlank()) {
+                // If input is invalid, display an error message and exit the program
+                System.out.println("Invalid path. Exiting.");
+                return;
+            }
 
-        // Set the Spring datasource URL property dynamically using the entered file path
-        System.setProperty("spring.datasource.url", "jdbc:sqlite:" + dbPath);
+            // Command-line arguments take precedence over every other property source
+            arguments.add("--dms.db.path=" + dbPath.strip());
+        }
 
-        // Launch the Spring Boot application, passing command line arguments
-        SpringApplication.run(AssigmentDmsPhase4Application.class, args);
+        // Launch the Spring Boot application, passing the remaining command line arguments
+        SpringApplication.run(AssigmentDmsPhase4Application.class, arguments.toArray(String[]::new));
     }
 }
@@ -0,0 +1,70 @@
+// Package declaration: defines the package where this class belongs
+package com.addingdatabase.assigment_dms_phase4.config;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ * CacheConfig.java
+ *
+ * This class configures the in-process cache used by EmployeeService through Spring's cache
+ * abstraction (@Cacheable / @CacheEvict). Because the service only talks to the CacheManager
+ * interface, the cache provider can be swapped by replacing this bean.
+ *
+ * Key Features:
+ * - Off by default (dms.cache.enabled=false): a NoOpCacheManager is used and every lookup
+ *   goes to the database.
+ * - When enabled, the "employees" cache is a bounded Caffeine cache with size-based
+ *   (dms.cache.employees.max-size) and time-based (dms.cache.employees.expire-after-write)
+ *   eviction, recording hit/miss/eviction statistics.
+ */
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache configuration for employee lookups.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding Employee objects keyed by ID.
+     */
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    /**
+     * Creates the cache manager.
+     *
+     * @param enabled         whether caching is enabled
+     * @param maxSize         maximum number of employees kept in the cache
+     * @param expireAfterWrite how long an entry may be served after it was loaded
+     * @return a Caffeine cache manager, or a no-op cache manager when caching is disabled
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${dms.cache.enabled:false}") boolean enabled,
+                                     @Value("${dms.cache.employees.max-size:10000}") long maxSize,
+                                     @Value("${dms.cache.employees.expire-after-write:10m}") Duration expireAfterWrite) {
+        if (!enabled) {
+            return new NoOpCacheManager();
+        }
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EMPLOYEES_CACHE, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
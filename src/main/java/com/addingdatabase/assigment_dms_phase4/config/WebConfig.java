@@ -0,0 +1,44 @@
+// Package declaration: defines the package where this class belongs
+package com.addingdatabase.assigment_dms_phase4.config;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ * WebConfig.java
+ *
+ * This class customizes Spring MVC.
+ *
+ * Key Features:
+ * - Registers ServerTimingFilter as an interceptor, so it learns when the controller method has
+ *   returned and can report view rendering as its own Server-Timing phase.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.controller.ServerTimingFilter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ServerTimingFilter serverTimingFilter;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param serverTimingFilter the filter that also acts as the timing interceptor
+     */
+    public WebConfig(ServerTimingFilter serverTimingFilter) {
+        this.serverTimingFilter = serverTimingFilter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(serverTimingFilter);
+    }
+}
@@ -0,0 +1,556 @@
+package com.addingdatabase.assigment_dms_phase4.controller;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeApiController.java
+ *
+ * This class is the JSON REST API of the Data Management System, next to the HTML pages of
+ * EmployeeController. It is meant for scripts and pollers that read the employee list
+ * repeatedly and only want to move bytes when the data has changed.
+ *
+ * Key Features:
+ * - Strong ETags built from the table-level change counter (EmployeeChangeCounter). The tag
+ *   is checked against If-None-Match before any query runs, so an unchanged resource is
+ *   answered with 304 Not Modified without touching the database.
+ * - Field projection: "?fields=id,name" writes only those properties of each employee.
+ * - gzip Content-Encoding for clients that accept it, once a body reaches the minimum size.
+ *   The encoding is applied here rather than by the server, because the server does not
+ *   compress responses that carry a strong ETag; the tag differs per encoding.
+ * - The list uses the same keyset pagination and filters as the HTML list and returns the
+ *   cursors of the neighbouring pages.
+ * - A Server-Sent Events feed of committed changes (EmployeeChangeFeed), which clients resume
+ *   after a reconnect with the standard Last-Event-ID header.
+ *
+ * Mapped Endpoints:
+ * - GET    /api/employees        → One page of employees (sort, dir, size, after, before, filters, fields).
+ * - GET    /api/employees/{id}   → One employee (fields), 404 if it does not exist.
+ * - POST   /api/employees        → Create an employee; 201 with its Location.
+ * - PUT    /api/employees/{id}   → Replace an existing employee; 404 if it does not exist, 409 if the
+ *                                  body's version is not the current one (changed by someone else).
+ * - DELETE /api/employees/{id}   → Delete an employee; 204.
+ * - GET    /api/employees/tenure → The tenure report (employee counts per tenure bucket).
+ * - GET    /api/employees/payroll → The payroll report (headcount, total, mean, p50/p90/p99 salary).
+ * - GET    /api/employees/changes → text/event-stream of created, updated, deleted and resync events.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeField;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeePage;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.PayrollGroup;
+import com.addingdatabase.assigment_dms_phase4.model.PayrollReport;
+import com.addingdatabase.assigment_dms_phase4.model.TenureBucket;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeVersionConflictException;
+import com.addingdatabase.assigment_dms_phase4.repository.WriteRejectedException;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeChangeCounter;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeChangeFeed;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeService;
+import com.addingdatabase.assigment_dms_phase4.service.PayrollService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/employees")
+public class EmployeeApiController {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeApiController.class);
+
+    /**
+     * Seconds a client is asked to wait before retrying a write refused by the full write queue.
+     */
+    private static final int WRITE_RETRY_AFTER_SECONDS = 1;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private EmployeeChangeCounter changeCounter;
+
+    @Autowired
+    private EmployeeChangeFeed changeFeed;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Bodies smaller than this are sent uncompressed even to clients that accept gzip.
+     */
+    @Value("${dms.api.compression.min-size:1KB}")
+    private DataSize compressionMinSize;
+
+    /**
+     * A change feed connection is closed after this long; EventSource clients reconnect and resume.
+     */
+    @Value("${dms.feed.timeout:30m}")
+    private Duration feedTimeout;
+
+    /**
+     * Writes one page of employees: {"items": [...], "prev": cursor, "next": cursor}.
+     *
+     * @param sort       the column to sort by (id, name, salary or hire_date)
+     * @param dir        the sort direction (asc or desc)
+     * @param size       the number of rows per page
+     * @param after      cursor for the page after the given row, or null
+     * @param before     cursor for the page before the given row, or null
+     * @param department only list this department, or null for all
+     * @param active     only list active (true) or inactive (false) employees, or null for both
+     * @param hiredFrom  only list employees hired on or after this date, or null
+     * @param hiredTo    only list employees hired on or before this date, or null
+     * @param minSalary  only list employees earning at least this much, or null
+     * @param maxSalary  only list employees earning at most this much, or null
+     * @param fields     comma-separated properties to include, or null for all
+     * @param request    the current request
+     * @param response   the response the page is written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping
+    public void listEmployees(@RequestParam(value = "sort", required = false) String sort,
+                              @RequestParam(value = "dir", defaultValue = "asc") String dir,
+                              @RequestParam(value = "size", defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int size,
+                              @RequestParam(value = "after", required = false) String after,
+                              @RequestParam(value = "before", required = false) String before,
+                              @RequestParam(value = "department", required = false) String department,
+                              @RequestParam(value = "active", required = false) Boolean active,
+                              @RequestParam(value = "hiredFrom", required = false)
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+                              @RequestParam(value = "hiredTo", required = false)
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+                              @RequestParam(value = "minSalary", required = false) Double minSalary,
+                              @RequestParam(value = "maxSalary", required = false) Double maxSalary,
+                              @RequestParam(value = "fields", required = false) String fields,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Set<EmployeeField> projection = EmployeeField.parse(fields);
+        String etag = etag(changeCounter.getVersion(), request);
+        if (notModified(etag, request, response)) {
+            return;
+        }
+        EmployeePage page = employeeService.getEmployeePage(
+                EmployeeController.criteria(department, active, hiredFrom, hiredTo, minSalary, maxSalary),
+                EmployeeSortKey.fromParameter(sort), "desc".equalsIgnoreCase(dir), after, before, size);
+        send(request, response, HttpStatus.OK, json -> {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+            for (Employee e : page.getEmployees()) {
+                writeEmployee(json, e, projection);
+            }
+            json.writeEndArray();
+            json.writeStringField("prev", page.getPrevCursor());
+            json.writeStringField("next", page.getNextCursor());
+            json.writeEndObject();
+        });
+    }
+
+    /**
+     * Writes one employee.
+     *
+     * @param id       the ID of the employee
+     * @param fields   comma-separated properties to include, or null for all
+     * @param request  the current request
+     * @param response the response the employee is written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/{id}")
+    public void getEmployee(@PathVariable("id") Long id,
+                            @RequestParam(value = "fields", required = false) String fields,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Set<EmployeeField> projection = EmployeeField.parse(fields);
+        String etag = etag(changeCounter.getVersion(), request);
+        if (notModified(etag, request, response)) {
+            return;
+        }
+        Employee employee = existing(id);
+        send(request, response, HttpStatus.OK, json -> writeEmployee(json, employee, projection));
+    }
+
+    /**
+     * Creates an employee. Any ID in the body is ignored.
+     *
+     * @param employee the employee to create
+     * @param request  the current request
+     * @param response the response the created employee is written to
+     * @throws IOException if writing the response fails
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void createEmployee(@Valid @RequestBody Employee employee,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        employee.setId(null);
+        employeeService.saveEmployee(employee);
+        response.setHeader(HttpHeaders.LOCATION, request.getRequestURI() + "/" + employee.getId());
+        send(request, response, HttpStatus.CREATED, json -> writeEmployee(json, employee, EmployeeField.parse(null)));
+    }
+
+    /**
+     * Replaces an existing employee. The body carries the version of the employee the change is
+     * based on, as returned by a GET; if the employee has been changed since, nothing is written
+     * and the answer is 409 Conflict. If there is no such employee, or it is deleted before the
+     * update is written, the answer is 404.
+     *
+     * @param id       the ID of the employee
+     * @param employee the new values and the version they are based on; any ID in the body is ignored
+     * @param request  the current request
+     * @param response the response the saved employee is written to
+     * @throws IOException if writing the response fails
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void updateEmployee(@PathVariable("id") Long id, @Valid @RequestBody Employee employee,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        employee.setId(id);
+        if (!employeeService.saveEmployee(employee)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No employee " + id);
+        }
+        send(request, response, HttpStatus.OK, json -> writeEmployee(json, employee, EmployeeField.parse(null)));
+    }
+
+    /**
+     * Deletes an employee. Deleting an ID that does not exist also answers 204.
+     *
+     * @param id the ID of the employee
+     * @return an empty 204 response
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteEmployee(@PathVariable("id") Long id) {
+        employeeService.deleteEmployee(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Writes the tenure report: one object per bucket with its label, year range and count.
+     * The tag also names the current day, because the buckets move with the date.
+     *
+     * @param request  the current request
+     * @param response the response the report is written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/tenure")
+    public void tenureReport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = etag(changeCounter.getVersion() + "." + LocalDate.now(), request);
+        if (notModified(etag, request, response)) {
+            return;
+        }
+        List<TenureBucket> buckets = employeeService.getTenureReport();
+        send(request, response, HttpStatus.OK, json -> {
+            json.writeStartArray();
+            for (TenureBucket bucket : buckets) {
+                json.writeStartObject();
+                json.writeNumberField("index", bucket.getIndex());
+                json.writeStringField("label", bucket.getLabel());
+                json.writeNumberField("minYears", bucket.getMinYears());
+                if (bucket.getMaxYears() != null) {
+                    json.writeNumberField("maxYears", bucket.getMaxYears());
+                } else {
+                    json.writeNullField("maxYears");
+                }
+                json.writeNumberField("count", bucket.getCount());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        });
+    }
+
+    /**
+     * Writes the payroll report: {"total": row, "departments": [row, ...], "groups": [row, ...]}, where
+     * a row has department, active (null when it covers both), headcount, totalSalary, meanSalary, p50,
+     * p90 and p99. The salary statistics of a row without employees are null.
+     *
+     * @param request  the current request
+     * @param response the response the report is written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/payroll")
+    public void payrollReport(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = etag(changeCounter.getVersion(), request);
+        if (notModified(etag, request, response)) {
+            return;
+        }
+        PayrollReport report = payrollService.getReport();
+        send(request, response, HttpStatus.OK, json -> {
+            json.writeStartObject();
+            json.writeFieldName("total");
+            writePayrollGroup(json, report.getTotal());
+            json.writeArrayFieldStart("departments");
+            for (PayrollGroup group : report.getDepartments()) {
+                writePayrollGroup(json, group);
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("groups");
+            for (PayrollGroup group : report.getGroups()) {
+                writePayrollGroup(json, group);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        });
+    }
+
+    /**
+     * Streams the committed changes as Server-Sent Events. Each event has the feed ID as its id, the
+     * change type (created, updated, deleted) as its name and {"type", "id", "version", "employee"} as its
+     * data. A created or updated event is only applied if its version is newer than the client's copy.
+     * A "resync" event asks the client to fetch the list again and then apply the events that follow;
+     * it is sent first to a new client, and instead of the missed changes when the client fell too far
+     * behind or its Last-Event-ID is no longer known.
+     *
+     * @param lastEventId the ID of the last event the client received, sent by EventSource on reconnect
+     * @return the event stream
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(feedTimeout.toMillis());
+        EmployeeChangeFeed.Subscription subscription = changeFeed.subscribe(lastEventId, new EmployeeChangeFeed.Sink() {
+            @Override
+            public void send(EmployeeChangeFeed.FeedEvent event) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(event.getId())
+                        .name(event.getName())
+                        .data(event.getData(), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(ex -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * Answers malformed cursors, unknown fields and future hire dates with 400 Bad Request.
+     *
+     * @param ex the rejection
+     * @return the 400 response
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+    }
+
+    /**
+     * Answers an update based on an outdated version with 409 Conflict; the client reads the
+     * employee again and reapplies its change.
+     *
+     * @param ex the refusal
+     * @return the 409 response
+     */
+    @ExceptionHandler(EmployeeVersionConflictException.class)
+    public ResponseEntity<String> versionConflict(EmployeeVersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.TEXT_PLAIN).body(ex.getMessage());
+    }
+
+    /**
+     * Answers a write refused by the full write queue with 503 Service Unavailable and a
+     * Retry-After header.
+     *
+     * @param ex the rejection
+     * @return the 503 response
+     */
+    @ExceptionHandler(WriteRejectedException.class)
+    public ResponseEntity<String> writeRejected(WriteRejectedException ex) {
+        log.warn("Write rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(WRITE_RETRY_AFTER_SECONDS))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Looks up an employee that must exist.
+     *
+     * @param id the ID of the employee
+     * @return the employee
+     * @throws ResponseStatusException with 404 if there is no such employee
+     */
+    private Employee existing(Long id) {
+        Employee employee = employeeService.getEmployeeById(id);
+        if (employee == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No employee " + id);
+        }
+        return employee;
+    }
+
+    /**
+     * Builds the strong ETag of a resource version. A gzip-encoded body is a different
+     * representation, so it gets its own tag.
+     *
+     * @param version the version of the data the resource is built from
+     * @param request the current request
+     * @return the quoted entity tag
+     */
+    private static String etag(String version, HttpServletRequest request) {
+        return "\"" + version + (acceptsGzip(request) ? "-gzip" : "") + "\"";
+    }
+
+    /**
+     * Sets the validation headers and answers 304 Not Modified if the client already holds
+     * the tagged representation.
+     *
+     * @param etag     the current entity tag
+     * @param request  the current request
+     * @param response the current response
+     * @return true if a 304 has been sent and no body must be written
+     */
+    private static boolean notModified(String etag, HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Let caches keep the body but revalidate it on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    /**
+     * Writes a JSON body, gzip-encoded if the client accepts it and the body is large enough.
+     * The body is generated into memory first (API bodies are at most one page), so the
+     * response carries a Content-Length.
+     *
+     * @param request  the current request
+     * @param response the response to write
+     * @param status   the response status
+     * @param body     writes the JSON value
+     * @throws IOException if writing the response fails
+     */
+    private void send(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                      JsonBody body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(buffer)) {
+            body.write(json);
+        }
+
+        byte[] bytes = buffer.toByteArray();
+        if (acceptsGzip(request) && bytes.length >= compressionMinSize.toBytes()) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    /**
+     * Writes an employee object with the selected properties.
+     *
+     * @param json   the generator
+     * @param e      the employee
+     * @param fields the properties to write
+     * @throws IOException if writing fails
+     */
+    private static void writeEmployee(JsonGenerator json, Employee e, Set<EmployeeField> fields) throws IOException {
+        json.writeStartObject();
+        for (EmployeeField field : fields) {
+            json.writeFieldName(field.getProperty());
+            switch (field) {
+                case ID:
+                    json.writeNumber(e.getId());
+                    break;
+                case NAME:
+                    json.writeString(e.getName());
+                    break;
+                case POSITION:
+                    json.writeString(e.getPosition());
+                    break;
+                case SALARY:
+                    json.writeNumber(e.getSalary());
+                    break;
+                case HIRE_DATE:
+                    json.writeString(e.getHireDate().toString());
+                    break;
+                case DEPARTMENT:
+                    json.writeString(e.getDepartment());
+                    break;
+                case ACTIVE:
+                    json.writeBoolean(e.isActive());
+                    break;
+                case VERSION:
+                    json.writeNumber(e.getVersion());
+                    break;
+            }
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes one row of the payroll report.
+     *
+     * @param json  the generator
+     * @param group the row
+     * @throws IOException if writing fails
+     */
+    private static void writePayrollGroup(JsonGenerator json, PayrollGroup group) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("department", group.getDepartment());
+        if (group.getActive() != null) {
+            json.writeBooleanField("active", group.getActive());
+        } else {
+            json.writeNullField("active");
+        }
+        json.writeNumberField("headcount", group.getHeadcount());
+        json.writeNumberField("totalSalary", group.getTotalSalary());
+        writeSalary(json, "meanSalary", group.getMeanSalary());
+        writeSalary(json, "p50", group.getP50());
+        writeSalary(json, "p90", group.getP90());
+        writeSalary(json, "p99", group.getP99());
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes a salary statistic, or null for the NaN of a group without employees (JSON has no NaN).
+     */
+    private static void writeSalary(JsonGenerator json, String field, double value) throws IOException {
+        if (Double.isNaN(value)) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    /**
+     * Writes a JSON value to a generator.
+     */
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonGenerator json) throws IOException;
+    }
+}
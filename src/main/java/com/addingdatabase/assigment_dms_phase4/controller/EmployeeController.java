@@ -19,48 +19,245 @@ package com.addingdatabase.assigment_dms_phase4.controller;
  * - Uses Model to pass data between the controller and HTML view templates.
  * - Supports form submission using @ModelAttribute and path variables using @PathVariable.
  * - Redirects users appropriately after data-modifying actions to maintain navigation flow.
+ * - Answers writes refused by the full write queue (WriteRejectedException) with 503 and Retry-After.
+ * - Shows the edit form again with an error when the employee was changed by someone else while
+ *   it was being edited (the form carries the version it was opened with).
  *
  * Mapped Endpoints:
- * - GET /employees       → Display a list of all employees.
+ * - GET /employees       → Display one page of employees (keyset-paginated, sortable, filterable by
+ *                          department, active, hire-date range and salary range through indexed SQL).
+ * - GET /employees/all   → Stream every employee, rendering and flushing rows as they are read.
+ * - GET /employees/export → Stream employees as CSV or NDJSON (same optional filters as the list, gzip).
+ * - GET /employees/search → Ranked full-text / type-ahead search over name, position and department (JSON).
  * - GET /add             → Show form to add a new employee.
  * - POST /save           → Save a new or updated employee.
+ * - GET /import          → Show the bulk import form.
+ * - POST /import         → Bulk import a CSV or NDJSON upload and show the import report.
  * - GET /update/{id}     → Show form to update an existing employee.
  * - GET /delete/{id}     → Delete an employee by ID.
- * - GET /tenure          → Display employee tenure report.
+ * - POST /employees/delete → Delete the selected employees (ids parameter) in one transaction.
+ * - GET /tenure          → Display the tenure report (employee counts per tenure bucket).
+ * - GET /tenure/{bucket}/members → One page of a tenure bucket's members (HTML fragment, loaded on expand).
  * - GET /                → Display the home page.
+ * The JSON API under /api/employees (ETags, gzip, field projection) is in EmployeeApiController.
  */
 
 import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeFileFormat;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeePage;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.TenureBucket;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeVersionConflictException;
+import com.addingdatabase.assigment_dms_phase4.repository.WriteRejectedException;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeExportService;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeImportService;
 import com.addingdatabase.assigment_dms_phase4.service.EmployeeService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 public class EmployeeController {
 
+    private static final Logger log = LoggerFactory.getLogger(EmployeeController.class);
+
+    /**
+     * Seconds a client is asked to wait before retrying a write refused by the full write queue.
+     */
+    private static final int WRITE_RETRY_AFTER_SECONDS = 1;
+
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @Autowired
+    private EmployeeExportService employeeExportService;
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
     /**
-     * Displays a list of all employees.
+     * Number of table rows rendered between two flushes of the streamed employee list.
+     */
+    @Value("${dms.stream.flush-rows:200}")
+    private int streamFlushRows;
+
+    /**
+     * Displays one page of employees. Pages are keyset-paginated: the next/previous links carry
+     * an opaque cursor of the boundary row instead of an offset. The optional filters become
+     * WHERE predicates served by the department/active, hire_date and salary indexes.
      *
-     * @param model the Spring Model used to pass data to the view
+     * @param sort       the column to sort by (id, name, salary or hire_date)
+     * @param dir        the sort direction (asc or desc)
+     * @param size       the number of rows per page
+     * @param after      cursor for the page after the given row, or null
+     * @param before     cursor for the page before the given row, or null
+     * @param department only list this department, or null for all
+     * @param active     only list active (true) or inactive (false) employees, or null for both
+     * @param hiredFrom  only list employees hired on or after this date, or null
+     * @param hiredTo    only list employees hired on or before this date, or null
+     * @param minSalary  only list employees earning at least this much, or null
+     * @param maxSalary  only list employees earning at most this much, or null
+     * @param model      the Spring Model used to pass data to the view
      * @return the name of the view that displays the employee list
      */
     @GetMapping("/employees")
-    public String listEmployees(Model model) {
-        List<Employee> employees = employeeService.getAllEmployees();
-        model.addAttribute("employees", employees);
+    public String listEmployees(@RequestParam(value = "sort", required = false) String sort,
+                                @RequestParam(value = "dir", defaultValue = "asc") String dir,
+                                @RequestParam(value = "size", defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int size,
+                                @RequestParam(value = "after", required = false) String after,
+                                @RequestParam(value = "before", required = false) String before,
+                                @RequestParam(value = "department", required = false) String department,
+                                @RequestParam(value = "active", required = false) Boolean active,
+                                @RequestParam(value = "hiredFrom", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+                                @RequestParam(value = "hiredTo", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+                                @RequestParam(value = "minSalary", required = false) Double minSalary,
+                                @RequestParam(value = "maxSalary", required = false) Double maxSalary,
+                                Model model) {
+        EmployeeCriteria filter = criteria(department, active, hiredFrom, hiredTo, minSalary, maxSalary);
+        EmployeePage page;
+        try {
+            page = employeeService.getEmployeePage(filter, EmployeeSortKey.fromParameter(sort),
+                    "desc".equalsIgnoreCase(dir), after, before, size);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor", ex);
+        }
+        model.addAttribute("employees", page.getEmployees());
+        model.addAttribute("page", page);
+        model.addAttribute("filter", filter);
         return "employeeList";
     }
 
+    /**
+     * Streams the complete employee list. The employeeList template is rendered straight to the
+     * response while rows are read from a database cursor, and the output is flushed every
+     * {@code dms.stream.flush-rows} rows, so the first bytes leave before the last row is read
+     * and no list of all employees is ever built.
+     *
+     * @param request  the current request
+     * @param response the response the page is written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/employees/all")
+    public void streamEmployees(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/html;charset=UTF-8");
+        PrintWriter writer = response.getWriter();
+
+        WebContext context = new WebContext(JakartaServletWebApplication
+                .buildApplication(request.getServletContext())
+                .buildExchange(request, response), request.getLocale());
+        // Headers link back to the paginated view; there are no previous/next pages in this mode
+        context.setVariable("page", new EmployeePage(List.of(), EmployeeSortKey.ID, false,
+                EmployeeService.DEFAULT_PAGE_SIZE, null, null));
+        context.setVariable("filter", EmployeeCriteria.all());
+
+        try (Stream<Employee> employees = employeeService.streamAllEmployees()) {
+            context.setVariable("employees", new FlushingIterator(employees.iterator(), writer, streamFlushRows));
+            templateEngine.process("employeeList", context, writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Exports employees as CSV or NDJSON, written row by row from a database cursor.
+     * The body is gzip-compressed when {@code gzip=true} (downloaded as a .gz file) or when the
+     * client sends {@code Accept-Encoding: gzip} (transparent Content-Encoding).
+     *
+     * @param format     the output format (csv or ndjson)
+     * @param department only export this department, or null for all
+     * @param active     only export active (true) or inactive (false) employees, or null for both
+     * @param hiredFrom  only export employees hired on or after this date, or null
+     * @param hiredTo    only export employees hired on or before this date, or null
+     * @param minSalary  only export employees earning at least this much, or null
+     * @param maxSalary  only export employees earning at most this much, or null
+     * @param gzip       true to download a gzip-compressed file
+     * @param request    the current request
+     * @param response   the response the export is written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/employees/export")
+    public void exportEmployees(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                @RequestParam(value = "department", required = false) String department,
+                                @RequestParam(value = "active", required = false) Boolean active,
+                                @RequestParam(value = "hiredFrom", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredFrom,
+                                @RequestParam(value = "hiredTo", required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hiredTo,
+                                @RequestParam(value = "minSalary", required = false) Double minSalary,
+                                @RequestParam(value = "maxSalary", required = false) Double maxSalary,
+                                @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        EmployeeCriteria filter = criteria(department, active, hiredFrom, hiredTo, minSalary, maxSalary);
+        EmployeeFileFormat fileFormat = EmployeeFileFormat.detect(format, null);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean contentEncoding = !gzip && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        String filename = "employees." + fileFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : fileFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (contentEncoding) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        OutputStream out = response.getOutputStream();
+        if (gzip || contentEncoding) {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+            employeeExportService.export(filter, fileFormat, compressed);
+            compressed.finish();
+        } else {
+            employeeExportService.export(filter, fileFormat, out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Searches employees by name, position and department for the type-ahead box.
+     * Each word matches as a prefix; results are ranked best first.
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of results
+     * @return the matching employees as JSON
+     */
+    @GetMapping("/employees/search")
+    @ResponseBody
+    public List<Employee> searchEmployees(@RequestParam(value = "q", defaultValue = "") String query,
+                                          @RequestParam(value = "limit", defaultValue = "" + EmployeeService.DEFAULT_SEARCH_LIMIT) int limit) {
+        return employeeService.searchEmployees(query, limit);
+    }
+
     /**
      * Displays the form to add a new employee.
      *
@@ -74,7 +271,10 @@ public class EmployeeController {
     }
 
     /**
-     * Saves a new or existing employee.
+     * Saves a new or existing employee. If the employee was changed by someone else after the form
+     * was opened, nothing is saved and the form shows the current values with an error, so the
+     * user can reapply their change. If it was deleted meanwhile, nothing is saved either and the
+     * form keeps the user's values with an error.
      *
      * @param employee the employee object to be saved
      * @param model the Spring Model used to pass error messages to the view
@@ -87,10 +287,71 @@ public class EmployeeController {
             return "employeeForm";
         }
 
-        employeeService.saveEmployee(employee);
+        try {
+            if (!employeeService.saveEmployee(employee)) {
+                return deletedWhileEditing(model);
+            }
+        } catch (EmployeeVersionConflictException ex) {
+            Employee current = employeeService.getEmployeeById(employee.getId());
+            if (current == null) {
+                return deletedWhileEditing(model);
+            }
+            model.addAttribute("employee", current);
+            model.addAttribute("conflictError", "This employee was changed by someone else while you were editing."
+                    + " The form now shows the saved values; apply your changes again and save.");
+            return "employeeForm";
+        }
         return "redirect:/employees";
     }
 
+    /**
+     * Shows the form again with an error for an employee deleted while it was being edited.
+     *
+     * @param model the Spring Model used to pass the error to the view
+     * @return the name of the form view
+     */
+    private String deletedWhileEditing(Model model) {
+        model.addAttribute("conflictError", "This employee was deleted by someone else while you were editing."
+                + " Nothing was saved.");
+        return "employeeForm";
+    }
+
+    /**
+     * Displays the bulk import form.
+     *
+     * @return the name of the import view
+     */
+    @GetMapping("/import")
+    public String showImportForm() {
+        return "employeeImport";
+    }
+
+    /**
+     * Bulk imports employees from an uploaded CSV or NDJSON file.
+     *
+     * @param file   the uploaded file
+     * @param format the file format (csv or ndjson); detected from the file name when empty
+     * @param model  the Spring Model used to pass the import report or error to the view
+     * @return the name of the import view, showing the report
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping("/import")
+    public String importEmployees(@RequestParam("file") MultipartFile file,
+                                  @RequestParam(value = "format", required = false) String format,
+                                  Model model) throws IOException {
+        if (file.isEmpty()) {
+            model.addAttribute("importError", "Please choose a file to import.");
+            return "employeeImport";
+        }
+        try {
+            model.addAttribute("report", employeeImportService.importEmployees(file.getInputStream(),
+                    EmployeeFileFormat.detect(format, file.getOriginalFilename())));
+        } catch (IllegalArgumentException ex) {
+            model.addAttribute("importError", ex.getMessage());
+        }
+        return "employeeImport";
+    }
+
     /**
      * Displays the form to update an existing employee.
      *
@@ -100,7 +361,7 @@ public class EmployeeController {
      */
     @GetMapping("/update/{id}")
     public String showUpdateForm(@PathVariable("id") Long id, Model model) {
-        System.out.println("Update request for employee id: " + id);
+        log.debug("Update request for employee id: {}", id);
         Employee employee = employeeService.getEmployeeById(id);
         if (employee == null) {
             return "redirect:/employees";
@@ -122,18 +383,61 @@ public class EmployeeController {
     }
 
     /**
-     * Displays a report that groups employees by tenure.
+     * Deletes the employees selected on the list page, in one transaction.
      *
-     * @param model the Spring Model used to pass tenure group data to the view
+     * @param ids the IDs of the employees to delete; none selected deletes nothing
+     * @return redirect to the employee list page
+     */
+    @PostMapping("/employees/delete")
+    public String deleteEmployees(@RequestParam(value = "ids", required = false) List<Long> ids) {
+        if (ids != null && !ids.isEmpty()) {
+            log.debug("Bulk delete request for {} employees", ids.size());
+            employeeService.deleteEmployees(ids);
+        }
+        return "redirect:/employees";
+    }
+
+    /**
+     * Displays a report that groups employees by tenure. Only the bucket counts are rendered;
+     * the members of a bucket are fetched from /tenure/{bucket}/members when it is expanded.
+     *
+     * @param model the Spring Model used to pass tenure bucket data to the view
      * @return the name of the view that displays the tenure report
      */
     @GetMapping("/tenure")
     public String showTenureReport(Model model) {
-        Map<String, List<Employee>> tenureGroups = employeeService.getEmployeesGroupedByTenure();
-        model.addAttribute("tenureGroups", tenureGroups);
+        List<TenureBucket> buckets = employeeService.getTenureReport();
+        model.addAttribute("buckets", buckets);
+        model.addAttribute("total", buckets.stream().mapToLong(TenureBucket::getCount).sum());
         return "tenureReport";
     }
 
+    /**
+     * Renders one page of the members of a tenure bucket as an HTML fragment of table rows,
+     * ending with a "load more" row when another page follows.
+     *
+     * @param bucket the bucket index
+     * @param after  cursor of the last row already shown, or null for the first page
+     * @param size   the number of rows per page
+     * @param model  the Spring Model used to pass the page to the fragment
+     * @return the fragment that renders the rows
+     */
+    @GetMapping("/tenure/{bucket}/members")
+    public String showTenureBucketMembers(@PathVariable("bucket") int bucket,
+                                          @RequestParam(value = "after", required = false) String after,
+                                          @RequestParam(value = "size", defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int size,
+                                          Model model) {
+        EmployeePage page;
+        try {
+            page = employeeService.getTenureBucketPage(bucket, after, size);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid tenure bucket or cursor", ex);
+        }
+        model.addAttribute("bucket", bucket);
+        model.addAttribute("page", page);
+        return "tenureReport :: members";
+    }
+
     /**
      * Displays the home page of the application.
      *
@@ -143,4 +447,76 @@ public class EmployeeController {
     public String home() {
         return "index";
     }
+
+    /**
+     * Answers a write refused by the full write queue with 503 Service Unavailable and a
+     * Retry-After header, so clients back off instead of seeing a generic error page.
+     *
+     * @param ex the rejection
+     * @return the 503 response
+     */
+    @ExceptionHandler(WriteRejectedException.class)
+    public ResponseEntity<String> writeRejected(WriteRejectedException ex) {
+        log.warn("Write rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(WRITE_RETRY_AFTER_SECONDS))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Iterator wrapper that flushes the response writer every {@code flushRows} elements,
+     * pushing each rendered chunk of table rows to the client as an HTTP chunk.
+     */
+    private static final class FlushingIterator implements Iterator<Employee> {
+
+        private final Iterator<Employee> delegate;
+        private final PrintWriter writer;
+        private final int flushRows;
+        private int count;
+
+        FlushingIterator(Iterator<Employee> delegate, PrintWriter writer, int flushRows) {
+            this.delegate = delegate;
+            this.writer = writer;
+            this.flushRows = Math.max(1, flushRows);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Employee next() {
+            if (++count % flushRows == 0) {
+                writer.flush();
+                if (writer.checkError()) {
+                    throw new UncheckedIOException(new IOException("Client aborted the streamed employee list"));
+                }
+            }
+            return delegate.next();
+        }
+    }
+
+    /**
+     * Builds employee criteria from optional request parameters.
+     *
+     * @param department the department filter, may be null or blank
+     * @param active     the active-status filter, may be null
+     * @param hiredFrom  the inclusive lower hire-date bound, may be null
+     * @param hiredTo    the inclusive upper hire-date bound, may be null
+     * @param minSalary  the inclusive lower salary bound, may be null
+     * @param maxSalary  the inclusive upper salary bound, may be null
+     * @return the criteria
+     */
+    static EmployeeCriteria criteria(String department, Boolean active, LocalDate hiredFrom,
+                                     LocalDate hiredTo, Double minSalary, Double maxSalary) {
+        return EmployeeCriteria.all()
+                .setDepartment(department)
+                .setActive(active)
+                .setHiredFrom(hiredFrom)
+                .setHiredTo(hiredTo)
+                .setMinSalary(minSalary)
+                .setMaxSalary(maxSalary);
+    }
 }
@@ -0,0 +1,134 @@
+package com.addingdatabase.assigment_dms_phase4.controller;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * ServerTimingFilter.java
+ *
+ * This filter traces every request and reports where its time went in an HTTP Server-Timing header,
+ * which browsers show in the network panel of their developer tools.
+ *
+ * Key Features:
+ * - Off by default (dms.trace.server-timing.enabled): the header tells every client how long the
+ *   database took, and buffering holds back each response body, so it is meant for development and
+ *   diagnosis, not for production traffic.
+ * - Starts a SqlTrace for the request, so every statement EmployeeRepository runs is recorded.
+ * - Reports the phases conn (waiting for pooled connections), sql (executing statements),
+ *   map (turning rows into Employee objects), render (view rendering, measured from the end of
+ *   the controller method) and total, e.g.
+ *   {@code conn;dur=0.05, sql;dur=3.10;desc="2 statements, 51 rows", map;dur=0.40, render;dur=7.90, total;dur=12.30}.
+ * - The body is buffered (up to dms.trace.server-timing.buffer-size) so the header can follow the
+ *   rendering; streamed responses send it with their first flush instead (see ServerTimingResponse).
+ * - Logs each request's statements with their duration and row count at DEBUG.
+ * - Also registered as a Spring MVC interceptor (see WebConfig) to mark the end of the controller method.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.repository.SqlTrace;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.IOException;
+import java.util.Locale;
+
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    /**
+     * Request attribute holding the System.nanoTime() at which the controller method returned.
+     */
+    private static final String HANDLED_AT = ServerTimingFilter.class.getName() + ".handledAt";
+
+    private final boolean enabled;
+    private final int bufferSize;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param enabled    whether requests are traced and the header is sent
+     * @param bufferSize the largest response body held back for the header
+     */
+    public ServerTimingFilter(@Value("${dms.trace.server-timing.enabled:false}") boolean enabled,
+                              @Value("${dms.trace.server-timing.buffer-size:256KB}") DataSize bufferSize) {
+        this.enabled = enabled;
+        this.bufferSize = (int) bufferSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        SqlTrace trace = SqlTrace.begin();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, bufferSize,
+                () -> serverTiming(request, trace, start));
+        try {
+            chain.doFilter(request, timedResponse);
+            timedResponse.finish();
+        } finally {
+            trace.end();
+            if (log.isDebugEnabled()) {
+                logStatements(request, trace, start);
+            }
+        }
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        request.setAttribute(HANDLED_AT, System.nanoTime());
+    }
+
+    /**
+     * Builds the Server-Timing value from the phases measured so far.
+     */
+    private static String serverTiming(HttpServletRequest request, SqlTrace trace, long start) {
+        long now = System.nanoTime();
+        StringBuilder header = new StringBuilder(160);
+        appendMetric(header, "conn", trace.getConnectNanos(), null);
+        appendMetric(header, "sql", trace.getSqlNanos(),
+                trace.getStatementCount() + " statements, " + trace.getRows() + " rows");
+        appendMetric(header, "map", trace.getMapNanos(), null);
+        if (request.getAttribute(HANDLED_AT) instanceof Long handledAt) {
+            appendMetric(header, "render", now - handledAt, null);
+        }
+        appendMetric(header, "total", now - start, null);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos, String description) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0));
+        if (description != null) {
+            header.append(";desc=\"").append(description).append('"');
+        }
+    }
+
+    private static void logStatements(HttpServletRequest request, SqlTrace trace, long start) {
+        log.debug("{} {}: {} statements, {} rows in {} ms", request.getMethod(), request.getRequestURI(),
+                trace.getStatementCount(), trace.getRows(), (System.nanoTime() - start) / 1_000_000);
+        for (SqlTrace.TracedStatement statement : trace.getStatements()) {
+            log.debug("  {} us, {} rows: {}", statement.getNanos() / 1_000, statement.getRows(), statement.getSql());
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.addingdatabase.assigment_dms_phase4.controller;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * ServerTimingResponse.java
+ *
+ * This class holds back the body of a response so that a Server-Timing header, which can only be
+ * computed once the work is done, can still be sent in front of it.
+ *
+ * Key Features:
+ * - Buffers up to a fixed number of bytes; at the end of the request the header is set and the
+ *   buffered body written out.
+ * - Streamed responses are not delayed: an explicit flush, or a body larger than the buffer,
+ *   sends the header with the timings known at that point and switches to pass-through.
+ * - Redirects and errors get the header before they are sent.
+ * - Non-blocking output (a WriteListener, e.g. from an async request) sends the header and the
+ *   buffered body and then writes straight to the wrapped stream.
+ */
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+class ServerTimingResponse extends HttpServletResponseWrapper {
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final Supplier<String> serverTiming;
+    private final int bufferLimit;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private boolean released;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * Wraps a response.
+     *
+     * @param response     the response to wrap
+     * @param bufferLimit  the largest body held back, in bytes
+     * @param serverTiming computes the header value when it is sent
+     */
+    ServerTimingResponse(HttpServletResponse response, int bufferLimit, Supplier<String> serverTiming) {
+        super(response);
+        this.bufferLimit = bufferLimit;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new BufferingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (outputStream != null && writer == null) {
+            throw new IllegalStateException("getOutputStream() has already been called");
+        }
+        if (writer == null) {
+            outputStream = new BufferingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        release();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (!released) {
+            buffer.reset();
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (!released) {
+            buffer.reset();
+        }
+        super.reset();
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        addServerTiming();
+        released = true;
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        addServerTiming();
+        released = true;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        addServerTiming();
+        released = true;
+        super.sendError(sc);
+    }
+
+    /**
+     * Sends the header and whatever is still buffered. Called once the request has been handled.
+     *
+     * @throws IOException if writing the body fails
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        release();
+    }
+
+    private void release() throws IOException {
+        if (released) {
+            return;
+        }
+        released = true;
+        addServerTiming();
+        if (buffer.size() > 0) {
+            buffer.writeTo(getResponse().getOutputStream());
+            buffer.reset();
+        }
+    }
+
+    private void addServerTiming() {
+        if (!isCommitted()) {
+            setHeader(SERVER_TIMING, serverTiming.get());
+        }
+    }
+
+    /**
+     * Writes into the buffer until it is released, then straight to the real response.
+     */
+    private class BufferingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (released) {
+                getResponse().getOutputStream().write(b);
+                return;
+            }
+            buffer.write(b);
+            if (buffer.size() > bufferLimit) {
+                release();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (released) {
+                getResponse().getOutputStream().write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            if (buffer.size() > bufferLimit) {
+                release();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // An explicit flush means the caller is streaming: stop holding the body back
+            release();
+            getResponse().getOutputStream().flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (!released) {
+                return true;
+            }
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            // The container calls the listener for the wrapped stream, so stop buffering first
+            try {
+                release();
+                getResponse().getOutputStream().setWriteListener(listener);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
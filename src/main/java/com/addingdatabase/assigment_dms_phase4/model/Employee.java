@@ -15,6 +15,8 @@ package com.addingdatabase.assigment_dms_phase4.model;
  * - Maps employee-related data fields such as name, position, salary, hire date, department, and active status.
  * - Enforces data validation rules using Jakarta Bean Validation annotations.
  * - Uses a custom attribute converter (LocalDateAttributeConverter) for persisting LocalDate fields.
+ * - Carries the row version (optimistic concurrency): an update only applies if the row still has
+ *   the version the employee was read with, and then increments it.
  * - Provides multiple constructors and accessor methods.
  * - Supports CRUD operations through service and repository layers.
  */
@@ -56,6 +58,10 @@ public class Employee {
     @Column(nullable = false)
     private boolean active;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     /**
      * Default constructor required by JPA.
      */
@@ -226,4 +232,23 @@ public class Employee {
     public void setActive(boolean active) {
         this.active = active;
     }
+
+    /**
+     * Gets the version of the row this employee was read from (0 for a new employee).
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the row this employee was read from; an update is refused if the row
+     * has changed since.
+     *
+     * @param version the version to set
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
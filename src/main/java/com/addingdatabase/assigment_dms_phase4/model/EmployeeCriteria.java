@@ -0,0 +1,160 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeCriteria.java
+ *
+ * This class holds optional filters for employee queries. Every filter left as null
+ * is ignored, so an empty criteria object matches all employees.
+ *
+ * Key Features:
+ * - Filters by department (exact match) and active status.
+ * - Filters by hire-date and salary ranges (both bounds inclusive, either may be left open).
+ * - Used by the repository to build a parameterized WHERE clause. Department (with or without
+ *   active), hire-date and salary filters are each served by an index; see
+ *   db/migration/V2__employee_sort_indexes.sql and V3__employee_filter_indexes.sql.
+ */
+import java.time.LocalDate;
+
+public class EmployeeCriteria {
+
+    private String department;
+    private Boolean active;
+    private LocalDate hiredFrom;
+    private LocalDate hiredTo;
+    private Double minSalary;
+    private Double maxSalary;
+
+    /**
+     * Creates criteria that match every employee.
+     *
+     * @return empty criteria
+     */
+    public static EmployeeCriteria all() {
+        return new EmployeeCriteria();
+    }
+
+    /**
+     * Gets the department filter.
+     *
+     * @return the department, or null for any department
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    /**
+     * Sets the department filter; blank values clear it.
+     *
+     * @param department the department to match, or null for any department
+     * @return this criteria, for chaining
+     */
+    public EmployeeCriteria setDepartment(String department) {
+        this.department = (department == null || department.isBlank()) ? null : department.trim();
+        return this;
+    }
+
+    /**
+     * Gets the active-status filter.
+     *
+     * @return true or false to match that status, or null for both
+     */
+    public Boolean getActive() {
+        return active;
+    }
+
+    /**
+     * Sets the active-status filter.
+     *
+     * @param active true or false to match that status, or null for both
+     * @return this criteria, for chaining
+     */
+    public EmployeeCriteria setActive(Boolean active) {
+        this.active = active;
+        return this;
+    }
+
+    /**
+     * Gets the first hire date that matches.
+     *
+     * @return the inclusive lower hire-date bound, or null for no lower bound
+     */
+    public LocalDate getHiredFrom() {
+        return hiredFrom;
+    }
+
+    /**
+     * Sets the first hire date that matches.
+     *
+     * @param hiredFrom the inclusive lower hire-date bound, or null for no lower bound
+     * @return this criteria, for chaining
+     */
+    public EmployeeCriteria setHiredFrom(LocalDate hiredFrom) {
+        this.hiredFrom = hiredFrom;
+        return this;
+    }
+
+    /**
+     * Gets the last hire date that matches.
+     *
+     * @return the inclusive upper hire-date bound, or null for no upper bound
+     */
+    public LocalDate getHiredTo() {
+        return hiredTo;
+    }
+
+    /**
+     * Sets the last hire date that matches.
+     *
+     * @param hiredTo the inclusive upper hire-date bound, or null for no upper bound
+     * @return this criteria, for chaining
+     */
+    public EmployeeCriteria setHiredTo(LocalDate hiredTo) {
+        this.hiredTo = hiredTo;
+        return this;
+    }
+
+    /**
+     * Gets the lowest salary that matches.
+     *
+     * @return the inclusive lower salary bound, or null for no lower bound
+     */
+    public Double getMinSalary() {
+        return minSalary;
+    }
+
+    /**
+     * Sets the lowest salary that matches.
+     *
+     * @param minSalary the inclusive lower salary bound, or null for no lower bound
+     * @return this criteria, for chaining
+     */
+    public EmployeeCriteria setMinSalary(Double minSalary) {
+        this.minSalary = minSalary;
+        return this;
+    }
+
+    /**
+     * Gets the highest salary that matches.
+     *
+     * @return the inclusive upper salary bound, or null for no upper bound
+     */
+    public Double getMaxSalary() {
+        return maxSalary;
+    }
+
+    /**
+     * Sets the highest salary that matches.
+     *
+     * @param maxSalary the inclusive upper salary bound, or null for no upper bound
+     * @return this criteria, for chaining
+     */
+    public EmployeeCriteria setMaxSalary(Double maxSalary) {
+        this.maxSalary = maxSalary;
+        return this;
+    }
+}
@@ -0,0 +1,82 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeField.java
+ *
+ * This enum lists the properties of an employee in the JSON API, so a client can ask for
+ * only the fields it needs (e.g. "?fields=id,name,salary").
+ *
+ * Key Features:
+ * - Uses the same property names as the NDJSON export and import (hireDate, not hire_date).
+ * - Parses a comma-separated field list into an ordered set; unknown names are rejected.
+ * - "version" is the row version a PUT must send back (optimistic concurrency); the export omits it.
+ */
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum EmployeeField {
+
+    ID("id"),
+    NAME("name"),
+    POSITION("position"),
+    SALARY("salary"),
+    HIRE_DATE("hireDate"),
+    DEPARTMENT("department"),
+    ACTIVE("active"),
+    VERSION("version");
+
+    private final String property;
+
+    EmployeeField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * Gets the JSON property name of this field.
+     *
+     * @return the property name
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated list of property names.
+     *
+     * @param fields the requested fields, case-insensitive; null or blank selects every field
+     * @return the selected fields, in declaration order
+     * @throws IllegalArgumentException if a name is not a known field
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(EmployeeField.class);
+        }
+        Set<EmployeeField> selected = EnumSet.noneOf(EmployeeField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromProperty(trimmed));
+        }
+        if (selected.isEmpty()) {
+            return EnumSet.allOf(EmployeeField.class);
+        }
+        return selected;
+    }
+
+    private static EmployeeField fromProperty(String name) {
+        for (EmployeeField field : values()) {
+            if (field.property.equalsIgnoreCase(name) || field.name().equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name);
+    }
+}
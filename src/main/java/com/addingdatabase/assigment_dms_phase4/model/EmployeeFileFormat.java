@@ -0,0 +1,64 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeFileFormat.java
+ *
+ * This enum lists the file formats used for bulk import and export of employees.
+ *
+ * Key Features:
+ * - CSV: a header row (name, position, salary, hire_date, department, active) followed by one row per employee.
+ * - NDJSON: one Employee JSON object per line.
+ * - Detects the format from an explicit parameter or a file name.
+ */
+
+import java.util.Locale;
+
+public enum EmployeeFileFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    EmployeeFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the HTTP content type of this format.
+     *
+     * @return the MIME type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the usual file extension of this format.
+     *
+     * @return the extension without the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Picks the format from an explicit parameter or, failing that, a file name.
+     *
+     * @param format   the requested format (csv or ndjson), may be null or blank
+     * @param filename the file name, may be null
+     * @return NDJSON for "ndjson"/".ndjson"/".jsonl", otherwise CSV
+     */
+    public static EmployeeFileFormat detect(String format, String filename) {
+        String hint = (format != null && !format.isBlank()) ? format : String.valueOf(filename);
+        hint = hint.toLowerCase(Locale.ROOT);
+        return (hint.endsWith("ndjson") || hint.endsWith("jsonl")) ? NDJSON : CSV;
+    }
+}
@@ -0,0 +1,104 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeePage.java
+ *
+ * This class holds one keyset-paginated page of employees together with the
+ * information the view needs to build "previous" and "next" links.
+ *
+ * Key Features:
+ * - Carries the rows of the page in display order.
+ * - Carries the sort key, direction and page size the page was requested with.
+ * - Provides encoded cursors for the previous and next pages (null when there is none).
+ */
+
+import java.util.List;
+
+public class EmployeePage {
+
+    private final List<Employee> employees;
+    private final EmployeeSortKey sort;
+    private final boolean descending;
+    private final int size;
+    private final String prevCursor;
+    private final String nextCursor;
+
+    /**
+     * Constructs a page.
+     *
+     * @param employees  the rows of the page, in display order
+     * @param sort       the sort key
+     * @param descending whether the page is sorted in descending order
+     * @param size       the requested page size
+     * @param prevCursor the cursor of the previous page, or null if this is the first page
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     */
+    public EmployeePage(List<Employee> employees, EmployeeSortKey sort, boolean descending, int size,
+                        String prevCursor, String nextCursor) {
+        this.employees = employees;
+        this.sort = sort;
+        this.descending = descending;
+        this.size = size;
+        this.prevCursor = prevCursor;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the rows of this page.
+     *
+     * @return the employees, in display order
+     */
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    /**
+     * Gets the sort key of this page.
+     *
+     * @return the sort key
+     */
+    public EmployeeSortKey getSort() {
+        return sort;
+    }
+
+    /**
+     * Checks whether this page is sorted in descending order.
+     *
+     * @return true if descending, false if ascending
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Gets the requested page size.
+     *
+     * @return the page size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the cursor of the previous page.
+     *
+     * @return the encoded cursor, or null if this is the first page
+     */
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return the encoded cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,76 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeSortKey.java
+ *
+ * This enum lists the columns the employee list can be sorted and paginated by.
+ * Each key is backed by an index (see db/migration), so a keyset (seek) query on
+ * "(column, id) > (?, ?)" only touches the rows of the requested page.
+ *
+ * Key Features:
+ * - Maps the request parameter value (e.g. "hire_date") to the database column.
+ * - Extracts the cursor value of a sort key from an Employee.
+ */
+public enum EmployeeSortKey {
+
+    ID("id"),
+    NAME("name"),
+    SALARY("salary"),
+    HIRE_DATE("hire_date");
+
+    private final String column;
+
+    EmployeeSortKey(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Gets the database column this key sorts on.
+     *
+     * @return the column name
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the value of this sort key for the given employee, as stored in a page cursor.
+     *
+     * @param e the employee
+     * @return the sort value as text, or null when sorting by ID only
+     */
+    public String valueOf(Employee e) {
+        switch (this) {
+            case NAME:
+                return e.getName();
+            case SALARY:
+                return Double.toString(e.getSalary());
+            case HIRE_DATE:
+                return e.getHireDate().toString();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parses a request parameter value into a sort key, falling back to ID.
+     *
+     * @param value the request parameter (column name, case-insensitive)
+     * @return the matching sort key, or ID if the value is blank or unknown
+     */
+    public static EmployeeSortKey fromParameter(String value) {
+        if (value != null) {
+            for (EmployeeSortKey key : values()) {
+                if (key.column.equalsIgnoreCase(value) || key.name().equalsIgnoreCase(value)) {
+                    return key;
+                }
+            }
+        }
+        return ID;
+    }
+}
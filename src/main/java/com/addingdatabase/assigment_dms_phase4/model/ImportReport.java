@@ -0,0 +1,167 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * ImportReport.java
+ *
+ * This class summarizes the outcome of a bulk employee import: how many rows were read,
+ * how many were written, and which rows were rejected and why.
+ *
+ * Key Features:
+ * - Counts rows read, imported and rejected.
+ * - Keeps the first MAX_REPORTED_ERRORS row errors (line number and message); later errors
+ *   are only counted so a bad file cannot exhaust memory.
+ * - Records the elapsed time and derived throughput of the import.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ImportReport {
+
+    /**
+     * Maximum number of row errors kept with their details.
+     */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long elapsedMillis;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Records that a data row was read from the input.
+     */
+    public void rowRead() {
+        rowsRead++;
+    }
+
+    /**
+     * Records that rows were committed to the database.
+     *
+     * @param count the number of rows committed
+     */
+    public void rowsImported(long count) {
+        rowsImported += count;
+    }
+
+    /**
+     * Records a rejected row.
+     *
+     * @param line    the line number of the row in the uploaded file (1-based)
+     * @param message why the row was rejected
+     */
+    public void rowRejected(long line, String message) {
+        rowsRejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    /**
+     * Sets the wall-clock duration of the import.
+     *
+     * @param elapsedMillis the duration in milliseconds
+     */
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Gets the number of data rows read.
+     *
+     * @return the number of rows read
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of rows written to the database.
+     *
+     * @return the number of rows imported
+     */
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * Gets the number of rejected rows, including those beyond MAX_REPORTED_ERRORS.
+     *
+     * @return the number of rows rejected
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Gets the wall-clock duration of the import.
+     *
+     * @return the duration in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the import throughput.
+     *
+     * @return imported rows per second
+     */
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsImported : rowsImported * 1000 / elapsedMillis;
+    }
+
+    /**
+     * Gets the details of the first rejected rows.
+     *
+     * @return an unmodifiable list of row errors
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * A rejected row of the input.
+     */
+    public static class RowError {
+
+        private final long line;
+        private final String message;
+
+        /**
+         * Constructs a row error.
+         *
+         * @param line    the line number in the uploaded file (1-based)
+         * @param message why the row was rejected
+         */
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * Gets the line number of the rejected row.
+         *
+         * @return the 1-based line number
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * Gets the reason the row was rejected.
+         *
+         * @return the error message
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
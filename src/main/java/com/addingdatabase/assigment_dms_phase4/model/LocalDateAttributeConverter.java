@@ -10,18 +10,19 @@ package com.addingdatabase.assigment_dms_phase4.model;
  * LocalDateAttributeConverter.java
  *
  * This class defines a custom JPA AttributeConverter to handle the conversion
- * between Java's LocalDate type and the SQL DATE type when persisting and retrieving
- * data from the database.
+ * between Java's LocalDate type and the INTEGER hire_date column of the employees table,
+ * which stores a date as its epoch day (days since 1970-01-01, see LocalDate.toEpochDay()).
  *
  * Purpose:
- * Since some database systems (like SQLite) and JDBC drivers do not natively support
- * Java's LocalDate type, this converter ensures seamless translation between
- * LocalDate and java.sql.Date for all entity fields using LocalDate.
+ * SQLite has no date type. Storing the epoch day instead of ISO-8601 text lets rows be read
+ * without parsing a string and lets date ranges compare integers. The static encode()/decode()
+ * methods are the single definition of the encoding: EmployeeRepository binds and reads
+ * hire_date through them, so the JDBC path and JPA always agree.
  *
  * Key Features:
  * - Automatically applies to all LocalDate fields in JPA entities via @Converter(autoApply = true).
- * - Converts LocalDate to java.sql.Date when persisting to the database.
- * - Converts java.sql.Date to LocalDate when reading from the database.
+ * - Converts LocalDate to its epoch day when persisting to the database.
+ * - Converts an epoch day to LocalDate when reading from the database.
  *
  * Usage:
  * No manual configuration is needed in entities, as the converter is globally applied
@@ -33,27 +34,44 @@ package com.addingdatabase.assigment_dms_phase4.model;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 
-// Import Java SQL and time APIs
-import java.sql.Date;         // java.sql.Date used for JDBC-compatible date handling
+// Import Java time API
 import java.time.LocalDate;   // java.time.LocalDate represents a date without time or timezone
 
 // Marks this class as a JPA converter that will be automatically applied to all LocalDate fields
 @Converter(autoApply = true)
-public class LocalDateAttributeConverter implements AttributeConverter<LocalDate, Date> {
+public class LocalDateAttributeConverter implements AttributeConverter<LocalDate, Long> {
 
-    // Convert Java's LocalDate to java.sql.Date before storing in the database
+    /**
+     * Encodes a date as stored in the database.
+     *
+     * @param date the date
+     * @return the number of days since 1970-01-01
+     */
+    public static long encode(LocalDate date) {
+        return date.toEpochDay();
+    }
+
+    /**
+     * Decodes a date stored in the database.
+     *
+     * @param epochDay the number of days since 1970-01-01
+     * @return the date
+     */
+    public static LocalDate decode(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    // Convert Java's LocalDate to its epoch day before storing in the database
     @Override
-    public Date convertToDatabaseColumn(LocalDate attribute) {
+    public Long convertToDatabaseColumn(LocalDate attribute) {
         // If the attribute is null, return null to avoid NullPointerException
-        // Otherwise, convert LocalDate to SQL Date using valueOf()
-        return (attribute == null) ? null : Date.valueOf(attribute);
+        return (attribute == null) ? null : encode(attribute);
     }
 
-    // Convert java.sql.Date from the database into Java's LocalDate when reading from the DB
+    // Convert an epoch day from the database into Java's LocalDate when reading from the DB
     @Override
-    public LocalDate convertToEntityAttribute(Date dbData) {
+    public LocalDate convertToEntityAttribute(Long dbData) {
         // If database value is null, return null
-        // Otherwise, convert SQL Date to LocalDate using toLocalDate()
-        return (dbData == null) ? null : dbData.toLocalDate();
+        return (dbData == null) ? null : decode(dbData);
     }
 }
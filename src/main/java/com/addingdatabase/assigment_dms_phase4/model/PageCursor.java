@@ -0,0 +1,102 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * PageCursor.java
+ *
+ * This class is the position of a keyset page boundary: the sort value and the ID of the
+ * first or last row on a page. It is passed between pages as an opaque URL-safe token.
+ *
+ * Key Features:
+ * - Encodes the (sort value, id) pair as a Base64 URL-safe string.
+ * - Decodes a token back, rejecting anything that was not produced by encode().
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class PageCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String sortValue;
+    private final long id;
+
+    /**
+     * Constructs a cursor positioned on a row.
+     *
+     * @param sortValue the row's sort value as text (null when sorting by ID)
+     * @param id        the row's ID, used as tie-breaker
+     */
+    public PageCursor(String sortValue, long id) {
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned on the given employee for the given sort key.
+     *
+     * @param sort     the sort key of the page
+     * @param employee the boundary row
+     * @return the cursor
+     */
+    public static PageCursor of(EmployeeSortKey sort, Employee employee) {
+        return new PageCursor(sort.valueOf(employee), employee.getId());
+    }
+
+    /**
+     * Gets the sort value of the boundary row.
+     *
+     * @return the sort value as text, or null when sorting by ID
+     */
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    /**
+     * Gets the ID of the boundary row.
+     *
+     * @return the ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        String raw = (sortValue == null ? "" : sortValue) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the token, may be null or blank
+     * @return the cursor, or null if the token is null or blank
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int split = raw.lastIndexOf(SEPARATOR);
+        if (split < 0) {
+            throw new IllegalArgumentException("Malformed page cursor: " + token);
+        }
+        try {
+            long id = Long.parseLong(raw.substring(split + 1));
+            return new PageCursor(split == 0 ? null : raw.substring(0, split), id);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed page cursor: " + token, ex);
+        }
+    }
+}
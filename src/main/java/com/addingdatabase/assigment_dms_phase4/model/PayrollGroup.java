@@ -0,0 +1,125 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * PayrollGroup.java
+ *
+ * This class is one row of the payroll report: the headcount, salary total and mean, and the
+ * median, 90th and 99th percentile salary of a group of employees.
+ *
+ * Key Features:
+ * - A group is a department with an active flag, a whole department (active is null), or all
+ *   employees (department and active are null).
+ * - Percentiles use the nearest-rank method: the pth percentile is the smallest salary that at
+ *   least p percent of the group earn no more than, so it is always a salary someone is paid.
+ * - An empty group (no employees at all) has no mean and no percentiles (NaN).
+ */
+
+public class PayrollGroup {
+
+    private final String department;
+    private final Boolean active;
+    private final long headcount;
+    private final double totalSalary;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+
+    /**
+     * Constructs a report row.
+     *
+     * @param department  the department, or null for all departments
+     * @param active      the active flag, or null for active and inactive employees together
+     * @param headcount   the number of employees
+     * @param totalSalary the sum of their salaries
+     * @param p50         the median salary
+     * @param p90         the 90th percentile salary
+     * @param p99         the 99th percentile salary
+     */
+    public PayrollGroup(String department, Boolean active, long headcount, double totalSalary,
+                        double p50, double p90, double p99) {
+        this.department = department;
+        this.active = active;
+        this.headcount = headcount;
+        this.totalSalary = totalSalary;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    /**
+     * Gets the department.
+     *
+     * @return the department, or null for all departments
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    /**
+     * Gets the active flag of the group.
+     *
+     * @return true or false, or null if the group holds active and inactive employees
+     */
+    public Boolean getActive() {
+        return active;
+    }
+
+    /**
+     * Gets the number of employees.
+     *
+     * @return the headcount
+     */
+    public long getHeadcount() {
+        return headcount;
+    }
+
+    /**
+     * Gets the sum of the salaries.
+     *
+     * @return the salary total
+     */
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    /**
+     * Gets the mean salary.
+     *
+     * @return the mean, or NaN for an empty group
+     */
+    public double getMeanSalary() {
+        return headcount == 0 ? Double.NaN : totalSalary / headcount;
+    }
+
+    /**
+     * Gets the median salary.
+     *
+     * @return the 50th percentile, or NaN for an empty group
+     */
+    public double getP50() {
+        return p50;
+    }
+
+    /**
+     * Gets the 90th percentile salary.
+     *
+     * @return the 90th percentile, or NaN for an empty group
+     */
+    public double getP90() {
+        return p90;
+    }
+
+    /**
+     * Gets the 99th percentile salary.
+     *
+     * @return the 99th percentile, or NaN for an empty group
+     */
+    public double getP99() {
+        return p99;
+    }
+}
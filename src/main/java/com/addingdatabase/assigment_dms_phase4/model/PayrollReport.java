@@ -0,0 +1,67 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * PayrollReport.java
+ *
+ * This class is the payroll report built by PayrollService: salary aggregates and percentiles
+ * for all employees, per department, and per department and active flag.
+ *
+ * Key Features:
+ * - Departments are listed in the order SQLite sorts them (by code point), and within a
+ *   department the inactive group comes before the active one.
+ * - Immutable; the service keeps one report until the employees change.
+ */
+
+import java.util.List;
+
+public class PayrollReport {
+
+    private final PayrollGroup total;
+    private final List<PayrollGroup> departments;
+    private final List<PayrollGroup> groups;
+
+    /**
+     * Constructs a report.
+     *
+     * @param total       the row for all employees
+     * @param departments one row per department
+     * @param groups      one row per department and active flag that has employees
+     */
+    public PayrollReport(PayrollGroup total, List<PayrollGroup> departments, List<PayrollGroup> groups) {
+        this.total = total;
+        this.departments = List.copyOf(departments);
+        this.groups = List.copyOf(groups);
+    }
+
+    /**
+     * Gets the row for all employees.
+     *
+     * @return the total row
+     */
+    public PayrollGroup getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the rows per department.
+     *
+     * @return one row per department
+     */
+    public List<PayrollGroup> getDepartments() {
+        return departments;
+    }
+
+    /**
+     * Gets the rows per department and active flag.
+     *
+     * @return one row per department and active flag that has employees
+     */
+    public List<PayrollGroup> getGroups() {
+        return groups;
+    }
+}
@@ -0,0 +1,137 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * SalaryGroup.java
+ *
+ * This class holds the salaries of the employees of one department with one active flag, as read
+ * by EmployeeRepository.salaryGroups() for the payroll report (see PayrollService).
+ *
+ * Key Features:
+ * - Salaries are kept in a primitive double[] rather than in Employee objects, so a table of a
+ *   million employees costs 8 MB here and percentiles can be computed on the array directly.
+ * - Headcount and salary total are tracked apart from the array, so a repository can take them
+ *   from an aggregate query (SUM/COUNT) and size the array exactly before reading the salaries.
+ * - Groups of the same department and flag from several databases are combined with addAll().
+ */
+
+import java.util.Arrays;
+
+public class SalaryGroup {
+
+    private final String department;
+    private final boolean active;
+    private long headcount;
+    private double totalSalary;
+    private double[] salaries;
+    private int size;
+
+    /**
+     * Constructs an empty group.
+     *
+     * @param department the department
+     * @param active     the active flag of the employees in the group
+     * @param capacity   the number of salaries expected; the array grows if more are added
+     */
+    public SalaryGroup(String department, boolean active, int capacity) {
+        this.department = department;
+        this.active = active;
+        this.salaries = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Appends one salary to the array. The headcount and total are not changed; see addTotals().
+     *
+     * @param salary the salary
+     */
+    public void add(double salary) {
+        if (size == salaries.length) {
+            salaries = Arrays.copyOf(salaries, salaries.length * 2);
+        }
+        salaries[size++] = salary;
+    }
+
+    /**
+     * Adds to the headcount and salary total of the group.
+     *
+     * @param headcount   the number of employees to add
+     * @param totalSalary the sum of their salaries
+     */
+    public void addTotals(long headcount, double totalSalary) {
+        this.headcount += headcount;
+        this.totalSalary += totalSalary;
+    }
+
+    /**
+     * Adds the salaries and totals of another group of the same department and flag.
+     *
+     * @param other the group to add
+     */
+    public void addAll(SalaryGroup other) {
+        if (size + other.size > salaries.length) {
+            salaries = Arrays.copyOf(salaries, Math.max(size + other.size, salaries.length * 2));
+        }
+        System.arraycopy(other.salaries, 0, salaries, size, other.size);
+        size += other.size;
+        addTotals(other.headcount, other.totalSalary);
+    }
+
+    /**
+     * Gets the department.
+     *
+     * @return the department
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    /**
+     * Gets the active flag shared by the employees of the group.
+     *
+     * @return true for active employees, false for inactive ones
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Gets the number of employees in the group.
+     *
+     * @return the headcount
+     */
+    public long getHeadcount() {
+        return headcount;
+    }
+
+    /**
+     * Gets the sum of the salaries in the group.
+     *
+     * @return the salary total
+     */
+    public double getTotalSalary() {
+        return totalSalary;
+    }
+
+    /**
+     * Gets the salary array; only the first getSize() elements are salaries. The caller may
+     * reorder them (e.g. sort them in place).
+     *
+     * @return the backing array
+     */
+    public double[] getSalaries() {
+        return salaries;
+    }
+
+    /**
+     * Gets the number of salaries in the array.
+     *
+     * @return the number of salaries added
+     */
+    public int getSize() {
+        return size;
+    }
+}
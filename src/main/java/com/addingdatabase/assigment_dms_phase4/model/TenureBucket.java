@@ -0,0 +1,147 @@
+package com.addingdatabase.assigment_dms_phase4.model;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * TenureBucket.java
+ *
+ * This class describes one group of the tenure report: a range of full years of service,
+ * the matching range of hire dates on a given day, and the number of employees in it.
+ *
+ * Key Features:
+ * - Covers minYears (inclusive) up to maxYears (exclusive); the last bucket is open-ended.
+ * - Translates the year range into a hire-date range (hiredAfter exclusive, hiredOnOrBefore
+ *   inclusive), so members can be counted and listed with an index range scan on hire_date.
+ * - Builds a readable label such as "Under 1 year", "1–5 years" or "More than 5 years".
+ */
+
+import java.time.LocalDate;
+
+public class TenureBucket {
+
+    private final int index;
+    private final int minYears;
+    private final Integer maxYears;
+    private final LocalDate today;
+    private final LocalDate hiredAfter;
+    private final LocalDate hiredOnOrBefore;
+    private final long count;
+
+    /**
+     * Constructs a bucket for the given year range, measured on the given day.
+     *
+     * @param index    the position of the bucket in the report
+     * @param minYears the smallest number of full years of service in the bucket
+     * @param maxYears the first number of full years no longer in the bucket, or null if open-ended
+     * @param today    the day tenure is measured on
+     * @param count    the number of employees in the bucket
+     */
+    public TenureBucket(int index, int minYears, Integer maxYears, LocalDate today, long count) {
+        this.index = index;
+        this.minYears = minYears;
+        this.maxYears = maxYears;
+        this.today = today;
+        // YEARS.between(hire, today) >= n  <=>  hire <= today.minusYears(n)
+        this.hiredOnOrBefore = today.minusYears(minYears);
+        this.hiredAfter = (maxYears == null) ? null : today.minusYears(maxYears);
+        this.count = count;
+    }
+
+    /**
+     * Returns a copy of this bucket with a different employee count.
+     *
+     * @param count the number of employees in the bucket
+     * @return the new bucket
+     */
+    public TenureBucket withCount(long count) {
+        return new TenureBucket(index, minYears, maxYears, today, count);
+    }
+
+    /**
+     * Creates criteria matching the employees of this bucket.
+     *
+     * @return criteria with the hire-date range of this bucket
+     */
+    public EmployeeCriteria toCriteria() {
+        return EmployeeCriteria.all()
+                .setHiredFrom(hiredAfter == null ? null : hiredAfter.plusDays(1))
+                .setHiredTo(hiredOnOrBefore);
+    }
+
+    /**
+     * Gets the position of this bucket in the report.
+     *
+     * @return the zero-based index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets a readable name of the year range.
+     *
+     * @return e.g. "Under 1 year", "1–5 years" or "More than 5 years"
+     */
+    public String getLabel() {
+        if (maxYears == null) {
+            return minYears == 0 ? "All employees" : "More than " + years(minYears - 1);
+        }
+        if (minYears == 0) {
+            return "Under " + years(maxYears);
+        }
+        int last = maxYears - 1;
+        return last == minYears ? years(minYears) : minYears + "–" + years(last);
+    }
+
+    /**
+     * Gets the smallest number of full years of service in this bucket.
+     *
+     * @return the lower bound, inclusive
+     */
+    public int getMinYears() {
+        return minYears;
+    }
+
+    /**
+     * Gets the first number of full years of service no longer in this bucket.
+     *
+     * @return the upper bound, exclusive, or null if the bucket is open-ended
+     */
+    public Integer getMaxYears() {
+        return maxYears;
+    }
+
+    /**
+     * Gets the day before the earliest hire date in this bucket.
+     *
+     * @return the exclusive lower hire-date bound, or null if the bucket is open-ended
+     */
+    public LocalDate getHiredAfter() {
+        return hiredAfter;
+    }
+
+    /**
+     * Gets the latest hire date in this bucket.
+     *
+     * @return the inclusive upper hire-date bound
+     */
+    public LocalDate getHiredOnOrBefore() {
+        return hiredOnOrBefore;
+    }
+
+    /**
+     * Gets the number of employees in this bucket.
+     *
+     * @return the employee count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private static String years(int n) {
+        return n + (n == 1 ? " year" : " years");
+    }
+}
@@ -0,0 +1,78 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeOrdering.java
+ *
+ * This class holds the orderings of employees that repositories apply in Java instead of with an
+ * ORDER BY: merging the pages of several shards, or sorting the records of the memory-mapped store.
+ *
+ * Key Features:
+ * - displayOrder() is the order findPage() returns rows in: by the sort key, then by ID.
+ * - Values are compared the way SQLite compares the stored columns: text byte by byte in UTF-8,
+ *   i.e. by code point, so every engine pages through the same rows in the same order.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+
+import java.util.Comparator;
+
+final class EmployeeOrdering {
+
+    private EmployeeOrdering() {
+    }
+
+    /**
+     * The order findPage() returns rows in: by the sort key, then by ID.
+     *
+     * @param sort       the sort key
+     * @param descending true for descending order
+     * @return the comparator
+     */
+    static Comparator<Employee> displayOrder(EmployeeSortKey sort, boolean descending) {
+        Comparator<Employee> byId = Comparator.comparing(Employee::getId);
+        Comparator<Employee> order;
+        switch (sort) {
+            case NAME:
+                order = Comparator.comparing(Employee::getName, EmployeeOrdering::compareText).thenComparing(byId);
+                break;
+            case SALARY:
+                order = Comparator.comparingDouble(Employee::getSalary).thenComparing(byId);
+                break;
+            case HIRE_DATE:
+                order = Comparator.comparing(Employee::getHireDate).thenComparing(byId);
+                break;
+            default:
+                order = byId;
+        }
+        return descending ? order.reversed() : order;
+    }
+
+    /**
+     * Compares two strings by code point, which matches SQLite's BINARY collation of UTF-8 text;
+     * String.compareTo() orders characters outside the Basic Multilingual Plane differently.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @return a negative number, zero or a positive number as a sorts before, with or after b
+     */
+    static int compareText(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+}
@@ -8,187 +8,179 @@ package com.addingdatabase.assigment_dms_phase4.repository;
  *
  * EmployeeRepository.java
  *
- * This class serves as the data access layer for the Data Management System (DMS) application.
- * It uses JDBC (Java Database Connectivity) to directly interact with an SQLite database,
- * performing CRUD (Create, Read, Update, Delete) operations on employee records.
+ * This interface is the data access layer for the Data Management System (DMS) application:
+ * every read and write of employee records made by the service layer goes through it.
  *
  * Key Features:
- * - Connects to a local SQLite database using a JDBC URL.
- * - Retrieves all employee records with the findAll() method.
- * - Saves new employees or updates existing employee records with the save() method.
- * - Retrieves a single employee by ID using findById().
- * - Deletes an employee by ID with deleteById() and automatically resets the AUTOINCREMENT sequence.
- * - Resets the SQLite sequence number to the current highest employee ID to avoid ID gaps.
- *
- * Usage:
- * This class is annotated with @Repository, allowing Spring to detect and manage it as a data
- * access component. It is typically called from the service layer to handle database operations.
+ * - JdbcEmployeeRepository stores the employees in one SQLite database file (the default).
+ * - ShardedEmployeeRepository spreads them over several SQLite files, each with its own writer,
+ *   and fans reads out to all of them in parallel (dms.repository.shards above 1).
+ * - MappedEmployeeRepository keeps them in a memory-mapped, append-only log file instead of SQLite,
+ *   for read-heavy deployments (dms.repository.engine=mapped).
+ * - Writes return their result or throw: IllegalStateException if the write fails,
+ *   WriteRejectedException if the write queue is full, EmployeeVersionConflictException if an
+ *   update is based on an outdated version of the row (optimistic concurrency, no locks held).
  */
 
 import com.addingdatabase.assigment_dms_phase4.model.Employee;
-import org.springframework.stereotype.Repository;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
 
-import java.sql.*;
-import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
-@Repository
-public class EmployeeRepository {
+public interface EmployeeRepository {
 
     /**
-     * Retrieves the SQLite database URL from system properties.
+     * Retrieves all employee records, ordered by ID.
      *
-     * @return the SQLite connection URL
-     * @throws IllegalStateException if the URL is not properly configured
+     * @return a list of all employees
+     * @throws IllegalStateException if the query fails
      */
-    private String getUrl() {
-        String url = System.getProperty("spring.datasource.url");
-        if (url == null || url.isBlank()) {
-            throw new IllegalStateException("❌ Database URL is not set. Please provide a valid SQLite path.");
-        }
-        return url;
-    }
+    List<Employee> findAll();
 
     /**
-     * Retrieves all employee records from the database.
+     * Opens a forward-only cursor over all employees, ordered by ID. The stream holds database
+     * resources until it is closed, so callers must use try-with-resources.
      *
-     * @return a list of all employees
+     * @return a lazily populated stream of employees that must be closed after use
+     * @throws IllegalStateException if the query cannot be opened or a row cannot be read
      */
-    public List<Employee> findAll() {
-        List<Employee> employees = new ArrayList<>();
-        System.out.println(">>> EmployeeRepository.findAll() called");
-
-        try (Connection conn = DriverManager.getConnection(getUrl());
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM employees")) {
-
-            while (rs.next()) {
-                Employee e = new Employee(
-                        rs.getLong("id"),
-                        rs.getString("name"),
-                        rs.getString("position"),
-                        rs.getDouble("salary"),
-                        LocalDate.parse(rs.getString("hire_date")),
-                        rs.getString("department"),
-                        rs.getBoolean("active")
-                );
-                employees.add(e);
-            }
-            System.out.println(">>> Found " + employees.size() + " employees.");
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-
-        return employees;
-    }
+    Stream<Employee> streamAll();
 
     /**
-     * Saves a new employee to the database or updates an existing one.
+     * Opens a forward-only cursor over the employees matching the given criteria, ordered by ID.
      *
-     * @param e the employee object to save or update
+     * @param criteria the filters to apply
+     * @return a lazily populated stream of matching employees that must be closed after use
+     * @throws IllegalStateException if the query cannot be opened or a row cannot be read
      */
-    public void save(Employee e) {
-        String sql = (e.getId() == null) ?
-                "INSERT INTO employees(name, position, salary, hire_date, department, active) VALUES (?, ?, ?, ?, ?, ?)" :
-                "UPDATE employees SET name=?, position=?, salary=?, hire_date=?, department=?, active=? WHERE id=?";
+    Stream<Employee> stream(EmployeeCriteria criteria);
 
-        System.out.println(">>> Save operation for: " + (e.getId() == null ? "INSERT" : "UPDATE"));
-        System.out.println(">>> Employee: " + e);
+    /**
+     * Counts the employees matching the given criteria.
+     *
+     * @param criteria the filters to apply
+     * @return the number of matching employees
+     * @throws IllegalStateException if the query fails
+     */
+    long count(EmployeeCriteria criteria);
 
-        try (Connection conn = DriverManager.getConnection(getUrl());
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Reads the salaries of all employees grouped by department and active flag, with the headcount and
+     * salary total of each group.
+     *
+     * @return the groups that have employees, ordered by department (by code point), then active flag
+     *         (inactive first); the order of the salaries within a group is unspecified
+     * @throws IllegalStateException if the salaries cannot be read
+     */
+    List<SalaryGroup> salaryGroups();
 
-            pstmt.setString(1, e.getName());
-            pstmt.setString(2, e.getPosition());
-            pstmt.setDouble(3, e.getSalary());
-            pstmt.setString(4, e.getHireDate().toString());
-            pstmt.setString(5, e.getDepartment());
-            pstmt.setBoolean(6, e.isActive());
+    /**
+     * Runs a ranked full-text search over name, position and department: name matches first,
+     * then names starting with the typed text, then shorter names.
+     *
+     * @param matchQuery     an FTS5 MATCH expression over all columns, e.g. {@code "alice" "smi"*}
+     * @param namePrefix     a LIKE pattern for names starting with the typed text, e.g. {@code alice smi%}
+     * @param limit          the maximum number of employees to return
+     * @param candidateLimit the maximum number of matches ranked per group
+     * @return the best matches, best first
+     * @throws IllegalStateException if the query fails
+     */
+    List<Employee> search(String matchQuery, String namePrefix, int limit, int candidateLimit);
 
-            if (e.getId() != null) {
-                pstmt.setLong(7, e.getId());
-            }
+    /**
+     * Describes how SQLite would run the filtered query for the given criteria.
+     *
+     * @param criteria the filters to explain
+     * @return the detail column of EXPLAIN QUERY PLAN, one entry per plan step
+     * @throws IllegalStateException if the query cannot be explained
+     */
+    List<String> explainQueryPlan(EmployeeCriteria criteria);
 
-            pstmt.executeUpdate();
+    /**
+     * Retrieves one page of employees using keyset (seek) pagination, ordered by the sort key
+     * with the ID as tie-breaker.
+     *
+     * @param criteria   the filters to apply
+     * @param sort       the column to sort by
+     * @param descending true to sort in descending order
+     * @param cursor     the boundary row to seek from, or null to start at the first (or last) row
+     * @param backward   true to read the rows before the cursor (previous page) instead of after it
+     * @param limit      the maximum number of rows to return
+     * @return the rows of the page, always in display order
+     * @throws IllegalStateException if the query fails
+     */
+    List<Employee> findPage(EmployeeCriteria criteria, EmployeeSortKey sort, boolean descending,
+                            PageCursor cursor, boolean backward, int limit);
 
-        } catch (SQLException ex) {
-            System.err.println("❌ SQL Error during save:");
-            ex.printStackTrace();
-        }
-    }
+    /**
+     * Saves a new employee or updates an existing one. For a new employee, the generated ID is
+     * set on the given object. An update only applies if the row still has the employee's version;
+     * it then increments the version, on the row and on the given object. Updating an ID that does
+     * not exist writes nothing.
+     *
+     * @param e the employee object to save or update
+     * @return true if a row was inserted or updated, false if the updated ID does not exist
+     * @throws IllegalStateException             if the statement fails
+     * @throws WriteRejectedException            if the write queue is full; nothing was written
+     * @throws EmployeeVersionConflictException if the row has changed since the employee was read;
+     *                                           nothing was written
+     */
+    boolean save(Employee e);
+
+    /**
+     * Saves many employees in one transaction per database; inserted employees get their IDs and
+     * updated ones their new version. Updates are checked against the version as in save(); an
+     * update of an ID that does not exist writes nothing and leaves that employee's version as it was.
+     *
+     * @param employees the employees to insert or update
+     * @return the number of rows written
+     * @throws IllegalStateException             if the batch fails
+     * @throws WriteRejectedException            if the write queue is full
+     * @throws EmployeeVersionConflictException if an updated row has changed since it was read; the
+     *                                           transaction of its database has been rolled back
+     */
+    int saveAll(Collection<Employee> employees);
 
     /**
      * Finds a single employee by their unique ID.
      *
      * @param id the ID of the employee to retrieve
      * @return the employee if found, or null if not found
+     * @throws IllegalStateException if the query fails
      */
-    public Employee findById(Long id) {
-        String sql = "SELECT * FROM employees WHERE id = ?";
-
-        try (Connection conn = DriverManager.getConnection(getUrl());
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                return new Employee(
-                        rs.getLong("id"),
-                        rs.getString("name"),
-                        rs.getString("position"),
-                        rs.getDouble("salary"),
-                        LocalDate.parse(rs.getString("hire_date")),
-                        rs.getString("department"),
-                        rs.getBoolean("active")
-                );
-            }
-
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-
-        return null;
-    }
+    Employee findById(Long id);
 
     /**
-     * Deletes an employee by their ID and resets the SQLite AUTOINCREMENT sequence.
+     * Deletes an employee by their ID.
      *
      * @param id the ID of the employee to delete
+     * @return true if the employee existed and was deleted, false if there was no such employee
+     * @throws IllegalStateException  if the statement fails
+     * @throws WriteRejectedException if the write queue is full; nothing was deleted
      */
-    public void deleteById(Long id) {
-        String sql = "DELETE FROM employees WHERE id = ?";
-
-        try (Connection conn = DriverManager.getConnection(getUrl());
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
-
-            resetEmployeeSequence();
-
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-        }
-    }
+    boolean deleteById(Long id);
 
     /**
-     * Resets the SQLite sequence for the employees table based on the current max ID.
-     * This helps maintain continuity for AUTOINCREMENT values.
+     * Deletes many employees; IDs that do not exist are ignored.
+     *
+     * @param ids the IDs of the employees to delete
+     * @return the IDs of the employees that were deleted, each once
+     * @throws IllegalStateException  if the delete fails
+     * @throws WriteRejectedException if the write queue is full
      */
-    public void resetEmployeeSequence() {
-        String sql = "UPDATE sqlite_sequence SET seq = (SELECT MAX(id) FROM employees) WHERE name = 'employees'";
-
-        try (Connection conn = DriverManager.getConnection(getUrl());
-             Statement stmt = conn.createStatement()) {
+    Set<Long> deleteAllById(Collection<Long> ids);
 
-            stmt.executeUpdate(sql);
-            System.out.println(">>> SQLite sequence reset for 'employees'");
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
+    /**
+     * Resets the AUTOINCREMENT sequence to the current highest employee ID.
+     *
+     * @throws IllegalStateException  if the update fails
+     * @throws WriteRejectedException if the write queue is full
+     */
+    void resetEmployeeSequence();
 }
@@ -0,0 +1,77 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeRowMapper.java
+ *
+ * This class is the one place that turns a row of the employees table into an Employee.
+ *
+ * Key Features:
+ * - Queries select the columns listed in COLUMNS (or columns(alias) in joins), in that order, so
+ *   map() reads them by position instead of looking each column up by name.
+ * - hire_date is read as the INTEGER epoch day and decoded with LocalDateAttributeConverter, the
+ *   same encoding JPA uses; no intermediate String is created for it.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.LocalDateAttributeConverter;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+final class EmployeeRowMapper {
+
+    /**
+     * The select list map() expects, in order.
+     */
+    static final String COLUMNS = columns(null);
+
+    private static final int ID = 1;
+    private static final int NAME = 2;
+    private static final int POSITION = 3;
+    private static final int SALARY = 4;
+    private static final int HIRE_DATE = 5;
+    private static final int DEPARTMENT = 6;
+    private static final int ACTIVE = 7;
+    private static final int VERSION = 8;
+
+    private EmployeeRowMapper() {
+    }
+
+    /**
+     * Builds the select list map() expects, qualified with a table alias.
+     *
+     * @param alias the alias of the employees table, or null for unqualified column names
+     * @return the comma-separated column list
+     */
+    static String columns(String alias) {
+        String prefix = (alias == null) ? "" : alias + ".";
+        return prefix + "id, " + prefix + "name, " + prefix + "position, " + prefix + "salary, "
+                + prefix + "hire_date, " + prefix + "department, " + prefix + "active, " + prefix + "version";
+    }
+
+    /**
+     * Maps the current row of a result set selected with COLUMNS to an Employee.
+     *
+     * @param rs the result set positioned on a row
+     * @return the employee
+     * @throws SQLException if a column cannot be read
+     */
+    static Employee map(ResultSet rs) throws SQLException {
+        Employee employee = new Employee(
+                rs.getLong(ID),
+                rs.getString(NAME),
+                rs.getString(POSITION),
+                rs.getDouble(SALARY),
+                LocalDateAttributeConverter.decode(rs.getLong(HIRE_DATE)),
+                rs.getString(DEPARTMENT),
+                rs.getBoolean(ACTIVE)
+        );
+        employee.setVersion(rs.getLong(VERSION));
+        return employee;
+    }
+}
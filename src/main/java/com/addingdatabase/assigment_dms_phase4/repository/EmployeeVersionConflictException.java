@@ -0,0 +1,39 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeVersionConflictException.java
+ *
+ * Thrown when an update is refused because the employee was changed by someone else after it was
+ * read: the row no longer has the version the update was based on. Nothing was written; the caller
+ * reads the employee again and reapplies its change (the web layer answers 409 Conflict).
+ */
+public class EmployeeVersionConflictException extends RuntimeException {
+
+    private final long id;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param id      the ID of the employee
+     * @param version the version the refused update was based on
+     */
+    public EmployeeVersionConflictException(long id, long version) {
+        super("Employee " + id + " was changed by someone else since version " + version
+                + " was read; reload it and try again.");
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID of the employee whose update was refused.
+     *
+     * @return the ID
+     */
+    public long getId() {
+        return id;
+    }
+}
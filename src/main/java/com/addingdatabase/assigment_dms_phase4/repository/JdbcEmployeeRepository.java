@@ -0,0 +1,1368 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * JdbcEmployeeRepository.java
+ *
+ * This class is the EmployeeRepository of the Data Management System (DMS) application for one
+ * SQLite database file. It uses JDBC (Java Database Connectivity) to directly interact with the
+ * database, performing CRUD (Create, Read, Update, Delete) operations on employee records.
+ *
+ * Key Features:
+ * - Borrows connections from the pooled DataSource configured by Spring Boot (HikariCP) instead of
+ *   opening a new SQLite connection per call; connections are opened once with the WAL/synchronous/
+ *   busy_timeout/mmap/cache pragmas from application.properties and then reused.
+ * - Retrieves all employee records, ordered by ID, with the findAll() method. Reads that fail throw
+ *   IllegalStateException, as writes do, so a database error never looks like "no employees".
+ * - Saves new employees or updates existing employee records with the save() method. Updates are
+ *   optimistic: "WHERE id=? AND version=?" writes nothing if the row changed since it was read, which
+ *   is then reported as an EmployeeVersionConflictException; no lock is held between read and update.
+ * - Writes many employees in one transaction with JDBC batching using saveAll().
+ * - Retrieves a single employee by ID using findById().
+ * - Exposes a forward-only cursor over all employees with streamAll(), or over the employees
+ *   matching an EmployeeCriteria with stream(), so callers can process rows as they are read
+ *   instead of materializing the whole table.
+ * - Retrieves one keyset-paginated page sorted by id, name, salary or hire date with findPage(),
+ *   seeking past the page boundary through an index instead of scanning with OFFSET.
+ *   Pages can be restricted by an EmployeeCriteria (e.g. one tenure bucket's hire-date range).
+ * - Full-text searches name, position and department with search(), through FTS5 indexes that
+ *   triggers keep in sync with the employees table.
+ * - Counts the employees matching an EmployeeCriteria with count(), and reports the SQLite query
+ *   plan of a criteria query with explainQueryPlan().
+ * - Reads the salaries per department and active flag for the payroll report with salaryGroups(): COUNT
+ *   and SUM per group in SQLite, then the bare salaries, both from one covering index.
+ * - Deletes an employee by ID with deleteById(), or many employees in one transaction with deleteAllById().
+ * - Resets the SQLite sequence number to the current highest employee ID with resetEmployeeSequence().
+ *   Deletes only do this when dms.repository.reset-sequence-on-delete is set, and then once per call:
+ *   a reset lets the next insert reuse the IDs of deleted employees, which would make caches and
+ *   links keyed on the old IDs point at a different employee.
+ * - Times every public operation and counts the rows it reads or writes through RepositoryMetrics
+ *   (dms.repository.operations / dms.repository.rows); diagnostics go to the SLF4J logger at DEBUG.
+ * - Runs every write (save, saveAll, deleteById, deleteAllById, resetEmployeeSequence) on the single writer thread of
+ *   SingleWriterExecutor, so writes are serialized in process instead of contending for SQLite's
+ *   write lock. A write returns its result or throws: IllegalStateException if the SQL fails,
+ *   WriteRejectedException if the write queue is full.
+ * - Optional group commit (dms.repository.group-commit.enabled): concurrent save() calls are collected
+ *   for up to a short window or a maximum batch size and written in one transaction, so a burst of
+ *   edits pays one commit (one WAL sync) instead of one per row. Each caller still returns only
+ *   after its own row is committed, and a failing row does not fail the others of its batch.
+ * - Stores hire_date as an INTEGER epoch day (see LocalDateAttributeConverter and migration V5) and maps
+ *   rows through EmployeeRowMapper, which reads the selected columns by position.
+ * - Times every JDBC statement through SqlTracer, splitting connection wait, SQL and row mapping
+ *   for the current request's SqlTrace and logging slow statements with their query plan.
+ *
+ * Usage:
+ * This class is annotated with @Repository, allowing Spring to detect and manage it as a data
+ * access component. It is typically called from the service layer to handle database operations.
+ * It is the repository bean unless dms.repository.shards is above 1; ShardedEmployeeRepository then
+ * creates one instance per database file, each with its own pool and writer. With
+ * dms.repository.engine=mapped, MappedEmployeeRepository replaces it.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.LocalDateAttributeConverter;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Repository
+@ConditionalOnExpression("'${dms.repository.engine:jdbc}' == 'jdbc' and ${dms.repository.shards:1} == 1")
+public class JdbcEmployeeRepository implements EmployeeRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcEmployeeRepository.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO employees(name, position, salary, hire_date, department, active) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE employees SET name=?, position=?, salary=?, hire_date=?,"
+            + " department=?, active=?, version=version+1 WHERE id=? AND version=?";
+
+    private static final String EXISTS_SQL = "SELECT 1 FROM employees WHERE id=?";
+
+    private static final String SALARY_TOTALS_SQL = "SELECT department, active, COUNT(*), SUM(salary)"
+            + " FROM employees GROUP BY department, active ORDER BY department, active";
+
+    private static final String SALARIES_SQL = "SELECT salary FROM employees ORDER BY department, active, salary";
+
+    /**
+     * Pooled SQLite DataSource; connections are pre-configured with the SQLite pragmas at open time.
+     */
+    private final DataSource dataSource;
+
+    /**
+     * Number of rows the driver is asked to fetch per round trip when streaming.
+     */
+    private final int streamFetchSize;
+
+    /**
+     * Times each statement for the request trace and the slow-query log.
+     */
+    private final SqlTracer sqlTracer;
+
+    /**
+     * Runs all writes, one at a time, on a dedicated thread.
+     */
+    private final SingleWriterExecutor writer;
+
+    /**
+     * Group commit settings: whether save() calls are coalesced, how long the writer waits for more
+     * saves to join a batch, and the most saves one transaction may hold.
+     */
+    private final boolean groupCommit;
+    private final long groupCommitWindowNanos;
+    private final int groupCommitMaxBatch;
+
+    /**
+     * Saves waiting for the next group commit, in arrival order.
+     */
+    private final BlockingQueue<PendingSave> pendingSaves = new LinkedBlockingQueue<>();
+
+    private final DistributionSummary commitBatchSize;
+    private final Timer commitLatency;
+
+    private final RepositoryMetrics.Operation findAllMetrics;
+    private final RepositoryMetrics.Operation streamMetrics;
+    private final RepositoryMetrics.Operation countMetrics;
+    private final RepositoryMetrics.Operation salaryGroupsMetrics;
+    private final RepositoryMetrics.Operation searchMetrics;
+    private final RepositoryMetrics.Operation findPageMetrics;
+    private final RepositoryMetrics.Operation saveMetrics;
+    private final RepositoryMetrics.Operation saveAllMetrics;
+    private final RepositoryMetrics.Operation findByIdMetrics;
+    private final RepositoryMetrics.Operation deleteByIdMetrics;
+    private final RepositoryMetrics.Operation deleteAllByIdMetrics;
+
+    /**
+     * Whether deletes reset the AUTOINCREMENT sequence (allowing deleted IDs to be reused).
+     */
+    private final boolean resetSequenceOnDelete;
+
+    /**
+     * Every ID this database hands out is above this value (see ShardedEmployeeRepository); 0 for a
+     * single database.
+     */
+    private final long idBase;
+
+    /**
+     * Constructor that uses constructor-based dependency injection to inject the pooled DataSource.
+     *
+     * @param dataSource      the pooled DataSource pointing at the SQLite database file
+     * @param streamFetchSize the JDBC fetch size used by streamAll()
+     * @param metrics         the meters each operation reports its duration and row count to
+     * @param sqlTracer       the per-statement tracer
+     * @param writer          the single-writer queue all writes go through
+     * @param groupCommit     whether concurrent save() calls share one transaction
+     * @param groupCommitWindow   how long a group commit waits for more saves to join it
+     * @param groupCommitMaxBatch the most saves one group commit writes
+     * @param resetSequenceOnDelete whether deletes reset the AUTOINCREMENT sequence afterwards
+     */
+    @Autowired
+    public JdbcEmployeeRepository(DataSource dataSource,
+                                  @Value("${dms.repository.stream-fetch-size:500}") int streamFetchSize,
+                                  RepositoryMetrics metrics,
+                                  SqlTracer sqlTracer,
+                                  SingleWriterExecutor writer,
+                                  @Value("${dms.repository.group-commit.enabled:false}") boolean groupCommit,
+                                  @Value("${dms.repository.group-commit.window:0ms}") Duration groupCommitWindow,
+                                  @Value("${dms.repository.group-commit.max-batch-size:256}") int groupCommitMaxBatch,
+                                  @Value("${dms.repository.reset-sequence-on-delete:false}") boolean resetSequenceOnDelete) {
+        this(dataSource, streamFetchSize, metrics, sqlTracer, writer, groupCommit, groupCommitWindow,
+                groupCommitMaxBatch, resetSequenceOnDelete, 0);
+    }
+
+    /**
+     * Constructor for one shard of a sharded repository, whose IDs are all above idBase.
+     * Call reserveIds() once before the first insert.
+     *
+     * @param dataSource      the pooled DataSource of the shard's database file
+     * @param streamFetchSize the JDBC fetch size used by streamAll()
+     * @param metrics         the meters each operation reports its duration and row count to
+     * @param sqlTracer       the per-statement tracer
+     * @param writer          the shard's own single-writer queue
+     * @param groupCommit     whether concurrent save() calls share one transaction
+     * @param groupCommitWindow   how long a group commit waits for more saves to join it
+     * @param groupCommitMaxBatch the most saves one group commit writes
+     * @param resetSequenceOnDelete whether deletes reset the AUTOINCREMENT sequence afterwards
+     * @param idBase          the value all IDs of the shard are above
+     */
+    JdbcEmployeeRepository(DataSource dataSource, int streamFetchSize, RepositoryMetrics metrics,
+                           SqlTracer sqlTracer, SingleWriterExecutor writer, boolean groupCommit,
+                           Duration groupCommitWindow, int groupCommitMaxBatch,
+                           boolean resetSequenceOnDelete, long idBase) {
+        this.dataSource = dataSource;
+        this.streamFetchSize = streamFetchSize;
+        this.sqlTracer = sqlTracer;
+        this.writer = writer;
+        this.groupCommit = groupCommit;
+        this.groupCommitWindowNanos = groupCommitWindow.toNanos();
+        this.groupCommitMaxBatch = Math.max(1, groupCommitMaxBatch);
+        this.commitBatchSize = metrics.commitBatchSize();
+        this.commitLatency = metrics.commitLatency();
+        this.findAllMetrics = metrics.reads("findAll");
+        this.streamMetrics = metrics.reads("stream");
+        this.countMetrics = metrics.reads("count");
+        this.salaryGroupsMetrics = metrics.reads("salaryGroups");
+        this.searchMetrics = metrics.reads("search");
+        this.findPageMetrics = metrics.reads("findPage");
+        this.saveMetrics = metrics.writes("save");
+        this.saveAllMetrics = metrics.writes("saveAll");
+        this.findByIdMetrics = metrics.reads("findById");
+        this.deleteByIdMetrics = metrics.writes("deleteById");
+        this.deleteAllByIdMetrics = metrics.writes("deleteAllById");
+        this.resetSequenceOnDelete = resetSequenceOnDelete;
+        this.idBase = idBase;
+    }
+
+    /**
+     * Retrieves all employee records from the database, ordered by ID.
+     *
+     * @return a list of all employees
+     * @throws IllegalStateException if the query fails
+     */
+    @Override
+    public List<Employee> findAll() {
+        String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees ORDER BY id";
+        List<Employee> employees = new ArrayList<>();
+        long start = findAllMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                employees.add(mapRow(rs, trace));
+            }
+            trace.finish(conn, employees.size());
+            findAllMetrics.success(start, employees.size());
+            log.debug("findAll() read {} employees", employees.size());
+
+        } catch (SQLException ex) {
+            findAllMetrics.failure(start);
+            throw new IllegalStateException("Failed to read all employees", ex);
+        }
+
+        return employees;
+    }
+
+    /**
+     * Opens a forward-only cursor over all employees, ordered by ID.
+     * Rows are mapped one at a time as the stream is consumed; the pooled connection stays
+     * borrowed until the stream is closed, so callers must use try-with-resources.
+     *
+     * @return a lazily populated stream of employees that must be closed after use
+     * @throws IllegalStateException if the query cannot be opened or a row cannot be read
+     */
+    @Override
+    public Stream<Employee> streamAll() {
+        return stream(EmployeeCriteria.all());
+    }
+
+    /**
+     * Opens a forward-only cursor over the employees matching the given criteria, ordered by ID.
+     * Like {@link #streamAll()}, the stream holds a pooled connection until it is closed.
+     *
+     * @param criteria the filters to apply
+     * @return a lazily populated stream of matching employees that must be closed after use
+     * @throws IllegalStateException if the query cannot be opened or a row cannot be read
+     */
+    @Override
+    public Stream<Employee> stream(EmployeeCriteria criteria) {
+        StringBuilder sql = new StringBuilder("SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees");
+        List<Object> params = new ArrayList<>();
+        appendWhere(sql, params, criteria);
+        sql.append(" ORDER BY id");
+        return stream(sql.toString(), params, streamMetrics);
+    }
+
+    /**
+     * Counts the employees matching the given criteria. A hire-date range is answered by a range
+     * scan of the hire_date index, without reading the table rows.
+     *
+     * @param criteria the filters to apply
+     * @return the number of matching employees
+     * @throws IllegalStateException if the query fails
+     */
+    @Override
+    public long count(EmployeeCriteria criteria) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM employees");
+        List<Object> params = new ArrayList<>();
+        appendWhere(sql, params, criteria);
+        long start = countMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql.toString());
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                long count = rs.next() ? rs.getLong(1) : 0;
+                trace.finish(conn, 1);
+                countMetrics.success(start, 1);
+                return count;
+            }
+
+        } catch (SQLException ex) {
+            countMetrics.failure(start);
+            throw new IllegalStateException("Failed to count employees", ex);
+        }
+    }
+
+    /**
+     * Reads the salaries grouped by department and active flag. The headcount and salary total of each
+     * group come from a GROUP BY with COUNT and SUM, and size each group's array exactly. The salaries
+     * are then read as bare doubles in the same order, in the same read transaction, so group i takes the
+     * next headcount(i) rows. Both queries are answered from the covering index
+     * idx_employees_department_active_salary (migration V6) without reading the table, and the salaries
+     * of each group arrive sorted.
+     *
+     * @return the groups, ordered by department, then active flag (inactive first)
+     * @throws IllegalStateException if a query fails
+     */
+    @Override
+    public List<SalaryGroup> salaryGroups() {
+        List<SalaryGroup> groups = new ArrayList<>();
+        long rows = 0;
+        long start = salaryGroupsMetrics.start();
+        SqlTracer.Statement totalsTrace = sqlTracer.start(SALARY_TOTALS_SQL);
+
+        try (Connection conn = totalsTrace.connected(dataSource.getConnection())) {
+            // One read transaction: under WAL both queries see the same committed rows
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(SALARY_TOTALS_SQL)) {
+                    while (rs.next()) {
+                        long headcount = rs.getLong(3);
+                        SalaryGroup group = new SalaryGroup(rs.getString(1), rs.getBoolean(2), Math.toIntExact(headcount));
+                        group.addTotals(headcount, rs.getDouble(4));
+                        groups.add(group);
+                    }
+                }
+                totalsTrace.finish(conn, groups.size());
+
+                SqlTracer.Statement salariesTrace = sqlTracer.start(SALARIES_SQL);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.setFetchSize(streamFetchSize);
+                    try (ResultSet rs = stmt.executeQuery(SALARIES_SQL)) {
+                        for (SalaryGroup group : groups) {
+                            for (long i = 0; i < group.getHeadcount(); i++) {
+                                if (!rs.next()) {
+                                    throw new SQLException("Fewer salaries than counted in " + group.getDepartment());
+                                }
+                                group.add(rs.getDouble(1));
+                            }
+                            rows += group.getHeadcount();
+                        }
+                        if (rs.next()) {
+                            throw new SQLException("More salaries than counted");
+                        }
+                    }
+                }
+                salariesTrace.finish(conn, rows);
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            salaryGroupsMetrics.success(start, rows);
+            log.debug("salaryGroups() read {} salaries in {} groups", rows, groups.size());
+
+        } catch (SQLException | ArithmeticException ex) {
+            salaryGroupsMetrics.failure(start);
+            throw new IllegalStateException("Failed to read the salaries per department", ex);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs a full-text search over name, position and department through the employees_name_fts and
+     * employees_fts indexes. Results are ranked for type-ahead: employees whose name matches every
+     * term come before those matched through position or department, and within each group names
+     * starting with the typed text come first, then shorter (closer) names. Each group ranks at most
+     * {@code candidateLimit} matches, read in index order, so broad prefixes stay cheap. BM25 is
+     * deliberately not used: it counts every row matching each term, which costs O(matches) for
+     * common words such as a department name.
+     *
+     * @param matchQuery     an FTS5 MATCH expression over all columns, e.g. {@code "alice" "smi"*}
+     * @param namePrefix     a LIKE pattern for names starting with the typed text, e.g. {@code alice smi%}
+     * @param limit          the maximum number of employees to return
+     * @param candidateLimit the maximum number of matches ranked per group
+     * @return the best matches, best first
+     * @throws IllegalStateException if the query fails
+     */
+    @Override
+    public List<Employee> search(String matchQuery, String namePrefix, int limit, int candidateLimit) {
+        List<SearchHit> hits = searchHits(matchQuery, namePrefix, limit, candidateLimit);
+        List<Employee> employees = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            employees.add(hit.employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Runs search() and returns each match with the values it was ranked by, so that the results
+     * of several databases can be merged into one ranking (see ShardedEmployeeRepository).
+     *
+     * @param matchQuery     an FTS5 MATCH expression over all columns
+     * @param namePrefix     a LIKE pattern for names starting with the typed text
+     * @param limit          the maximum number of employees to return
+     * @param candidateLimit the maximum number of matches ranked per group
+     * @return the best matches, best first
+     * @throws IllegalStateException if the query fails
+     */
+    List<SearchHit> searchHits(String matchQuery, String namePrefix, int limit, int candidateLimit) {
+        String sql = "WITH by_name AS ("
+                + "SELECT rowid AS id, 0 AS tier FROM employees_name_fts WHERE employees_name_fts MATCH ? LIMIT ?"
+                + "), by_other AS ("
+                + "SELECT rowid AS id, 1 AS tier FROM employees_fts WHERE employees_fts MATCH ?"
+                + " AND rowid NOT IN (SELECT id FROM by_name) LIMIT ?"
+                + ") SELECT " + EmployeeRowMapper.columns("e") + ", m.tier AS tier, e.name LIKE ? AS prefix"
+                + " FROM (SELECT * FROM by_name UNION ALL SELECT * FROM by_other) m"
+                + " JOIN employees e ON e.id = m.id"
+                + " ORDER BY tier, prefix DESC, length(e.name), e.id LIMIT ?";
+        List<SearchHit> hits = new ArrayList<>(limit);
+        long start = searchMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, matchQuery);
+            pstmt.setInt(2, candidateLimit);
+            pstmt.setString(3, matchQuery);
+            pstmt.setInt(4, candidateLimit);
+            pstmt.setString(5, namePrefix);
+            pstmt.setInt(6, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new SearchHit(mapRow(rs, trace), rs.getInt("tier"), rs.getBoolean("prefix")));
+                }
+            }
+            trace.finish(conn, hits.size());
+            searchMetrics.success(start, hits.size());
+
+        } catch (SQLException ex) {
+            searchMetrics.failure(start);
+            throw new IllegalStateException("Employee search failed", ex);
+        }
+        return hits;
+    }
+
+    /**
+     * One search match with its ranking: the tier (0 = name match, 1 = position or department
+     * match) and whether the name starts with the typed text.
+     */
+    static final class SearchHit {
+
+        final Employee employee;
+        final int tier;
+        final boolean prefix;
+
+        SearchHit(Employee employee, int tier, boolean prefix) {
+            this.employee = employee;
+            this.tier = tier;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Describes how SQLite would run the filtered query for the given criteria, e.g.
+     * "SEARCH employees USING INDEX idx_employees_department_active (department=? AND active=?)".
+     * Used to check that each supported filter is answered through an index.
+     *
+     * @param criteria the filters to explain
+     * @return the detail column of EXPLAIN QUERY PLAN, one entry per plan step
+     * @throws IllegalStateException if the query cannot be explained
+     */
+    @Override
+    public List<String> explainQueryPlan(EmployeeCriteria criteria) {
+        StringBuilder sql = new StringBuilder("EXPLAIN QUERY PLAN SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees");
+        List<Object> params = new ArrayList<>();
+        appendWhere(sql, params, criteria);
+
+        List<String> plan = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.add(rs.getString("detail"));
+                }
+            }
+
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to explain employee query", ex);
+        }
+        return plan;
+    }
+
+    /**
+     * Retrieves one page of employees using keyset (seek) pagination.
+     * The rows are ordered by the sort key with the ID as tie-breaker; the query seeks directly
+     * past the cursor row, so its cost depends on the page size and not on the table size.
+     *
+     * @param criteria   the filters to apply
+     * @param sort       the column to sort by
+     * @param descending true to sort in descending order
+     * @param cursor     the boundary row to seek from, or null to start at the first (or last) row
+     * @param backward   true to read the rows before the cursor (previous page) instead of after it
+     * @param limit      the maximum number of rows to return
+     * @return the rows of the page, always in display order
+     * @throws IllegalStateException if the query fails
+     */
+    @Override
+    public List<Employee> findPage(EmployeeCriteria criteria, EmployeeSortKey sort, boolean descending,
+                                   PageCursor cursor, boolean backward, int limit) {
+        // Reading backward flips both the comparison and the ORDER BY; the rows are reversed afterward
+        boolean scanDescending = descending != backward;
+        String op = scanDescending ? "<" : ">";
+        String dir = scanDescending ? "DESC" : "ASC";
+        String column = sort.getColumn();
+
+        StringBuilder sql = new StringBuilder("SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees");
+        List<Object> params = new ArrayList<>();
+        boolean where = appendWhere(sql, params, criteria);
+        if (cursor != null) {
+            sql.append(where ? " AND " : " WHERE ");
+            sql.append(sort == EmployeeSortKey.ID
+                    ? "id " + op + " ?"
+                    : "(" + column + ", id) " + op + " (?, ?)");
+        }
+        sql.append(" ORDER BY ");
+        if (sort != EmployeeSortKey.ID) {
+            sql.append(column).append(' ').append(dir).append(", ");
+        }
+        sql.append("id ").append(dir).append(" LIMIT ?");
+
+        List<Employee> employees = new ArrayList<>(limit);
+        long start = findPageMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql.toString());
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            bindParams(pstmt, params);
+            int index = params.size() + 1;
+            if (cursor != null) {
+                if (sort != EmployeeSortKey.ID) {
+                    bindSortValue(pstmt, index++, sort, cursor.getSortValue());
+                }
+                pstmt.setLong(index++, cursor.getId());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    employees.add(mapRow(rs, trace));
+                }
+            }
+            trace.finish(conn, employees.size());
+            findPageMetrics.success(start, employees.size());
+
+        } catch (SQLException ex) {
+            findPageMetrics.failure(start);
+            throw new IllegalStateException("Failed to read a page of employees sorted by " + sort, ex);
+        }
+
+        if (backward) {
+            Collections.reverse(employees);
+        }
+        return employees;
+    }
+
+    /**
+     * Saves a new employee to the database or updates an existing one.
+     * For a new employee, the generated ID is set on the given object.
+     * With group commit enabled the row may share its transaction with concurrent saves; the call
+     * still returns only once that transaction has committed.
+     *
+     * @param e the employee object to save or update
+     * @return true if a row was inserted or updated, false if the updated ID does not exist
+     * @throws IllegalStateException  if the statement fails
+     * @throws WriteRejectedException if the write queue is full; nothing was written
+     */
+    @Override
+    public boolean save(Employee e) {
+        if (groupCommit) {
+            return saveInGroup(e);
+        }
+        return writer.execute(() -> writeEmployee(e));
+    }
+
+    /**
+     * Body of save(), run on the writer thread.
+     */
+    private boolean writeEmployee(Employee e) {
+        boolean insert = e.getId() == null;
+        String sql = insert ? INSERT_SQL : UPDATE_SQL;
+
+        log.debug("Save operation for: {} {}", insert ? "INSERT" : "UPDATE", e);
+        long start = saveMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             PreparedStatement pstmt = insert
+                     ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                     : conn.prepareStatement(sql)) {
+
+            bindEmployee(pstmt, e);
+            int written = pstmt.executeUpdate();
+
+            if (insert) {
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        e.setId(keys.getLong(1));
+                    }
+                }
+            } else {
+                checkUpdated(conn, e, written);
+                if (written > 0) {
+                    e.setVersion(e.getVersion() + 1);
+                }
+            }
+            trace.finish(conn, written);
+            saveMetrics.success(start, written);
+            return written > 0;
+
+        } catch (SQLException ex) {
+            saveMetrics.failure(start);
+            throw new IllegalStateException("Failed to save employee " + e.getName() + ": " + ex.getMessage(), ex);
+        } catch (EmployeeVersionConflictException ex) {
+            saveMetrics.failure(start);
+            log.debug("Update of employee {} refused: version {} is outdated", e.getId(), e.getVersion());
+            throw ex;
+        }
+    }
+
+    /**
+     * Tells an update refused by its version check apart from an update of an ID that does not
+     * exist (which writes nothing, as before). Runs on the writer thread, on the connection of the
+     * update, so no other write can come in between.
+     *
+     * @param conn    the connection the update ran on
+     * @param e       the updated employee
+     * @param written the update count of the UPDATE
+     * @throws EmployeeVersionConflictException if nothing was written although the row exists
+     * @throws SQLException                      if the lookup fails
+     */
+    private void checkUpdated(Connection conn, Employee e, int written) throws SQLException {
+        if (written > 0) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(EXISTS_SQL)) {
+            pstmt.setLong(1, e.getId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    throw new EmployeeVersionConflictException(e.getId(), e.getVersion());
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues a save for the next group commit and waits until its transaction has committed.
+     * The writer task submitted here commits batches until this save is done; usually an earlier
+     * task has already written it, and this one returns at once.
+     *
+     * @param e the employee to save
+     * @return true if a row was inserted or updated, false if the updated ID does not exist
+     */
+    private boolean saveInGroup(Employee e) {
+        PendingSave pending = new PendingSave(e);
+        pendingSaves.add(pending);
+        try {
+            writer.execute(() -> {
+                while (!pending.result.isDone()) {
+                    commitPendingSaves();
+                }
+                return null;
+            });
+        } catch (WriteRejectedException ex) {
+            // Withdraw the save unless a group commit has already claimed it, in which case it counts
+            if (pending.claimed.compareAndSet(false, true)) {
+                pendingSaves.remove(pending);
+                throw ex;
+            }
+        }
+
+        Throwable failure = pending.result.handle((written, error) -> error).join();
+        if (failure instanceof EmployeeVersionConflictException conflict) {
+            throw conflict;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Failed to save employee " + e.getName() + ": "
+                    + failure.getMessage(), failure);
+        }
+        return pending.result.join();
+    }
+
+    /**
+     * Takes the next batch of pending saves, waiting up to the group-commit window for saves to
+     * join it, and writes them in one transaction. Runs on the writer thread.
+     */
+    private void commitPendingSaves() {
+        List<PendingSave> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + groupCommitWindowNanos;
+        PendingSave next = pendingSaves.poll();
+        while (next != null) {
+            if (next.claimed.compareAndSet(false, true)) {
+                batch.add(next);
+                if (batch.size() >= groupCommitMaxBatch) {
+                    break;
+                }
+            }
+            next = pendingSaves.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    try {
+                        next = pendingSaves.poll(remaining, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException ex) {
+                        // Shutting down: stop collecting, but still commit the saves already claimed
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            commitBatch(batch);
+        }
+    }
+
+    /**
+     * Writes a batch of pending saves in one transaction and completes their callers. If one row's
+     * statement fails, the transaction is rolled back, that row's caller gets the error and the
+     * other rows are committed again as one batch; if the commit itself fails, every caller gets it.
+     *
+     * @param batch the claimed saves
+     */
+    private void commitBatch(List<PendingSave> batch) {
+        long start = System.nanoTime();
+        boolean anyInserts = batch.stream().anyMatch(p -> p.employee.getId() == null);
+        SqlTracer.Statement trace = sqlTracer.start(anyInserts ? INSERT_SQL : UPDATE_SQL);
+        Long[] ids = new Long[batch.size()];
+        boolean[] updated = new boolean[batch.size()];
+        int current = 0;
+
+        try (Connection conn = trace.connected(dataSource.getConnection())) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+                for (; current < batch.size(); current++) {
+                    Employee e = batch.get(current).employee;
+                    PreparedStatement pstmt = (e.getId() == null) ? insert : update;
+                    bindEmployee(pstmt, e);
+                    int written = pstmt.executeUpdate();
+                    if (pstmt == insert) {
+                        try (ResultSet keys = insert.getGeneratedKeys()) {
+                            ids[current] = keys.next() ? keys.getLong(1) : null;
+                        }
+                    } else {
+                        checkUpdated(conn, e, written);
+                        updated[current] = written > 0;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | EmployeeVersionConflictException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            trace.finish(conn, batch.size());
+
+        } catch (SQLException | EmployeeVersionConflictException ex) {
+            List<PendingSave> failed = (current < batch.size()) ? List.of(batch.get(current)) : batch;
+            for (PendingSave save : failed) {
+                saveMetrics.failure(save.start);
+                save.result.completeExceptionally(ex);
+            }
+            if (failed.size() < batch.size()) {
+                log.debug("Save of {} failed in a group commit of {}; committing the others again: {}",
+                        batch.get(current).employee, batch.size(), ex.getMessage());
+                List<PendingSave> others = new ArrayList<>(batch);
+                others.remove(current);
+                commitBatch(others);
+            }
+            return;
+        }
+
+        commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        commitBatchSize.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingSave saved = batch.get(i);
+            if (ids[i] != null) {
+                saved.employee.setId(ids[i]);
+            }
+            if (updated[i]) {
+                saved.employee.setVersion(saved.employee.getVersion() + 1);
+            }
+            boolean written = ids[i] != null || updated[i];
+            saveMetrics.success(saved.start, written ? 1 : 0);
+            saved.result.complete(written);
+        }
+    }
+
+    /**
+     * A save waiting for a group commit. Claimed exactly once: by the group commit that writes it,
+     * or by its caller withdrawing it after the write queue rejected the caller.
+     */
+    private final class PendingSave {
+
+        private final Employee employee;
+        private final long start = saveMetrics.start();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        PendingSave(Employee employee) {
+            this.employee = employee;
+        }
+    }
+
+    /**
+     * Saves many employees in a single transaction. New employees (no ID) are inserted and
+     * existing ones updated, each kind through one prepared statement with addBatch/executeBatch,
+     * so the whole collection costs one commit (one fsync) instead of one per row.
+     * The write is atomic: if any row fails, nothing from this call is kept.
+     * Inserted employees get their generated IDs: the transaction holds SQLite's write lock, so
+     * the batch receives consecutive AUTOINCREMENT values ending at last_insert_rowid().
+     *
+     * @param employees the employees to insert or update
+     * @return the number of rows written; updates of IDs that do not exist are not counted
+     * @throws IllegalStateException  if the batch fails; the transaction has been rolled back
+     * @throws WriteRejectedException if the write queue is full; nothing was written
+     */
+    @Override
+    public int saveAll(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return 0;
+        }
+        return writer.execute(() -> writeEmployees(employees));
+    }
+
+    /**
+     * Body of saveAll(), run on the writer thread.
+     */
+    private int writeEmployees(Collection<Employee> employees) {
+        long start = saveAllMetrics.start();
+        boolean anyInserts = employees.stream().anyMatch(e -> e.getId() == null);
+        SqlTracer.Statement trace = sqlTracer.start(anyInserts ? INSERT_SQL : UPDATE_SQL);
+
+        try (Connection conn = trace.connected(dataSource.getConnection())) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_SQL);
+                 PreparedStatement update = conn.prepareStatement(UPDATE_SQL)) {
+
+                List<Employee> inserted = new ArrayList<>();
+                List<Employee> updated = new ArrayList<>();
+                for (Employee e : employees) {
+                    PreparedStatement pstmt = (e.getId() == null) ? insert : update;
+                    bindEmployee(pstmt, e);
+                    pstmt.addBatch();
+                    if (pstmt == insert) {
+                        inserted.add(e);
+                    } else {
+                        updated.add(e);
+                    }
+                }
+                long lastId = 0;
+                if (!inserted.isEmpty()) {
+                    insert.executeBatch();
+                    try (Statement stmt = conn.createStatement();
+                         ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                        lastId = rs.next() ? rs.getLong(1) : 0;
+                    }
+                }
+                int[] written = updated.isEmpty() ? new int[0] : update.executeBatch();
+                for (int i = 0; i < written.length; i++) {
+                    checkUpdated(conn, updated.get(i), written[i]);
+                }
+                conn.commit();
+                trace.finish(conn, employees.size());
+
+                long nextId = lastId - inserted.size() + 1;
+                for (Employee e : inserted) {
+                    e.setId(nextId++);
+                }
+                int rows = inserted.size();
+                for (int i = 0; i < written.length; i++) {
+                    if (written[i] != 0) {
+                        updated.get(i).setVersion(updated.get(i).getVersion() + 1);
+                        rows++;
+                    }
+                }
+                saveAllMetrics.success(start, rows);
+                return rows;
+
+            } catch (SQLException | EmployeeVersionConflictException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException ex) {
+            saveAllMetrics.failure(start);
+            throw new IllegalStateException("Batch save of " + employees.size() + " employees failed: "
+                    + ex.getMessage(), ex);
+        } catch (EmployeeVersionConflictException ex) {
+            saveAllMetrics.failure(start);
+            throw ex;
+        }
+    }
+
+    /**
+     * Finds a single employee by their unique ID.
+     *
+     * @param id the ID of the employee to retrieve
+     * @return the employee if found, or null if not found
+     * @throws IllegalStateException if the query fails
+     */
+    @Override
+    public Employee findById(Long id) {
+        String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees WHERE id = ?";
+        long start = findByIdMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, id);
+            Employee employee;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                employee = rs.next() ? mapRow(rs, trace) : null;
+            }
+            trace.finish(conn, employee == null ? 0 : 1);
+            findByIdMetrics.success(start, employee == null ? 0 : 1);
+            return employee;
+
+        } catch (SQLException ex) {
+            findByIdMetrics.failure(start);
+            throw new IllegalStateException("Failed to read employee " + id, ex);
+        }
+    }
+
+    /**
+     * Deletes an employee by their ID. The AUTOINCREMENT sequence is reset afterwards only if
+     * dms.repository.reset-sequence-on-delete is set.
+     *
+     * @param id the ID of the employee to delete
+     * @return true if the employee existed and was deleted
+     * @throws IllegalStateException  if the statement fails
+     * @throws WriteRejectedException if the write queue is full; nothing was deleted
+     */
+    @Override
+    public boolean deleteById(Long id) {
+        return writer.execute(() -> delete(id));
+    }
+
+    /**
+     * Body of deleteById(), run on the writer thread.
+     */
+    private boolean delete(Long id) {
+        String sql = "DELETE FROM employees WHERE id = ?";
+        long start = deleteByIdMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+
+        try (Connection conn = trace.connected(dataSource.getConnection());
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setLong(1, id);
+            int deleted = pstmt.executeUpdate();
+            trace.finish(conn, deleted);
+
+            if (resetSequenceOnDelete) {
+                resetEmployeeSequence(conn);
+            }
+            deleteByIdMetrics.success(start, deleted);
+            return deleted > 0;
+
+        } catch (SQLException ex) {
+            deleteByIdMetrics.failure(start);
+            throw new IllegalStateException("Failed to delete employee " + id + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Deletes many employees with a single statement in one transaction. The IDs are bound as one
+     * JSON array and expanded with json_each(), which also avoids SQLite's limit on the number of
+     * parameters. One statement matters more than one transaction here: the FTS5 delete triggers
+     * flush their pending index changes at the end of every statement, which made a batch of 10k
+     * single-row deletes about four times slower. IDs that do not exist are ignored; RETURNING
+     * reports the IDs of the rows that were actually deleted.
+     * If dms.repository.reset-sequence-on-delete is set, the sequence is reset once, in the same
+     * transaction.
+     *
+     * @param ids the IDs of the employees to delete
+     * @return the IDs of the employees that were deleted
+     * @throws IllegalStateException  if the delete fails; the transaction has been rolled back
+     * @throws WriteRejectedException if the write queue is full; nothing was deleted
+     */
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return writer.execute(() -> deleteAll(ids));
+    }
+
+    /**
+     * Body of deleteAllById(), run on the writer thread.
+     */
+    private Set<Long> deleteAll(Collection<Long> ids) {
+        String sql = "DELETE FROM employees WHERE id IN (SELECT value FROM json_each(?)) RETURNING id";
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (Long id : ids) {
+            json.add(String.valueOf(id));
+        }
+        long start = deleteAllByIdMetrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+
+        try (Connection conn = trace.connected(dataSource.getConnection())) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, json.toString());
+                Set<Long> deleted = new LinkedHashSet<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        deleted.add(rs.getLong(1));
+                    }
+                }
+                if (resetSequenceOnDelete) {
+                    resetEmployeeSequence(conn);
+                }
+                conn.commit();
+                trace.finish(conn, deleted.size());
+                deleteAllByIdMetrics.success(start, deleted.size());
+                log.debug("deleteAllById() deleted {} of {} employees", deleted.size(), ids.size());
+                return deleted;
+
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException ex) {
+            deleteAllByIdMetrics.failure(start);
+            throw new IllegalStateException("Batch delete of " + ids.size() + " employees failed: "
+                    + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Resets the SQLite sequence for the employees table based on the current max ID.
+     * This helps maintain continuity for AUTOINCREMENT values.
+     *
+     * @throws IllegalStateException  if the update fails
+     * @throws WriteRejectedException if the write queue is full
+     */
+    @Override
+    public void resetEmployeeSequence() {
+        writer.execute(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                resetEmployeeSequence(conn);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to reset the employees sequence", e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Resets the SQLite sequence on an already borrowed connection, so that a delete does not
+     * need a second connection from the pool.
+     *
+     * @param conn the connection to run the reset on
+     * @throws SQLException if the update fails
+     */
+    private void resetEmployeeSequence(Connection conn) throws SQLException {
+        String sql = "UPDATE sqlite_sequence SET seq = max(coalesce((SELECT MAX(id) FROM employees), 0), ?)"
+                + " WHERE name = 'employees'";
+
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, idBase);
+            trace.finish(conn, pstmt.executeUpdate());
+            log.debug("SQLite sequence reset for 'employees'");
+        }
+    }
+
+    /**
+     * Raises the AUTOINCREMENT sequence to idBase if it is below, so that the next insert gets an
+     * ID above idBase. Used once per shard when a sharded repository starts.
+     *
+     * @throws IllegalStateException  if the update fails
+     * @throws WriteRejectedException if the write queue is full
+     */
+    void reserveIds() {
+        writer.execute(() -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement insert = conn.prepareStatement("INSERT INTO sqlite_sequence (name, seq) "
+                         + "SELECT 'employees', ? WHERE NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'employees')");
+                 PreparedStatement update = conn.prepareStatement(
+                         "UPDATE sqlite_sequence SET seq = ? WHERE name = 'employees' AND seq < ?")) {
+                insert.setLong(1, idBase);
+                insert.executeUpdate();
+                update.setLong(1, idBase);
+                update.setLong(2, idBase);
+                update.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to reserve the IDs above " + idBase, e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Appends a WHERE clause for the non-null filters of the criteria and collects their values.
+     *
+     * @param sql      the query being built
+     * @param params   receives the parameter values, in placeholder order
+     * @param criteria the filters
+     * @return true if a WHERE clause was appended
+     */
+    private boolean appendWhere(StringBuilder sql, List<Object> params, EmployeeCriteria criteria) {
+        List<String> predicates = new ArrayList<>();
+        if (criteria.getDepartment() != null) {
+            predicates.add("department = ?");
+            params.add(criteria.getDepartment());
+        }
+        if (criteria.getActive() != null) {
+            predicates.add("active = ?");
+            params.add(criteria.getActive() ? 1 : 0);
+        }
+        if (criteria.getHiredFrom() != null) {
+            predicates.add("hire_date >= ?");
+            params.add(LocalDateAttributeConverter.encode(criteria.getHiredFrom()));
+        }
+        if (criteria.getHiredTo() != null) {
+            predicates.add("hire_date <= ?");
+            params.add(LocalDateAttributeConverter.encode(criteria.getHiredTo()));
+        }
+        if (criteria.getMinSalary() != null) {
+            predicates.add("salary >= ?");
+            params.add(criteria.getMinSalary());
+        }
+        if (criteria.getMaxSalary() != null) {
+            predicates.add("salary <= ?");
+            params.add(criteria.getMaxSalary());
+        }
+        if (predicates.isEmpty()) {
+            return false;
+        }
+        sql.append(" WHERE ").append(String.join(" AND ", predicates));
+        return true;
+    }
+
+    /**
+     * Binds collected parameter values to the first placeholders of a statement.
+     *
+     * @param pstmt  the statement
+     * @param params the values, in placeholder order
+     * @throws SQLException if binding fails
+     */
+    private static void bindParams(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Runs a query and exposes its result set as a lazily populated, closeable stream.
+     * The call is timed until the stream is closed, and counts the rows actually consumed.
+     *
+     * @param sql     the query to run
+     * @param params  the values of the query's placeholders
+     * @param metrics the meters the call reports to
+     * @return the stream; closing it closes the result set, statement and connection
+     */
+    private Stream<Employee> stream(String sql, List<Object> params, RepositoryMetrics.Operation metrics) {
+        long start = metrics.start();
+        SqlTracer.Statement trace = sqlTracer.start(sql);
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        try {
+            conn = trace.connected(dataSource.getConnection());
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(streamFetchSize);
+            bindParams(pstmt, params);
+            ResultSet rs = pstmt.executeQuery();
+
+            RowCursor rows = new RowCursor(rs, trace);
+            Connection openConn = conn;
+            PreparedStatement openStmt = pstmt;
+            // Time spent by the consumer between rows is not part of the statement
+            trace.pause();
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                trace.finish(openConn, rows.count);
+                closeQuietly(rs, openStmt, openConn);
+                if (rows.failed) {
+                    metrics.failure(start);
+                } else {
+                    metrics.success(start, rows.count);
+                }
+            });
+
+        } catch (SQLException ex) {
+            closeQuietly(null, pstmt, conn);
+            metrics.failure(start);
+            throw new IllegalStateException("Failed to open employee cursor", ex);
+        }
+    }
+
+    /**
+     * Maps the rows of an open result set one at a time, remembering how many were read
+     * and whether reading failed.
+     */
+    private final class RowCursor extends Spliterators.AbstractSpliterator<Employee> {
+
+        private final ResultSet rs;
+        private final SqlTracer.Statement trace;
+        private long count;
+        private boolean failed;
+
+        RowCursor(ResultSet rs, SqlTracer.Statement trace) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rs = rs;
+            this.trace = trace;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee> action) {
+            Employee employee;
+            trace.resume();
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                count++;
+                employee = mapRow(rs, trace);
+            } catch (SQLException ex) {
+                failed = true;
+                throw new IllegalStateException("Failed to read employee row", ex);
+            } finally {
+                trace.pause();
+            }
+            action.accept(employee);
+            return true;
+        }
+    }
+
+    /**
+     * Closes JDBC resources in reverse order of acquisition, ignoring failures.
+     *
+     * @param rs    the result set, may be null
+     * @param stmt  the statement, may be null
+     * @param conn  the connection, may be null
+     */
+    private static void closeQuietly(ResultSet rs, Statement stmt, Connection conn) {
+        for (AutoCloseable resource : new AutoCloseable[]{rs, stmt, conn}) {
+            if (resource != null) {
+                try {
+                    resource.close();
+                } catch (Exception ignored) {
+                    // Nothing useful to do if closing fails
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds the columns of an employee to an INSERT_SQL or UPDATE_SQL statement.
+     * The ID and the expected version are bound as the seventh and eighth parameters only for
+     * existing employees (UPDATE_SQL).
+     *
+     * @param pstmt the statement
+     * @param e     the employee
+     * @throws SQLException if binding fails
+     */
+    private void bindEmployee(PreparedStatement pstmt, Employee e) throws SQLException {
+        pstmt.setString(1, e.getName());
+        pstmt.setString(2, e.getPosition());
+        pstmt.setDouble(3, e.getSalary());
+        pstmt.setLong(4, LocalDateAttributeConverter.encode(e.getHireDate()));
+        pstmt.setString(5, e.getDepartment());
+        pstmt.setBoolean(6, e.isActive());
+
+        if (e.getId() != null) {
+            pstmt.setLong(7, e.getId());
+            pstmt.setLong(8, e.getVersion());
+        }
+    }
+
+    /**
+     * Binds a cursor's sort value with the SQL type of its column. Hire dates travel in cursors
+     * as ISO-8601 text and are bound as their stored epoch day.
+     *
+     * @param pstmt the statement
+     * @param index the parameter index
+     * @param sort  the sort key the value belongs to
+     * @param value the sort value as text
+     * @throws SQLException if binding fails
+     */
+    private void bindSortValue(PreparedStatement pstmt, int index, EmployeeSortKey sort, String value)
+            throws SQLException {
+        if (sort == EmployeeSortKey.SALARY) {
+            pstmt.setDouble(index, Double.parseDouble(value));
+        } else if (sort == EmployeeSortKey.HIRE_DATE) {
+            pstmt.setLong(index, LocalDateAttributeConverter.encode(LocalDate.parse(value)));
+        } else {
+            pstmt.setString(index, value);
+        }
+    }
+
+    /**
+     * Maps the current row of a result set to an Employee, adding the time taken to the
+     * statement's row-mapping phase.
+     *
+     * @param rs    the result set positioned on a row
+     * @param trace the measurement of the statement the row belongs to
+     * @return the employee
+     * @throws SQLException if a column cannot be read
+     */
+    private Employee mapRow(ResultSet rs, SqlTracer.Statement trace) throws SQLException {
+        long mapping = trace.mapping();
+        Employee employee = EmployeeRowMapper.map(rs);
+        trace.mapped(mapping);
+        return employee;
+    }
+}
@@ -0,0 +1,1582 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * MappedEmployeeRepository.java
+ *
+ * This class is the EmployeeRepository used when dms.repository.engine is "mapped". Instead of
+ * SQLite it keeps the employees in one append-only log file (dms.repository.mapped.path) that is
+ * memory-mapped with NIO, for read-heavy deployments: a lookup by ID is an index read plus a copy
+ * out of the mapped pages, and a scan reads the mapped pages directly, without SQL, a connection
+ * pool or a JDBC result set in between.
+ *
+ * Key Features:
+ * - Every write appends a frame of one or more fixed-layout entries to the log; a saveAll() or
+ *   deleteAllById() is one frame, so it is kept or lost as a whole. A frame carries its length and
+ *   a CRC32C checksum; it counts once its length is written, which happens last. On startup the log
+ *   is replayed up to the first incomplete or damaged frame.
+ * - An entry has a 40-byte fixed header (kind, active, the three string lengths, row version, ID,
+ *   salary and hire date as an epoch day) followed by the UTF-8 bytes of name, position and department. Filters
+ *   on department, active, hire date and salary are checked on the header and the department bytes,
+ *   without building an Employee for rows that do not match.
+ * - An off-heap index (a direct buffer of longs, one slot per ID) maps each live ID to the offset of
+ *   its latest entry. IDs are handed out in increasing order and never reused, like AUTOINCREMENT;
+ *   updates append a new entry and deletes append a tombstone.
+ * - Superseded entries and tombstones are garbage. When the garbage reaches both
+ *   dms.repository.mapped.compact-min-garbage and dms.repository.mapped.compact-garbage-ratio of the
+ *   log, a background thread copies the live entries, in ID order, into a new file; the writes that
+ *   arrived meanwhile are then replayed on the writer thread and the new file replaces the old one.
+ * - Writes run one at a time on the application's SingleWriterExecutor, as with SQLite, and report
+ *   to the same dms.repository.* meters. Reads take a StampedLock read lock only per chunk of IDs;
+ *   findById() reads optimistically and takes the lock only if a write interfered.
+ * - Entries are written to the mapped pages, so a committed write survives a crash of the process;
+ *   dms.repository.mapped.force-on-write also flushes each write to the disk (like synchronous=FULL).
+ * - salaryGroups() for the payroll report reads salaries straight from the entry headers.
+ * - Updates are checked against the row version like the SQL engines' "WHERE id=? AND version=?";
+ *   the check and the append run on the single writer thread, so no lock is held for it. The version
+ *   is a 32-bit counter in bytes that logs written before it had always left zero.
+ * - Search follows the full-text search of JdbcEmployeeRepository (same terms, case and diacritic
+ *   folding, ranking and candidate limit) by scanning the records; group commit and the write-queue
+ *   settings other than the queue itself do not apply. A log is limited to 2 GB (one mapping).
+ * - The store starts empty; existing data is moved over with the export and import endpoints.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.LocalDateAttributeConverter;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+@Repository
+@ConditionalOnProperty(name = "dms.repository.engine", havingValue = "mapped")
+public class MappedEmployeeRepository implements EmployeeRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedEmployeeRepository.class);
+
+    /**
+     * "DMSEMP01" in the first eight bytes of the file.
+     */
+    private static final long MAGIC = 0x3130504D45534D44L;
+    private static final int VERSION = 1;
+
+    /**
+     * File header: magic (long), version (int), unused (int), highest ID handed out (long).
+     */
+    static final int HEADER_SIZE = 64;
+    private static final int HEADER_LAST_ID = 16;
+
+    /**
+     * Frame header: frame length including this header (int, written last), CRC32C of the rest (int).
+     */
+    private static final int FRAME_HEADER = 8;
+
+    /**
+     * Entry header; the name, position and department bytes follow, padded to a multiple of 8.
+     */
+    private static final int ENTRY_HEADER = 40;
+    private static final int ENTRY_LENGTH = 0;
+    private static final int ENTRY_KIND = 4;
+    private static final int ENTRY_ACTIVE = 5;
+    private static final int ENTRY_NAME_LENGTH = 6;
+    private static final int ENTRY_POSITION_LENGTH = 8;
+    private static final int ENTRY_DEPARTMENT_LENGTH = 10;
+    private static final int ENTRY_VERSION = 12;
+    private static final int ENTRY_ID = 16;
+    private static final int ENTRY_SALARY = 24;
+    private static final int ENTRY_HIRE_DATE = 32;
+
+    private static final byte KIND_EMPLOYEE = 1;
+    private static final byte KIND_DELETED = 2;
+
+    /**
+     * Longest UTF-8 encoding of a name, position or department (an unsigned short).
+     */
+    private static final int MAX_TEXT_BYTES = 0xFFFF;
+
+    /**
+     * The largest log one mapping can hold, rounded down to the 8-byte alignment of frames.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE & ~7;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 10;
+
+    /**
+     * Frames written by compaction hold up to this many bytes of entries.
+     */
+    private static final int COMPACTION_FRAME_BYTES = 1 << 16;
+
+    /**
+     * IDs read per read lock by scans, so a long scan does not hold writers back.
+     */
+    private static final int SCAN_CHUNK = 1024;
+
+    /**
+     * One quoted term of an FTS5 MATCH expression built by EmployeeService, e.g. "smi"*.
+     */
+    private static final Pattern MATCH_TERM = Pattern.compile("\"([^\"]*)\"(\\*?)");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final Path path;
+    private final SingleWriterExecutor writer;
+    private final boolean forceOnWrite;
+    private final boolean resetSequenceOnDelete;
+    private final long compactMinGarbage;
+    private final double compactGarbageRatio;
+
+    /**
+     * Guards the fields below. Readers hold it only while they read the index and the mapped
+     * pages; the writer thread takes the write lock to publish a written frame.
+     */
+    private final StampedLock lock = new StampedLock();
+    private LogFile logFile;
+    private LongBuffer index;
+    private long lastId;
+    private long liveCount;
+    private long liveBytes;
+    private boolean closed;
+
+    private final ExecutorService compactor;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private final RepositoryMetrics.Operation findAllMetrics;
+    private final RepositoryMetrics.Operation streamMetrics;
+    private final RepositoryMetrics.Operation countMetrics;
+    private final RepositoryMetrics.Operation salaryGroupsMetrics;
+    private final RepositoryMetrics.Operation searchMetrics;
+    private final RepositoryMetrics.Operation findPageMetrics;
+    private final RepositoryMetrics.Operation saveMetrics;
+    private final RepositoryMetrics.Operation saveAllMetrics;
+    private final RepositoryMetrics.Operation findByIdMetrics;
+    private final RepositoryMetrics.Operation deleteByIdMetrics;
+    private final RepositoryMetrics.Operation deleteAllByIdMetrics;
+
+    /**
+     * Constructor that uses constructor-based dependency injection. Opens the log file, creating
+     * it if it does not exist, and replays it into the index.
+     *
+     * @param path                the log file
+     * @param metrics             the meters each operation reports its duration and row count to
+     * @param writer              the single-writer queue all writes go through
+     * @param forceOnWrite        whether each write is flushed to the disk before it returns
+     * @param resetSequenceOnDelete whether deletes let the next insert reuse the highest deleted IDs
+     * @param compactMinGarbage   the garbage a log must hold before it is compacted
+     * @param compactGarbageRatio the share of the log that must be garbage before it is compacted
+     * @throws UncheckedIOException  if the file cannot be opened
+     * @throws IllegalStateException if the file is not an employee store
+     */
+    public MappedEmployeeRepository(@Value("${dms.repository.mapped.path:dms-employees.dat}") String path,
+                                    RepositoryMetrics metrics,
+                                    SingleWriterExecutor writer,
+                                    @Value("${dms.repository.mapped.force-on-write:false}") boolean forceOnWrite,
+                                    @Value("${dms.repository.reset-sequence-on-delete:false}") boolean resetSequenceOnDelete,
+                                    @Value("${dms.repository.mapped.compact-min-garbage:16MB}") DataSize compactMinGarbage,
+                                    @Value("${dms.repository.mapped.compact-garbage-ratio:0.5}") double compactGarbageRatio) {
+        this.path = Path.of(path).toAbsolutePath();
+        this.writer = writer;
+        this.forceOnWrite = forceOnWrite;
+        this.resetSequenceOnDelete = resetSequenceOnDelete;
+        this.compactMinGarbage = compactMinGarbage.toBytes();
+        this.compactGarbageRatio = compactGarbageRatio;
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "mapped-store-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.findAllMetrics = metrics.reads("findAll");
+        this.streamMetrics = metrics.reads("stream");
+        this.countMetrics = metrics.reads("count");
+        this.salaryGroupsMetrics = metrics.reads("salaryGroups");
+        this.searchMetrics = metrics.reads("search");
+        this.findPageMetrics = metrics.reads("findPage");
+        this.saveMetrics = metrics.writes("save");
+        this.saveAllMetrics = metrics.writes("saveAll");
+        this.findByIdMetrics = metrics.reads("findById");
+        this.deleteByIdMetrics = metrics.writes("deleteById");
+        this.deleteAllByIdMetrics = metrics.writes("deleteAllById");
+
+        try {
+            Files.deleteIfExists(compactionPath());
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open the employee store " + this.path, ex);
+        }
+        log.info("Employee store {}: {} employees, {} KB of {} KB live", this.path, liveCount,
+                liveBytes / 1024, (logFile.end - HEADER_SIZE) / 1024);
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        long start = findAllMetrics.start();
+        List<Employee> employees = new ArrayList<>();
+        scanIds(1, true, (buffer, offset) -> {
+            employees.add(decode(buffer, offset));
+            return true;
+        });
+        findAllMetrics.success(start, employees.size());
+        log.debug("findAll() read {} employees", employees.size());
+        return employees;
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        return stream(EmployeeCriteria.all());
+    }
+
+    /**
+     * Streams the matching employees in ID order. The stream reads the log a chunk of IDs at a
+     * time and holds no lock between chunks, so an open stream never blocks writers; a write that
+     * commits while the stream is open is seen if its ID has not been passed yet.
+     */
+    @Override
+    public Stream<Employee> stream(EmployeeCriteria criteria) {
+        RecordCursor cursor = new RecordCursor(new Filter(criteria));
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    @Override
+    public long count(EmployeeCriteria criteria) {
+        long start = countMetrics.start();
+        Filter filter = new Filter(criteria);
+        long count;
+        if (filter.matchesAll()) {
+            long stamp = lock.readLock();
+            try {
+                count = liveCount;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        } else {
+            long[] matches = new long[1];
+            scanIds(1, true, (buffer, offset) -> {
+                if (filter.matches(buffer, offset)) {
+                    matches[0]++;
+                }
+                return true;
+            });
+            count = matches[0];
+        }
+        countMetrics.success(start, 1);
+        return count;
+    }
+
+    /**
+     * Reads the salaries per department and active flag from the entry headers and department bytes,
+     * without building Employee objects. Unlike the other scans this one holds the read lock for the
+     * whole log, so the groups reflect one point in time; writers wait for it.
+     */
+    @Override
+    public List<SalaryGroup> salaryGroups() {
+        long start = salaryGroupsMetrics.start();
+        Map<String, SalaryGroup[]> byDepartment = new HashMap<>();
+        long rows = 0;
+        long stamp = lock.readLock();
+        try {
+            ByteBuffer buffer = logFile.buffer;
+            long last = Math.min(lastId, index.capacity() - 1L);
+            for (int id = 1; id <= last; id++) {
+                int entry = (int) index.get(id);
+                if (entry == 0) {
+                    continue;
+                }
+                int departmentLength = Short.toUnsignedInt(buffer.getShort(entry + ENTRY_DEPARTMENT_LENGTH));
+                int text = entry + ENTRY_HEADER
+                        + Short.toUnsignedInt(buffer.getShort(entry + ENTRY_NAME_LENGTH))
+                        + Short.toUnsignedInt(buffer.getShort(entry + ENTRY_POSITION_LENGTH));
+                byte[] department = new byte[departmentLength];
+                buffer.get(text, department);
+                boolean active = buffer.get(entry + ENTRY_ACTIVE) != 0;
+
+                SalaryGroup[] pair = byDepartment.computeIfAbsent(
+                        new String(department, StandardCharsets.UTF_8), d -> new SalaryGroup[2]);
+                int slot = active ? 1 : 0;
+                if (pair[slot] == null) {
+                    pair[slot] = new SalaryGroup(new String(department, StandardCharsets.UTF_8), active, 16);
+                }
+                pair[slot].add(buffer.getDouble(entry + ENTRY_SALARY));
+                rows++;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        List<String> departments = new ArrayList<>(byDepartment.keySet());
+        departments.sort(EmployeeOrdering::compareText);
+        List<SalaryGroup> groups = new ArrayList<>();
+        for (String department : departments) {
+            for (SalaryGroup group : byDepartment.get(department)) {
+                if (group != null) {
+                    double total = 0;
+                    for (int i = 0; i < group.getSize(); i++) {
+                        total += group.getSalaries()[i];
+                    }
+                    group.addTotals(group.getSize(), total);
+                    groups.add(group);
+                }
+            }
+        }
+        salaryGroupsMetrics.success(start, rows);
+        return groups;
+    }
+
+    /**
+     * Scans the records for the terms of the MATCH expression and ranks the matches as
+     * JdbcEmployeeRepository does: name matches, then matches through position or department; in
+     * each group names starting with the typed text, then shorter names, then by ID. Each group
+     * ranks at most {@code candidateLimit} matches, taken in ID order like the FTS5 index returns them.
+     */
+    @Override
+    public List<Employee> search(String matchQuery, String namePrefix, int limit, int candidateLimit) {
+        long start = searchMetrics.start();
+        List<String> terms = new ArrayList<>();
+        List<Boolean> prefixTerms = new ArrayList<>();
+        Matcher term = MATCH_TERM.matcher(matchQuery);
+        while (term.find()) {
+            terms.add(fold(term.group(1)));
+            prefixTerms.add(!term.group(2).isEmpty());
+        }
+        String typed = namePrefix.endsWith("%") ? namePrefix.substring(0, namePrefix.length() - 1) : namePrefix;
+
+        List<Employee> byName = new ArrayList<>();
+        List<Employee> byOther = new ArrayList<>();
+        if (!terms.isEmpty()) {
+            scanIds(1, true, (buffer, offset) -> {
+                Employee e = decode(buffer, offset);
+                String name = fold(e.getName());
+                if (byName.size() < candidateLimit && matchesAllTerms(terms, prefixTerms, name)) {
+                    byName.add(e);
+                } else if (byOther.size() < candidateLimit && matchesAllTerms(terms, prefixTerms,
+                        name + ' ' + fold(e.getPosition()) + ' ' + fold(e.getDepartment()))) {
+                    byOther.add(e);
+                }
+                return byName.size() < candidateLimit || byOther.size() < candidateLimit;
+            });
+        }
+
+        Comparator<Employee> ranking = Comparator.<Employee, Boolean>comparing(e -> !likePrefix(e.getName(), typed))
+                .thenComparingInt(e -> e.getName().codePointCount(0, e.getName().length()))
+                .thenComparingLong(Employee::getId);
+        byName.sort(ranking);
+        byOther.sort(ranking);
+        List<Employee> employees = new ArrayList<>(Math.min(limit, byName.size() + byOther.size()));
+        for (Employee e : byName) {
+            if (employees.size() < limit) {
+                employees.add(e);
+            }
+        }
+        for (Employee e : byOther) {
+            if (employees.size() < limit) {
+                employees.add(e);
+            }
+        }
+        searchMetrics.success(start, employees.size());
+        return employees;
+    }
+
+    /**
+     * Describes how the store answers a criteria query; it has no secondary indexes, so every
+     * filter is a scan of the ID index that checks each record's fixed header.
+     */
+    @Override
+    public List<String> explainQueryPlan(EmployeeCriteria criteria) {
+        return List.of(new Filter(criteria).matchesAll()
+                ? "SCAN employee store USING ID INDEX"
+                : "SCAN employee store USING ID INDEX (filter on record header)");
+    }
+
+    /**
+     * Retrieves one page. Sorted by ID, the scan starts at the cursor and stops once the page is
+     * full; sorted by another key, every matching record is compared with the cursor and the
+     * nearest {@code limit} rows are kept in a bounded heap.
+     */
+    @Override
+    public List<Employee> findPage(EmployeeCriteria criteria, EmployeeSortKey sort, boolean descending,
+                                   PageCursor cursor, boolean backward, int limit) {
+        long start = findPageMetrics.start();
+        Filter filter = new Filter(criteria);
+        boolean scanDescending = descending != backward;
+        List<Employee> employees = new ArrayList<>(limit);
+
+        if (limit <= 0) {
+            // Nothing to read, as with LIMIT 0
+        } else if (sort == EmployeeSortKey.ID) {
+            long from = (cursor == null)
+                    ? (scanDescending ? Long.MAX_VALUE : 1)
+                    : cursor.getId() + (scanDescending ? -1 : 1);
+            scanIds(from, !scanDescending, (buffer, offset) -> {
+                if (filter.matches(buffer, offset)) {
+                    employees.add(decode(buffer, offset));
+                }
+                return employees.size() < limit;
+            });
+        } else {
+            Comparator<Employee> scanOrder = EmployeeOrdering.displayOrder(sort, scanDescending);
+            Employee boundary = (cursor == null) ? null : boundary(sort, cursor);
+            // The heap's head is the kept row farthest from the cursor, the first to give way
+            PriorityQueue<Employee> nearest = new PriorityQueue<>(limit + 1, scanOrder.reversed());
+            scanIds(1, true, (buffer, offset) -> {
+                if (filter.matches(buffer, offset)) {
+                    Employee e = decode(buffer, offset);
+                    if (boundary == null || scanOrder.compare(e, boundary) > 0) {
+                        nearest.add(e);
+                        if (nearest.size() > limit) {
+                            nearest.poll();
+                        }
+                    }
+                }
+                return true;
+            });
+            employees.addAll(nearest);
+            employees.sort(scanOrder);
+        }
+
+        if (backward) {
+            Collections.reverse(employees);
+        }
+        findPageMetrics.success(start, employees.size());
+        return employees;
+    }
+
+    @Override
+    public boolean save(Employee e) {
+        return writer.execute(() -> write(List.of(e), saveMetrics)) > 0;
+    }
+
+    /**
+     * Saves the employees as one frame: either every row is kept or, if one is invalid or the
+     * write fails, none of them.
+     */
+    @Override
+    public int saveAll(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return 0;
+        }
+        return writer.execute(() -> write(employees, saveAllMetrics));
+    }
+
+    /**
+     * Finds an employee with an optimistic read: the index slot and the entry are read without
+     * locking, and read again under the read lock only if a write was published meanwhile.
+     */
+    @Override
+    public Employee findById(Long id) {
+        long start = findByIdMetrics.start();
+        Employee employee = null;
+        long stamp = lock.tryOptimisticRead();
+        try {
+            employee = read(id);
+        } catch (RuntimeException ex) {
+            // The index or mapping changed under the read; validate() fails and the read is repeated
+        }
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                employee = read(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        findByIdMetrics.success(start, employee == null ? 0 : 1);
+        return employee;
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return !writer.execute(() -> delete(List.of(id), deleteByIdMetrics)).isEmpty();
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return writer.execute(() -> delete(ids, deleteAllByIdMetrics));
+    }
+
+    /**
+     * Lowers the highest handed-out ID to the highest live ID, so the next insert continues from there.
+     */
+    @Override
+    public void resetEmployeeSequence() {
+        writer.execute(() -> {
+            long stamp = lock.writeLock();
+            try {
+                checkOpen();
+                resetSequence();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Stops the compactor, flushes the mapped pages to the disk and closes the file.
+     */
+    @PreDestroy
+    public void close() {
+        compactor.shutdownNow();
+        try {
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (!closed) {
+                closed = true;
+                logFile.buffer.force();
+                logFile.close();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * The size of the used part of the log, header included.
+     *
+     * @return the size in bytes
+     */
+    long logSize() {
+        long stamp = lock.readLock();
+        try {
+            return logFile.end;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Starts a compaction now if none is running, whatever the amount of garbage.
+     *
+     * @return true if a compaction was started
+     */
+    boolean compactNow() {
+        if (!compacting.compareAndSet(false, true)) {
+            return false;
+        }
+        compactor.execute(this::compact);
+        return true;
+    }
+
+    /**
+     * Whether a compaction is running.
+     *
+     * @return true while a compaction has not finished
+     */
+    boolean isCompacting() {
+        return compacting.get();
+    }
+
+    // ------------------------------------------------------------------ writes (writer thread)
+
+    /**
+     * Body of save() and saveAll(): validates and encodes the rows, appends them as one frame and
+     * publishes it. Updates of IDs that do not exist write nothing, like an UPDATE matching no row.
+     *
+     * @param employees the employees to insert or update
+     * @param metrics   the meters of the calling method
+     * @return the number of rows written
+     */
+    private int write(Collection<Employee> employees, RepositoryMetrics.Operation metrics) {
+        long start = metrics.start();
+        try {
+            List<Entry> entries = new ArrayList<>(employees.size());
+            List<Employee> inserted = new ArrayList<>();
+            List<Employee> updated = new ArrayList<>();
+            long nextId = lastId;
+            for (Employee e : employees) {
+                long id;
+                long version = 0;
+                long offset = offsetOf(e.getId());
+                if (e.getId() == null) {
+                    id = ++nextId;
+                    inserted.add(e);
+                } else if (offset != 0) {
+                    id = e.getId();
+                    if (Integer.toUnsignedLong(logFile.buffer.getInt((int) offset + ENTRY_VERSION)) != e.getVersion()) {
+                        throw new EmployeeVersionConflictException(id, e.getVersion());
+                    }
+                    version = e.getVersion() + 1;
+                    updated.add(e);
+                } else {
+                    continue;
+                }
+                entries.add(Entry.of(id, version, e));
+            }
+            if (!entries.isEmpty()) {
+                append(entries, nextId);
+            }
+
+            long id = nextId - inserted.size();
+            for (Employee e : inserted) {
+                e.setId(++id);
+            }
+            for (Employee e : updated) {
+                e.setVersion(e.getVersion() + 1);
+            }
+            metrics.success(start, entries.size());
+            log.debug("Saved {} of {} employees ({} new)", entries.size(), employees.size(), inserted.size());
+            return entries.size();
+
+        } catch (EmployeeVersionConflictException ex) {
+            metrics.failure(start);
+            throw ex;
+        } catch (RuntimeException ex) {
+            metrics.failure(start);
+            String what = (employees.size() == 1)
+                    ? "Failed to save employee " + employees.iterator().next().getName()
+                    : "Batch save of " + employees.size() + " employees failed";
+            throw new IllegalStateException(what + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Body of deleteById() and deleteAllById(): appends one tombstone per existing ID, as one frame.
+     *
+     * @param ids     the IDs to delete; unknown and duplicate IDs are ignored
+     * @param metrics the meters of the calling method
+     * @return the IDs of the employees deleted
+     */
+    private Set<Long> delete(Collection<Long> ids, RepositoryMetrics.Operation metrics) {
+        long start = metrics.start();
+        try {
+            Set<Long> existing = new LinkedHashSet<>();
+            for (Long id : ids) {
+                if (offsetOf(id) != 0) {
+                    existing.add(id);
+                }
+            }
+            List<Entry> tombstones = new ArrayList<>(existing.size());
+            for (Long id : existing) {
+                tombstones.add(Entry.deleted(id));
+            }
+            if (!tombstones.isEmpty()) {
+                append(tombstones, lastId);
+            }
+            if (resetSequenceOnDelete) {
+                long stamp = lock.writeLock();
+                try {
+                    resetSequence();
+                } finally {
+                    lock.unlockWrite(stamp);
+                }
+            }
+            metrics.success(start, existing.size());
+            log.debug("Deleted {} of {} employees", existing.size(), ids.size());
+            return existing;
+
+        } catch (RuntimeException ex) {
+            metrics.failure(start);
+            throw new IllegalStateException("Failed to delete " + ids.size() + " employees: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Appends one frame with the given entries and publishes it: the index, counters and the
+     * highest ID change under the write lock, after the frame is complete in the mapped pages.
+     *
+     * @param entries   the entries, in order
+     * @param newLastId the highest ID handed out once the frame is written
+     */
+    private void append(List<Entry> entries, long newLastId) {
+        checkOpen();
+        int frameLength = FRAME_HEADER;
+        for (Entry entry : entries) {
+            frameLength += entry.length;
+        }
+        ensureCapacity(frameLength);
+
+        // Nothing beyond logFile.end is visible to readers, so the frame is written without the lock
+        int frame = logFile.end;
+        int[] offsets = writeFrame(logFile.buffer, frame, entries);
+        logFile.buffer.putLong(HEADER_LAST_ID, newLastId);
+        if (forceOnWrite) {
+            logFile.buffer.force();
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                apply(logFile.buffer, offsets[i]);
+            }
+            logFile.end = frame + frameLength;
+            lastId = Math.max(lastId, newLastId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        maybeCompact();
+    }
+
+    /**
+     * Grows the mapping, under the write lock, if the next frame does not fit.
+     *
+     * @param frameLength the length of the next frame
+     */
+    private void ensureCapacity(int frameLength) {
+        if ((long) logFile.end + frameLength + FRAME_HEADER <= logFile.capacity()) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            logFile.grow((long) logFile.end + frameLength + FRAME_HEADER);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Sets the highest handed-out ID to the highest live ID. Called with the write lock held.
+     */
+    private void resetSequence() {
+        long id = Math.min(lastId, index.capacity() - 1L);
+        while (id > 0 && index.get((int) id) == 0) {
+            id--;
+        }
+        lastId = id;
+        logFile.buffer.putLong(HEADER_LAST_ID, id);
+        log.debug("Employee store sequence reset to {}", id);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The employee store is closed");
+        }
+    }
+
+    // ------------------------------------------------------------------ compaction
+
+    private void maybeCompact() {
+        long garbage = logFile.end - HEADER_SIZE - liveBytes;
+        if (garbage >= compactMinGarbage && garbage >= compactGarbageRatio * (logFile.end - HEADER_SIZE)) {
+            compactNow();
+        }
+    }
+
+    /**
+     * Copies the live entries into a new file, in ID order, while reads and writes continue; then,
+     * on the writer thread, copies the frames written meanwhile and swaps the new file in.
+     */
+    private void compact() {
+        Path target = compactionPath();
+        LogFile copy = null;
+        try {
+            ByteBuffer source;
+            int copiedUpTo;
+            long maxId;
+            long live;
+            long stamp = lock.readLock();
+            try {
+                if (closed) {
+                    return;
+                }
+                source = logFile.buffer;
+                copiedUpTo = logFile.end;
+                maxId = lastId;
+                live = liveBytes;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+
+            Files.deleteIfExists(target);
+            copy = LogFile.create(target, capacityFor(HEADER_SIZE + live + live / 8));
+            LongBuffer copyIndex = allocateIndex(maxId + 1);
+            FrameWriter out = new FrameWriter(copy);
+
+            // Phase 1: entries that are live now and were written before copiedUpTo. Entries are
+            // immutable once written, so they are copied outside the lock.
+            long[] ids = new long[SCAN_CHUNK];
+            int[] offsets = new int[SCAN_CHUNK];
+            for (long from = 1; from <= maxId; from += SCAN_CHUNK) {
+                int found = 0;
+                stamp = lock.readLock();
+                try {
+                    long to = Math.min(maxId, Math.min(from + SCAN_CHUNK - 1, index.capacity() - 1L));
+                    for (long id = from; id <= to; id++) {
+                        long offset = index.get((int) id);
+                        if (offset != 0 && offset < copiedUpTo) {
+                            ids[found] = id;
+                            offsets[found++] = (int) offset;
+                        }
+                    }
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+                for (int i = 0; i < found; i++) {
+                    copyIndex = put(copyIndex, ids[i], out.copy(source, offsets[i]));
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Compaction interrupted");
+                }
+            }
+
+            LogFile compacted = copy;
+            LongBuffer compactedIndex = copyIndex;
+            writer.execute(() -> {
+                finishCompaction(compacted, compactedIndex, out, copiedUpTo);
+                return null;
+            });
+            copy = null;
+
+        } catch (Exception ex) {
+            log.warn("Compaction of the employee store {} failed; the current log is kept", path, ex);
+        } finally {
+            if (copy != null) {
+                copy.close();
+                try {
+                    Files.deleteIfExists(target);
+                } catch (IOException ignored) {
+                    // Removed again when the store is next opened
+                }
+            }
+            compacting.set(false);
+        }
+    }
+
+    /**
+     * Phase 2 of compact(), on the writer thread: replays the frames written since the copy started
+     * (updates, inserts and tombstones, in order), flushes the copy and swaps it in.
+     */
+    private void finishCompaction(LogFile copy, LongBuffer copyIndex, FrameWriter out, int copiedUpTo)
+            throws IOException {
+        if (closed) {
+            copy.close();
+            Files.deleteIfExists(copy.path);
+            return;
+        }
+        ByteBuffer source = logFile.buffer;
+        int end = logFile.end;
+        for (int frame = copiedUpTo; frame < end; frame += source.getInt(frame)) {
+            int frameEnd = frame + source.getInt(frame);
+            for (int entry = frame + FRAME_HEADER; entry < frameEnd; entry += source.getInt(entry)) {
+                long id = source.getLong(entry + ENTRY_ID);
+                int copied = out.copy(source, entry);
+                copyIndex = put(copyIndex, id, source.get(entry + ENTRY_KIND) == KIND_EMPLOYEE ? copied : 0);
+            }
+        }
+        out.seal();
+        copy.buffer.putLong(0, MAGIC);
+        copy.buffer.putInt(8, VERSION);
+        copy.buffer.putLong(HEADER_LAST_ID, lastId);
+        copy.buffer.force();
+
+        long before = end;
+        long stamp = lock.writeLock();
+        LogFile old = logFile;
+        try {
+            if (closed) {
+                copy.close();
+                Files.deleteIfExists(copy.path);
+                return;
+            }
+            Files.move(copy.path, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logFile = new LogFile(path, copy.channel, copy.buffer, copy.end);
+            index = copyIndex;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        old.close();
+        log.info("Compacted the employee store {} from {} KB to {} KB", path, before / 1024, logFile.end / 1024);
+    }
+
+    private Path compactionPath() {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    // ------------------------------------------------------------------ opening and replay
+
+    /**
+     * Opens or creates the log and replays its frames into the index. A damaged or incomplete
+     * frame ends the log: it and everything after it are cleared.
+     */
+    private void open() throws IOException {
+        index = allocateIndex(INITIAL_INDEX_CAPACITY);
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            logFile = LogFile.create(path, INITIAL_CAPACITY);
+            logFile.buffer.putLong(0, MAGIC);
+            logFile.buffer.putInt(8, VERSION);
+            logFile.buffer.putLong(HEADER_LAST_ID, 0);
+            logFile.end = HEADER_SIZE;
+            return;
+        }
+
+        logFile = LogFile.open(path);
+        MappedByteBuffer buffer = logFile.buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+            logFile.close();
+            throw new IllegalStateException(path + " is not an employee store");
+        }
+        if (buffer.getInt(8) != VERSION) {
+            logFile.close();
+            throw new IllegalStateException(path + " has unsupported version " + buffer.getInt(8));
+        }
+
+        int frame = HEADER_SIZE;
+        while (frame + FRAME_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(frame);
+            if (length == 0) {
+                break;
+            }
+            if (!validFrame(buffer, frame, length)) {
+                log.warn("Employee store {}: incomplete or damaged frame at offset {}; ignoring the rest of the log",
+                        path, frame);
+                for (int i = frame; i < buffer.capacity(); i += 8) {
+                    buffer.putLong(i, 0);
+                }
+                break;
+            }
+            for (int entry = frame + FRAME_HEADER; entry < frame + length; entry += buffer.getInt(entry)) {
+                apply(buffer, entry);
+            }
+            frame += length;
+        }
+        logFile.end = frame;
+
+        // The header may be behind the entries only if a crash hit between the two writes
+        long highestLive = index.capacity() - 1L;
+        while (highestLive > 0 && index.get((int) highestLive) == 0) {
+            highestLive--;
+        }
+        lastId = Math.max(lastId, Math.max(buffer.getLong(HEADER_LAST_ID), highestLive));
+    }
+
+    /**
+     * Checks a frame's bounds, the lengths of its entries and its checksum.
+     */
+    private static boolean validFrame(ByteBuffer buffer, int frame, int length) {
+        if (length < FRAME_HEADER + ENTRY_HEADER || (length & 7) != 0 || (long) frame + length > buffer.capacity()) {
+            return false;
+        }
+        int entry = frame + FRAME_HEADER;
+        while (entry < frame + length) {
+            int entryLength = buffer.getInt(entry);
+            if (entryLength < ENTRY_HEADER || (entryLength & 7) != 0 || entry + entryLength > frame + length) {
+                return false;
+            }
+            entry += entryLength;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(frame + FRAME_HEADER, length - FRAME_HEADER));
+        return (int) crc.getValue() == buffer.getInt(frame + 4);
+    }
+
+    /**
+     * Applies one entry of a written frame to the index and the counters.
+     *
+     * @param buffer the log
+     * @param entry  the offset of the entry
+     */
+    private void apply(ByteBuffer buffer, int entry) {
+        long id = buffer.getLong(entry + ENTRY_ID);
+        long previous = offsetOf(id);
+        if (previous != 0) {
+            liveCount--;
+            liveBytes -= buffer.getInt((int) previous);
+        }
+        if (buffer.get(entry + ENTRY_KIND) == KIND_EMPLOYEE) {
+            index = put(index, id, entry);
+            liveCount++;
+            liveBytes += buffer.getInt(entry);
+        } else {
+            index = put(index, id, 0);
+        }
+        lastId = Math.max(lastId, id);
+    }
+
+    // ------------------------------------------------------------------ reads
+
+    /**
+     * Visits a record to decide whether the scan goes on.
+     */
+    @FunctionalInterface
+    private interface RecordVisitor {
+
+        /**
+         * @param buffer the log
+         * @param offset the offset of a live entry
+         * @return false to stop the scan
+         */
+        boolean visit(ByteBuffer buffer, int offset);
+    }
+
+    /**
+     * Visits the live records in ID order, starting at an ID, taking the read lock once per chunk.
+     *
+     * @param from      the first ID to visit
+     * @param ascending true for increasing IDs, false for decreasing
+     * @param visitor   the visitor, called with the read lock held
+     */
+    private void scanIds(long from, boolean ascending, RecordVisitor visitor) {
+        long id = from;
+        while (true) {
+            long stamp = lock.readLock();
+            try {
+                long last = Math.min(lastId, index.capacity() - 1L);
+                if (!ascending && id > last) {
+                    id = last;
+                }
+                for (int i = 0; i < SCAN_CHUNK; i++, id += ascending ? 1 : -1) {
+                    if (id < 1 || id > last) {
+                        return;
+                    }
+                    long offset = index.get((int) id);
+                    if (offset != 0 && !visitor.visit(logFile.buffer, (int) offset)) {
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Reads an employee through the index; used under the read lock or optimistically.
+     */
+    private Employee read(Long id) {
+        long offset = offsetOf(id);
+        return (offset == 0) ? null : decode(logFile.buffer, (int) offset);
+    }
+
+    /**
+     * The offset of the live entry of an ID.
+     *
+     * @param id the ID, may be null
+     * @return the offset, or 0 if the ID is not live
+     */
+    private long offsetOf(Long id) {
+        LongBuffer ids = index;
+        return (id == null || id <= 0 || id >= ids.capacity()) ? 0 : ids.get((int) (long) id);
+    }
+
+    /**
+     * Maps an employee entry to an Employee.
+     */
+    private static Employee decode(ByteBuffer buffer, int entry) {
+        int nameLength = Short.toUnsignedInt(buffer.getShort(entry + ENTRY_NAME_LENGTH));
+        int positionLength = Short.toUnsignedInt(buffer.getShort(entry + ENTRY_POSITION_LENGTH));
+        int departmentLength = Short.toUnsignedInt(buffer.getShort(entry + ENTRY_DEPARTMENT_LENGTH));
+        byte[] text = new byte[nameLength + positionLength + departmentLength];
+        buffer.get(entry + ENTRY_HEADER, text);
+        Employee employee = new Employee(
+                buffer.getLong(entry + ENTRY_ID),
+                new String(text, 0, nameLength, StandardCharsets.UTF_8),
+                new String(text, nameLength, positionLength, StandardCharsets.UTF_8),
+                buffer.getDouble(entry + ENTRY_SALARY),
+                LocalDateAttributeConverter.decode(buffer.getLong(entry + ENTRY_HIRE_DATE)),
+                new String(text, nameLength + positionLength, departmentLength, StandardCharsets.UTF_8),
+                buffer.get(entry + ENTRY_ACTIVE) != 0);
+        employee.setVersion(Integer.toUnsignedLong(buffer.getInt(entry + ENTRY_VERSION)));
+        return employee;
+    }
+
+    /**
+     * Builds a stand-in for the cursor's row, holding its sort value and ID, to compare rows with.
+     */
+    private static Employee boundary(EmployeeSortKey sort, PageCursor cursor) {
+        Employee e = new Employee();
+        e.setId(cursor.getId());
+        if (sort == EmployeeSortKey.NAME) {
+            e.setName(cursor.getSortValue());
+        } else if (sort == EmployeeSortKey.SALARY) {
+            e.setSalary(Double.parseDouble(cursor.getSortValue()));
+        } else if (sort == EmployeeSortKey.HIRE_DATE) {
+            e.setHireDate(LocalDate.parse(cursor.getSortValue()));
+        }
+        return e;
+    }
+
+    /**
+     * Folds text the way the unicode61 tokenizer with remove_diacritics 2 does: lower case,
+     * without accents.
+     */
+    private static String fold(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                return stripped.toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether every term equals (or, for a prefix term, starts) some token of the folded text.
+     */
+    private static boolean matchesAllTerms(List<String> terms, List<Boolean> prefixTerms, String folded) {
+        for (int t = 0; t < terms.size(); t++) {
+            if (!containsToken(folded, terms.get(t), prefixTerms.get(t))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsToken(String folded, String term, boolean prefix) {
+        for (int i = 0; i < folded.length(); i++) {
+            boolean tokenStart = isTokenChar(folded.charAt(i)) && (i == 0 || !isTokenChar(folded.charAt(i - 1)));
+            if (tokenStart && folded.startsWith(term, i)) {
+                int after = i + term.length();
+                if (prefix || after == folded.length() || !isTokenChar(folded.charAt(after))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.isSurrogate(c);
+    }
+
+    /**
+     * Whether the name starts with the typed text, ignoring ASCII case like SQLite's LIKE.
+     */
+    private static boolean likePrefix(String name, String typed) {
+        if (name.length() < typed.length()) {
+            return false;
+        }
+        for (int i = 0; i < typed.length(); i++) {
+            char a = name.charAt(i);
+            char b = typed.charAt(i);
+            if (a != b && (a > 0x7F || b > 0x7F || Character.toLowerCase(a) != Character.toLowerCase(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Streams the matching records, decoding a chunk of them per read lock.
+     */
+    private final class RecordCursor extends Spliterators.AbstractSpliterator<Employee> {
+
+        private final Filter filter;
+        private final long start = streamMetrics.start();
+        private final List<Employee> chunk = new ArrayList<>(SCAN_CHUNK);
+        private int next;
+        private long nextId = 1;
+        private boolean exhausted;
+        private long count;
+
+        RecordCursor(Filter filter) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee> action) {
+            while (next == chunk.size()) {
+                if (exhausted) {
+                    return false;
+                }
+                fill();
+            }
+            count++;
+            action.accept(chunk.get(next++));
+            return true;
+        }
+
+        private void fill() {
+            chunk.clear();
+            next = 0;
+            long stamp = lock.readLock();
+            try {
+                long last = Math.min(lastId, index.capacity() - 1L);
+                for (int i = 0; i < SCAN_CHUNK; i++, nextId++) {
+                    if (nextId > last) {
+                        exhausted = true;
+                        return;
+                    }
+                    long offset = index.get((int) nextId);
+                    if (offset != 0 && filter.matches(logFile.buffer, (int) offset)) {
+                        chunk.add(decode(logFile.buffer, (int) offset));
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void close() {
+            streamMetrics.success(start, count);
+        }
+    }
+
+    /**
+     * The criteria filters, checked on a record's fixed header and department bytes.
+     */
+    private static final class Filter {
+
+        private final byte[] department;
+        private final Boolean active;
+        private final long hiredFrom;
+        private final long hiredTo;
+        private final double minSalary;
+        private final double maxSalary;
+        private final boolean all;
+
+        Filter(EmployeeCriteria criteria) {
+            this.department = (criteria.getDepartment() == null)
+                    ? null : criteria.getDepartment().getBytes(StandardCharsets.UTF_8);
+            this.active = criteria.getActive();
+            this.hiredFrom = (criteria.getHiredFrom() == null)
+                    ? Long.MIN_VALUE : LocalDateAttributeConverter.encode(criteria.getHiredFrom());
+            this.hiredTo = (criteria.getHiredTo() == null)
+                    ? Long.MAX_VALUE : LocalDateAttributeConverter.encode(criteria.getHiredTo());
+            this.minSalary = (criteria.getMinSalary() == null) ? Double.NEGATIVE_INFINITY : criteria.getMinSalary();
+            this.maxSalary = (criteria.getMaxSalary() == null) ? Double.POSITIVE_INFINITY : criteria.getMaxSalary();
+            this.all = department == null && active == null && criteria.getHiredFrom() == null
+                    && criteria.getHiredTo() == null && criteria.getMinSalary() == null && criteria.getMaxSalary() == null;
+        }
+
+        boolean matchesAll() {
+            return all;
+        }
+
+        boolean matches(ByteBuffer buffer, int entry) {
+            if (all) {
+                return true;
+            }
+            if (active != null && (buffer.get(entry + ENTRY_ACTIVE) != 0) != active) {
+                return false;
+            }
+            long hired = buffer.getLong(entry + ENTRY_HIRE_DATE);
+            if (hired < hiredFrom || hired > hiredTo) {
+                return false;
+            }
+            double salary = buffer.getDouble(entry + ENTRY_SALARY);
+            if (salary < minSalary || salary > maxSalary) {
+                return false;
+            }
+            if (department != null) {
+                if (Short.toUnsignedInt(buffer.getShort(entry + ENTRY_DEPARTMENT_LENGTH)) != department.length) {
+                    return false;
+                }
+                int text = entry + ENTRY_HEADER
+                        + Short.toUnsignedInt(buffer.getShort(entry + ENTRY_NAME_LENGTH))
+                        + Short.toUnsignedInt(buffer.getShort(entry + ENTRY_POSITION_LENGTH));
+                for (int i = 0; i < department.length; i++) {
+                    if (buffer.get(text + i) != department[i]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    // ------------------------------------------------------------------ encoding
+
+    /**
+     * An entry ready to be written: an employee with its ID and encoded strings, or a tombstone.
+     */
+    private static final class Entry {
+
+        final byte kind;
+        final long id;
+        final long version;
+        final Employee employee;
+        final byte[] name;
+        final byte[] position;
+        final byte[] department;
+        final int length;
+
+        private Entry(byte kind, long id, long version, Employee employee, byte[] name, byte[] position,
+                      byte[] department) {
+            this.kind = kind;
+            this.id = id;
+            this.version = version;
+            this.employee = employee;
+            this.name = name;
+            this.position = position;
+            this.department = department;
+            this.length = (ENTRY_HEADER + name.length + position.length + department.length + 7) & ~7;
+        }
+
+        /**
+         * Encodes an employee, applying the constraints of the employees table.
+         *
+         * @throws IllegalArgumentException if a column is missing, the salary is negative or a text is too long
+         */
+        static Entry of(long id, long version, Employee e) {
+            if (e.getHireDate() == null) {
+                throw new IllegalArgumentException("hire date is required");
+            }
+            if (!(e.getSalary() >= 0)) {
+                throw new IllegalArgumentException("salary must be 0 or greater");
+            }
+            return new Entry(KIND_EMPLOYEE, id, version, e, text("name", e.getName()), text("position", e.getPosition()),
+                    text("department", e.getDepartment()));
+        }
+
+        static Entry deleted(long id) {
+            return new Entry(KIND_DELETED, id, 0, null, new byte[0], new byte[0], new byte[0]);
+        }
+
+        private static byte[] text(String column, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_TEXT_BYTES) {
+                throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_BYTES + " bytes");
+            }
+            return bytes;
+        }
+
+        void writeTo(ByteBuffer buffer, int offset) {
+            buffer.putInt(offset + ENTRY_LENGTH, length);
+            buffer.put(offset + ENTRY_KIND, kind);
+            buffer.put(offset + ENTRY_ACTIVE, (byte) (employee != null && employee.isActive() ? 1 : 0));
+            buffer.putShort(offset + ENTRY_NAME_LENGTH, (short) name.length);
+            buffer.putShort(offset + ENTRY_POSITION_LENGTH, (short) position.length);
+            buffer.putShort(offset + ENTRY_DEPARTMENT_LENGTH, (short) department.length);
+            buffer.putInt(offset + ENTRY_VERSION, (int) version);
+            buffer.putLong(offset + ENTRY_ID, id);
+            buffer.putDouble(offset + ENTRY_SALARY, employee == null ? 0 : employee.getSalary());
+            buffer.putLong(offset + ENTRY_HIRE_DATE,
+                    employee == null ? 0 : LocalDateAttributeConverter.encode(employee.getHireDate()));
+            int text = offset + ENTRY_HEADER;
+            buffer.put(text, name);
+            buffer.put(text + name.length, position);
+            buffer.put(text + name.length + position.length, department);
+            for (int pad = text + name.length + position.length + department.length; pad < offset + length; pad++) {
+                buffer.put(pad, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Writes a frame of entries at an offset: entries first, then the checksum, then the length.
+     *
+     * @return the offsets of the entries
+     */
+    private static int[] writeFrame(ByteBuffer buffer, int frame, List<Entry> entries) {
+        int[] offsets = new int[entries.size()];
+        int offset = frame + FRAME_HEADER;
+        for (int i = 0; i < entries.size(); i++) {
+            offsets[i] = offset;
+            entries.get(i).writeTo(buffer, offset);
+            offset += entries.get(i).length;
+        }
+        sealFrame(buffer, frame, offset - frame);
+        return offsets;
+    }
+
+    private static void sealFrame(ByteBuffer buffer, int frame, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(frame + FRAME_HEADER, length - FRAME_HEADER));
+        buffer.putInt(frame + 4, (int) crc.getValue());
+        buffer.putInt(frame, length);
+    }
+
+    /**
+     * Copies entries into the compaction file, packed into frames of up to COMPACTION_FRAME_BYTES.
+     */
+    private static final class FrameWriter {
+
+        private final LogFile target;
+        private int frame = -1;
+
+        FrameWriter(LogFile target) {
+            this.target = target;
+            target.end = HEADER_SIZE;
+        }
+
+        /**
+         * Copies one entry.
+         *
+         * @return the offset of the copy
+         */
+        int copy(ByteBuffer source, int entry) {
+            int length = source.getInt(entry);
+            if (frame >= 0 && target.end + length - frame > COMPACTION_FRAME_BYTES) {
+                seal();
+            }
+            if (frame < 0) {
+                target.grow((long) target.end + FRAME_HEADER + length + FRAME_HEADER);
+                frame = target.end;
+                target.end += FRAME_HEADER;
+            } else {
+                target.grow((long) target.end + length + FRAME_HEADER);
+            }
+            int offset = target.end;
+            target.buffer.put(offset, source, entry, length);
+            target.end += length;
+            return offset;
+        }
+
+        void seal() {
+            if (frame >= 0) {
+                sealFrame(target.buffer, frame, target.end - frame);
+                frame = -1;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ file and index
+
+    /**
+     * The log file, its mapping and the offset where the next frame goes.
+     */
+    private static final class LogFile {
+
+        final Path path;
+        final FileChannel channel;
+        MappedByteBuffer buffer;
+        int end;
+
+        LogFile(Path path, FileChannel channel, MappedByteBuffer buffer, int end) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.end = end;
+        }
+
+        static LogFile create(Path path, long capacity) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            return new LogFile(path, channel, map(channel, capacity), HEADER_SIZE);
+        }
+
+        static LogFile open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), INITIAL_CAPACITY);
+            if (size > MAX_CAPACITY) {
+                channel.close();
+                throw new IllegalStateException(path + " is larger than " + MAX_CAPACITY + " bytes");
+            }
+            return new LogFile(path, channel, map(channel, size & ~7), HEADER_SIZE);
+        }
+
+        int capacity() {
+            return buffer.capacity();
+        }
+
+        /**
+         * Remaps the file, doubling its size until it holds at least the given number of bytes.
+         *
+         * @throws IllegalStateException if the log would exceed one mapping
+         */
+        void grow(long needed) {
+            if (needed <= buffer.capacity()) {
+                return;
+            }
+            if (needed > MAX_CAPACITY) {
+                throw new IllegalStateException("The employee store " + path + " is full (" + MAX_CAPACITY + " bytes)");
+            }
+            try {
+                buffer = map(channel, capacityFor(needed));
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to grow the employee store " + path, ex);
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close the employee store {}", path, ex);
+            }
+        }
+
+        private static MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    /**
+     * The smallest power of two (capped at one mapping) of at least the given size.
+     */
+    private static long capacityFor(long needed) {
+        long capacity = INITIAL_CAPACITY;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return Math.min(capacity, MAX_CAPACITY);
+    }
+
+    private static LongBuffer allocateIndex(long slots) {
+        int capacity = INITIAL_INDEX_CAPACITY;
+        while (capacity < slots) {
+            if (capacity > Integer.MAX_VALUE / 16) {
+                throw new IllegalStateException("Employee IDs beyond " + capacity + " are not supported");
+            }
+            capacity <<= 1;
+        }
+        return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    /**
+     * Sets an index slot, growing the index if the ID is beyond it.
+     *
+     * @return the index, which is a new buffer if it grew
+     */
+    private static LongBuffer put(LongBuffer index, long id, long offset) {
+        if (id >= index.capacity()) {
+            if (offset == 0) {
+                return index;
+            }
+            LongBuffer grown = allocateIndex(id + 1);
+            grown.put(0, index, 0, index.capacity());
+            index = grown;
+        }
+        index.put((int) id, offset);
+        return index;
+    }
+}
@@ -0,0 +1,147 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * RepositoryMetrics.java
+ *
+ * This class registers the Micrometer meters EmployeeRepository reports to, and hands out one
+ * Operation per repository method so the meters are looked up once instead of on every call.
+ *
+ * Key Features:
+ * - dms.repository.operations: a timer per method, tagged outcome=success or outcome=error, so
+ *   call counts, latency percentiles and error counts come from one meter.
+ * - dms.repository.rows: a counter per method of the rows read (queries) or written (saves and
+ *   deletes), tagged direction=read or direction=written.
+ * - dms.repository.commit.batch and dms.repository.commit.latency: the number of saves sharing each
+ *   group commit and the time each group commit takes, from its first statement to its commit.
+ * - Connection acquire time is not measured here: HikariCP publishes it as hikaricp.connections.acquire.
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RepositoryMetrics {
+
+    private final MeterRegistry registry;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param registry the registry the meters are published to
+     */
+    public RepositoryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Creates the meters of a repository method that reads rows.
+     *
+     * @param method the method name, used as the "method" tag
+     * @return the operation
+     */
+    public Operation reads(String method) {
+        return new Operation(registry, method, "read");
+    }
+
+    /**
+     * Creates the meters of a repository method that writes rows.
+     *
+     * @param method the method name, used as the "method" tag
+     * @return the operation
+     */
+    public Operation writes(String method) {
+        return new Operation(registry, method, "written");
+    }
+
+    /**
+     * Creates the summary of how many saves each group commit wrote.
+     *
+     * @return the batch-size summary
+     */
+    public DistributionSummary commitBatchSize() {
+        return DistributionSummary.builder("dms.repository.commit.batch")
+                .description("Saves written by one group commit")
+                .baseUnit("rows")
+                .register(registry);
+    }
+
+    /**
+     * Creates the timer of group commits.
+     *
+     * @return the commit-latency timer
+     */
+    public Timer commitLatency() {
+        return Timer.builder("dms.repository.commit.latency")
+                .description("Duration of one group commit, from its first statement to its commit")
+                .register(registry);
+    }
+
+    /**
+     * The meters of one repository method. A call is timed from start() to success() or failure().
+     */
+    public static final class Operation {
+
+        private final Timer succeeded;
+        private final Timer failed;
+        private final Counter rows;
+
+        private Operation(MeterRegistry registry, String method, String direction) {
+            this.succeeded = timer(registry, method, "success");
+            this.failed = timer(registry, method, "error");
+            this.rows = Counter.builder("dms.repository.rows")
+                    .description("Rows read or written by EmployeeRepository")
+                    .tag("method", method)
+                    .tag("direction", direction)
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String method, String outcome) {
+            return Timer.builder("dms.repository.operations")
+                    .description("EmployeeRepository calls, including connection acquisition")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+
+        /**
+         * Marks the start of a call.
+         *
+         * @return the start time, to be passed to success() or failure()
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Records a successful call.
+         *
+         * @param start the value returned by start()
+         * @param rows  the number of rows read or written
+         */
+        public void success(long start, long rows) {
+            succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (rows > 0) {
+                this.rows.increment(rows);
+            }
+        }
+
+        /**
+         * Records a failed call.
+         *
+         * @param start the value returned by start()
+         */
+        public void failure(long start) {
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
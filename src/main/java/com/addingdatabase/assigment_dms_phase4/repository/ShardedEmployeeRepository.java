@@ -0,0 +1,483 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * ShardedEmployeeRepository.java
+ *
+ * This class is the EmployeeRepository used when dms.repository.shards is above 1 (with the default
+ * "jdbc" engine). The employees are partitioned over that many SQLite files, each served by its own
+ * JdbcEmployeeRepository with its own connection pool and its own single writer thread, so writes to
+ * different shards run in parallel instead of queueing for one database lock.
+ *
+ * Key Features:
+ * - Shard 0 is the database the application was started with; shard k is a file next to it named
+ *   "<name>-shard<k>.<ext>", created and migrated with the same Flyway migrations at startup.
+ * - Partitioned by ID range: shard k hands out the IDs above k * 2^40 (its AUTOINCREMENT sequence is
+ *   raised there once), so the shard of any ID is known without a lookup. New employees are placed
+ *   round-robin; a saveAll() places all of its new employees on one shard, so an import chunk stays
+ *   one atomic transaction. Partitioning by department was not chosen: an update that changes the
+ *   department would have to move the row to another shard and give it a new ID.
+ * - findById, save and deleteById go to one shard. findAll, count, findPage, search, deleteAllById,
+ *   the tenure report's counts and the payroll report's salary groups fan out to all shards in parallel and merge the results:
+ *   findAll in ID order (the shards hold consecutive ID ranges), findPage by the sort key and ID,
+ *   search by its ranking. stream() reads the shards one after another, also in ID order.
+ * - A saveAll() or deleteAllById() that spans several shards commits one transaction per shard;
+ *   if one shard fails, the others keep their changes.
+ * - Statements run for a request on other threads still appear in its SqlTrace (Server-Timing);
+ *   the repository meters (dms.repository.*) add up the calls of all shards.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Repository
+@ConditionalOnExpression("'${dms.repository.engine:jdbc}' == 'jdbc' and ${dms.repository.shards:1} > 1")
+public class ShardedEmployeeRepository implements EmployeeRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedEmployeeRepository.class);
+
+    /**
+     * The IDs of shard k are k * 2^SHARD_ID_BITS + 1 up to (k + 1) * 2^SHARD_ID_BITS.
+     */
+    static final int SHARD_ID_BITS = 40;
+
+    private final List<JdbcEmployeeRepository> shards = new ArrayList<>();
+
+    /**
+     * Pools and writers created for shards 1..n-1; shard 0 uses the application's own.
+     */
+    private final List<HikariDataSource> shardDataSources = new ArrayList<>();
+    private final List<SingleWriterExecutor> shardWriters = new ArrayList<>();
+
+    /**
+     * Runs the per-shard parts of a fanned-out call; the calling thread runs the first shard itself.
+     */
+    private final ExecutorService fanOutExecutor;
+
+    private final AtomicInteger nextInsertShard = new AtomicInteger();
+
+    /**
+     * Constructor that uses constructor-based dependency injection. Opens, migrates and prepares
+     * every shard after the first.
+     *
+     * @param dataSource      the application's pooled DataSource; its database becomes shard 0
+     * @param flyway          the application's migrations, applied to every other shard as well
+     * @param shardCount      the number of database files
+     * @param streamFetchSize the JDBC fetch size used by stream()
+     * @param metrics         the meters each operation reports its duration and row count to
+     * @param sqlTracer       the per-statement tracer
+     * @param writer          the application's single-writer queue, used by shard 0
+     * @param registry        the registry the queue meters of the other writers are published to
+     * @param writeQueueCapacity the queue capacity of each additional writer
+     * @param writeQueueMaxWait  how long a write may wait for a queue slot of an additional writer
+     * @param groupCommit     whether concurrent save() calls to a shard share one transaction
+     * @param groupCommitWindow   how long a group commit waits for more saves to join it
+     * @param groupCommitMaxBatch the most saves one group commit writes
+     * @param resetSequenceOnDelete whether deletes reset the AUTOINCREMENT sequence afterwards
+     */
+    public ShardedEmployeeRepository(HikariDataSource dataSource,
+                                     Flyway flyway,
+                                     @Value("${dms.repository.shards}") int shardCount,
+                                     @Value("${dms.repository.stream-fetch-size:500}") int streamFetchSize,
+                                     RepositoryMetrics metrics,
+                                     SqlTracer sqlTracer,
+                                     SingleWriterExecutor writer,
+                                     MeterRegistry registry,
+                                     @Value("${dms.write-queue.capacity:1000}") int writeQueueCapacity,
+                                     @Value("${dms.write-queue.max-wait:2s}") Duration writeQueueMaxWait,
+                                     @Value("${dms.repository.group-commit.enabled:false}") boolean groupCommit,
+                                     @Value("${dms.repository.group-commit.window:0ms}") Duration groupCommitWindow,
+                                     @Value("${dms.repository.group-commit.max-batch-size:256}") int groupCommitMaxBatch,
+                                     @Value("${dms.repository.reset-sequence-on-delete:false}") boolean resetSequenceOnDelete) {
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOutExecutor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "shard-fan-out-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        shards.add(new JdbcEmployeeRepository(dataSource, streamFetchSize, metrics, sqlTracer, writer,
+                groupCommit, groupCommitWindow, groupCommitMaxBatch, resetSequenceOnDelete, 0));
+        for (int k = 1; k < shardCount; k++) {
+            HikariConfig config = new HikariConfig();
+            dataSource.copyStateTo(config);
+            config.setJdbcUrl(shardUrl(dataSource.getJdbcUrl(), k));
+            config.setPoolName(dataSource.getPoolName() + "-shard" + k);
+            HikariDataSource shardDataSource = new HikariDataSource(config);
+            shardDataSources.add(shardDataSource);
+            Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shardDataSource).load().migrate();
+
+            SingleWriterExecutor shardWriter = new SingleWriterExecutor(SingleWriterExecutor.DEFAULT_NAME + "-" + k,
+                    writeQueueCapacity, writeQueueMaxWait, registry);
+            shardWriters.add(shardWriter);
+
+            JdbcEmployeeRepository shard = new JdbcEmployeeRepository(shardDataSource, streamFetchSize, metrics,
+                    sqlTracer, shardWriter, groupCommit, groupCommitWindow, groupCommitMaxBatch,
+                    resetSequenceOnDelete, (long) k << SHARD_ID_BITS);
+            shard.reserveIds();
+            shards.add(shard);
+        }
+        log.info("Employees are sharded over {} databases: {} and {} more", shardCount,
+                dataSource.getJdbcUrl(), shardCount - 1);
+    }
+
+    /**
+     * Derives the JDBC URL of shard k from the URL of shard 0 by inserting "-shard<k>" before the
+     * file extension, e.g. jdbc:sqlite:data/dms.db becomes jdbc:sqlite:data/dms-shard1.db.
+     *
+     * @param url   the JDBC URL of shard 0
+     * @param shard the shard number, 1 or more
+     * @return the JDBC URL of the shard
+     */
+    static String shardUrl(String url, int shard) {
+        int query = url.indexOf('?');
+        String path = (query < 0) ? url : url.substring(0, query);
+        String options = (query < 0) ? "" : url.substring(query);
+        int name = Math.max(path.lastIndexOf(':'), Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')));
+        int dot = path.lastIndexOf('.');
+        if (dot <= name) {
+            dot = path.length();
+        }
+        return path.substring(0, dot) + "-shard" + shard + path.substring(dot) + options;
+    }
+
+    @Override
+    public List<Employee> findAll() {
+        List<Employee> employees = new ArrayList<>();
+        for (List<Employee> shardEmployees : fanOut(shards, JdbcEmployeeRepository::findAll)) {
+            employees.addAll(shardEmployees);
+        }
+        return employees;
+    }
+
+    @Override
+    public Stream<Employee> streamAll() {
+        return stream(EmployeeCriteria.all());
+    }
+
+    @Override
+    public Stream<Employee> stream(EmployeeCriteria criteria) {
+        ShardCursor cursor = new ShardCursor(criteria);
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    @Override
+    public long count(EmployeeCriteria criteria) {
+        long count = 0;
+        for (long shardCount : fanOut(shards, shard -> shard.count(criteria))) {
+            count += shardCount;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the groups of every shard in parallel and combines the groups of the same department and
+     * flag. Each shard is read in its own transaction, so a cross-shard saveAll() may be seen in part.
+     */
+    @Override
+    public List<SalaryGroup> salaryGroups() {
+        Map<String, SalaryGroup> merged = new LinkedHashMap<>();
+        for (List<SalaryGroup> shardGroups : fanOut(shards, JdbcEmployeeRepository::salaryGroups)) {
+            for (SalaryGroup group : shardGroups) {
+                SalaryGroup existing = merged.putIfAbsent(group.isActive() + ":" + group.getDepartment(), group);
+                if (existing != null) {
+                    existing.addAll(group);
+                }
+            }
+        }
+        List<SalaryGroup> groups = new ArrayList<>(merged.values());
+        groups.sort(Comparator.comparing(SalaryGroup::getDepartment, EmployeeOrdering::compareText)
+                .thenComparing(SalaryGroup::isActive));
+        return groups;
+    }
+
+    @Override
+    public List<Employee> search(String matchQuery, String namePrefix, int limit, int candidateLimit) {
+        List<JdbcEmployeeRepository.SearchHit> hits = new ArrayList<>();
+        for (List<JdbcEmployeeRepository.SearchHit> shardHits
+                : fanOut(shards, shard -> shard.searchHits(matchQuery, namePrefix, limit, candidateLimit))) {
+            hits.addAll(shardHits);
+        }
+        // The ORDER BY of JdbcEmployeeRepository.searchHits(), applied to the matches of all shards
+        hits.sort(Comparator.<JdbcEmployeeRepository.SearchHit>comparingInt(hit -> hit.tier)
+                .thenComparing(hit -> !hit.prefix)
+                .thenComparingInt(hit -> hit.employee.getName().codePointCount(0, hit.employee.getName().length()))
+                .thenComparingLong(hit -> hit.employee.getId()));
+
+        List<Employee> employees = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            employees.add(hits.get(i).employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Describes the plan of shard 0; every shard has the same schema and indexes.
+     */
+    @Override
+    public List<String> explainQueryPlan(EmployeeCriteria criteria) {
+        return shards.get(0).explainQueryPlan(criteria);
+    }
+
+    /**
+     * Reads the page from every shard and keeps the rows closest to the cursor: each shard's page
+     * holds its own nearest rows, so the nearest rows overall are among them.
+     */
+    @Override
+    public List<Employee> findPage(EmployeeCriteria criteria, EmployeeSortKey sort, boolean descending,
+                                   PageCursor cursor, boolean backward, int limit) {
+        List<Employee> rows = new ArrayList<>();
+        for (List<Employee> shardRows
+                : fanOut(shards, shard -> shard.findPage(criteria, sort, descending, cursor, backward, limit))) {
+            rows.addAll(shardRows);
+        }
+        rows.sort(EmployeeOrdering.displayOrder(sort, descending));
+        if (rows.size() <= limit) {
+            return rows;
+        }
+        // Reading backward, the rows nearest the cursor are the last ones in display order
+        return new ArrayList<>(backward ? rows.subList(rows.size() - limit, rows.size()) : rows.subList(0, limit));
+    }
+
+    /**
+     * Inserts a new employee on the next shard in turn, or updates an existing one on its shard.
+     * An ID outside every shard's range matches no row, so nothing is written.
+     */
+    @Override
+    public boolean save(Employee e) {
+        JdbcEmployeeRepository shard = (e.getId() == null) ? nextInsertShard() : shardOf(e.getId());
+        return shard != null && shard.save(e);
+    }
+
+    /**
+     * Writes the new employees on one shard and each existing employee on its own shard, one
+     * transaction per shard, in parallel.
+     */
+    @Override
+    public int saveAll(Collection<Employee> employees) {
+        Map<JdbcEmployeeRepository, List<Employee>> byShard = new LinkedHashMap<>();
+        JdbcEmployeeRepository insertShard = null;
+        for (Employee e : employees) {
+            JdbcEmployeeRepository shard;
+            if (e.getId() == null) {
+                if (insertShard == null) {
+                    insertShard = nextInsertShard();
+                }
+                shard = insertShard;
+            } else {
+                shard = shardOf(e.getId());
+            }
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(e);
+            }
+        }
+
+        int written = 0;
+        for (int shardWritten : fanOut(new ArrayList<>(byShard.keySet()), shard -> shard.saveAll(byShard.get(shard)))) {
+            written += shardWritten;
+        }
+        return written;
+    }
+
+    @Override
+    public Employee findById(Long id) {
+        JdbcEmployeeRepository shard = shardOf(id);
+        return (shard == null) ? null : shard.findById(id);
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        JdbcEmployeeRepository shard = shardOf(id);
+        return shard != null && shard.deleteById(id);
+    }
+
+    @Override
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        Map<JdbcEmployeeRepository, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : ids) {
+            JdbcEmployeeRepository shard = shardOf(id);
+            if (shard != null) {
+                byShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Set<Long> deleted = new LinkedHashSet<>();
+        for (Set<Long> shardDeleted : fanOut(new ArrayList<>(byShard.keySet()), shard -> shard.deleteAllById(byShard.get(shard)))) {
+            deleted.addAll(shardDeleted);
+        }
+        return deleted;
+    }
+
+    /**
+     * Resets the sequence of every shard; a shard's sequence never drops below its ID range.
+     */
+    @Override
+    public void resetEmployeeSequence() {
+        fanOut(shards, shard -> {
+            shard.resetEmployeeSequence();
+            return null;
+        });
+    }
+
+    /**
+     * Drains and stops the writers of the additional shards, then closes their pools.
+     */
+    @PreDestroy
+    public void close() {
+        fanOutExecutor.shutdown();
+        for (SingleWriterExecutor shardWriter : shardWriters) {
+            shardWriter.shutdown();
+        }
+        for (HikariDataSource shardDataSource : shardDataSources) {
+            shardDataSource.close();
+        }
+    }
+
+    /**
+     * Finds the shard whose ID range contains the ID.
+     *
+     * @param id the employee ID
+     * @return the shard, or null if no shard hands out this ID
+     */
+    private JdbcEmployeeRepository shardOf(Long id) {
+        if (id == null || id <= 0) {
+            return null;
+        }
+        long shard = (id - 1) >>> SHARD_ID_BITS;
+        return (shard < shards.size()) ? shards.get((int) shard) : null;
+    }
+
+    private JdbcEmployeeRepository nextInsertShard() {
+        return shards.get(Math.floorMod(nextInsertShard.getAndIncrement(), shards.size()));
+    }
+
+    /**
+     * Runs a call on each of the given shards in parallel and waits for all of them, so no call is
+     * still running when this returns. The current request's SqlTrace is carried to the other threads.
+     *
+     * @param targets the shards to call
+     * @param call    the call to make on each shard
+     * @param <T>     the result type
+     * @return the results, in the order of the targets
+     * @throws RuntimeException the first failure of any call, after all calls have finished
+     */
+    private <T> List<T> fanOut(List<JdbcEmployeeRepository> targets, Function<JdbcEmployeeRepository, T> call) {
+        if (targets.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (targets.size() == 1) {
+            return Collections.singletonList(call.apply(targets.get(0)));
+        }
+
+        SqlTrace trace = SqlTrace.current();
+        List<Future<T>> others = new ArrayList<>(targets.size() - 1);
+        for (JdbcEmployeeRepository shard : targets.subList(1, targets.size())) {
+            others.add(fanOutExecutor.submit(() -> SqlTrace.callWith(trace, () -> call.apply(shard))));
+        }
+
+        List<T> results = new ArrayList<>(targets.size());
+        RuntimeException failure = null;
+        try {
+            results.add(call.apply(targets.get(0)));
+        } catch (RuntimeException ex) {
+            failure = ex;
+        }
+        for (Future<T> other : others) {
+            try {
+                results.add(other.get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the shards", ex);
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = (ex.getCause() instanceof RuntimeException runtime)
+                            ? runtime
+                            : new IllegalStateException("Shard call failed: " + ex.getCause().getMessage(), ex.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Streams the shards one after another. Only one shard's cursor (and pooled connection) is
+     * open at a time; closing the stream closes it.
+     */
+    private final class ShardCursor extends Spliterators.AbstractSpliterator<Employee> {
+
+        private final EmployeeCriteria criteria;
+        private int nextShard;
+        private Stream<Employee> current;
+        private Iterator<Employee> rows;
+
+        ShardCursor(EmployeeCriteria criteria) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.criteria = criteria;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee> action) {
+            while (rows == null || !rows.hasNext()) {
+                close();
+                if (nextShard == shards.size()) {
+                    return false;
+                }
+                current = shards.get(nextShard++).stream(criteria);
+                rows = current.iterator();
+            }
+            action.accept(rows.next());
+            return true;
+        }
+
+        void close() {
+            if (current != null) {
+                current.close();
+                current = null;
+                rows = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * SingleWriterExecutor.java
+ *
+ * This class runs every database write to one SQLite file on one dedicated thread. SQLite
+ * allows a single writer at a time; funnelling writes through one thread serializes them in
+ * process, instead of letting concurrent requests race for the database lock and fail with
+ * SQLITE_BUSY once busy_timeout expires.
+ *
+ * Key Features:
+ * - A bounded queue (dms.write-queue.capacity). When it is full a caller waits up to
+ *   dms.write-queue.max-wait for space and is then refused with WriteRejectedException,
+ *   so overload becomes an explicit error instead of unbounded waiting or lost writes.
+ * - The caller blocks until its write has run and receives its result or its exception.
+ *   With virtual threads (Java 21+) that wait does not tie up a platform thread.
+ * - The caller's SqlTrace is carried over to the writer thread, so writes appear in the
+ *   request's Server-Timing header.
+ * - Writes issued from the writer thread itself run inline (no self-deadlock).
+ * - Publishes the queue length (dms.repository.write.queue), the time writes wait before
+ *   running (dms.repository.write.wait) and the refused writes (dms.repository.write.rejected),
+ *   tagged with the writer's thread name. A sharded repository has one writer per database file.
+ * - Queued writes are completed before the application shuts down.
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class SingleWriterExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleWriterExecutor.class);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Name of the writer thread of the application's (first) database.
+     */
+    static final String DEFAULT_NAME = "sqlite-writer";
+
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private volatile Thread writerThread;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param capacity the number of writes that may wait for the writer
+     * @param maxWait  how long a caller may wait for a free queue slot before being refused
+     * @param registry the registry the queue meters are published to
+     */
+    @Autowired
+    public SingleWriterExecutor(@Value("${dms.write-queue.capacity:1000}") int capacity,
+                                @Value("${dms.write-queue.max-wait:2s}") Duration maxWait,
+                                MeterRegistry registry) {
+        this(DEFAULT_NAME, capacity, maxWait, registry);
+    }
+
+    /**
+     * Constructor for an additional writer, e.g. one per database file of a sharded repository.
+     *
+     * @param name     the name of the writer thread, also the "writer" tag of the meters
+     * @param capacity the number of writes that may wait for the writer
+     * @param maxWait  how long a caller may wait for a free queue slot before being refused
+     * @param registry the registry the queue meters are published to
+     */
+    public SingleWriterExecutor(String name, int capacity, Duration maxWait, MeterRegistry registry) {
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                task -> {
+                    Thread thread = new Thread(task, name);
+                    writerThread = thread;
+                    return thread;
+                },
+                (task, pool) -> waitForSlot(task, pool, maxWait));
+        this.executor.prestartCoreThread();
+
+        Gauge.builder("dms.repository.write.queue", executor, pool -> pool.getQueue().size())
+                .description("Writes waiting for the SQLite writer thread")
+                .tag("writer", name)
+                .register(registry);
+        this.waitTimer = Timer.builder("dms.repository.write.wait")
+                .description("Time writes spend queued before the writer thread runs them")
+                .tag("writer", name)
+                .register(registry);
+        this.rejected = Counter.builder("dms.repository.write.rejected")
+                .description("Writes refused because the write queue stayed full")
+                .tag("writer", name)
+                .register(registry);
+    }
+
+    /**
+     * Runs a write on the writer thread and waits for it.
+     *
+     * @param write the write; exceptions it throws are rethrown to the caller
+     * @param <T>   the result type
+     * @return the result of the write
+     * @throws WriteRejectedException if the queue stayed full for the maximum wait; nothing was written
+     */
+    public <T> T execute(Callable<T> write) {
+        if (Thread.currentThread() == writerThread) {
+            return call(write);
+        }
+
+        SqlTrace trace = SqlTrace.current();
+        long queued = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+                return SqlTrace.callWith(trace, write);
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new WriteRejectedException("The database is busy; the write was not queued. Try again shortly.");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            // The write stays queued and will still run; only this caller stops waiting for it
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database write", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Database write failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Waits for queued writes to finish, then stops the writer thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("{} queued writes did not finish before shutdown", executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rejection handler: waits a bounded time for a free slot instead of refusing at once,
+     * so short bursts are absorbed and only sustained overload is refused.
+     */
+    private static void waitForSlot(Runnable task, ThreadPoolExecutor pool, Duration maxWait) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("Writer is shut down");
+        }
+        try {
+            if (!pool.getQueue().offer(task, maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Write queue full");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the write queue", ex);
+        }
+    }
+
+    private static <T> T call(Callable<T> write) {
+        try {
+            return write.call();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Database write failed: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * SqlTrace.java
+ *
+ * This class collects the JDBC statements EmployeeRepository runs on behalf of one HTTP request,
+ * so the request's time can be split into connection acquisition, SQL execution and row mapping.
+ *
+ * Key Features:
+ * - Bound to the request thread: ServerTimingFilter calls begin() and end() around the request;
+ *   repository calls outside a request (startup, benchmarks) find no current trace and are not recorded.
+ * - Writes run on SingleWriterExecutor's thread are recorded in the trace of the request that
+ *   queued them (callWith()); the request thread waits for the write, so the trace is never
+ *   updated by two threads at once.
+ * - Totals per phase across all statements, plus the first MAX_RECORDED_STATEMENTS statements
+ *   with their own duration and row count.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public final class SqlTrace {
+
+    /**
+     * Statements beyond this many are still added to the totals but not listed individually.
+     */
+    public static final int MAX_RECORDED_STATEMENTS = 50;
+
+    private static final ThreadLocal<SqlTrace> CURRENT = new ThreadLocal<>();
+
+    private final List<TracedStatement> statements = new ArrayList<>();
+    private int statementCount;
+    private long rows;
+    private long connectNanos;
+    private long sqlNanos;
+    private long mapNanos;
+
+    private SqlTrace() {
+    }
+
+    /**
+     * Starts a trace for the current thread.
+     *
+     * @return the new trace
+     */
+    public static SqlTrace begin() {
+        SqlTrace trace = new SqlTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Gets the trace of the current thread.
+     *
+     * @return the trace, or null if no request is being traced
+     */
+    static SqlTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs a task on the current thread with the given trace attached, then restores the
+     * thread's previous trace.
+     *
+     * @param trace the trace to record into, may be null
+     * @param task  the task
+     * @param <T>   the result type
+     * @return the task's result
+     * @throws Exception whatever the task throws
+     */
+    static <T> T callWith(SqlTrace trace, Callable<T> task) throws Exception {
+        SqlTrace previous = CURRENT.get();
+        CURRENT.set(trace);
+        try {
+            return task.call();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Detaches this trace from the current thread. The collected values remain readable.
+     */
+    public void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds one executed statement. A sharded repository runs a request's statements on several
+     * threads at once, so recording is synchronized; the totals then add up the parallel time.
+     */
+    synchronized void record(String sql, long connectNanos, long sqlNanos, long mapNanos, long rows) {
+        this.statementCount++;
+        this.rows += rows;
+        this.connectNanos += connectNanos;
+        this.sqlNanos += sqlNanos;
+        this.mapNanos += mapNanos;
+        if (statements.size() < MAX_RECORDED_STATEMENTS) {
+            statements.add(new TracedStatement(sql, connectNanos + sqlNanos + mapNanos, rows));
+        }
+    }
+
+    /**
+     * Gets the number of statements executed.
+     *
+     * @return the statement count
+     */
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Gets the number of rows read or written by all statements.
+     *
+     * @return the row count
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the time spent waiting for pooled connections.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getConnectNanos() {
+        return connectNanos;
+    }
+
+    /**
+     * Gets the time spent preparing and executing statements and stepping through their results.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getSqlNanos() {
+        return sqlNanos;
+    }
+
+    /**
+     * Gets the time spent turning result rows into Employee objects.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getMapNanos() {
+        return mapNanos;
+    }
+
+    /**
+     * Gets the first statements of the request, in execution order.
+     *
+     * @return at most MAX_RECORDED_STATEMENTS statements
+     */
+    public List<TracedStatement> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * One executed statement: its SQL, total duration and row count.
+     */
+    public static final class TracedStatement {
+
+        private final String sql;
+        private final long nanos;
+        private final long rows;
+
+        TracedStatement(String sql, long nanos, long rows) {
+            this.sql = sql;
+            this.nanos = nanos;
+            this.rows = rows;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+}
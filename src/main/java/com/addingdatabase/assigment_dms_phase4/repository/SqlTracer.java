@@ -0,0 +1,184 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * SqlTracer.java
+ *
+ * This class times the JDBC statements of EmployeeRepository, adds them to the current request's
+ * SqlTrace, and writes statements slower than a threshold to the slow-query log.
+ *
+ * Key Features:
+ * - A Statement measures connection acquisition, row mapping and (as the remainder) SQL execution.
+ *   Per-row mapping is only timed while a request is traced, so untraced calls pay two clock
+ *   reads per statement, not per row.
+ * - Statements taking at least dms.trace.slow-query-threshold (excluding the connection wait) are
+ *   logged at WARN to the "dms.slow-query" logger, together with their EXPLAIN QUERY PLAN, which
+ *   is run on the same connection before it is returned to the pool.
+ * - Streamed queries can be paused while the caller processes rows, so only time spent inside
+ *   the cursor is counted.
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class SqlTracer {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("dms.slow-query");
+
+    private final long slowQueryNanos;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param slowQueryThreshold statements taking at least this long are written to the slow-query log
+     */
+    public SqlTracer(@Value("${dms.trace.slow-query-threshold:100ms}") Duration slowQueryThreshold) {
+        this.slowQueryNanos = slowQueryThreshold.toNanos();
+    }
+
+    /**
+     * Starts timing a statement; call before borrowing the connection.
+     *
+     * @param sql the statement text
+     * @return the running measurement
+     */
+    public Statement start(String sql) {
+        return new Statement(sql, SqlTrace.current());
+    }
+
+    /**
+     * Reads the query plan SQLite chooses for a statement. Parameters are left unbound; SQLite
+     * plans a statement before its values are bound, so the plan is the one actually used.
+     *
+     * @param conn the connection to plan on
+     * @param sql  the statement text
+     * @return the detail column of each plan step
+     * @throws SQLException if the statement cannot be planned
+     */
+    static List<String> queryPlan(Connection conn, String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * The measurement of one statement, from before the connection is borrowed until finish().
+     */
+    public final class Statement {
+
+        private final String sql;
+        private final SqlTrace trace;
+        private final long started;
+        private long connectNanos;
+        private long mapNanos;
+        private long pausedNanos;
+        private long pausedAt;
+        private boolean paused;
+
+        private Statement(String sql, SqlTrace trace) {
+            this.sql = sql;
+            this.trace = trace;
+            this.started = System.nanoTime();
+        }
+
+        /**
+         * Records that the connection has been borrowed.
+         *
+         * @param conn the borrowed connection
+         * @return the same connection, for use in try-with-resources
+         */
+        public Connection connected(Connection conn) {
+            connectNanos = System.nanoTime() - started;
+            return conn;
+        }
+
+        /**
+         * Marks the start of mapping one row.
+         *
+         * @return the value to pass to mapped(), or 0 if mapping is not being timed
+         */
+        public long mapping() {
+            return trace == null ? 0 : System.nanoTime();
+        }
+
+        /**
+         * Marks the end of mapping one row.
+         *
+         * @param mappingStarted the value returned by mapping()
+         */
+        public void mapped(long mappingStarted) {
+            if (trace != null) {
+                mapNanos += System.nanoTime() - mappingStarted;
+            }
+        }
+
+        /**
+         * Stops the clock while the caller works outside the statement (streamed results).
+         */
+        public void pause() {
+            if (!paused) {
+                paused = true;
+                pausedAt = System.nanoTime();
+            }
+        }
+
+        /**
+         * Restarts the clock after pause().
+         */
+        public void resume() {
+            if (paused) {
+                paused = false;
+                pausedNanos += System.nanoTime() - pausedAt;
+            }
+        }
+
+        /**
+         * Completes the measurement: adds the statement to the request trace and writes it to the
+         * slow-query log if it was slow. Call while the connection is still open.
+         *
+         * @param conn the connection the statement ran on
+         * @param rows the number of rows read or written
+         */
+        public void finish(Connection conn, long rows) {
+            long end = paused ? pausedAt : System.nanoTime();
+            long total = end - started - pausedNanos;
+            long sqlNanos = total - connectNanos - mapNanos;
+            if (trace != null) {
+                trace.record(sql, connectNanos, sqlNanos, mapNanos, rows);
+            }
+            if (sqlNanos + mapNanos >= slowQueryNanos && slowQueryLog.isWarnEnabled()) {
+                logSlowQuery(conn, sqlNanos + mapNanos, rows);
+            }
+        }
+
+        private void logSlowQuery(Connection conn, long nanos, long rows) {
+            String plan;
+            try {
+                plan = String.join("; ", queryPlan(conn, sql));
+            } catch (SQLException ex) {
+                plan = "unavailable (" + ex.getMessage() + ")";
+            }
+            slowQueryLog.warn("{} ms, {} rows: {} | plan: {}", nanos / 1_000_000, rows, sql, plan);
+        }
+    }
+}
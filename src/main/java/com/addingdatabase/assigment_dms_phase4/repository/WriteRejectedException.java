@@ -0,0 +1,24 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * WriteRejectedException.java
+ *
+ * Thrown when a write cannot be queued because the single SQLite writer is too far behind.
+ * Nothing was written; the caller may retry later (the web layer answers 503 with Retry-After).
+ */
+public class WriteRejectedException extends RuntimeException {
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message the detail message
+     */
+    public WriteRejectedException(String message) {
+        super(message);
+    }
+}
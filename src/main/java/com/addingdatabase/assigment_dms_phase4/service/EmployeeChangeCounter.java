@@ -0,0 +1,52 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeChangeCounter.java
+ *
+ * This class counts the changes made to the employees table since the application started.
+ * The JSON API builds its ETags from the count, so a request whose If-None-Match still
+ * matches is answered with 304 Not Modified without running a query.
+ *
+ * Key Features:
+ * - Incremented from EmployeeChangedEvent on every committed insert, update and delete.
+ * - The version string combines the start time with the count, so tags handed out before a
+ *   restart (when the count starts again from zero) never match afterwards.
+ * - Read the version before querying: a change that commits during the query then produces a
+ *   newer tag, and the client fetches again on its next request instead of keeping stale data.
+ */
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class EmployeeChangeCounter {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Counts one committed change.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Gets the current version of the employees table.
+     *
+     * @return an opaque version string that changes after every committed change
+     */
+    public String getVersion() {
+        return epoch + "." + changes.get();
+    }
+}
@@ -0,0 +1,434 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeChangeFeed.java
+ *
+ * This class turns the committed changes to the employees table into a feed that clients can
+ * follow (GET /api/employees/changes), so a dashboard keeps its copy of the roster current by
+ * applying each change instead of downloading the whole list again.
+ *
+ * Key Features:
+ * - Every EmployeeChangedEvent gets the next sequence number; its feed ID is "<epoch>.<sequence>".
+ *   The epoch is the start time of the application, so an ID from before a restart is recognized.
+ * - The last dms.feed.history events are kept, so a client that reconnects with the ID of the last
+ *   event it received (Last-Event-ID) is sent what it missed.
+ * - Each subscriber has a bounded queue (dms.feed.subscriber-buffer) drained by a sender task;
+ *   writers never wait for a subscriber. A subscriber that falls that far behind loses its queued
+ *   events and is sent a "resync" event instead, as is a client whose ID is too old or unknown.
+ * - The sender tasks share a fixed number of threads (dms.feed.senders); a task sends a limited
+ *   number of events before it gives its thread to the next subscriber.
+ * - "resync" means: fetch the list again, then apply the events that follow. Change events carry the
+ *   whole saved employee, so applying one that the fetched list already contains is harmless.
+ * - Events follow the order they were published in, which for two changes to the same employee is not
+ *   always their commit order (see EmployeeChangedEvent). Created and updated events therefore carry
+ *   the row version: a client applies one only if its version is newer than the copy it holds.
+ * - The JSON of an event is written once, when it is published, and shared by all subscribers.
+ * - Meters: dms.feed.subscribers (gauge) and dms.feed.resyncs (per reason: overflow, resume).
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class EmployeeChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeChangeFeed.class);
+
+    /**
+     * Name of the event that tells a subscriber to fetch the list again.
+     */
+    public static final String RESYNC = "resync";
+
+    private static final String RESYNC_DATA = "{\"type\":\"RESYNC\"}";
+
+    /**
+     * Events a sender task delivers to one subscriber before it lets the next subscriber have the thread.
+     */
+    private static final int EVENTS_PER_TURN = 64;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ObjectMapper objectMapper;
+    private final int historySize;
+    private final int bufferSize;
+    private final ThreadPoolExecutor senders;
+    private final Counter overflowResyncs;
+    private final Counter resumeResyncs;
+
+    // Guarded by this
+    private final ArrayDeque<FeedEvent> history = new ArrayDeque<>();
+    private final Set<Subscription> subscriptions = new LinkedHashSet<>();
+    private long sequence;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param objectMapper the mapper the event data is written with
+     * @param registry     the registry the feed meters are published to
+     * @param historySize  the number of recent events kept for reconnecting clients
+     * @param bufferSize   the number of events a subscriber may fall behind before it is resynced
+     * @param senderThreads the most threads delivering events to subscribers at the same time
+     */
+    public EmployeeChangeFeed(ObjectMapper objectMapper, MeterRegistry registry,
+                              @Value("${dms.feed.history:1024}") int historySize,
+                              @Value("${dms.feed.subscriber-buffer:256}") int bufferSize,
+                              @Value("${dms.feed.senders:8}") int senderThreads) {
+        if (historySize < 0 || bufferSize < 1 || senderThreads < 1) {
+            throw new IllegalStateException("dms.feed.history must be >= 0, dms.feed.subscriber-buffer >= 1"
+                    + " and dms.feed.senders >= 1");
+        }
+        this.objectMapper = objectMapper;
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+
+        // At most one task per subscriber is queued, so the queue is bounded by the subscriber count
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "employee-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("dms.feed.subscribers", this, EmployeeChangeFeed::subscriberCount)
+                .description("Clients following the employee change feed")
+                .register(registry);
+        this.overflowResyncs = resyncCounter(registry, "overflow");
+        this.resumeResyncs = resyncCounter(registry, "resume");
+    }
+
+    private static Counter resyncCounter(MeterRegistry registry, String reason) {
+        return Counter.builder("dms.feed.resyncs")
+                .description("Resync events sent to feed subscribers instead of the changes they missed")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Appends a committed change to the feed and queues it for every subscriber. The JSON is written
+     * here, so the event shows the change as it was published. A change that cannot be written is
+     * sent as a resync.
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        String data = toJson(event);
+        synchronized (this) {
+            FeedEvent feedEvent = (data == null) ? new FeedEvent(++sequence, null, RESYNC_DATA)
+                    : new FeedEvent(++sequence, event, data);
+            if (historySize > 0) {
+                if (history.size() == historySize) {
+                    history.removeFirst();
+                }
+                history.addLast(feedEvent);
+            }
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(feedEvent);
+            }
+        }
+    }
+
+    /**
+     * Writes the data of a change event: {"type": "UPDATED", "id": 7, "version": 3, "employee": {...}},
+     * without the version and employee for a deletion.
+     *
+     * @return the JSON text, or null if the event cannot be written
+     */
+    private String toJson(EmployeeChangedEvent change) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", change.getType());
+        body.put("id", change.getId());
+        Employee employee = change.getEmployee();
+        if (employee != null) {
+            body.put("version", change.getVersion());
+            body.put("employee", employee);
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            log.warn("Failed to write the feed event for employee {}: {}", change.getId(), ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts delivering the feed to a subscriber. A subscriber without a last event ID first gets a
+     * resync event, which tells it the ID to resume from even if nothing changes for a while.
+     *
+     * @param lastEventId the ID of the last event the client received, or null for a new client
+     * @param sink        where the events are delivered; called from a sender thread, one event at a time
+     * @return the subscription; cancel it when the client goes away
+     */
+    public Subscription subscribe(String lastEventId, Sink sink) {
+        synchronized (this) {
+            Subscription subscription = new Subscription(sink);
+            List<FeedEvent> missed = missedEvents(lastEventId);
+            if (missed == null || missed.size() >= bufferSize) {
+                if (lastEventId != null) {
+                    resumeResyncs.increment();
+                }
+                subscription.offer(new FeedEvent(sequence, null, RESYNC_DATA));
+            } else {
+                for (FeedEvent event : missed) {
+                    subscription.offer(event);
+                }
+            }
+            subscriptions.add(subscription);
+            return subscription;
+        }
+    }
+
+    /**
+     * Finds the events after a client's last event ID.
+     *
+     * @return the events, possibly none; null if the ID is not from this run or is older than the history
+     */
+    private List<FeedEvent> missedEvents(String lastEventId) {
+        long last = parseSequence(lastEventId);
+        if (last < 0 || last > sequence) {
+            return null;
+        }
+        long oldestKept = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence;
+        if (last < oldestKept - 1) {
+            return null;
+        }
+        List<FeedEvent> missed = new ArrayList<>();
+        for (FeedEvent event : history) {
+            if (event.sequence > last) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    /**
+     * Reads the sequence number of a feed ID of this run.
+     *
+     * @return the sequence number, or -1 if the ID is missing, malformed or from another run
+     */
+    private long parseSequence(String eventId) {
+        if (eventId == null || !eventId.startsWith(epoch + ".")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private synchronized int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private synchronized void remove(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Ends every subscription when the application stops.
+     */
+    @PreDestroy
+    public void close() {
+        List<Subscription> open;
+        synchronized (this) {
+            open = new ArrayList<>(subscriptions);
+        }
+        for (Subscription subscription : open) {
+            subscription.cancel();
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * Receives the events of one subscription.
+     */
+    public interface Sink {
+
+        /**
+         * Delivers one event.
+         *
+         * @param event the event
+         * @throws IOException if the client cannot be reached; the subscription is then cancelled
+         */
+        void send(FeedEvent event) throws IOException;
+
+        /**
+         * Called once when the subscription ends, whatever the reason.
+         */
+        void close();
+    }
+
+    /**
+     * One subscriber's position in the feed: a bounded queue of events not yet delivered.
+     */
+    public final class Subscription {
+
+        private final Sink sink;
+        // Guarded by this
+        private final ArrayDeque<FeedEvent> queue = new ArrayDeque<>();
+        private boolean sending;
+        private boolean cancelled;
+
+        private Subscription(Sink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Queues an event and starts a sender task if none is running. A full queue is replaced
+         * by a single resync event at the position of the event that did not fit.
+         */
+        private void offer(FeedEvent event) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (queue.size() < bufferSize) {
+                    queue.addLast(event);
+                } else {
+                    queue.clear();
+                    queue.addLast(new FeedEvent(event.sequence, null, RESYNC_DATA));
+                    overflowResyncs.increment();
+                }
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Sends queued events until the queue is empty, or hands the rest to a new task after
+         * EVENTS_PER_TURN events so that one busy subscriber does not keep a sender thread.
+         */
+        private void drain() {
+            for (int sent = 0; ; sent++) {
+                FeedEvent event;
+                synchronized (this) {
+                    event = cancelled ? null : queue.peekFirst();
+                    if (event == null) {
+                        sending = false;
+                        return;
+                    }
+                    if (sent == EVENTS_PER_TURN) {
+                        break;
+                    }
+                    queue.pollFirst();
+                }
+                try {
+                    sink.send(event);
+                } catch (IOException | RuntimeException ex) {
+                    log.debug("Feed subscriber gone: {}", ex.toString());
+                    cancel();
+                    return;
+                }
+            }
+            // Still sending: the next task continues after the subscribers queued before it
+            senders.execute(this::drain);
+        }
+
+        /**
+         * Stops the delivery and closes the sink. Calling it again has no effect.
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                queue.clear();
+            }
+            remove(this);
+            sink.close();
+        }
+    }
+
+    /**
+     * One event of the feed.
+     */
+    public final class FeedEvent {
+
+        private final long sequence;
+        private final String id;
+        private final EmployeeChangedEvent change;
+        private final String data;
+
+        /**
+         * @param change the change, or null for a resync event
+         * @param data   the JSON data of the event
+         */
+        private FeedEvent(long sequence, EmployeeChangedEvent change, String data) {
+            this.sequence = sequence;
+            this.id = epoch + "." + sequence;
+            this.change = change;
+            this.data = data;
+        }
+
+        /**
+         * Gets the sequence number; a resync event has the number of the last change it covers.
+         *
+         * @return the sequence number
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Gets the feed ID a client resumes from.
+         *
+         * @return the ID, "<epoch>.<sequence>"
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Gets the event name: created, updated, deleted or resync.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return change == null ? RESYNC : change.getType().name().toLowerCase();
+        }
+
+        /**
+         * Gets the JSON data: {"type": "UPDATED", "id": 7, "version": 3, "employee": {...}}, without the
+         * version and employee for a deletion, and {"type": "RESYNC"} for a resync.
+         *
+         * @return the JSON text
+         */
+        public String getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeChangedEvent.java
+ *
+ * This class is the Spring application event EmployeeService publishes after an employee
+ * row has been written to the database. Components that keep derived copies of the
+ * employees table (for example the columnar snapshot) listen for it with @EventListener.
+ *
+ * Key Features:
+ * - One event per changed row, published synchronously after the write has committed.
+ * - Carries the change type, the employee ID and, for inserts and updates, a copy of the saved
+ *   employee taken when the event is created, so later changes to the caller's object do not show.
+ * - Events are published by the thread that made the change, so two changes to the same employee
+ *   can reach the listeners in the opposite order of their commits. Saved events carry the row
+ *   version: a listener applies one only if its version is newer than the one it already holds.
+ *   Deletions are only published for rows that existed.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+
+public class EmployeeChangedEvent {
+
+    /**
+     * Kind of change made to an employee row.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final long id;
+    private final Employee employee;
+
+    /**
+     * Constructs a change event.
+     *
+     * @param type     the kind of change
+     * @param id       the ID of the changed employee
+     * @param employee the saved employee, or null for a deletion; it must not be changed afterwards
+     */
+    public EmployeeChangedEvent(Type type, long id, Employee employee) {
+        this.type = type;
+        this.id = id;
+        this.employee = employee;
+    }
+
+    /**
+     * Creates the event for a saved (inserted or updated) employee.
+     *
+     * @param employee the saved employee, with its ID and new version set; the event keeps a copy
+     * @param created  true if the employee was inserted, false if it was updated
+     * @return the event
+     */
+    public static EmployeeChangedEvent saved(Employee employee, boolean created) {
+        Employee copy = new Employee(employee.getId(), employee.getName(), employee.getPosition(),
+                employee.getSalary(), employee.getHireDate(), employee.getDepartment(), employee.isActive());
+        copy.setVersion(employee.getVersion());
+        return new EmployeeChangedEvent(created ? Type.CREATED : Type.UPDATED, employee.getId(), copy);
+    }
+
+    /**
+     * Creates the event for a deleted employee.
+     *
+     * @param id the ID of the deleted employee
+     * @return the event
+     */
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(Type.DELETED, id, null);
+    }
+
+    /**
+     * Gets the kind of change.
+     *
+     * @return the change type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the ID of the changed employee.
+     *
+     * @return the employee ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the saved employee, as it was when the event was created.
+     *
+     * @return the employee, or null for a deletion
+     */
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    /**
+     * Gets the version the row has after the change.
+     *
+     * @return the version of the saved employee, or -1 for a deletion
+     */
+    public long getVersion() {
+        return (employee == null) ? -1 : employee.getVersion();
+    }
+}
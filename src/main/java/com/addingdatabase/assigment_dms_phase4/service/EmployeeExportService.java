@@ -0,0 +1,162 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeExportService.java
+ *
+ * This class writes the employees table (optionally filtered) as CSV or NDJSON, for example
+ * for payroll. Rows are written one at a time while they are read from a database cursor,
+ * so memory use stays constant no matter how many rows are exported.
+ *
+ * Key Responsibilities:
+ * - Stream employees matching an EmployeeCriteria from EmployeeService.streamEmployees().
+ * - Write CSV with the same header the bulk import accepts (RFC 4180 quoting).
+ * - Write NDJSON with the same property names the bulk import accepts.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeFileFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class EmployeeExportService {
+
+    private static final String CSV_HEADER = "id,name,position,salary,hire_date,department,active";
+
+    private final EmployeeService employeeService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param employeeService the service providing the employee cursor
+     * @param objectMapper    the mapper whose JSON factory writes NDJSON
+     */
+    public EmployeeExportService(EmployeeService employeeService, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the employees matching the criteria to the output stream.
+     * The output stream is flushed but not closed.
+     *
+     * @param criteria the filters to apply
+     * @param format   the output format
+     * @param out      the destination
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    public long export(EmployeeCriteria criteria, EmployeeFileFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long rows;
+
+        try (Stream<Employee> employees = employeeService.streamEmployees(criteria)) {
+            Iterator<Employee> it = employees.iterator();
+            rows = (format == EmployeeFileFormat.CSV) ? writeCsv(it, writer) : writeNdjson(it, writer);
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Writes a CSV header and one line per employee.
+     *
+     * @param employees the rows
+     * @param writer    the destination
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    private long writeCsv(Iterator<Employee> employees, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long rows = 0;
+        while (employees.hasNext()) {
+            Employee e = employees.next();
+            writer.write(Long.toString(e.getId()));
+            writer.write(',');
+            writeCsvField(writer, e.getName());
+            writer.write(',');
+            writeCsvField(writer, e.getPosition());
+            writer.write(',');
+            writer.write(Double.toString(e.getSalary()));
+            writer.write(',');
+            writer.write(e.getHireDate().toString());
+            writer.write(',');
+            writeCsvField(writer, e.getDepartment());
+            writer.write(',');
+            writer.write(e.isActive() ? "true" : "false");
+            writer.write('\n');
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Writes a CSV field, quoting it when it contains a comma, quote or line break.
+     *
+     * @param writer the destination
+     * @param value  the field value
+     * @throws IOException if writing fails
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Writes one JSON object per line.
+     *
+     * @param employees the rows
+     * @param writer    the destination
+     * @return the number of rows written
+     * @throws IOException if writing fails
+     */
+    private long writeNdjson(Iterator<Employee> employees, Writer writer) throws IOException {
+        long rows = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(new SerializedString("\n"));
+            while (employees.hasNext()) {
+                Employee e = employees.next();
+                json.writeStartObject();
+                json.writeNumberField("id", e.getId());
+                json.writeStringField("name", e.getName());
+                json.writeStringField("position", e.getPosition());
+                json.writeNumberField("salary", e.getSalary());
+                json.writeStringField("hireDate", e.getHireDate().toString());
+                json.writeStringField("department", e.getDepartment());
+                json.writeBooleanField("active", e.isActive());
+                json.writeEndObject();
+                rows++;
+            }
+        }
+        if (rows > 0) {
+            writer.write('\n');
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,328 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeImportService.java
+ *
+ * This class implements the bulk import of employees from CSV or NDJSON uploads
+ * (for example HR exports). The input is parsed as a stream, one line at a time, so
+ * files of any size can be loaded without holding them in memory.
+ *
+ * Key Responsibilities:
+ * - Parse CSV (with a header row) or NDJSON (one Employee JSON object per line).
+ * - Validate each row with the Employee bean-validation constraints and the
+ *   "hire date cannot be in the future" rule used by EmployeeService.
+ * - Collect valid rows into chunks of dms.import.batch-size and write each chunk through
+ *   EmployeeService.saveAllEmployees(), i.e. one JDBC batch and one commit per chunk.
+ * - Report per-row errors without aborting the load; if a chunk is rejected by the
+ *   database, its rows are retried one by one so only the offending rows are lost.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeFileFormat;
+import com.addingdatabase.assigment_dms_phase4.model.ImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class EmployeeImportService {
+
+    private final EmployeeService employeeService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param employeeService the service that writes employee chunks
+     * @param validator       the bean validator used for the Employee constraints
+     * @param objectMapper    the JSON mapper used for NDJSON lines
+     * @param batchSize       the number of rows written and committed together
+     */
+    public EmployeeImportService(EmployeeService employeeService, Validator validator, ObjectMapper objectMapper,
+                                 @Value("${dms.import.batch-size:5000}") int batchSize) {
+        this.employeeService = employeeService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports employees from an uploaded file.
+     *
+     * @param input  the file contents (UTF-8)
+     * @param format the file format
+     * @return the import report
+     * @throws IOException if the input cannot be read
+     */
+    public ImportReport importEmployees(InputStream input, EmployeeFileFormat format) throws IOException {
+        ImportReport report = new ImportReport();
+        long start = System.currentTimeMillis();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Chunk chunk = new Chunk();
+            Map<String, Integer> csvColumns = null;
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == EmployeeFileFormat.CSV && csvColumns == null) {
+                    csvColumns = parseCsvHeader(line);
+                    continue;
+                }
+
+                report.rowRead();
+                try {
+                    Employee employee = (format == EmployeeFileFormat.CSV)
+                            ? parseCsvRow(line, csvColumns)
+                            : parseJsonRow(line);
+                    String error = validate(employee);
+                    if (error != null) {
+                        report.rowRejected(lineNumber, error);
+                        continue;
+                    }
+                    chunk.add(employee, lineNumber);
+                } catch (IllegalArgumentException ex) {
+                    report.rowRejected(lineNumber, ex.getMessage());
+                    continue;
+                }
+
+                if (chunk.size() >= batchSize) {
+                    flush(chunk, report);
+                }
+            }
+            flush(chunk, report);
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * Writes a chunk as one batch/transaction; on failure retries its rows one at a time.
+     * The repository's IllegalStateException reaches this class translated by Spring's
+     * {@code @Repository} exception translation, so DataAccessException is caught as well.
+     * A WriteRejectedException (full write queue) is not a row failure and aborts the import.
+     *
+     * @param chunk  the rows to write; cleared afterwards
+     * @param report the report to update
+     */
+    private void flush(Chunk chunk, ImportReport report) {
+        if (chunk.size() == 0) {
+            return;
+        }
+        try {
+            report.rowsImported(employeeService.saveAllEmployees(chunk.employees));
+        } catch (IllegalStateException | DataAccessException batchFailure) {
+            for (int i = 0; i < chunk.size(); i++) {
+                try {
+                    report.rowsImported(employeeService.saveAllEmployees(List.of(chunk.employees.get(i))));
+                } catch (IllegalStateException | DataAccessException ex) {
+                    report.rowRejected(chunk.lines.get(i), ex.getMessage());
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Validates an imported employee.
+     *
+     * @param employee the parsed employee
+     * @return the joined validation messages, or null if the employee is valid
+     */
+    private String validate(Employee employee) {
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (employee.getHireDate().isAfter(LocalDate.now())) {
+            return "Hire date cannot be in the future.";
+        }
+        return null;
+    }
+
+    /**
+     * Parses an NDJSON line into a new employee. Any ID in the input is ignored.
+     *
+     * @param line the JSON object
+     * @return the employee
+     * @throws IllegalArgumentException if the line is not a valid employee object
+     */
+    private Employee parseJsonRow(String line) {
+        try {
+            Employee employee = objectMapper.readValue(line, Employee.class);
+            employee.setId(null);
+            return employee;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Reads the CSV header and maps each known column name to its position.
+     * Both "hire_date" and "hireDate" are accepted.
+     *
+     * @param line the header line
+     * @return column name to index
+     */
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = splitCsv(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.put(name, i);
+        }
+        for (String required : List.of("name", "position", "salary", "hiredate", "department")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Parses a CSV data row into a new employee.
+     *
+     * @param line    the row
+     * @param columns the header mapping
+     * @return the employee
+     * @throws IllegalArgumentException if the salary is missing or a value cannot be parsed
+     */
+    private Employee parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        Employee e = new Employee();
+        e.setName(column(values, columns, "name"));
+        e.setPosition(column(values, columns, "position"));
+        e.setDepartment(column(values, columns, "department"));
+
+        String salary = column(values, columns, "salary");
+        if (salary == null) {
+            throw new IllegalArgumentException("Salary is required");
+        }
+        try {
+            e.setSalary(Double.parseDouble(salary));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid salary: " + salary);
+        }
+
+        String hireDate = column(values, columns, "hiredate");
+        try {
+            e.setHireDate(hireDate == null ? null : LocalDate.parse(hireDate));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid hire date: " + hireDate);
+        }
+
+        String active = column(values, columns, "active");
+        e.setActive(active == null || active.equals("1") || active.equalsIgnoreCase("true")
+                || active.equalsIgnoreCase("yes"));
+        return e;
+    }
+
+    /**
+     * Gets a trimmed CSV value by column name.
+     *
+     * @param values  the fields of the row
+     * @param columns the header mapping
+     * @param name    the normalized column name
+     * @return the value, or null if the column is absent or empty
+     */
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV line (RFC 4180 quoting, no embedded line breaks).
+     *
+     * @param line the line
+     * @return the field values
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Rows waiting to be written, with the input line each one came from.
+     */
+    private static final class Chunk {
+
+        private final List<Employee> employees = new ArrayList<>();
+        private final List<Long> lines = new ArrayList<>();
+
+        void add(Employee employee, long line) {
+            employees.add(employee);
+            lines.add(line);
+        }
+
+        int size() {
+            return employees.size();
+        }
+
+        void clear() {
+            employees.clear();
+            lines.clear();
+        }
+    }
+}
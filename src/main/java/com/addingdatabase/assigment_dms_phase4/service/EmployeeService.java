@@ -14,62 +14,283 @@ package com.addingdatabase.assigment_dms_phase4.service;
  *
  * Key Responsibilities:
  * - Retrieve all employee records.
- * - Save new or update existing employee records.
+ * - Retrieve employee records one keyset-paginated page at a time.
+ * - Stream all (or filtered) employee records from a database cursor without building a list.
+ * - Save new or update existing employee records. Updates are optimistic: they carry the version the
+ *   employee was read with and are refused (EmployeeVersionConflictException) if it changed since.
+ * - Save many employee records in one batched transaction (bulk import).
  * - Find employees by their unique ID.
+ * - Search employees by name, position or department (full-text, prefix-matching for type-ahead).
  * - Delete employees by ID.
- * - Generate tenure-based grouping reports categorizing employees by years of service.
+ * - Generate the tenure report: employee counts per configurable range of years of service
+ *   (dms.tenure.bucket-years), with the members of each range listed page by page on demand.
+ *
+ * Caching:
+ * getEmployeeById() is read-through cached in the "employees" cache (see CacheConfig, off by default).
+ * The lookup is synchronized per ID, and every write evicts the affected entries after it commits;
+ * an eviction waits for an in-flight load of the same ID, so a reader never sees a row that
+ * predates a completed write.
+ *
+ * Change events:
+ * Every committed insert, update and delete publishes an EmployeeChangedEvent. The tenure report
+ * counts from the in-memory EmployeeSnapshot (kept current from those events) when it is
+ * enabled and loaded, and with indexed COUNT queries on hire_date otherwise.
  *
  * Usage:
  * The service uses dependency injection to access the EmployeeRepository for
  * database operations and contains business logic such as calculating tenure groups.
  */
 
+import com.addingdatabase.assigment_dms_phase4.config.CacheConfig;
 import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeePage;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import com.addingdatabase.assigment_dms_phase4.model.TenureBucket;
 import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmployeeService.class);
+
+    /**
+     * Page size used when the request does not specify one.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Largest page size a request may ask for.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Number of search results returned when the request does not specify a limit.
+     */
+    public static final int DEFAULT_SEARCH_LIMIT = 10;
+
+    /**
+     * Largest number of search results a request may ask for.
+     */
+    public static final int MAX_SEARCH_LIMIT = 100;
+
+    /**
+     * Most search terms taken from one query; anything beyond is ignored.
+     */
+    private static final int MAX_SEARCH_TERMS = 8;
+
     /**
      * Repository for employee data access.
      */
     private final EmployeeRepository employeeRepository;
 
+    /**
+     * Publisher for EmployeeChangedEvent.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * In-memory columnar copy of the employees table used by reports when loaded.
+     */
+    private final EmployeeSnapshot snapshot;
+
+    /**
+     * Years of service at which each tenure bucket after the first one starts, strictly increasing.
+     */
+    private final int[] tenureBucketYears;
+
+    /**
+     * Maximum number of full-text matches ranked per search.
+     */
+    private final int searchCandidateLimit;
+
     /**
      * Constructor that uses constructor-based dependency injection to inject the EmployeeRepository.
      *
      * @param employeeRepository The repository interface for accessing employee data.
+     * @param eventPublisher     The publisher used to announce committed changes.
+     * @param snapshot           The in-memory snapshot used by reports when loaded.
+     * @param tenureBucketYears  The tenure bucket boundaries in full years of service.
+     * @param searchCandidateLimit The maximum number of full-text matches ranked per search.
+     * @throws IllegalArgumentException If the boundaries are not positive and strictly increasing.
      */
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    public EmployeeService(EmployeeRepository employeeRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           EmployeeSnapshot snapshot,
+                           @Value("${dms.tenure.bucket-years:1,6}") int[] tenureBucketYears,
+                           @Value("${dms.search.candidate-limit:200}") int searchCandidateLimit) {
+        for (int i = 0; i < tenureBucketYears.length; i++) {
+            if (tenureBucketYears[i] <= 0 || (i > 0 && tenureBucketYears[i] <= tenureBucketYears[i - 1])) {
+                throw new IllegalArgumentException("dms.tenure.bucket-years must be positive and strictly increasing: "
+                        + Arrays.toString(tenureBucketYears));
+            }
+        }
         this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshot = snapshot;
+        this.tenureBucketYears = tenureBucketYears.clone();
+        this.searchCandidateLimit = searchCandidateLimit;
     }
 
     /**
      * Retrieves all employees from the database.
      *
      * @return A list of all employees.
+     * @throws IllegalStateException if the employees cannot be read
      */
     public List<Employee> getAllEmployees() {
         return employeeRepository.findAll();
     }
 
+    /**
+     * Streams all employees from a forward-only database cursor, ordered by ID.
+     * The stream holds a database connection and must be closed by the caller.
+     *
+     * @return a lazily populated stream of all employees
+     */
+    public Stream<Employee> streamAllEmployees() {
+        return employeeRepository.streamAll();
+    }
+
+    /**
+     * Streams the employees matching the criteria from a forward-only database cursor, ordered by ID.
+     * The stream holds a database connection and must be closed by the caller.
+     *
+     * @param criteria the filters to apply
+     * @return a lazily populated stream of matching employees
+     */
+    public Stream<Employee> streamEmployees(EmployeeCriteria criteria) {
+        return employeeRepository.stream(criteria);
+    }
+
+    /**
+     * Retrieves one page of employees using keyset pagination.
+     * At most one of {@code after} and {@code before} is expected; {@code after} wins if both are given.
+     *
+     * @param sort       the column to sort by
+     * @param descending true to sort in descending order
+     * @param after      cursor of the last row of the previous page (next-page link), or null
+     * @param before     cursor of the first row of the following page (previous-page link), or null
+     * @param size       the requested page size; clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @return the page, with cursors for the neighbouring pages
+     * @throws IllegalArgumentException if a cursor is malformed
+     */
+    public EmployeePage getEmployeePage(EmployeeSortKey sort, boolean descending,
+                                        String after, String before, int size) {
+        return getEmployeePage(EmployeeCriteria.all(), sort, descending, after, before, size);
+    }
+
+    /**
+     * Retrieves one page of the employees matching the criteria using keyset pagination.
+     *
+     * @param criteria   the filters to apply
+     * @param sort       the column to sort by
+     * @param descending true to sort in descending order
+     * @param after      cursor of the last row of the previous page (next-page link), or null
+     * @param before     cursor of the first row of the following page (previous-page link), or null
+     * @param size       the requested page size; clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @return the page, with cursors for the neighbouring pages
+     * @throws IllegalArgumentException if a cursor is malformed
+     */
+    public EmployeePage getEmployeePage(EmployeeCriteria criteria, EmployeeSortKey sort, boolean descending,
+                                        String after, String before, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor afterCursor = PageCursor.decode(after);
+        PageCursor beforeCursor = afterCursor == null ? PageCursor.decode(before) : null;
+        boolean backward = beforeCursor != null;
+
+        // Read one extra row to learn whether another page exists in the scan direction
+        List<Employee> rows = employeeRepository.findPage(criteria, sort, descending,
+                backward ? beforeCursor : afterCursor, backward, pageSize + 1);
+        boolean more = rows.size() > pageSize;
+        if (more) {
+            // The extra row is the farthest one from the cursor: last when reading forward, first when backward
+            rows = backward ? rows.subList(1, rows.size()) : rows.subList(0, pageSize);
+        }
+
+        String prevCursor = null;
+        String nextCursor = null;
+        if (!rows.isEmpty()) {
+            boolean hasPrev = backward ? more : afterCursor != null;
+            boolean hasNext = backward || more;
+            if (hasPrev) {
+                prevCursor = PageCursor.of(sort, rows.get(0)).encode();
+            }
+            if (hasNext) {
+                nextCursor = PageCursor.of(sort, rows.get(rows.size() - 1)).encode();
+            }
+        }
+        return new EmployeePage(rows, sort, descending, pageSize, prevCursor, nextCursor);
+    }
+
     /**
      * Saves a new employee or updates an existing employee.
      * Throws an exception if the hire date is in the future.
+     * A change is published only if a row was written.
      *
-     * @param employee The employee to save or update.
+     * @param employee The employee to save or update; for an update, with the version it was read with.
+     * @return true if the employee was saved, false if the employee to update no longer exists.
      * @throws IllegalArgumentException If the hire date is in the future.
+     * @throws com.addingdatabase.assigment_dms_phase4.repository.EmployeeVersionConflictException
+     *         If the employee was changed by someone else since that version; nothing was saved.
      */
-    public void saveEmployee(Employee employee) {
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#employee.id", condition = "#employee.id != null")
+    public boolean saveEmployee(Employee employee) {
         if (employee.getHireDate().isAfter(LocalDate.now())) {
             throw new IllegalArgumentException("Hire date cannot be in the future.");
         }
-        employeeRepository.save(employee);
+        boolean created = employee.getId() == null;
+        if (!employeeRepository.save(employee)) {
+            log.debug("Update of employee {} wrote nothing: the employee no longer exists", employee.getId());
+            return false;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.saved(employee, created));
+        return true;
+    }
+
+    /**
+     * Saves many employees in one batched transaction. Rows are expected to be validated
+     * by the caller (see EmployeeImportService). A change is published for every employee
+     * inserted or updated; updates of employees that no longer exist write nothing and publish nothing.
+     *
+     * @param employees the employees to insert or update
+     * @return the number of rows written
+     * @throws IllegalStateException if the batch fails; none of its rows are kept
+     */
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int saveAllEmployees(Collection<Employee> employees) {
+        BitSet created = new BitSet(employees.size());
+        long[] versions = new long[employees.size()];
+        int i = 0;
+        for (Employee e : employees) {
+            created.set(i, e.getId() == null);
+            versions[i++] = e.getVersion();
+        }
+
+        int written = employeeRepository.saveAll(employees);
+
+        // An update that wrote nothing leaves the version as it was
+        i = 0;
+        for (Employee e : employees) {
+            boolean inserted = created.get(i);
+            if (inserted || e.getVersion() != versions[i]) {
+                eventPublisher.publishEvent(EmployeeChangedEvent.saved(e, inserted));
+            }
+            i++;
+        }
+        return written;
     }
 
     /**
@@ -77,51 +298,149 @@ public class EmployeeService {
      *
      * @param id The unique identifier of the employee.
      * @return The Employee object if found; otherwise, null.
+     * @throws IllegalStateException if the employees cannot be read
      */
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id", sync = true)
     public Employee getEmployeeById(Long id) {
         Employee e = employeeRepository.findById(id);
-        System.out.println(">>> getEmployeeById(" + id + ") returned: " + e);
+        log.debug("getEmployeeById({}) returned: {}", id, e);
         return e;
     }
 
+    /**
+     * Searches employees by name, position and department. Every word of the query must match
+     * the start of a word in one of those fields; the last word may be incomplete unless the query
+     * ends with a space, so the method can back a type-ahead box ("alice smi" finds "Alice Smith").
+     *
+     * @param query the text typed by the user
+     * @param limit the maximum number of results; clamped to 1..{@value #MAX_SEARCH_LIMIT}
+     * @return the best matches, best first; empty if the query has no searchable characters
+     */
+    public List<Employee> searchEmployees(String query, int limit) {
+        List<String> words = searchWords(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        boolean lastWordComplete = Character.isWhitespace(query.charAt(query.length() - 1));
+        int resultLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        return employeeRepository.search(toMatchQuery(words, lastWordComplete), String.join(" ", words) + "%",
+                resultLimit, Math.max(resultLimit, searchCandidateLimit));
+    }
+
+    /**
+     * Splits free text into search words: runs of letters and digits, at most
+     * {@value #MAX_SEARCH_TERMS} of them. Punctuation, quotes and FTS5 operators are dropped.
+     *
+     * @param query the text typed by the user, may be null
+     * @return the words, possibly empty
+     */
+    static List<String> searchWords(String query) {
+        List<String> words = new ArrayList<>();
+        if (query != null) {
+            for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty() && words.size() < MAX_SEARCH_TERMS) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Builds an FTS5 MATCH expression that requires every word: complete words are quoted terms
+     * and the last word is a prefix term unless it is complete.
+     *
+     * @param words            the search words, not empty
+     * @param lastWordComplete true if the user finished the last word (typed a space after it)
+     * @return the MATCH expression, e.g. {@code "alice" "smi"*}
+     */
+    static String toMatchQuery(List<String> words, boolean lastWordComplete) {
+        StringJoiner terms = new StringJoiner(" ");
+        for (int i = 0; i < words.size(); i++) {
+            boolean prefix = i == words.size() - 1 && !lastWordComplete;
+            terms.add('"' + words.get(i) + (prefix ? "\"*" : "\""));
+        }
+        return terms.toString();
+    }
+
     /**
      * Deletes an employee from the database based on their ID.
      *
      * @param id The unique identifier of the employee to delete.
+     * @return True if the employee existed and was deleted.
      */
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public boolean deleteEmployee(Long id) {
+        boolean deleted = employeeRepository.deleteById(id);
+        if (deleted) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+        }
+        return deleted;
     }
 
     /**
-     * Groups employees into tenure-based categories:
-     * - "1–5 years"
-     * - "5+ years"
+     * Deletes many employees in one transaction.
      *
-     * @return A map where keys are tenure ranges and values are lists of employees in each range.
+     * @param ids The unique identifiers of the employees to delete; unknown IDs are ignored.
+     * @return The number of employees deleted.
      */
-    public Map<String, List<Employee>> getEmployeesGroupedByTenure() {
-        List<Employee> allEmployees = employeeRepository.findAll();
-        Map<String, List<Employee>> groups = new LinkedHashMap<>();
-        groups.put("1–5 years", new ArrayList<>());
-        groups.put("5+ years", new ArrayList<>());
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployees(Collection<Long> ids) {
+        Set<Long> deleted = employeeRepository.deleteAllById(ids);
+        for (Long id : deleted) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+        }
+        log.debug("deleteEmployees() deleted {} of {} employees", deleted.size(), ids.size());
+        return deleted.size();
+    }
 
+    /**
+     * Builds the tenure report: one bucket per range of full years of service, with its employee count.
+     * With the default boundaries (1, 6) the buckets are "Under 1 year", "1–5 years" and
+     * "More than 5 years". Only counts are computed; members are listed with getTenureBucketPage().
+     *
+     * @return the buckets, from the shortest to the longest tenure
+     */
+    public List<TenureBucket> getTenureReport() {
         LocalDate today = LocalDate.now();
+        List<TenureBucket> buckets = new ArrayList<>(tenureBucketYears.length + 1);
+        for (int i = 0; i <= tenureBucketYears.length; i++) {
+            TenureBucket bucket = tenureBucket(i, today);
+            long count = snapshot.isLoaded()
+                    ? snapshot.countHiredBetween(bucket.getHiredAfter(), bucket.getHiredOnOrBefore())
+                    : employeeRepository.count(bucket.toCriteria());
+            buckets.add(bucket.withCount(count));
+        }
+        return buckets;
+    }
 
-        for (Employee emp : allEmployees) {
-            LocalDate hireDate = emp.getHireDate();
-
-            if (hireDate != null) {
-                long years = ChronoUnit.YEARS.between(hireDate, today);
-
-                if (years >= 1 && years <= 5) {
-                    groups.get("1–5 years").add(emp);
-                } else if (years > 5) {
-                    groups.get("5+ years").add(emp);
-                }
-            }
+    /**
+     * Retrieves one page of the members of a tenure bucket, longest tenure first.
+     *
+     * @param index the bucket index, as in getTenureReport()
+     * @param after cursor of the last row of the previous page, or null for the first page
+     * @param size  the requested page size; clamped to 1..{@value #MAX_PAGE_SIZE}
+     * @return the page
+     * @throws IllegalArgumentException if the index is out of range or the cursor is malformed
+     */
+    public EmployeePage getTenureBucketPage(int index, String after, int size) {
+        if (index < 0 || index > tenureBucketYears.length) {
+            throw new IllegalArgumentException("No tenure bucket " + index);
         }
+        TenureBucket bucket = tenureBucket(index, LocalDate.now());
+        return getEmployeePage(bucket.toCriteria(), EmployeeSortKey.HIRE_DATE, false, after, null, size);
+    }
 
-        return groups;
+    /**
+     * Creates the (uncounted) tenure bucket at the given index.
+     *
+     * @param index the bucket index, 0..tenureBucketYears.length
+     * @param today the day tenure is measured on
+     * @return the bucket
+     */
+    private TenureBucket tenureBucket(int index, LocalDate today) {
+        int minYears = (index == 0) ? 0 : tenureBucketYears[index - 1];
+        Integer maxYears = (index < tenureBucketYears.length) ? tenureBucketYears[index] : null;
+        return new TenureBucket(index, minYears, maxYears, today, 0);
     }
 }
@@ -0,0 +1,323 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * EmployeeSnapshot.java
+ *
+ * This class keeps an optional in-memory, column-oriented copy of the employees table for
+ * reports and aggregates. Instead of re-reading and re-parsing every row into Employee objects
+ * on each report, reports scan primitive arrays that are loaded once and then kept current.
+ *
+ * Key Features:
+ * - Only the columns a report reads are kept: long[] id, int[] hire date (epoch day) for the tenure
+ *   report, and long[] version to order the changes.
+ * - Rows are kept in ID order (new IDs are appended), so lookups are a binary search on the
+ *   id column and scans produce the same order as an ID-ordered query. Deletes only set a
+ *   tombstone bit; the columns are compacted once tombstones exceed a quarter of the rows.
+ * - Loaded once when the application is ready (dms.snapshot.enabled=true, off by default) and
+ *   updated from EmployeeChangedEvent on every save and delete.
+ * - Events can arrive in another order than their commits: a saved event is only applied if its
+ *   version is newer than the row's, and an update of a deleted employee (a tombstone, or one of
+ *   the last RECENT_DELETES deleted IDs once compacted) is ignored. A created event for a deleted
+ *   ID is applied, as the ID has been handed out again (dms.repository.reset-sequence-on-delete).
+ * - Readers scan under a shared lock; the rare writes take the exclusive lock.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Component
+public class EmployeeSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeSnapshot.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Compaction is skipped while there are fewer tombstones than this.
+     */
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+
+    /**
+     * Number of deleted IDs remembered after their tombstones are compacted away, so that a late
+     * update event cannot bring them back.
+     */
+    private static final int RECENT_DELETES = 1024;
+
+    private final EmployeeRepository employeeRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+    private int size;
+    private int tombstones;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] hireDays = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private final BitSet deleted = new BitSet(INITIAL_CAPACITY);
+    private final Map<Long, Boolean> recentDeletes = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > RECENT_DELETES;
+        }
+    };
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param employeeRepository the repository the snapshot is loaded from
+     * @param enabled            whether the snapshot is maintained at all
+     */
+    public EmployeeSnapshot(EmployeeRepository employeeRepository,
+                            @Value("${dms.snapshot.enabled:false}") boolean enabled) {
+        this.employeeRepository = employeeRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Checks whether the snapshot is enabled and fully loaded, i.e. whether reports may use it.
+     *
+     * @return true if the snapshot can answer reports
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Gets the number of employees in the snapshot.
+     *
+     * @return the row count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - tombstones;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the snapshot from the database once the application has started.
+     * Writes arriving meanwhile wait on the exclusive lock and are applied afterwards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            clear();
+            employees.forEach(e -> upsert(e, true));
+            loaded = true;
+            log.info("Employee snapshot loaded: {} rows", size);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed change to the snapshot.
+     *
+     * @param event the change published by EmployeeService
+     */
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getType() == EmployeeChangedEvent.Type.DELETED) {
+                remove(event.getId());
+            } else {
+                upsert(event.getEmployee(), event.getType() == EmployeeChangedEvent.Type.CREATED);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the employees hired in a date range by scanning only the hire-day column.
+     *
+     * @param after      only employees hired after this day are counted, or null for no lower bound
+     * @param onOrBefore only employees hired on or before this day are counted, or null for no upper bound
+     * @return the number of matching employees
+     */
+    public long countHiredBetween(LocalDate after, LocalDate onOrBefore) {
+        long low = (after == null) ? Long.MIN_VALUE : after.toEpochDay();
+        long high = (onOrBefore == null) ? Long.MAX_VALUE : onOrBefore.toEpochDay();
+        long count = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int row = 0; row < size; row++) {
+                int day = hireDays[row];
+                if (day > low && day <= high) {
+                    count++;
+                }
+            }
+            if (tombstones > 0) {
+                for (int row = deleted.nextSetBit(0); row >= 0; row = deleted.nextSetBit(row + 1)) {
+                    int day = hireDays[row];
+                    if (day > low && day <= high) {
+                        count--;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Inserts or overwrites the row of an employee, unless the snapshot already has a newer version
+     * of it or it was deleted. Callers must hold the write lock.
+     *
+     * @param e       the employee, with its ID and version set
+     * @param created true if the row was inserted (or loaded), false if it was updated
+     */
+    private void upsert(Employee e, boolean created) {
+        long id = e.getId();
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            if (deleted.get(row)) {
+                if (!created) {
+                    return;
+                }
+                deleted.clear(row);
+                tombstones--;
+                recentDeletes.remove(id);
+            } else if (e.getVersion() <= versions[row]) {
+                return;
+            }
+        } else {
+            if (recentDeletes.containsKey(id)) {
+                if (!created) {
+                    return;
+                }
+                recentDeletes.remove(id);
+            }
+            row = -row - 1;
+            ensureCapacity(size + 1);
+            if (row < size) {
+                // Rare: an ID lower than the newest one (e.g. a reused ID); shift to keep ID order
+                shift(row, row + 1, size - row);
+            }
+            size++;
+            ids[row] = id;
+        }
+        hireDays[row] = (int) e.getHireDate().toEpochDay();
+        versions[row] = e.getVersion();
+    }
+
+    /**
+     * Marks the row of an employee as deleted, compacting the columns when tombstones pile up.
+     * Callers must hold the write lock.
+     *
+     * @param id the employee ID
+     */
+    private void remove(long id) {
+        recentDeletes.put(id, Boolean.TRUE);
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0 || deleted.get(row)) {
+            return;
+        }
+        deleted.set(row);
+        tombstones++;
+        if (tombstones >= MIN_COMPACTION_TOMBSTONES && tombstones * 4 > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Drops all tombstoned rows, moving live rows down while keeping their order.
+     * Callers must hold the write lock.
+     */
+    private void compact() {
+        int target = 0;
+        for (int row = deleted.nextClearBit(0); row < size; row = deleted.nextClearBit(row + 1)) {
+            if (row != target) {
+                copyRow(row, target);
+            }
+            target++;
+        }
+        deleted.clear();
+        size = target;
+        tombstones = 0;
+    }
+
+    /**
+     * Moves a block of rows within the columns (overlapping ranges allowed).
+     *
+     * @param from   first source row
+     * @param to     first destination row
+     * @param length number of rows to move
+     */
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(hireDays, from, hireDays, to, length);
+        System.arraycopy(versions, from, versions, to, length);
+        for (int i = length - 1; i >= 0; i--) {
+            deleted.set(to + i, deleted.get(from + i));
+        }
+    }
+
+    /**
+     * Copies one row over another.
+     *
+     * @param from the source row
+     * @param to   the destination row
+     */
+    private void copyRow(int from, int to) {
+        ids[to] = ids[from];
+        hireDays[to] = hireDays[from];
+        versions[to] = versions[from];
+    }
+
+    /**
+     * Empties the snapshot. Callers must hold the write lock.
+     */
+    private void clear() {
+        size = 0;
+        tombstones = 0;
+        deleted.clear();
+        recentDeletes.clear();
+    }
+
+    /**
+     * Grows the column arrays to hold at least the given number of rows.
+     *
+     * @param capacity the required row capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        hireDays = Arrays.copyOf(hireDays, newCapacity);
+        versions = Arrays.copyOf(versions, newCapacity);
+    }
+}
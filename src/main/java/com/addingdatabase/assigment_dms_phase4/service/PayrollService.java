@@ -0,0 +1,205 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+/**
+ * Professor: Ashley Evans
+ * Author: Minh Ngoc Tran
+ * Course: 202530-CEN-3024C-31774
+ * Date: July 15, 2025
+ *
+ * PayrollService.java
+ *
+ * This class builds the payroll report: headcount, salary total, mean and the 50th, 90th and 99th
+ * percentile salary per department and active flag, per department, and for all employees.
+ *
+ * Key Features:
+ * - Reads the salaries once through EmployeeRepository.salaryGroups(), where SQLite computes the
+ *   COUNT and SUM of each group and returns the bare salaries in primitive double arrays; no
+ *   Employee objects are built.
+ * - Percentiles are read by rank from sorted arrays. The groups arrive sorted from SQLite (covering
+ *   index) and are only checked in one pass; a department merges its two sorted groups in one pass;
+ *   the all-employees row is sorted with Arrays.parallelSort, which splits the work across cores
+ *   once the table holds dms.payroll.parallel-threshold salaries or more.
+ * - The report is cached with the version of EmployeeChangeCounter it was built from; every
+ *   committed write changes the version, so the next request builds a new report. The version is
+ *   read before the salaries, so a write that commits meanwhile is never hidden behind an old tag.
+ */
+
+import com.addingdatabase.assigment_dms_phase4.model.PayrollGroup;
+import com.addingdatabase.assigment_dms_phase4.model.PayrollReport;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class PayrollService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayrollService.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeChangeCounter changeCounter;
+    private final int parallelThreshold;
+
+    private volatile CachedReport cached;
+
+    /**
+     * Constructor that uses constructor-based dependency injection.
+     *
+     * @param employeeRepository the repository the salaries are read from
+     * @param changeCounter      the version the cached report is checked against
+     * @param parallelThreshold  the number of salaries from which they are sorted on several cores
+     */
+    public PayrollService(EmployeeRepository employeeRepository, EmployeeChangeCounter changeCounter,
+                          @Value("${dms.payroll.parallel-threshold:100000}") int parallelThreshold) {
+        this.employeeRepository = employeeRepository;
+        this.changeCounter = changeCounter;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Gets the payroll report, from the cache if no employee has changed since it was built.
+     * Concurrent requests after a change wait for one rebuild instead of each running it.
+     *
+     * @return the report
+     * @throws IllegalStateException if the salaries cannot be read
+     */
+    public PayrollReport getReport() {
+        String version = changeCounter.getVersion();
+        CachedReport current = cached;
+        if (current != null && current.version.equals(version)) {
+            return current.report;
+        }
+        synchronized (this) {
+            version = changeCounter.getVersion();
+            current = cached;
+            if (current != null && current.version.equals(version)) {
+                return current.report;
+            }
+            long start = System.nanoTime();
+            PayrollReport report = buildReport(employeeRepository.salaryGroups());
+            cached = new CachedReport(version, report);
+            log.debug("Payroll report for {} employees built in {} ms", report.getTotal().getHeadcount(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return report;
+        }
+    }
+
+    /**
+     * Builds the report rows from the salary groups of the repository.
+     *
+     * @param groups the groups, ordered by department, then active flag
+     * @return the report
+     */
+    PayrollReport buildReport(List<SalaryGroup> groups) {
+        List<PayrollGroup> groupRows = new ArrayList<>(groups.size());
+        List<PayrollGroup> departmentRows = new ArrayList<>();
+        long rows = 0;
+        for (SalaryGroup group : groups) {
+            sort(group.getSalaries(), group.getSize());
+            groupRows.add(row(group.getDepartment(), group.isActive(), group.getHeadcount(), group.getTotalSalary(),
+                    group.getSalaries(), group.getSize()));
+            rows += group.getSize();
+        }
+
+        for (int i = 0; i < groups.size(); ) {
+            SalaryGroup first = groups.get(i++);
+            SalaryGroup second = (i < groups.size() && groups.get(i).getDepartment().equals(first.getDepartment()))
+                    ? groups.get(i++) : null;
+            if (second == null) {
+                departmentRows.add(row(first.getDepartment(), null, first.getHeadcount(), first.getTotalSalary(),
+                        first.getSalaries(), first.getSize()));
+            } else {
+                double[] merged = merge(first, second);
+                departmentRows.add(row(first.getDepartment(), null, first.getHeadcount() + second.getHeadcount(),
+                        first.getTotalSalary() + second.getTotalSalary(), merged, merged.length));
+            }
+        }
+
+        double[] all = new double[Math.toIntExact(rows)];
+        long headcount = 0;
+        double totalSalary = 0;
+        int size = 0;
+        for (SalaryGroup group : groups) {
+            System.arraycopy(group.getSalaries(), 0, all, size, group.getSize());
+            size += group.getSize();
+            headcount += group.getHeadcount();
+            totalSalary += group.getTotalSalary();
+        }
+        sort(all, size);
+        return new PayrollReport(row(null, null, headcount, totalSalary, all, size), departmentRows, groupRows);
+    }
+
+    /**
+     * Sorts the first {@code size} salaries in place, unless they already are sorted, as they are when
+     * they come from SQLite; Arrays.parallelSort above the threshold.
+     */
+    private void sort(double[] salaries, int size) {
+        for (int i = 1; i < size; i++) {
+            if (salaries[i - 1] > salaries[i]) {
+                if (size >= parallelThreshold) {
+                    Arrays.parallelSort(salaries, 0, size);
+                } else {
+                    Arrays.sort(salaries, 0, size);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merges the sorted salaries of two groups into one sorted array.
+     */
+    private static double[] merge(SalaryGroup a, SalaryGroup b) {
+        double[] x = a.getSalaries();
+        double[] y = b.getSalaries();
+        double[] merged = new double[a.getSize() + b.getSize()];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            merged[k] = (j == b.getSize() || (i < a.getSize() && x[i] <= y[j])) ? x[i++] : y[j++];
+        }
+        return merged;
+    }
+
+    private static PayrollGroup row(String department, Boolean active, long headcount, double totalSalary,
+                                    double[] sorted, int size) {
+        return new PayrollGroup(department, active, headcount, totalSalary,
+                percentile(sorted, size, 50), percentile(sorted, size, 90), percentile(sorted, size, 99));
+    }
+
+    /**
+     * Reads a percentile by the nearest-rank method: the salary at rank ceil(size * percent / 100).
+     *
+     * @param sorted  the salaries, sorted
+     * @param size    the number of salaries
+     * @param percent the percentile, 1 to 100
+     * @return the salary, or NaN if there are none
+     */
+    static double percentile(double[] sorted, int size, int percent) {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        long rank = ((long) size * percent + 99) / 100;
+        return sorted[(int) Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * A report with the change-counter version it was built from.
+     */
+    private static final class CachedReport {
+
+        private final String version;
+        private final PayrollReport report;
+
+        private CachedReport(String version, PayrollReport report) {
+            this.version = version;
+            this.report = report;
+        }
+    }
+}
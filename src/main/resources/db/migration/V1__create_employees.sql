@@ -0,0 +1,10 @@
+-- Baseline schema: the employees table as created by dms_db.sql
+CREATE TABLE IF NOT EXISTS employees (
+                           id INTEGER PRIMARY KEY AUTOINCREMENT,
+                           name TEXT NOT NULL,
+                           position TEXT NOT NULL,
+                           salary REAL NOT NULL CHECK (salary >= 0),
+                           hire_date TEXT NOT NULL,
+                           department TEXT NOT NULL,
+                           active BOOLEAN NOT NULL
+);
@@ -0,0 +1,5 @@
+-- Indexes backing keyset pagination on the sortable columns of the employee list.
+-- SQLite appends the rowid (id) to every index, so each one also orders the id tie-breaker.
+CREATE INDEX IF NOT EXISTS idx_employees_name ON employees (name);
+CREATE INDEX IF NOT EXISTS idx_employees_salary ON employees (salary);
+CREATE INDEX IF NOT EXISTS idx_employees_hire_date ON employees (hire_date);
@@ -0,0 +1,4 @@
+-- Composite index backing the department and department + active filters of EmployeeCriteria.
+-- hire_date and salary range filters use the single-column indexes from V2.
+-- active alone is not indexed: with only two values it is cheaper to scan the table.
+CREATE INDEX IF NOT EXISTS idx_employees_department_active ON employees (department, active);
@@ -0,0 +1,53 @@
+-- Full-text indexes for the employee search (type-ahead over name, position and department).
+-- Both are external-content FTS5 tables: the text lives only in employees, the indexes store tokens
+-- and rowids. detail='column' drops token positions (the search never runs phrase queries), which
+-- keeps the indexes small and makes long prefix terms cheap. prefix='1 2 3' adds prefix indexes so
+-- type-ahead queries like "j*" or "jo*" read one index entry instead of merging every such term.
+CREATE VIRTUAL TABLE IF NOT EXISTS employees_fts USING fts5(
+    name,
+    position,
+    department,
+    content = 'employees',
+    content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '1 2 3',
+    detail = 'column'
+);
+
+-- Names only: lets the search find name matches first without walking every row whose position or
+-- department contains the term (a column filter on employees_fts would have to).
+CREATE VIRTUAL TABLE IF NOT EXISTS employees_name_fts USING fts5(
+    name,
+    content = 'employees',
+    content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2',
+    prefix = '1 2 3',
+    detail = 'column'
+);
+
+-- Keep both indexes in sync with every write path (single saves, batched imports, deletes).
+CREATE TRIGGER IF NOT EXISTS employees_fts_insert AFTER INSERT ON employees BEGIN
+    INSERT INTO employees_fts (rowid, name, position, department)
+    VALUES (new.id, new.name, new.position, new.department);
+    INSERT INTO employees_name_fts (rowid, name) VALUES (new.id, new.name);
+END;
+
+CREATE TRIGGER IF NOT EXISTS employees_fts_delete AFTER DELETE ON employees BEGIN
+    INSERT INTO employees_fts (employees_fts, rowid, name, position, department)
+    VALUES ('delete', old.id, old.name, old.position, old.department);
+    INSERT INTO employees_name_fts (employees_name_fts, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+
+-- Only re-index when a searchable column changes; salary or status updates leave the indexes alone.
+CREATE TRIGGER IF NOT EXISTS employees_fts_update AFTER UPDATE OF name, position, department ON employees BEGIN
+    INSERT INTO employees_fts (employees_fts, rowid, name, position, department)
+    VALUES ('delete', old.id, old.name, old.position, old.department);
+    INSERT INTO employees_fts (rowid, name, position, department)
+    VALUES (new.id, new.name, new.position, new.department);
+    INSERT INTO employees_name_fts (employees_name_fts, rowid, name) VALUES ('delete', old.id, old.name);
+    INSERT INTO employees_name_fts (rowid, name) VALUES (new.id, new.name);
+END;
+
+-- Index the rows that already exist.
+INSERT INTO employees_fts (employees_fts) VALUES ('rebuild');
+INSERT INTO employees_name_fts (employees_name_fts) VALUES ('rebuild');
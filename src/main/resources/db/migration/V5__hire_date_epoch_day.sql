@@ -0,0 +1,64 @@
+-- Store hire_date as an INTEGER number of days since 1970-01-01 (LocalDate.toEpochDay()) instead of
+-- ISO-8601 TEXT: rows are mapped without parsing a string, and date ranges compare integers.
+-- SQLite cannot change a column's type in place, so the table is rebuilt. IDs are copied unchanged,
+-- which keeps the external-content FTS5 indexes (keyed on rowid = id) valid; the indexes and triggers
+-- of V2-V4 are dropped with the old table and recreated below.
+
+-- The search triggers must not fire while rows are copied and the old table is dropped.
+DROP TRIGGER IF EXISTS employees_fts_insert;
+DROP TRIGGER IF EXISTS employees_fts_delete;
+DROP TRIGGER IF EXISTS employees_fts_update;
+
+CREATE TABLE employees_v5 (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    name TEXT NOT NULL,
+    position TEXT NOT NULL,
+    salary REAL NOT NULL CHECK (salary >= 0),
+    hire_date INTEGER NOT NULL,
+    department TEXT NOT NULL,
+    active BOOLEAN NOT NULL
+);
+
+-- julianday('1970-01-01') = 2440587.5, so the difference is the exact epoch day of an ISO date.
+INSERT INTO employees_v5 (id, name, position, salary, hire_date, department, active)
+SELECT id, name, position, salary, CAST(julianday(hire_date) - 2440587.5 AS INTEGER), department, active
+FROM employees;
+
+-- Keep the AUTOINCREMENT high-water mark, which may be above MAX(id) after deletes (or with no rows left).
+INSERT INTO sqlite_sequence (name, seq)
+SELECT 'employees_v5', seq FROM sqlite_sequence
+WHERE name = 'employees' AND NOT EXISTS (SELECT 1 FROM sqlite_sequence WHERE name = 'employees_v5');
+UPDATE sqlite_sequence
+SET seq = max(seq, coalesce((SELECT seq FROM sqlite_sequence WHERE name = 'employees'), 0))
+WHERE name = 'employees_v5';
+
+DROP TABLE employees;
+ALTER TABLE employees_v5 RENAME TO employees;
+
+-- Indexes from V2 and V3
+CREATE INDEX idx_employees_name ON employees (name);
+CREATE INDEX idx_employees_salary ON employees (salary);
+CREATE INDEX idx_employees_hire_date ON employees (hire_date);
+CREATE INDEX idx_employees_department_active ON employees (department, active);
+
+-- Search triggers from V4
+CREATE TRIGGER employees_fts_insert AFTER INSERT ON employees BEGIN
+    INSERT INTO employees_fts (rowid, name, position, department)
+    VALUES (new.id, new.name, new.position, new.department);
+    INSERT INTO employees_name_fts (rowid, name) VALUES (new.id, new.name);
+END;
+
+CREATE TRIGGER employees_fts_delete AFTER DELETE ON employees BEGIN
+    INSERT INTO employees_fts (employees_fts, rowid, name, position, department)
+    VALUES ('delete', old.id, old.name, old.position, old.department);
+    INSERT INTO employees_name_fts (employees_name_fts, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+
+CREATE TRIGGER employees_fts_update AFTER UPDATE OF name, position, department ON employees BEGIN
+    INSERT INTO employees_fts (employees_fts, rowid, name, position, department)
+    VALUES ('delete', old.id, old.name, old.position, old.department);
+    INSERT INTO employees_fts (rowid, name, position, department)
+    VALUES (new.id, new.name, new.position, new.department);
+    INSERT INTO employees_name_fts (employees_name_fts, rowid, name) VALUES ('delete', old.id, old.name);
+    INSERT INTO employees_name_fts (rowid, name) VALUES (new.id, new.name);
+END;
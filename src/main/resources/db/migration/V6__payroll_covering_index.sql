@@ -0,0 +1,6 @@
+-- Extends the department + active filter index with salary, so the payroll report (salaryGroups)
+-- is answered from the index alone: the COUNT/SUM per group and the salaries of each group in
+-- sorted order, without reading the table. The department and department + active filters of
+-- EmployeeCriteria keep using it as before.
+DROP INDEX IF EXISTS idx_employees_department_active;
+CREATE INDEX IF NOT EXISTS idx_employees_department_active_salary ON employees (department, active, salary);
@@ -0,0 +1,5 @@
+-- Row version for optimistic concurrency: an update is written as
+-- UPDATE ... SET ..., version = version + 1 WHERE id = ? AND version = ?
+-- and changes nothing if someone else updated the row since it was read.
+-- Existing rows start at version 0, as do new ones.
+ALTER TABLE employees ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
@@ -1,3 +1,5 @@
+DROP TABLE IF EXISTS employees_fts;
+DROP TABLE IF EXISTS employees_name_fts;
 DROP TABLE IF EXISTS employees;
 
 CREATE TABLE employees (
@@ -9,6 +11,40 @@ CREATE TABLE employees (
                            department TEXT NOT NULL,
                            active BOOLEAN NOT NULL
 );
+-- Same indexes, search table and triggers as db/migration/V2__employee_sort_indexes.sql,
+-- V3__employee_filter_indexes.sql and V4__employee_search.sql
+CREATE INDEX idx_employees_name ON employees (name);
+CREATE INDEX idx_employees_salary ON employees (salary);
+CREATE INDEX idx_employees_hire_date ON employees (hire_date);
+CREATE INDEX idx_employees_department_active ON employees (department, active);
+CREATE VIRTUAL TABLE employees_fts USING fts5(
+    name, position, department,
+    content = 'employees', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2', prefix = '1 2 3', detail = 'column'
+);
+CREATE VIRTUAL TABLE employees_name_fts USING fts5(
+    name,
+    content = 'employees', content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2', prefix = '1 2 3', detail = 'column'
+);
+CREATE TRIGGER employees_fts_insert AFTER INSERT ON employees BEGIN
+    INSERT INTO employees_fts (rowid, name, position, department)
+    VALUES (new.id, new.name, new.position, new.department);
+    INSERT INTO employees_name_fts (rowid, name) VALUES (new.id, new.name);
+END;
+CREATE TRIGGER employees_fts_delete AFTER DELETE ON employees BEGIN
+    INSERT INTO employees_fts (employees_fts, rowid, name, position, department)
+    VALUES ('delete', old.id, old.name, old.position, old.department);
+    INSERT INTO employees_name_fts (employees_name_fts, rowid, name) VALUES ('delete', old.id, old.name);
+END;
+CREATE TRIGGER employees_fts_update AFTER UPDATE OF name, position, department ON employees BEGIN
+    INSERT INTO employees_fts (employees_fts, rowid, name, position, department)
+    VALUES ('delete', old.id, old.name, old.position, old.department);
+    INSERT INTO employees_fts (rowid, name, position, department)
+    VALUES (new.id, new.name, new.position, new.department);
+    INSERT INTO employees_name_fts (employees_name_fts, rowid, name) VALUES ('delete', old.id, old.name);
+    INSERT INTO employees_name_fts (rowid, name) VALUES (new.id, new.name);
+END;
 INSERT INTO employees (name, position, salary, hire_date, department, active) VALUES
                                                                                   ('Alice Johnson', 'Manager', 75000, '2015-04-23', 'HR', 1),
                                                                                   ('Bob Smith', 'Developer', 85000, '2018-01-12', 'IT', 1),
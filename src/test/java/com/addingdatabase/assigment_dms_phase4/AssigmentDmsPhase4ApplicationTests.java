@@ -2,8 +2,10 @@ package com.addingdatabase.assigment_dms_phase4;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class AssigmentDmsPhase4ApplicationTests {
 
     @Test
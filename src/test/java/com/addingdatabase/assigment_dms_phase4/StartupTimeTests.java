@@ -0,0 +1,103 @@
+package com.addingdatabase.assigment_dms_phase4;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup without a console, and the time from launching the JVM to the first answered request.
+ * The budget defaults to 60 seconds and can be tightened with -Ddms.startup.budget=PT15S.
+ * The timed test forks the application and is tagged "startup", which only the cds profile runs.
+ */
+class StartupTimeTests {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeTests.class);
+
+    private static final Duration BUDGET = Duration.parse(System.getProperty("dms.startup.budget", "PT60S"));
+
+    @Test
+    void leanProfileTakesTheDatabaseFromTheArgumentsAndSkipsJpa() {
+        try (ConfigurableApplicationContext context = SpringApplication.run(AssigmentDmsPhase4Application.class,
+                "--spring.profiles.active=lean",
+                "--dms.db.path=target/startup-lean.db",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.hikari.register-mbeans=false")) {
+            assertEquals("jdbc:sqlite:target/startup-lean.db", context.getBean(HikariDataSource.class).getJdbcUrl());
+            assertTrue(context.getBeansOfType(EntityManagerFactory.class).isEmpty(), "no Hibernate bootstrap");
+        }
+    }
+
+    @Test
+    @Tag("startup")
+    void answersTheFirstRequestWithinTheBudget() throws Exception {
+        Duration lean = timeToFirstRequest("lean");
+        log.info("Time to first request with the lean profile: {} ms (budget {} ms)", lean.toMillis(), BUDGET.toMillis());
+        assertTrue(lean.compareTo(BUDGET) <= 0,
+                "lean startup took " + lean.toMillis() + " ms, budget " + BUDGET.toMillis() + " ms");
+    }
+
+    /**
+     * Starts the application in a new JVM, as a deployment would, with its stdin closed, and measures
+     * the time until GET / is answered.
+     */
+    private static Duration timeToFirstRequest(String profile) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path database = Path.of("target", "startup-" + profile + ".db");
+        Path log = Path.of("target", "startup-" + profile + ".log");
+        Files.deleteIfExists(database);
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(List.of(java,
+                "-cp", System.getProperty("java.class.path"),
+                AssigmentDmsPhase4Application.class.getName(),
+                "--spring.profiles.active=" + profile,
+                "--dms.db.path=" + database,
+                "--server.port=" + port,
+                "--spring.main.banner-mode=off"))
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        long start = System.nanoTime();
+        process.getOutputStream().close();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build();
+            while (true) {
+                assertTrue(process.isAlive(), "the application exited, see " + log);
+                assertTrue(System.nanoTime() - start < 3 * BUDGET.toNanos(), "no answer, see " + log);
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertEquals(200, response.statusCode());
+                    return Duration.ofNanos(System.nanoTime() - start);
+                } catch (IOException notListeningYet) {
+                    Thread.sleep(20);
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+}
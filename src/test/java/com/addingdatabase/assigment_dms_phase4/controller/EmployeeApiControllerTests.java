@@ -0,0 +1,279 @@
+package com.addingdatabase.assigment_dms_phase4.controller;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeApiControllerTests {
+
+    private static final String LIST = "/api/employees?department=Api&size=100";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void unchangedListIsNotModifiedWithoutQueryingAndChangesInvalidateTheTag() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Api Tester\",\"position\":\"QA\",\"salary\":1000,"
+                                + "\"hireDate\":\"2020-01-01\",\"department\":\"Api\",\"active\":true}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsByteArray()).get("id").asLong();
+        assertEquals("/api/employees/" + id, created.getResponse().getHeader(HttpHeaders.LOCATION));
+        try {
+            MvcResult first = mockMvc.perform(get(LIST)).andExpect(status().isOk()).andReturn();
+            String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+            assertNotNull(etag);
+            assertFalse(etag.startsWith("W/"), "the tag is strong");
+            assertEquals("Api Tester", objectMapper.readTree(first.getResponse().getContentAsByteArray())
+                    .get("items").get(0).get("name").asText());
+
+            long queries = repositoryCalls();
+            MvcResult again = mockMvc.perform(get(LIST).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andReturn();
+            assertEquals(0, again.getResponse().getContentLength());
+            assertEquals(queries, repositoryCalls(), "a 304 does not touch the database");
+
+            mockMvc.perform(put("/api/employees/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Api Renamed\",\"position\":\"QA\",\"salary\":1100,"
+                                    + "\"hireDate\":\"2020-01-01\",\"department\":\"Api\",\"active\":true}"))
+                    .andExpect(status().isOk());
+
+            MvcResult changed = mockMvc.perform(get(LIST).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+            assertEquals("Api Renamed", objectMapper.readTree(changed.getResponse().getContentAsByteArray())
+                    .get("items").get(0).get("name").asText());
+        } finally {
+            mockMvc.perform(delete("/api/employees/{id}", id)).andExpect(status().isNoContent());
+        }
+        mockMvc.perform(get("/api/employees/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void largeResponsesAreGzippedWithTheirOwnTagAndFieldsAreProjected() throws Exception {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            employees.add(new Employee("Api Gzip " + i, "Clerk", 1000 + i, LocalDate.of(2018, 1, 1), "ApiGzip", true));
+        }
+        employeeService.saveAllEmployees(employees);
+        try {
+            String url = "/api/employees?department=ApiGzip&fields=id,name";
+            MvcResult plain = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+            MvcResult gzipped = mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            assertNull(plain.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertEquals("gzip", gzipped.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(HttpHeaders.ACCEPT_ENCODING, gzipped.getResponse().getHeader(HttpHeaders.VARY));
+            assertNotEquals(plain.getResponse().getHeader(HttpHeaders.ETAG),
+                    gzipped.getResponse().getHeader(HttpHeaders.ETAG));
+
+            byte[] compressed = gzipped.getResponse().getContentAsByteArray();
+            byte[] body;
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                body = in.readAllBytes();
+            }
+            assertArrayEquals(plain.getResponse().getContentAsByteArray(), body);
+            assertTrue(compressed.length < body.length);
+
+            JsonNode items = objectMapper.readTree(body).get("items");
+            assertEquals(50, items.size());
+            List<String> names = new ArrayList<>();
+            for (Iterator<String> it = items.get(0).fieldNames(); it.hasNext(); ) {
+                names.add(it.next());
+            }
+            assertEquals(List.of("id", "name"), names);
+
+            mockMvc.perform(get("/api/employees?fields=id,shoeSize")).andExpect(status().isBadRequest());
+        } finally {
+            for (Employee e : employees) {
+                employeeService.deleteEmployee(e.getId());
+            }
+        }
+    }
+
+    @Test
+    void invalidEmployeesAreRejected() throws Exception {
+        mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"\",\"position\":\"QA\",\"salary\":1000,"
+                                + "\"hireDate\":\"2020-01-01\",\"department\":\"Api\",\"active\":true}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Future\",\"position\":\"QA\",\"salary\":1000,\"hireDate\":\""
+                                + LocalDate.now().plusDays(1) + "\",\"department\":\"Api\",\"active\":true}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/employees/{id}", -1).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Nobody\",\"position\":\"QA\",\"salary\":1000,"
+                                + "\"hireDate\":\"2020-01-01\",\"department\":\"Api\",\"active\":true}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void updateWithAStaleVersionIsAConflictAndTheFormShowsTheCurrentEmployee() throws Exception {
+        Employee e = new Employee("Api Version", "QA", 1000, LocalDate.of(2020, 1, 1), "Api", true);
+        employeeService.saveEmployee(e);
+        try {
+            String body = "{\"name\":\"Api Version\",\"position\":\"QA\",\"salary\":%d,"
+                    + "\"hireDate\":\"2020-01-01\",\"department\":\"Api\",\"active\":true,\"version\":0}";
+            MvcResult updated = mockMvc.perform(put("/api/employees/{id}", e.getId())
+                            .contentType(MediaType.APPLICATION_JSON).content(String.format(body, 1100)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertEquals(1, objectMapper.readTree(updated.getResponse().getContentAsByteArray()).get("version").asLong());
+
+            mockMvc.perform(put("/api/employees/{id}", e.getId())
+                            .contentType(MediaType.APPLICATION_JSON).content(String.format(body, 900)))
+                    .andExpect(status().isConflict());
+            mockMvc.perform(post("/save").param("id", e.getId().toString()).param("version", "0")
+                            .param("name", "Api Version").param("position", "QA").param("salary", "900")
+                            .param("hireDate", "2020-01-01").param("department", "Api").param("active", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(model().attributeExists("conflictError"))
+                    .andExpect(view().name("employeeForm"));
+            assertEquals(1100, employeeService.getEmployeeById(e.getId()).getSalary());
+        } finally {
+            employeeService.deleteEmployee(e.getId());
+        }
+    }
+
+    @Test
+    void updateOfADeletedEmployeeIsNotFoundAndTheFormSaysSo() throws Exception {
+        Employee e = new Employee("Api Deleted", "QA", 1000, LocalDate.of(2020, 1, 1), "Api", true);
+        employeeService.saveEmployee(e);
+        employeeService.deleteEmployee(e.getId());
+
+        mockMvc.perform(put("/api/employees/{id}", e.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Api Deleted\",\"position\":\"QA\",\"salary\":1100,"
+                                + "\"hireDate\":\"2020-01-01\",\"department\":\"Api\",\"active\":true,\"version\":0}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/save").param("id", e.getId().toString()).param("version", "0")
+                        .param("name", "Api Deleted").param("position", "QA").param("salary", "1100")
+                        .param("hireDate", "2020-01-01").param("department", "Api").param("active", "true"))
+                .andExpect(status().isOk())
+                .andExpect(model().attributeExists("conflictError"))
+                .andExpect(view().name("employeeForm"));
+        assertNull(employeeService.getEmployeeById(e.getId()));
+    }
+
+    @Test
+    void payrollReportListsEachDepartmentWithItsPercentilesAndIsTagged() throws Exception {
+        Employee e = new Employee("Api Payroll", "Clerk", 4200, LocalDate.of(2018, 1, 1), "ApiPayroll", false);
+        employeeService.saveEmployee(e);
+        try {
+            MvcResult result = mockMvc.perform(get("/api/employees/payroll")).andExpect(status().isOk()).andReturn();
+            JsonNode report = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+            assertTrue(report.get("total").get("headcount").asLong() >= 1);
+            assertTrue(report.get("total").get("active").isNull());
+
+            JsonNode group = null;
+            for (JsonNode row : report.get("groups")) {
+                if ("ApiPayroll".equals(row.get("department").asText())) {
+                    group = row;
+                }
+            }
+            assertNotNull(group);
+            assertFalse(group.get("active").asBoolean());
+            assertEquals(1, group.get("headcount").asLong());
+            assertEquals(4200, group.get("meanSalary").asDouble());
+            assertEquals(4200, group.get("p99").asDouble());
+
+            mockMvc.perform(get("/api/employees/payroll")
+                            .header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+                    .andExpect(status().isNotModified());
+        } finally {
+            employeeService.deleteEmployee(e.getId());
+        }
+    }
+
+    @Test
+    void changeFeedStreamsCommittedChangesAndResumesFromLastEventId() throws Exception {
+        MvcResult feed = mockMvc.perform(get("/api/employees/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String start = awaitContent(feed, "event:resync\n");
+        String startId = start.substring(start.indexOf("id:") + 3, start.indexOf('\n'));
+
+        Employee e = new Employee("Api Feed", "QA", 1000, LocalDate.of(2020, 1, 1), "ApiFeed", true);
+        employeeService.saveEmployee(e);
+        employeeService.deleteEmployee(e.getId());
+        String events = awaitContent(feed, "event:deleted\n");
+        assertTrue(events.contains("event:created\ndata:{\"type\":\"CREATED\",\"id\":" + e.getId()
+                + ",\"version\":0,\"employee\":{\"id\":" + e.getId() + ",\"name\":\"Api Feed\""), events);
+        assertTrue(events.contains("data:{\"type\":\"DELETED\",\"id\":" + e.getId() + "}"), events);
+
+        MvcResult resumed = mockMvc.perform(get("/api/employees/changes").header("Last-Event-ID", startId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replayed = awaitContent(resumed, "event:deleted\n");
+        assertFalse(replayed.contains("event:resync"), replayed);
+        assertTrue(replayed.indexOf("event:created") < replayed.indexOf("event:deleted"), replayed);
+    }
+
+    /**
+     * Waits until a streamed response contains the given text.
+     */
+    private static String awaitContent(MvcResult result, String text) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (true) {
+            String content = result.getResponse().getContentAsString();
+            if (content.contains(text)) {
+                return content;
+            }
+            assertTrue(System.nanoTime() < deadline, "no " + text.trim() + " in " + content);
+            Thread.sleep(10);
+        }
+    }
+
+    private long repositoryCalls() {
+        long calls = 0;
+        for (Timer timer : registry.find("dms.repository.operations").timers()) {
+            calls += timer.count();
+        }
+        return calls;
+    }
+}
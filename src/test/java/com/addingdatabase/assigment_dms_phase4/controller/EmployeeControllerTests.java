@@ -0,0 +1,113 @@
+package com.addingdatabase.assigment_dms_phase4.controller;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeePage;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmployeeControllerTests {
+
+    private static final String DEPARTMENT = "Pages";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    private final List<Employee> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedEmployees() {
+        employeeService.deleteEmployees(created.stream().map(Employee::getId).toList());
+    }
+
+    @Test
+    void listPageLinksToTheNextPageAndRejectsABadCursor() throws Exception {
+        create("Pages Ann", "Pages Bob", "Pages Cal");
+
+        MvcResult first = mockMvc.perform(get("/employees").param("department", DEPARTMENT)
+                        .param("sort", "name").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNull(first.getResponse().getHeader("Server-Timing"), "timings are not sent by default");
+        EmployeePage page = (EmployeePage) first.getModelAndView().getModel().get("page");
+        assertEquals(List.of("Pages Ann", "Pages Bob"), page.getEmployees().stream().map(Employee::getName).toList());
+        assertTrue(first.getResponse().getContentAsString().contains(page.getNextCursor()),
+                "the page links to the next page");
+
+        MvcResult second = mockMvc.perform(get("/employees").param("department", DEPARTMENT)
+                        .param("sort", "name").param("size", "2").param("after", page.getNextCursor()))
+                .andExpect(status().isOk())
+                .andReturn();
+        EmployeePage next = (EmployeePage) second.getModelAndView().getModel().get("page");
+        assertEquals(List.of("Pages Cal"), next.getEmployees().stream().map(Employee::getName).toList());
+        assertNull(next.getNextCursor());
+
+        mockMvc.perform(get("/employees").param("after", "not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void allEmployeesAreStreamedInIdOrder() throws Exception {
+        create("Pages Stream Zed", "Pages Stream Amy", "Pages Stream Max");
+
+        MvcResult result = mockMvc.perform(get("/employees/all")).andExpect(status().isOk()).andReturn();
+        assertTrue(result.getResponse().getContentType().startsWith("text/html"));
+        String html = result.getResponse().getContentAsString();
+        int zed = html.indexOf("Pages Stream Zed");
+        int amy = html.indexOf("Pages Stream Amy");
+        int max = html.indexOf("Pages Stream Max");
+        assertTrue(zed >= 0 && zed < amy && amy < max, "every row is written, in ID order");
+        assertTrue(html.trim().endsWith("</html>"), "the page is complete");
+    }
+
+    @Test
+    void gzipExportDownloadsTheFilteredCsv() throws Exception {
+        create("Pages Export Ann", "Pages Export Bob");
+
+        MvcResult result = mockMvc.perform(get("/employees/export").param("format", "csv")
+                        .param("department", DEPARTMENT).param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("application/gzip", result.getResponse().getContentType());
+        assertEquals("attachment; filename=\"employees.csv.gz\"", result.getResponse().getHeader("Content-Disposition"));
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+        assertEquals("id,name,position,salary,hire_date,department,active", lines[0]);
+        assertEquals(3, lines.length);
+        assertEquals(created.get(0).getId() + ",Pages Export Ann,Clerk,1000.0,2020-01-01,Pages,true", lines[1]);
+        assertEquals(created.get(1).getId() + ",Pages Export Bob,Clerk,1000.0,2020-01-01,Pages,true", lines[2]);
+    }
+
+    private void create(String... names) {
+        for (String name : names) {
+            Employee e = new Employee(name, "Clerk", 1000, LocalDate.of(2020, 1, 1), DEPARTMENT, true);
+            employeeService.saveEmployee(e);
+            created.add(e);
+        }
+    }
+}
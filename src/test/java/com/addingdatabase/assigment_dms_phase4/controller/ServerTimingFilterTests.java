@@ -0,0 +1,107 @@
+package com.addingdatabase.assigment_dms_phase4.controller;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.service.EmployeeService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "dms.trace.server-timing.enabled=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ServerTimingFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void renderedPageReportsSqlMappingAndRenderPhases() throws Exception {
+        Employee employee = new Employee("Timing Tester", "QA", 1000, LocalDate.of(2020, 1, 1), "QA", true);
+        employeeService.saveEmployee(employee);
+        try {
+            MvcResult result = mockMvc.perform(get("/update/{id}", employee.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            String serverTiming = result.getResponse().getHeader("Server-Timing");
+            assertNotNull(serverTiming);
+            assertTrue(serverTiming.matches("conn;dur=[0-9.]+, sql;dur=[0-9.]+;desc=\"1 statements, 1 rows\", "
+                    + "map;dur=[0-9.]+, render;dur=[0-9.]+, total;dur=[0-9.]+"), serverTiming);
+            assertTrue(result.getResponse().getContentAsString().contains("Timing Tester"));
+        } finally {
+            employeeService.deleteEmployee(employee.getId());
+        }
+    }
+
+    @Test
+    void writeListenerGetsTheWrappedStreamAfterTheBufferedBody() throws Exception {
+        MockHttpServletResponse target = new MockHttpServletResponse();
+        ListeningOutputStream wrapped = new ListeningOutputStream();
+        ServerTimingResponse response = new ServerTimingResponse(new HttpServletResponseWrapper(target) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return wrapped;
+            }
+        }, 1024, () -> "total;dur=1.00");
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write("held ".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, wrapped.bytes.size());
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        out.setWriteListener(listener);
+        out.write("back".getBytes(StandardCharsets.UTF_8));
+
+        assertSame(listener, wrapped.listener);
+        assertEquals("total;dur=1.00", target.getHeader("Server-Timing"));
+        assertEquals("held back", wrapped.bytes.toString(StandardCharsets.UTF_8));
+        assertFalse(out.isReady(), "readiness comes from the wrapped stream");
+    }
+
+    private static class ListeningOutputStream extends ServletOutputStream {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WriteListener listener;
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return false;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            this.listener = listener;
+        }
+    }
+}
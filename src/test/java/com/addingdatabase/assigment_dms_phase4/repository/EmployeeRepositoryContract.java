@@ -0,0 +1,263 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The behaviour every EmployeeRepository engine must have; each engine's test class extends it.
+ */
+abstract class EmployeeRepositoryContract {
+
+    private static final String DEPARTMENT = "Contract";
+
+    private static final EmployeeCriteria CONTRACT = EmployeeCriteria.all().setDepartment(DEPARTMENT);
+
+    @Autowired
+    protected EmployeeRepository employeeRepository;
+
+    private final List<Employee> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedEmployees() {
+        employeeRepository.deleteAllById(created.stream().map(Employee::getId).collect(Collectors.toList()));
+        assertEquals(0, employeeRepository.count(CONTRACT));
+    }
+
+    @Test
+    void savesFindsUpdatesAndDeletes() {
+        Employee e = create("Contract Ada", "Clerk", 1200, LocalDate.of(2020, 3, 4), true);
+        assertNotNull(e.getId());
+
+        Employee found = employeeRepository.findById(e.getId());
+        assertEquals("Contract Ada", found.getName());
+        assertEquals("Clerk", found.getPosition());
+        assertEquals(1200, found.getSalary());
+        assertEquals(LocalDate.of(2020, 3, 4), found.getHireDate());
+        assertEquals(DEPARTMENT, found.getDepartment());
+        assertTrue(found.isActive());
+
+        found.setPosition("Manager");
+        found.setActive(false);
+        assertTrue(employeeRepository.save(found));
+        Employee updated = employeeRepository.findById(e.getId());
+        assertEquals("Manager", updated.getPosition());
+        assertFalse(updated.isActive());
+        assertEquals(1, employeeRepository.count(CONTRACT));
+
+        assertTrue(employeeRepository.deleteById(e.getId()));
+        assertNull(employeeRepository.findById(e.getId()));
+        assertFalse(employeeRepository.deleteById(e.getId()), "nothing left to delete");
+        assertNull(employeeRepository.findById(-1L));
+    }
+
+    @Test
+    void updatingAMissingEmployeeWritesNothing() {
+        Employee ghost = new Employee(Long.MAX_VALUE >>> 1, "Contract Ghost", "Clerk", 1, LocalDate.of(2020, 1, 1), DEPARTMENT, true);
+        assertFalse(employeeRepository.save(ghost));
+        assertEquals(0, employeeRepository.saveAll(List.of(ghost)));
+        assertEquals(0, ghost.getVersion());
+        assertNull(employeeRepository.findById(ghost.getId()));
+        assertEquals(0, employeeRepository.count(CONTRACT));
+    }
+
+    @Test
+    void updateFromAStaleCopyIsRefusedAndKeepsTheOtherWriter() {
+        Employee e = create("Contract Version", "Clerk", 1000, LocalDate.of(2020, 1, 1), true);
+        assertEquals(0, e.getVersion());
+
+        Employee mine = employeeRepository.findById(e.getId());
+        Employee theirs = employeeRepository.findById(e.getId());
+        mine.setSalary(1100);
+        employeeRepository.save(mine);
+        assertEquals(1, mine.getVersion());
+        assertEquals(1, employeeRepository.findById(e.getId()).getVersion());
+
+        theirs.setSalary(900);
+        EmployeeVersionConflictException conflict =
+                assertThrows(EmployeeVersionConflictException.class, () -> employeeRepository.save(theirs));
+        assertEquals(e.getId().longValue(), conflict.getId());
+        assertEquals(0, theirs.getVersion());
+        assertThrows(EmployeeVersionConflictException.class, () -> employeeRepository.saveAll(List.of(theirs)));
+
+        Employee current = employeeRepository.findById(e.getId());
+        assertEquals(1100, current.getSalary());
+        assertEquals(1, current.getVersion());
+
+        current.setSalary(1200);
+        assertEquals(1, employeeRepository.saveAll(List.of(current)));
+        assertEquals(2, current.getVersion());
+        assertEquals(1200, employeeRepository.findById(e.getId()).getSalary());
+    }
+
+    @Test
+    void saveAllAssignsIdsAndKeepsNothingIfARowIsInvalid() {
+        List<Employee> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(new Employee("Contract Batch " + i, "Clerk", 1000 + i, LocalDate.of(2019, 1, 1 + i), DEPARTMENT, true));
+        }
+        assertEquals(5, employeeRepository.saveAll(batch));
+        created.addAll(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                assertEquals(batch.get(i - 1).getId() + 1, batch.get(i).getId());
+            }
+            assertEquals("Contract Batch " + i, employeeRepository.findById(batch.get(i).getId()).getName());
+        }
+
+        List<Employee> invalid = List.of(
+                new Employee("Contract Valid", "Clerk", 1000, LocalDate.of(2019, 1, 1), DEPARTMENT, true),
+                new Employee("Contract Negative", "Clerk", -1, LocalDate.of(2019, 1, 1), DEPARTMENT, true));
+        assertThrows(RuntimeException.class, () -> employeeRepository.saveAll(invalid));
+        assertEquals(5, employeeRepository.count(CONTRACT));
+    }
+
+    @Test
+    void filtersCountAndStreamInIdOrder() {
+        Employee old = create("Contract Old", "Clerk", 900, LocalDate.of(2005, 6, 1), true);
+        Employee inactive = create("Contract Inactive", "Clerk", 2500, LocalDate.of(2015, 6, 1), false);
+        Employee recent = create("Contract Recent", "Clerk", 4000, LocalDate.of(2024, 6, 1), true);
+
+        assertEquals(3, employeeRepository.count(CONTRACT));
+        assertEquals(2, employeeRepository.count(EmployeeCriteria.all().setDepartment(DEPARTMENT).setActive(true)));
+        assertEquals(1, employeeRepository.count(EmployeeCriteria.all().setDepartment(DEPARTMENT)
+                .setHiredFrom(LocalDate.of(2015, 6, 1)).setHiredTo(LocalDate.of(2020, 1, 1))));
+        assertEquals(2, employeeRepository.count(EmployeeCriteria.all().setDepartment(DEPARTMENT)
+                .setMinSalary(2500.0)));
+
+        try (Stream<Employee> stream = employeeRepository.stream(CONTRACT)) {
+            assertEquals(List.of(old.getId(), inactive.getId(), recent.getId()),
+                    stream.map(Employee::getId).collect(Collectors.toList()));
+        }
+        try (Stream<Employee> stream = employeeRepository.streamAll()) {
+            assertEquals(3, stream.filter(e -> DEPARTMENT.equals(e.getDepartment())).count());
+        }
+        assertEquals(List.of(old.getId(), inactive.getId(), recent.getId()), employeeRepository.findAll().stream()
+                .filter(e -> DEPARTMENT.equals(e.getDepartment())).map(Employee::getId).collect(Collectors.toList()));
+        List<Long> all = employeeRepository.findAll().stream().map(Employee::getId).collect(Collectors.toList());
+        assertEquals(all.stream().sorted().collect(Collectors.toList()), all);
+    }
+
+    @Test
+    void pagesForwardAndBackwardBySortKey() {
+        String[] names = {"Contract Fay", "Contract Ann", "Contract Eve", "Contract Bob", "Contract Dan", "Contract Cal"};
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            employees.add(create(names[i], "Clerk", 1000 + 100 * (i % 3), LocalDate.of(2015, 1, 1 + i), true));
+        }
+
+        List<Employee> first = employeeRepository.findPage(CONTRACT, EmployeeSortKey.NAME, false, null, false, 4);
+        assertEquals(List.of("Contract Ann", "Contract Bob", "Contract Cal", "Contract Dan"), names(first));
+        List<Employee> second = employeeRepository.findPage(CONTRACT, EmployeeSortKey.NAME, false,
+                PageCursor.of(EmployeeSortKey.NAME, first.get(3)), false, 4);
+        assertEquals(List.of("Contract Eve", "Contract Fay"), names(second));
+        List<Employee> back = employeeRepository.findPage(CONTRACT, EmployeeSortKey.NAME, false,
+                PageCursor.of(EmployeeSortKey.NAME, second.get(0)), true, 3);
+        assertEquals(List.of("Contract Bob", "Contract Cal", "Contract Dan"), names(back));
+
+        // Salaries repeat, so the ID breaks the ties (descending too): 1200 Cal Eve, 1100 Dan Ann, 1000 Bob Fay
+        List<Employee> bySalary = employeeRepository.findPage(CONTRACT, EmployeeSortKey.SALARY, true, null, false, 3);
+        assertEquals(List.of("Contract Cal", "Contract Eve", "Contract Dan"), names(bySalary));
+        List<Employee> nextBySalary = employeeRepository.findPage(CONTRACT, EmployeeSortKey.SALARY, true,
+                PageCursor.of(EmployeeSortKey.SALARY, bySalary.get(2)), false, 3);
+        assertEquals(List.of("Contract Ann", "Contract Bob", "Contract Fay"), names(nextBySalary));
+
+        List<Employee> byHireDate = employeeRepository.findPage(CONTRACT, EmployeeSortKey.HIRE_DATE, false,
+                PageCursor.of(EmployeeSortKey.HIRE_DATE, employees.get(3)), false, 10);
+        assertEquals(List.of("Contract Dan", "Contract Cal"), names(byHireDate));
+
+        List<Employee> byId = employeeRepository.findPage(CONTRACT, EmployeeSortKey.ID, true,
+                PageCursor.of(EmployeeSortKey.ID, employees.get(2)), false, 10);
+        assertEquals(List.of("Contract Ann", "Contract Fay"), names(byId));
+        assertTrue(employeeRepository.findPage(CONTRACT, EmployeeSortKey.NAME, false, null, false, 0).isEmpty());
+    }
+
+    @Test
+    void searchRanksNameMatchesFirstAndFoldsDiacritics() {
+        Employee longName = create("Contract Yvonne Kestrel", "Analyst", 1000, LocalDate.of(2018, 1, 1), true);
+        Employee prefix = create("Contract Kes", "Clerk", 1000, LocalDate.of(2018, 1, 1), true);
+        Employee byPosition = create("Contract Paul", "Kestrel Keeper", 1000, LocalDate.of(2018, 1, 1), true);
+        Employee accented = create("Contract Késa", "Clerk", 1000, LocalDate.of(2018, 1, 1), true);
+        create("Contract Other", "Clerk", 1000, LocalDate.of(2018, 1, 1), true);
+
+        List<Employee> found = employeeRepository.search("\"contract\" \"kes\"*", "contract kes%", 10, 200);
+        assertEquals(List.of(prefix.getId(), accented.getId(), longName.getId(), byPosition.getId()),
+                found.stream().map(Employee::getId).collect(Collectors.toList()));
+
+        assertEquals(List.of(prefix.getId()), employeeRepository.search("\"contract\" \"kes\"", "contract kes%", 10, 200)
+                .stream().map(Employee::getId).collect(Collectors.toList()));
+        assertEquals(2, employeeRepository.search("\"contract\" \"kes\"*", "contract kes%", 2, 200).size());
+    }
+
+    @Test
+    void deleteAllByIdIgnoresUnknownIdsAndIdsAreNotReused() {
+        Employee a = create("Contract One", "Clerk", 1000, LocalDate.of(2017, 1, 1), true);
+        Employee b = create("Contract Two", "Clerk", 1000, LocalDate.of(2017, 1, 1), true);
+        long highest = b.getId();
+
+        assertEquals(Set.of(a.getId(), b.getId()),
+                employeeRepository.deleteAllById(List.of(a.getId(), b.getId(), b.getId(), -5L)));
+        assertEquals(0, employeeRepository.count(CONTRACT));
+        assertTrue(employeeRepository.deleteAllById(List.of(a.getId())).isEmpty());
+
+        Employee next = create("Contract Three", "Clerk", 1000, LocalDate.of(2017, 1, 1), true);
+        assertTrue(next.getId() > highest, "deleted IDs must not be handed out again");
+    }
+
+    @Test
+    void salaryGroupsCountSumAndCollectTheSalariesPerDepartmentAndFlag() {
+        create("Contract Pay A", "Clerk", 3000, LocalDate.of(2018, 1, 1), true);
+        create("Contract Pay B", "Clerk", 1000, LocalDate.of(2018, 1, 1), false);
+        create("Contract Pay C", "Clerk", 2000, LocalDate.of(2018, 1, 1), true);
+        create("Contract Pay D", "Clerk", 1500, LocalDate.of(2018, 1, 1), true);
+
+        List<SalaryGroup> groups = employeeRepository.salaryGroups();
+        for (int i = 1; i < groups.size(); i++) {
+            SalaryGroup prev = groups.get(i - 1);
+            SalaryGroup next = groups.get(i);
+            int order = EmployeeOrdering.compareText(prev.getDepartment(), next.getDepartment());
+            assertTrue(order < 0 || (order == 0 && !prev.isActive() && next.isActive()),
+                    "groups out of order at " + next.getDepartment());
+        }
+
+        List<SalaryGroup> contract = groups.stream().filter(g -> DEPARTMENT.equals(g.getDepartment()))
+                .collect(Collectors.toList());
+        assertEquals(2, contract.size());
+        assertFalse(contract.get(0).isActive());
+        assertEquals(1, contract.get(0).getHeadcount());
+        assertEquals(1000, contract.get(0).getTotalSalary());
+        assertTrue(contract.get(1).isActive());
+        assertEquals(3, contract.get(1).getHeadcount());
+        assertEquals(6500, contract.get(1).getTotalSalary());
+        assertEquals(3, contract.get(1).getSize());
+        double[] salaries = Arrays.copyOf(contract.get(1).getSalaries(), contract.get(1).getSize());
+        Arrays.sort(salaries);
+        assertArrayEquals(new double[] {1500, 2000, 3000}, salaries);
+    }
+
+    private Employee create(String name, String position, double salary, LocalDate hireDate, boolean active) {
+        Employee e = new Employee(name, position, salary, hireDate, DEPARTMENT, active);
+        employeeRepository.save(e);
+        created.add(e);
+        return e;
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.stream().map(Employee::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,123 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"dms.repository.group-commit.enabled=true", "dms.repository.group-commit.window=200ms"})
+@ActiveProfiles("test")
+class EmployeeRepositoryGroupCommitTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void concurrentSavesShareOneCommitAndABadRowFailsAlone() throws Exception {
+        DistributionSummary batches = registry.get("dms.repository.commit.batch").summary();
+        long commitsBefore = batches.count();
+        double rowsBefore = batches.totalAmount();
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            // The fourth employee violates the salary CHECK constraint
+            employees.add(new Employee("Group Tester " + i, "QA", i == 3 ? -1 : 1000,
+                    LocalDate.of(2020, 1, 1), "QA", true));
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(employees.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> saves = new ArrayList<>();
+        try {
+            for (Employee employee : employees) {
+                saves.add(callers.submit(() -> {
+                    start.await();
+                    employeeRepository.save(employee);
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            for (int i = 0; i < saves.size(); i++) {
+                Future<?> save = saves.get(i);
+                if (i == 3) {
+                    Exception ex = assertThrows(Exception.class, () -> save.get(30, TimeUnit.SECONDS));
+                    assertTrue(ex.getMessage().contains("CHECK constraint failed"), ex.getMessage());
+                    assertNull(employees.get(i).getId());
+                } else {
+                    save.get(30, TimeUnit.SECONDS);
+                    Employee saved = employeeRepository.findById(employees.get(i).getId());
+                    assertEquals(employees.get(i).getName(), saved.getName());
+                }
+            }
+
+            // 7 saves committed, in fewer transactions than saves
+            assertEquals(rowsBefore + 7, batches.totalAmount());
+            assertTrue(batches.count() - commitsBefore < 7, "saves were not grouped");
+        } finally {
+            callers.shutdownNow();
+            for (Employee employee : employees) {
+                if (employee.getId() != null) {
+                    employeeRepository.deleteById(employee.getId());
+                }
+            }
+        }
+    }
+
+    @Test
+    void staleUpdateInAGroupFailsAloneWithAVersionConflict() throws Exception {
+        Employee e = new Employee("Group Version", "QA", 1000, LocalDate.of(2020, 1, 1), "QA", true);
+        employeeRepository.save(e);
+        Employee first = employeeRepository.findById(e.getId());
+        Employee stale = employeeRepository.findById(e.getId());
+        Employee other = new Employee("Group Other", "QA", 1000, LocalDate.of(2020, 1, 1), "QA", true);
+        employeeRepository.save(first);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            stale.setSalary(2000);
+            Future<?> conflicting = callers.submit(() -> {
+                start.await();
+                employeeRepository.save(stale);
+                return null;
+            });
+            Future<?> insert = callers.submit(() -> {
+                start.await();
+                employeeRepository.save(other);
+                return null;
+            });
+            start.countDown();
+
+            Exception ex = assertThrows(Exception.class, () -> conflicting.get(30, TimeUnit.SECONDS));
+            assertInstanceOf(EmployeeVersionConflictException.class, ex.getCause());
+            insert.get(30, TimeUnit.SECONDS);
+            assertEquals("Group Other", employeeRepository.findById(other.getId()).getName());
+            assertEquals(1000, employeeRepository.findById(e.getId()).getSalary());
+            assertEquals(1, employeeRepository.findById(e.getId()).getVersion());
+        } finally {
+            callers.shutdownNow();
+            employeeRepository.deleteById(e.getId());
+            if (other.getId() != null) {
+                employeeRepository.deleteById(other.getId());
+            }
+        }
+    }
+}
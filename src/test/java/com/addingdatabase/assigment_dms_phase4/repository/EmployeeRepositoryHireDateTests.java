@@ -0,0 +1,93 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeRepositoryHireDateTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void hireDateIsStoredAsEpochDayAndReadBack() throws Exception {
+        LocalDate hired = LocalDate.of(2019, 2, 28);
+        Employee employee = new Employee("Epoch Tester", "QA", 1000, hired, "Epoch", true);
+        employeeRepository.save(employee);
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT typeof(hire_date), hire_date FROM employees WHERE id = " + employee.getId())) {
+            assertTrue(rs.next());
+            assertEquals("integer", rs.getString(1));
+            assertEquals(hired.toEpochDay(), rs.getLong(2));
+        } finally {
+            assertEquals(hired, employeeRepository.findById(employee.getId()).getHireDate());
+            EmployeeCriteria sameDay = EmployeeCriteria.all().setDepartment("Epoch").setHiredFrom(hired).setHiredTo(hired);
+            assertEquals(1, employeeRepository.count(sameDay));
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+
+    @Test
+    void migrationConvertsTextDatesAndKeepsSearchIndexesAndSequence() throws Exception {
+        Path file = Path.of("target", "hire-date-migration-test.db");
+        Files.deleteIfExists(file);
+        String url = "jdbc:sqlite:" + file;
+
+        // A database as it was before V5, with ISO-8601 text dates and a deleted highest ID
+        Flyway.configure().dataSource(url, null, null).locations("classpath:db/migration").target("4").load().migrate();
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO employees (name, position, salary, hire_date, department, active) VALUES "
+                    + "('Text Date', 'Clerk', 100, '2001-09-09', 'Archive', 1), "
+                    + "('Deleted Later', 'Clerk', 100, '2002-01-01', 'Archive', 0)");
+            stmt.executeUpdate("DELETE FROM employees WHERE name = 'Deleted Later'");
+        }
+
+        Flyway.configure().dataSource(url, null, null).locations("classpath:db/migration").load().migrate();
+
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees")) {
+                assertTrue(rs.next());
+                Employee e = EmployeeRowMapper.map(rs);
+                assertEquals(LocalDate.of(2001, 9, 9), e.getHireDate());
+                assertEquals("Text Date", e.getName());
+                assertFalse(rs.next());
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT rowid FROM employees_name_fts WHERE employees_name_fts MATCH 'text'")) {
+                assertTrue(rs.next(), "search index survives the table rebuild");
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT seq FROM sqlite_sequence WHERE name = 'employees'")) {
+                assertTrue(rs.next());
+                assertEquals(2, rs.getLong(1), "the deleted ID is not handed out again");
+            }
+            stmt.executeUpdate("INSERT INTO employees (name, position, salary, hire_date, department, active) "
+                    + "VALUES ('After Migration', 'Clerk', 100, 0, 'Archive', 1)");
+            try (ResultSet rs = stmt.executeQuery("SELECT rowid FROM employees_name_fts WHERE employees_name_fts MATCH 'migration'")) {
+                assertTrue(rs.next(), "search triggers are recreated");
+                assertEquals(3, rs.getLong(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeRepositoryQueryPlanTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    static Stream<Arguments> supportedFilters() {
+        return Stream.of(
+                Arguments.of(EmployeeCriteria.all().setDepartment("IT"),
+                        "idx_employees_department_active"),
+                Arguments.of(EmployeeCriteria.all().setDepartment("IT").setActive(true),
+                        "idx_employees_department_active"),
+                Arguments.of(EmployeeCriteria.all().setHiredFrom(LocalDate.of(2020, 1, 1)),
+                        "idx_employees_hire_date"),
+                Arguments.of(EmployeeCriteria.all().setHiredFrom(LocalDate.of(2020, 1, 1)).setHiredTo(LocalDate.of(2020, 12, 31)),
+                        "idx_employees_hire_date"),
+                Arguments.of(EmployeeCriteria.all().setMinSalary(50000.0).setMaxSalary(60000.0),
+                        "idx_employees_salary"),
+                Arguments.of(EmployeeCriteria.all().setDepartment("IT").setActive(true).setHiredFrom(LocalDate.of(2020, 1, 1)),
+                        "idx_employees_"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("supportedFilters")
+    void supportedFilterUsesIndex(EmployeeCriteria criteria, String expectedIndex) {
+        List<String> plan = employeeRepository.explainQueryPlan(criteria);
+
+        assertFalse(plan.isEmpty());
+        assertTrue(plan.stream().allMatch(step -> step.startsWith("SEARCH employees USING")
+                        && step.contains(expectedIndex)),
+                () -> "Expected an index search on " + expectedIndex + " but got " + plan);
+    }
+}
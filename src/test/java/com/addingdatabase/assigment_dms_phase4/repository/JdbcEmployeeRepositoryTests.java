@@ -0,0 +1,56 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcEmployeeRepositoryTests extends EmployeeRepositoryContract {
+
+    @Autowired
+    private RepositoryMetrics metrics;
+
+    @Autowired
+    private SqlTracer sqlTracer;
+
+    @Autowired
+    private SingleWriterExecutor writer;
+
+    @Test
+    void jdbcIsTheDefaultEngine() {
+        assertInstanceOf(JdbcEmployeeRepository.class, employeeRepository);
+    }
+
+    @Test
+    void failedReadsThrowInsteadOfLookingEmpty() {
+        AbstractDataSource unavailable = new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                throw new SQLException("database is locked");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+        JdbcEmployeeRepository repository = new JdbcEmployeeRepository(unavailable, 500, metrics, sqlTracer, writer,
+                false, Duration.ZERO, 256, false);
+
+        assertThrows(IllegalStateException.class, repository::findAll);
+        assertThrows(IllegalStateException.class, () -> repository.findById(1L));
+        assertThrows(IllegalStateException.class, () -> repository.findPage(EmployeeCriteria.all(),
+                EmployeeSortKey.NAME, false, null, false, 10));
+    }
+}
@@ -0,0 +1,135 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "dms.repository.engine=mapped")
+@ActiveProfiles("test")
+class MappedEmployeeRepositoryTests extends EmployeeRepositoryContract {
+
+    @Test
+    void mappedEngineIsSelectedByConfiguration() {
+        assertInstanceOf(MappedEmployeeRepository.class, employeeRepository);
+    }
+
+    @Test
+    void reopeningReplaysTheLogAndDropsAnIncompleteFrame() throws Exception {
+        Path file = Path.of("target", "mapped-reopen-test.dat");
+        Files.deleteIfExists(file);
+        SingleWriterExecutor writer = newWriter();
+        try {
+            MappedEmployeeRepository store = open(file, writer, DataSize.ofMegabytes(16));
+            Employee kept = employee("Reopen Kept");
+            Employee updated = employee("Reopen Updated");
+            Employee deleted = employee("Reopen Deleted");
+            store.saveAll(List.of(kept, updated, deleted));
+            updated.setSalary(4321);
+            store.save(updated);
+            store.deleteById(deleted.getId());
+            long end = store.logSize();
+            Employee torn = employee("Reopen Torn");
+            store.save(torn);
+            store.close();
+
+            // Damage the last frame, as a crash in the middle of writing it would
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                raf.seek(end + 20);
+                raf.write(new byte[]{1, 2, 3, 4});
+            }
+
+            store = open(file, writer, DataSize.ofMegabytes(16));
+            assertEquals("Reopen Kept", store.findById(kept.getId()).getName());
+            assertEquals(4321, store.findById(updated.getId()).getSalary());
+            assertNull(store.findById(deleted.getId()));
+            assertNull(store.findById(torn.getId()));
+            assertEquals(2, store.count(EmployeeCriteria.all()));
+            assertEquals(end, store.logSize());
+
+            Employee next = employee("Reopen Next");
+            store.save(next);
+            assertTrue(next.getId() > deleted.getId(), "deleted IDs must not be handed out again");
+            store.close();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void compactionDropsGarbageAndKeepsWritesMadeMeanwhile() throws Exception {
+        Path file = Path.of("target", "mapped-compaction-test.dat");
+        Files.deleteIfExists(file);
+        SingleWriterExecutor writer = newWriter();
+        try {
+            MappedEmployeeRepository store = open(file, writer, DataSize.ofGigabytes(1));
+            List<Employee> employees = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                employees.add(employee("Compaction " + i));
+            }
+            store.saveAll(employees);
+            for (int round = 0; round < 5; round++) {
+                for (Employee e : employees.subList(0, 500)) {
+                    e.setSalary(e.getSalary() + 1);
+                    store.save(e);
+                }
+            }
+            List<Long> deleted = new ArrayList<>();
+            for (Employee e : employees.subList(1500, 2000)) {
+                deleted.add(e.getId());
+            }
+            store.deleteAllById(deleted);
+            long before = store.logSize();
+
+            assertTrue(store.compactNow());
+            Employee during = employee("Compaction During");
+            store.save(during);
+            long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (store.isCompacting() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(store.isCompacting());
+            assertTrue(store.logSize() < before / 2, "the log shrinks to its live entries");
+
+            assertEquals(1501, store.count(EmployeeCriteria.all()));
+            assertEquals(employees.get(0).getSalary(), store.findById(employees.get(0).getId()).getSalary());
+            assertNull(store.findById(employees.get(1999).getId()));
+            assertEquals("Compaction During", store.findById(during.getId()).getName());
+            store.close();
+
+            store = open(file, writer, DataSize.ofGigabytes(1));
+            assertEquals(1501, store.count(EmployeeCriteria.all()));
+            assertEquals(employees.get(499).getSalary(), store.findById(employees.get(499).getId()).getSalary());
+            assertNull(store.findById(employees.get(1500).getId()));
+            store.close();
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    private static MappedEmployeeRepository open(Path file, SingleWriterExecutor writer, DataSize compactMinGarbage) {
+        return new MappedEmployeeRepository(file.toString(), new RepositoryMetrics(new SimpleMeterRegistry()),
+                writer, false, false, compactMinGarbage, 0.5);
+    }
+
+    private static SingleWriterExecutor newWriter() {
+        return new SingleWriterExecutor("mapped-test-writer", 100, Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    private static Employee employee(String name) {
+        return new Employee(name, "Clerk", 1000, LocalDate.of(2021, 5, 1), "Mapped", true);
+    }
+}
@@ -0,0 +1,53 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RepositoryMetricsTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void operationsAreTimedAndRowsCounted() {
+        double written = rows("save", "written");
+        long saves = calls("save", "success");
+        double read = rows("findById", "read");
+
+        Employee employee = new Employee("Metrics Tester", "QA", 1000, LocalDate.of(2020, 1, 1), "QA", true);
+        employeeRepository.save(employee);
+        try {
+            assertNotNull(employeeRepository.findById(employee.getId()));
+            assertNull(employeeRepository.findById(-1L));
+
+            assertEquals(saves + 1, calls("save", "success"));
+            assertEquals(written + 1, rows("save", "written"));
+            assertEquals(read + 1, rows("findById", "read"), "a missing row is not counted");
+        } finally {
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+
+    private long calls(String method, String outcome) {
+        return registry.get("dms.repository.operations").tag("method", method).tag("outcome", outcome)
+                .timer().count();
+    }
+
+    private double rows(String method, String direction) {
+        return registry.get("dms.repository.rows").tag("method", method).tag("direction", direction)
+                .counter().count();
+    }
+}
@@ -0,0 +1,129 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import com.addingdatabase.assigment_dms_phase4.model.PageCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "dms.repository.shards=3")
+@ActiveProfiles("test")
+class ShardedEmployeeRepositoryTests {
+
+    private static final EmployeeCriteria SHARDED = EmployeeCriteria.all().setDepartment("Sharding");
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void shardFilesAreNamedAfterTheFirstDatabase() {
+        assertEquals("jdbc:sqlite:target/test-dms-shard1.db",
+                ShardedEmployeeRepository.shardUrl("jdbc:sqlite:target/test-dms.db", 1));
+        assertEquals("jdbc:sqlite:C:\\data\\dms-shard2?journal_mode=WAL",
+                ShardedEmployeeRepository.shardUrl("jdbc:sqlite:C:\\data\\dms?journal_mode=WAL", 2));
+    }
+
+    @Test
+    void rowsAreSpreadOverTheShardsAndReadBackInOrder() {
+        assertInstanceOf(ShardedEmployeeRepository.class, employeeRepository);
+        assertEquals(3, registry.find("dms.repository.write.queue").gauges().size(), "one writer per shard");
+
+        List<Employee> employees = new ArrayList<>();
+        String[] names = {"Sharding Fay", "Sharding Ann", "Sharding Eve", "Sharding Bob", "Sharding Dan", "Sharding Cal"};
+        for (int i = 0; i < names.length; i++) {
+            Employee e = new Employee(names[i], "Clerk", 1000 + i, LocalDate.of(2015, 1, 1 + i), "Sharding", true);
+            employeeRepository.save(e);
+            employees.add(e);
+        }
+        try {
+            Set<Long> shards = new HashSet<>();
+            for (Employee e : employees) {
+                shards.add((e.getId() - 1) >>> ShardedEmployeeRepository.SHARD_ID_BITS);
+                assertEquals(e.getName(), employeeRepository.findById(e.getId()).getName());
+            }
+            assertEquals(Set.of(0L, 1L, 2L), shards);
+
+            assertEquals(6, employeeRepository.count(SHARDED));
+            List<Long> ids = employees.stream().map(Employee::getId).sorted().collect(Collectors.toList());
+            assertEquals(ids, employeeRepository.findAll().stream()
+                    .filter(e -> "Sharding".equals(e.getDepartment())).map(Employee::getId).collect(Collectors.toList()));
+            try (Stream<Employee> stream = employeeRepository.stream(SHARDED)) {
+                assertEquals(ids, stream.map(Employee::getId).collect(Collectors.toList()));
+            }
+
+            // Pages sorted by name merge the shards: Ann Bob Cal Dan | Eve Fay, and back again
+            List<Employee> first = employeeRepository.findPage(SHARDED, EmployeeSortKey.NAME, false, null, false, 4);
+            assertEquals(List.of("Sharding Ann", "Sharding Bob", "Sharding Cal", "Sharding Dan"), names(first));
+            PageCursor afterDan = PageCursor.of(EmployeeSortKey.NAME, first.get(3));
+            List<Employee> second = employeeRepository.findPage(SHARDED, EmployeeSortKey.NAME, false, afterDan, false, 4);
+            assertEquals(List.of("Sharding Eve", "Sharding Fay"), names(second));
+            PageCursor beforeEve = PageCursor.of(EmployeeSortKey.NAME, second.get(0));
+            List<Employee> back = employeeRepository.findPage(SHARDED, EmployeeSortKey.NAME, false, beforeEve, true, 3);
+            assertEquals(List.of("Sharding Bob", "Sharding Cal", "Sharding Dan"), names(back));
+            List<Employee> bySalary = employeeRepository.findPage(SHARDED, EmployeeSortKey.SALARY, true, null, false, 6);
+            assertEquals(employees.stream().sorted(Comparator.comparingDouble(Employee::getSalary).reversed())
+                    .map(Employee::getName).collect(Collectors.toList()), names(bySalary));
+
+            List<Employee> found = employeeRepository.search("\"sharding\" \"e\"*", "sharding e%", 10, 200);
+            assertEquals(List.of("Sharding Eve"), names(found));
+        } finally {
+            List<Long> ids = employees.stream().map(Employee::getId).collect(Collectors.toList());
+            assertEquals(Set.copyOf(ids), employeeRepository.deleteAllById(ids));
+        }
+        assertEquals(0, employeeRepository.count(SHARDED));
+    }
+
+    @Test
+    void batchInsertsStayOnOneShardAndIdsAreNotReused() {
+        List<Employee> batch = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            batch.add(new Employee("Sharding Batch " + i, "Clerk", 1000, LocalDate.of(2016, 1, 1), "Sharding", true));
+        }
+        assertEquals(9, employeeRepository.saveAll(batch));
+        long shard = (batch.get(0).getId() - 1) >>> ShardedEmployeeRepository.SHARD_ID_BITS;
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(shard, (batch.get(i).getId() - 1) >>> ShardedEmployeeRepository.SHARD_ID_BITS);
+            assertEquals("Sharding Batch " + i, employeeRepository.findById(batch.get(i).getId()).getName());
+        }
+        long highest = batch.get(batch.size() - 1).getId();
+        employeeRepository.deleteAllById(batch.stream().map(Employee::getId).collect(Collectors.toList()));
+
+        List<Employee> next = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Employee e = new Employee("Sharding Next " + i, "Clerk", 1000, LocalDate.of(2016, 1, 1), "Sharding", true);
+                employeeRepository.save(e);
+                next.add(e);
+                if ((e.getId() - 1) >>> ShardedEmployeeRepository.SHARD_ID_BITS == shard) {
+                    assertTrue(e.getId() > highest, "deleted IDs must not be handed out again");
+                }
+            }
+        } finally {
+            next.forEach(e -> employeeRepository.deleteById(e.getId()));
+        }
+        assertNull(employeeRepository.findById(-1L));
+        assertNull(employeeRepository.findById(Long.MAX_VALUE));
+    }
+
+    private static List<String> names(List<Employee> employees) {
+        return employees.stream().map(Employee::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,115 @@
+package com.addingdatabase.assigment_dms_phase4.repository;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"dms.write-queue.capacity=1", "dms.write-queue.max-wait=50ms"})
+@ActiveProfiles("test")
+class SingleWriterExecutorTests {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private SingleWriterExecutor writer;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void concurrentWritesAreSerializedOnTheWriterThread() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<Employee>> saved = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                Employee employee = new Employee("Writer Tester " + i, "QA", 1000, LocalDate.of(2020, 1, 1), "QA", true);
+                saved.add(callers.submit(() -> {
+                    // The queue holds one write; retry the way a client would after a 503
+                    while (true) {
+                        try {
+                            employeeRepository.save(employee);
+                            return employee;
+                        } catch (WriteRejectedException rejected) {
+                            Thread.sleep(10);
+                        }
+                    }
+                }));
+            }
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<Employee> future : saved) {
+                Employee employee = future.get(30, TimeUnit.SECONDS);
+                assertNotNull(employee.getId());
+                ids.add(employee.getId());
+                assertEquals(employee.getName(), employeeRepository.findById(employee.getId()).getName());
+            }
+            assertEquals(4, ids.size());
+
+            assertEquals("sqlite-writer", writer.execute(() -> Thread.currentThread().getName()));
+        } finally {
+            callers.shutdownNow();
+            for (Future<Employee> future : saved) {
+                if (future.isDone() && !future.isCancelled() && future.get().getId() != null) {
+                    employeeRepository.deleteById(future.get().getId());
+                }
+            }
+        }
+    }
+
+    @Test
+    void fullQueueRejectsTheWriteInsteadOfWaitingForever() throws Exception {
+        double rejectedBefore = registry.get("dms.repository.write.rejected").counter().count();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Occupy the writer thread, then fill the single queue slot
+        CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> writer.execute(() -> {
+            running.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        }));
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> writer.execute(() -> "queued"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.get("dms.repository.write.queue").gauge().value() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        try {
+            assertThrows(WriteRejectedException.class, () -> writer.execute(() -> "rejected"));
+            assertEquals(rejectedBefore + 1, registry.get("dms.repository.write.rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+        blocker.get(10, TimeUnit.SECONDS);
+        assertEquals("queued", queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedWriteIsReportedToTheCaller() {
+        Employee invalid = new Employee("Negative Salary", "QA", -1, LocalDate.of(2020, 1, 1), "QA", true);
+
+        // @Repository exception translation turns the IllegalStateException into a DataAccessException
+        DataAccessException ex = assertThrows(DataAccessException.class, () -> employeeRepository.save(invalid));
+        assertTrue(ex.getMessage().contains("CHECK constraint failed"), ex.getMessage());
+        assertNull(invalid.getId());
+    }
+}
@@ -0,0 +1,224 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeChangeFeedTests {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final List<EmployeeChangeFeed> feeds = new ArrayList<>();
+
+    @AfterEach
+    void closeFeeds() {
+        feeds.forEach(EmployeeChangeFeed::close);
+    }
+
+    @Test
+    void newSubscriberIsToldWhereToStartAndThenGetsEachChangeInOrder() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 16);
+        feed.onEmployeeChanged(EmployeeChangedEvent.deleted(99));
+        Recorder recorder = new Recorder();
+        feed.subscribe(null, recorder);
+
+        EmployeeChangeFeed.FeedEvent start = recorder.next();
+        assertEquals(EmployeeChangeFeed.RESYNC, start.getName());
+        assertEquals(1, start.getSequence());
+        assertEquals("{\"type\":\"RESYNC\"}", start.getData());
+
+        Employee ada = new Employee(7L, "Feed Ada", "Clerk", 1200, LocalDate.of(2020, 3, 4), "Feed", true);
+        feed.onEmployeeChanged(EmployeeChangedEvent.saved(ada, true));
+        feed.onEmployeeChanged(EmployeeChangedEvent.saved(ada, false));
+        feed.onEmployeeChanged(EmployeeChangedEvent.deleted(7));
+
+        EmployeeChangeFeed.FeedEvent created = recorder.next();
+        assertEquals("created", created.getName());
+        assertEquals(2, created.getSequence());
+        assertTrue(created.getId().endsWith(".2"));
+        assertEquals("{\"type\":\"CREATED\",\"id\":7,\"version\":0,\"employee\":{\"id\":7,\"name\":\"Feed Ada\",\"position\":\"Clerk\","
+                + "\"salary\":1200.0,\"hireDate\":\"2020-03-04\",\"department\":\"Feed\",\"active\":true,"
+                + "\"version\":0}}", created.getData());
+        assertEquals("updated", recorder.next().getName());
+        EmployeeChangeFeed.FeedEvent deleted = recorder.next();
+        assertEquals("deleted", deleted.getName());
+        assertEquals("{\"type\":\"DELETED\",\"id\":7}", deleted.getData());
+        assertEquals(1.0, registry.get("dms.feed.subscribers").gauge().value());
+    }
+
+    @Test
+    void reconnectingClientGetsWhatItMissedOrAResyncWhenThatIsNoLongerKept() throws Exception {
+        EmployeeChangeFeed feed = feed(3, 16);
+        Recorder first = new Recorder();
+        feed.subscribe(null, first);
+        String start = first.next().getId();
+        for (long id = 1; id <= 5; id++) {
+            feed.onEmployeeChanged(EmployeeChangedEvent.deleted(id));
+        }
+        first.next();
+        String second = first.next().getId();
+
+        Recorder resumed = new Recorder();
+        feed.subscribe(second, resumed);
+        assertEquals(List.of(3L, 4L, 5L), List.of(resumed.next().getSequence(), resumed.next().getSequence(),
+                resumed.next().getSequence()));
+
+        Recorder upToDate = new Recorder();
+        feed.subscribe(start.substring(0, start.indexOf('.')) + ".5", upToDate);
+        feed.onEmployeeChanged(EmployeeChangedEvent.deleted(6));
+        assertEquals(6, upToDate.next().getSequence(), "nothing was missed, so nothing is replayed");
+
+        for (String unknown : List.of(start, "0.3", "garbage")) {
+            Recorder tooOld = new Recorder();
+            feed.subscribe(unknown, tooOld);
+            EmployeeChangeFeed.FeedEvent resync = tooOld.next();
+            assertEquals(EmployeeChangeFeed.RESYNC, resync.getName());
+            assertEquals(6, resync.getSequence());
+        }
+        assertEquals(3.0, registry.get("dms.feed.resyncs").tag("reason", "resume").counter().count());
+    }
+
+    @Test
+    void slowSubscriberLosesItsBacklogForAResyncWithoutHoldingUpWriters() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        Recorder slow = new Recorder() {
+            @Override
+            public void send(EmployeeChangeFeed.FeedEvent event) throws IOException {
+                super.send(event);
+                await(release);
+            }
+        };
+        feed.subscribe(null, slow);
+        assertEquals(0, slow.next().getSequence());
+
+        for (long id = 1; id <= 5; id++) {
+            feed.onEmployeeChanged(EmployeeChangedEvent.deleted(id));
+        }
+        release.countDown();
+
+        EmployeeChangeFeed.FeedEvent resync = slow.next();
+        assertEquals(EmployeeChangeFeed.RESYNC, resync.getName());
+        assertEquals(5, resync.getSequence(), "the resync covers every change that was dropped");
+        feed.onEmployeeChanged(EmployeeChangedEvent.deleted(6));
+        assertEquals(6, slow.next().getSequence());
+        assertEquals(2.0, registry.get("dms.feed.resyncs").tag("reason", "overflow").counter().count());
+    }
+
+    @Test
+    void failedDeliveryAndCancelEndTheSubscription() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 16);
+        Recorder broken = new Recorder() {
+            @Override
+            public void send(EmployeeChangeFeed.FeedEvent event) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        feed.subscribe(null, broken);
+        assertTrue(broken.closed.await(5, TimeUnit.SECONDS));
+
+        Recorder leaving = new Recorder();
+        EmployeeChangeFeed.Subscription subscription = feed.subscribe(null, leaving);
+        leaving.next();
+        subscription.cancel();
+        subscription.cancel();
+        assertEquals(0, leaving.closed.getCount());
+        assertEquals(0.0, registry.get("dms.feed.subscribers").gauge().value());
+        feed.onEmployeeChanged(EmployeeChangedEvent.deleted(1));
+        assertNull(leaving.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void eventShowsTheEmployeeAsItWasPublishedWithItsVersion() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 16);
+        Recorder recorder = new Recorder();
+        feed.subscribe(null, recorder);
+        recorder.next();
+
+        Employee bea = new Employee(8L, "Feed Bea", "Clerk", 1200, LocalDate.of(2020, 3, 4), "Feed", true);
+        bea.setVersion(3);
+        feed.onEmployeeChanged(EmployeeChangedEvent.saved(bea, false));
+        bea.setName("Feed Bea Changed");
+        bea.setVersion(4);
+
+        String data = recorder.next().getData();
+        assertTrue(data.startsWith("{\"type\":\"UPDATED\",\"id\":8,\"version\":3,"), data);
+        assertTrue(data.contains("\"name\":\"Feed Bea\""), data);
+    }
+
+    @Test
+    void busySubscriberSharesTheSenderThreadAndStillGetsEveryEventInOrder() throws Exception {
+        EmployeeChangeFeed feed = feed(16, 1000, 1);
+        Recorder busy = new Recorder();
+        Recorder other = new Recorder();
+        feed.subscribe(null, busy);
+        feed.subscribe(null, other);
+        busy.next();
+        other.next();
+
+        for (long id = 1; id <= 500; id++) {
+            feed.onEmployeeChanged(EmployeeChangedEvent.deleted(id));
+        }
+        for (long sequence = 1; sequence <= 500; sequence++) {
+            assertEquals(sequence, busy.next().getSequence());
+            assertEquals(sequence, other.next().getSequence());
+        }
+    }
+
+    private EmployeeChangeFeed feed(int history, int buffer) {
+        return feed(history, buffer, 4);
+    }
+
+    private EmployeeChangeFeed feed(int history, int buffer, int senders) {
+        // Dates as ISO text, as in the application's ObjectMapper
+        EmployeeChangeFeed feed = new EmployeeChangeFeed(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build(), registry, history, buffer,
+                senders);
+        feeds.add(feed);
+        return feed;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Recorder implements EmployeeChangeFeed.Sink {
+
+        final BlockingQueue<EmployeeChangeFeed.FeedEvent> events = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(EmployeeChangeFeed.FeedEvent event) throws IOException {
+            events.add(event);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        EmployeeChangeFeed.FeedEvent next() throws InterruptedException {
+            EmployeeChangeFeed.FeedEvent event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "no event delivered");
+            return event;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeFileFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeExportServiceTests {
+
+    private static final EmployeeCriteria EXPORT = EmployeeCriteria.all().setDepartment("Export");
+
+    @Autowired
+    private EmployeeExportService exportService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportsTheFilteredEmployeesAsCsvAndNdjson() throws Exception {
+        Employee quoted = new Employee("Export \"Ace\", Jr.", "Clerk", 1234.5, LocalDate.of(2019, 2, 3), "Export", true);
+        Employee plain = new Employee("Export Bea", "Manager", 2000, LocalDate.of(2021, 4, 5), "Export", false);
+        employeeService.saveAllEmployees(List.of(quoted, plain));
+        try {
+            ByteArrayOutputStream csv = new ByteArrayOutputStream();
+            assertEquals(2, exportService.export(EXPORT, EmployeeFileFormat.CSV, csv));
+            assertEquals("id,name,position,salary,hire_date,department,active\n"
+                    + quoted.getId() + ",\"Export \"\"Ace\"\", Jr.\",Clerk,1234.5,2019-02-03,Export,true\n"
+                    + plain.getId() + ",Export Bea,Manager,2000.0,2021-04-05,Export,false\n",
+                    csv.toString(StandardCharsets.UTF_8));
+
+            ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+            assertEquals(1, exportService.export(EmployeeCriteria.all().setDepartment("Export").setActive(false),
+                    EmployeeFileFormat.NDJSON, ndjson));
+            String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(1, lines.length);
+            JsonNode row = objectMapper.readTree(lines[0]);
+            assertEquals(plain.getId().longValue(), row.get("id").asLong());
+            assertEquals("2021-04-05", row.get("hireDate").asText());
+            assertFalse(row.get("active").asBoolean());
+
+            ByteArrayOutputStream empty = new ByteArrayOutputStream();
+            assertEquals(0, exportService.export(EmployeeCriteria.all().setDepartment("Nobody"),
+                    EmployeeFileFormat.NDJSON, empty));
+            assertEquals(0, empty.size());
+        } finally {
+            employeeService.deleteEmployees(List.of(quoted.getId(), plain.getId()));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeFileFormat;
+import com.addingdatabase.assigment_dms_phase4.model.ImportReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeImportServiceTests {
+
+    private static final EmployeeCriteria IMPORTED = EmployeeCriteria.all().setDepartment("Import");
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private EmployeeImportService importService;
+
+    @BeforeEach
+    void createServiceWithSmallBatches() {
+        importService = new EmployeeImportService(employeeService, validator, objectMapper, 2);
+    }
+
+    @AfterEach
+    void deleteImportedEmployees() {
+        employeeService.deleteEmployees(imported().stream().map(Employee::getId).toList());
+    }
+
+    @Test
+    void csvImportWritesValidRowsInBatchesAndReportsBadRows() throws Exception {
+        ImportReport report = importCsv(
+                "Name,Position,Salary,Hire_Date,Department,Active",
+                "Import Ann,Clerk,1000,2020-01-01,Import,true",
+                "Import Bob,Clerk,,2020-01-01,Import,true",
+                "Import Cal,Clerk,lots,2020-01-01,Import,true",
+                "",
+                "Import Dee,Clerk,1200,2020-13-01,Import,true",
+                "Import Eve,Clerk,-5,2020-01-01,Import,true",
+                "Import Fay,Clerk,1300,2999-01-01,Import,true",
+                ",Clerk,1400,2020-01-01,Import,true",
+                "Import Gus,Manager,2000,2021-06-30,Import,no",
+                "\"Import Hal, Jr.\",Clerk,1500,2022-02-02,Import,1");
+
+        assertEquals(9, report.getRowsRead());
+        assertEquals(3, report.getRowsImported());
+        assertEquals(6, report.getRowsRejected());
+        assertEquals(List.of(3L, 4L, 6L, 7L, 8L, 9L),
+                report.getErrors().stream().map(ImportReport.RowError::getLine).toList());
+        assertEquals("Salary is required", report.getErrors().get(0).getMessage());
+        assertEquals("Invalid salary: lots", report.getErrors().get(1).getMessage());
+        assertEquals("Invalid hire date: 2020-13-01", report.getErrors().get(2).getMessage());
+        assertEquals("Salary must be 0 or greater", report.getErrors().get(3).getMessage());
+        assertEquals("Hire date cannot be in the future.", report.getErrors().get(4).getMessage());
+        assertEquals("Name is required", report.getErrors().get(5).getMessage());
+
+        List<Employee> employees = imported();
+        assertEquals(List.of("Import Ann", "Import Gus", "Import Hal, Jr."),
+                employees.stream().map(Employee::getName).toList());
+        assertFalse(employees.get(1).isActive());
+        assertTrue(employees.get(2).isActive());
+    }
+
+    @Test
+    void csvHeaderMustNameEveryRequiredColumn() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> importCsv("name,position,hireDate,department", "Import Ann,Clerk,2020-01-01,Import"));
+        assertEquals("CSV header is missing the 'salary' column", ex.getMessage());
+        assertTrue(imported().isEmpty());
+    }
+
+    @Test
+    void ndjsonImportIgnoresIdsAndReportsInvalidLines() throws Exception {
+        String input = String.join("\n",
+                "{\"id\":999999,\"name\":\"Import Ivy\",\"position\":\"Clerk\",\"salary\":1000,\"hireDate\":\"2020-01-01\",\"department\":\"Import\",\"active\":true}",
+                "{\"name\":\"Import Jon\"",
+                "{\"name\":\"Import Kim\",\"position\":\"Clerk\",\"salary\":1000,\"department\":\"Import\",\"active\":true}");
+        ImportReport report = importService.importEmployees(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), EmployeeFileFormat.NDJSON);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getRowsImported());
+        assertEquals(List.of(2L, 3L), report.getErrors().stream().map(ImportReport.RowError::getLine).toList());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Invalid JSON"));
+        assertEquals("Hire date is required", report.getErrors().get(1).getMessage());
+
+        List<Employee> employees = imported();
+        assertEquals(1, employees.size());
+        assertNotEquals(999999L, employees.get(0).getId().longValue());
+    }
+
+    private ImportReport importCsv(String... lines) throws Exception {
+        byte[] input = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return importService.importEmployees(new ByteArrayInputStream(input), EmployeeFileFormat.CSV);
+    }
+
+    private List<Employee> imported() {
+        try (Stream<Employee> employees = employeeService.streamEmployees(IMPORTED)) {
+            return employees.toList();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.config.CacheConfig;
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "dms.cache.enabled=true")
+@ActiveProfiles("test")
+class EmployeeServiceCacheTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void updateEvictsCachedEmployee() {
+        Employee employee = new Employee("Cache Test", "Tester", 1000, LocalDate.of(2020, 1, 1), "QA", true);
+        employeeService.saveEmployee(employee);
+        Long id = employee.getId();
+        assertNotNull(id);
+
+        assertEquals("Tester", employeeService.getEmployeeById(id).getPosition());
+        assertNotNull(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(id));
+
+        employee.setPosition("Lead Tester");
+        employeeService.saveEmployee(employee);
+        assertNull(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(id));
+        assertEquals("Lead Tester", employeeService.getEmployeeById(id).getPosition());
+
+        employeeService.deleteEmployee(id);
+        assertNull(employeeService.getEmployeeById(id));
+    }
+}
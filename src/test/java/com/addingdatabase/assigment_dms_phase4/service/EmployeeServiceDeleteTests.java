@@ -0,0 +1,94 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class EmployeeServiceDeleteTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void bulkDeleteRemovesAllRowsAndDeletedIdsAreNotReused() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            employees.add(new Employee("Deactivated " + i, "Clerk", 1000, LocalDate.of(2015, 1, 1), "Archive", false));
+        }
+        employeeService.saveAllEmployees(employees);
+
+        List<Long> ids = new ArrayList<>();
+        for (Employee e : employees) {
+            ids.add(e.getId());
+        }
+        long highestDeleted = ids.get(ids.size() - 1);
+        ids.add(-1L);
+
+        assertEquals(10_000, employeeService.deleteEmployees(ids));
+        assertNull(employeeService.getEmployeeById(ids.get(0)));
+        assertNull(employeeService.getEmployeeById(highestDeleted));
+
+        Employee next = new Employee("After Delete", "Clerk", 1000, LocalDate.of(2015, 1, 1), "Archive", true);
+        employeeService.saveEmployee(next);
+        try {
+            assertTrue(next.getId() > highestDeleted, "deleted IDs must not be handed out again");
+        } finally {
+            employeeService.deleteEmployee(next.getId());
+        }
+    }
+
+    @Test
+    void onlyEmployeesThatExistedArePublishedAsDeleted() {
+        Employee kept = new Employee("Deleted Once", "Clerk", 1000, LocalDate.of(2015, 1, 1), "Archive", true);
+        Employee gone = new Employee("Deleted Twice", "Clerk", 1000, LocalDate.of(2015, 1, 1), "Archive", true);
+        employeeService.saveAllEmployees(List.of(kept, gone));
+        assertTrue(employeeService.deleteEmployee(gone.getId()));
+        events.clear();
+
+        assertFalse(employeeService.deleteEmployee(gone.getId()));
+        assertEquals(1, employeeService.deleteEmployees(List.of(gone.getId(), kept.getId(), -1L)));
+        assertEquals(List.of(kept.getId()), events.stream(EmployeeChangedEvent.class)
+                .peek(e -> assertEquals(EmployeeChangedEvent.Type.DELETED, e.getType()))
+                .map(EmployeeChangedEvent::getId)
+                .toList());
+    }
+
+    @Test
+    void updatesOfDeletedEmployeesAreNotPublished() {
+        Employee kept = new Employee("Updated Kept", "Clerk", 1000, LocalDate.of(2015, 1, 1), "Archive", true);
+        Employee gone = new Employee("Updated Gone", "Clerk", 1000, LocalDate.of(2015, 1, 1), "Archive", true);
+        employeeService.saveAllEmployees(List.of(kept, gone));
+        assertTrue(employeeService.deleteEmployee(gone.getId()));
+        events.clear();
+
+        try {
+            gone.setSalary(2000);
+            assertFalse(employeeService.saveEmployee(gone));
+            kept.setSalary(2000);
+            assertEquals(1, employeeService.saveAllEmployees(List.of(gone, kept)));
+            assertEquals(List.of(kept.getId()), events.stream(EmployeeChangedEvent.class)
+                    .peek(e -> assertEquals(EmployeeChangedEvent.Type.UPDATED, e.getType()))
+                    .map(EmployeeChangedEvent::getId)
+                    .toList());
+            assertNull(employeeService.getEmployeeById(gone.getId()));
+        } finally {
+            employeeService.deleteEmployee(kept.getId());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeCriteria;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeePage;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeeSortKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeServicePageTests {
+
+    private static final EmployeeCriteria PAGING = EmployeeCriteria.all().setDepartment("Paging");
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedEmployees() {
+        employeeService.deleteEmployees(created);
+    }
+
+    @Test
+    void pagesForwardToTheLastPageAndBackToTheFirst() {
+        create("Paging Gil", "Paging Ann", "Paging Fay", "Paging Bob", "Paging Eve", "Paging Cal", "Paging Dan");
+
+        EmployeePage first = page(null, null, false);
+        assertEquals(List.of("Paging Ann", "Paging Bob", "Paging Cal"), names(first));
+        assertNull(first.getPrevCursor(), "the first page has no previous page");
+        assertNotNull(first.getNextCursor());
+
+        EmployeePage second = page(first.getNextCursor(), null, false);
+        assertEquals(List.of("Paging Dan", "Paging Eve", "Paging Fay"), names(second));
+        assertNotNull(second.getPrevCursor());
+
+        EmployeePage last = page(second.getNextCursor(), null, false);
+        assertEquals(List.of("Paging Gil"), names(last));
+        assertNull(last.getNextCursor(), "the last page has no next page");
+
+        EmployeePage backToSecond = page(null, last.getPrevCursor(), false);
+        assertEquals(names(second), names(backToSecond));
+        assertNotNull(backToSecond.getNextCursor());
+        EmployeePage backToFirst = page(null, backToSecond.getPrevCursor(), false);
+        assertEquals(names(first), names(backToFirst));
+        assertNull(backToFirst.getPrevCursor());
+    }
+
+    @Test
+    void exactlyFullPageHasNoNextPageAndDescendingReversesTheOrder() {
+        create("Paging Ann", "Paging Bob", "Paging Cal");
+
+        EmployeePage only = page(null, null, false);
+        assertEquals(3, only.getEmployees().size());
+        assertNull(only.getNextCursor());
+        assertNull(only.getPrevCursor());
+
+        EmployeePage descending = page(null, null, true);
+        assertEquals(List.of("Paging Cal", "Paging Bob", "Paging Ann"), names(descending));
+
+        EmployeePage clamped = employeeService.getEmployeePage(PAGING, EmployeeSortKey.NAME, false, null, null, 0);
+        assertEquals(1, clamped.getSize());
+        assertEquals(List.of("Paging Ann"), names(clamped));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeService.getEmployeePage(PAGING, EmployeeSortKey.NAME, false, "not-a-cursor", null, 3));
+    }
+
+    private EmployeePage page(String after, String before, boolean descending) {
+        return employeeService.getEmployeePage(PAGING, EmployeeSortKey.NAME, descending, after, before, 3);
+    }
+
+    private void create(String... names) {
+        for (String name : names) {
+            Employee e = new Employee(name, "Clerk", 1000, LocalDate.of(2020, 1, 1), "Paging", true);
+            employeeService.saveEmployee(e);
+            created.add(e.getId());
+        }
+    }
+
+    private static List<String> names(EmployeePage page) {
+        return page.getEmployees().stream().map(Employee::getName).collect(Collectors.toList());
+    }
+}
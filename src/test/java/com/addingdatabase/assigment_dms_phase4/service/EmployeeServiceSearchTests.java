@@ -0,0 +1,57 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EmployeeServiceSearchTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void searchFollowsInsertsUpdatesAndDeletes() {
+        Employee employee = new Employee("Zebulon Quartermaine", "Search Tester", 1000,
+                LocalDate.of(2020, 1, 1), "QA", true);
+        employeeService.saveEmployee(employee);
+        Long id = employee.getId();
+
+        try {
+            assertEquals(List.of(id), ids(employeeService.searchEmployees("zebu", 10)));
+            assertEquals(List.of(id), ids(employeeService.searchEmployees("Zebulon quart", 10)));
+            assertEquals(List.of(id), ids(employeeService.searchEmployees("search test", 10)));
+            assertTrue(employeeService.searchEmployees("zebu ", 10).isEmpty(), "a finished word is not a prefix");
+
+            employee.setName("Zebulon Oddfellow");
+            employeeService.saveEmployee(employee);
+            assertTrue(employeeService.searchEmployees("quartermaine", 10).isEmpty());
+            assertEquals(List.of(id), ids(employeeService.searchEmployees("oddf", 10)));
+        } finally {
+            employeeService.deleteEmployee(id);
+        }
+        assertTrue(employeeService.searchEmployees("zebulon", 10).isEmpty());
+    }
+
+    @Test
+    void matchQueryQuotesWordsAndDropsOperators() {
+        List<String> words = EmployeeService.searchWords("al* OR \"bob\" NEAR(x");
+
+        assertEquals(List.of("al", "OR", "bob", "NEAR", "x"), words);
+        assertEquals("\"al\" \"OR\" \"bob\" \"NEAR\" \"x\"*", EmployeeService.toMatchQuery(words, false));
+        assertEquals("\"al\" \"OR\" \"bob\" \"NEAR\" \"x\"", EmployeeService.toMatchQuery(words, true));
+        assertTrue(employeeService.searchEmployees(" -*\"() ", 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.EmployeePage;
+import com.addingdatabase.assigment_dms_phase4.model.TenureBucket;
+import com.addingdatabase.assigment_dms_phase4.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"dms.tenure.bucket-years=2,5", "dms.snapshot.enabled=true"})
+@ActiveProfiles("test")
+class EmployeeServiceTenureTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeSnapshot snapshot;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedEmployees() {
+        employeeService.deleteEmployees(created);
+    }
+
+    @Test
+    void bucketsFollowTheConfiguredYearsAndHireDatesOnABoundaryGoToTheLongerTenure() {
+        LocalDate today = LocalDate.now();
+        List<TenureBucket> before = employeeService.getTenureReport();
+        assertEquals(List.of("Under 2 years", "2–4 years", "More than 4 years"),
+                before.stream().map(TenureBucket::getLabel).toList());
+
+        create("Tenure Today", today);
+        create("Tenure Almost Two", today.minusYears(2).plusDays(1));
+        Employee two = create("Tenure Two", today.minusYears(2));
+        create("Tenure Almost Five", today.minusYears(5).plusDays(1));
+        create("Tenure Five", today.minusYears(5));
+
+        List<TenureBucket> after = employeeService.getTenureReport();
+        assertEquals(List.of(2L, 2L, 1L), added(before, after));
+        assertSnapshotMatchesTheDatabase(after);
+
+        EmployeePage middle = employeeService.getTenureBucketPage(1, null, 100);
+        List<String> names = middle.getEmployees().stream().map(Employee::getName)
+                .filter(name -> name.startsWith("Tenure ")).toList();
+        assertEquals(List.of("Tenure Almost Five", "Tenure Two"), names, "longest tenure first");
+        assertThrows(IllegalArgumentException.class, () -> employeeService.getTenureBucketPage(3, null, 10));
+
+        // Updates and deletes move the snapshot's counts like the table's
+        two.setHireDate(today.minusYears(10));
+        employeeService.saveEmployee(two);
+        employeeService.deleteEmployee(created.get(0));
+        List<TenureBucket> changed = employeeService.getTenureReport();
+        assertEquals(List.of(1L, 1L, 2L), added(before, changed));
+        assertSnapshotMatchesTheDatabase(changed);
+    }
+
+    @Test
+    void bucketYearsMustBePositiveAndIncreasing() {
+        for (int[] years : List.of(new int[]{5, 2}, new int[]{2, 2}, new int[]{0, 3})) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new EmployeeService(employeeRepository, event -> { }, snapshot, years, 200));
+        }
+    }
+
+    private void assertSnapshotMatchesTheDatabase(List<TenureBucket> report) {
+        assertTrue(snapshot.isLoaded());
+        for (TenureBucket bucket : report) {
+            assertEquals(employeeRepository.count(bucket.toCriteria()), bucket.getCount(), bucket.getLabel());
+        }
+    }
+
+    private static List<Long> added(List<TenureBucket> before, List<TenureBucket> after) {
+        List<Long> added = new ArrayList<>();
+        for (int i = 0; i < before.size(); i++) {
+            added.add(after.get(i).getCount() - before.get(i).getCount());
+        }
+        return added;
+    }
+
+    private Employee create(String name, LocalDate hireDate) {
+        Employee e = new Employee(name, "Clerk", 1000, hireDate, "Tenure", true);
+        employeeService.saveEmployee(e);
+        created.add(e.getId());
+        return e;
+    }
+}
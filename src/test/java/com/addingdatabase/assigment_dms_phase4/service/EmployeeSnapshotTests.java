@@ -0,0 +1,89 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotTests {
+
+    private static final LocalDate Y2010 = LocalDate.of(2010, 6, 1);
+    private static final LocalDate Y2020 = LocalDate.of(2020, 6, 1);
+
+    // Never loaded: the events alone fill it
+    private final EmployeeSnapshot snapshot = new EmployeeSnapshot(null, true);
+
+    @Test
+    void countsFollowInsertsUpdatesAndDeletes() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(3, Y2020, 0), true));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2010, 0), true));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(2, Y2010, 0), true));
+        assertEquals(3, snapshot.size());
+        assertEquals(3, snapshot.countHiredBetween(null, null));
+        // The lower bound is exclusive, the upper bound inclusive
+        assertEquals(2, snapshot.countHiredBetween(Y2010.minusDays(1), Y2010));
+        assertEquals(0, snapshot.countHiredBetween(Y2010, Y2020.minusDays(1)));
+        assertEquals(1, snapshot.countHiredBetween(Y2010, Y2020));
+
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(2, Y2020, 1), false));
+        assertEquals(1, snapshot.countHiredBetween(null, Y2010));
+        assertEquals(2, snapshot.countHiredBetween(Y2010, null));
+
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(3));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(3));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(99));
+        assertEquals(2, snapshot.size());
+        assertEquals(1, snapshot.countHiredBetween(Y2010, null));
+        assertEquals(1, snapshot.countHiredBetween(null, Y2010));
+    }
+
+    @Test
+    void olderVersionArrivingLastDoesNotOverwriteTheNewerOne() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2010, 0), true));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2020, 2), false));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2010, 1), false));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.countHiredBetween(LocalDate.of(2019, 12, 31), null));
+    }
+
+    @Test
+    void updateArrivingBeforeItsInsertIsKept() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2020, 1), false));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2010, 0), true));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.countHiredBetween(LocalDate.of(2019, 12, 31), null));
+    }
+
+    @Test
+    void updateArrivingAfterTheDeleteDoesNotBringTheEmployeeBack() {
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2010, 0), true));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(1));
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2010, 1), false));
+        assertEquals(0, snapshot.size());
+
+        // Also once the tombstone has been compacted away
+        for (long id = 2; id <= 2049; id++) {
+            snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(id, Y2010, 0), true));
+        }
+        for (long id = 2; id <= 1100; id++) {
+            snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(id));
+        }
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(500, Y2010, 1), false));
+        assertEquals(949, snapshot.size());
+        assertEquals(949, snapshot.countHiredBetween(null, null));
+
+        // A created event for a deleted ID means the ID was handed out again
+        snapshot.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1, Y2020, 0), true));
+        assertEquals(950, snapshot.size());
+    }
+
+    private static Employee employee(long id, LocalDate hireDate, long version) {
+        Employee e = new Employee(id, "Snapshot " + id, "Clerk", 1000, hireDate, "Snapshot", true);
+        e.setVersion(version);
+        return e;
+    }
+}
@@ -0,0 +1,113 @@
+package com.addingdatabase.assigment_dms_phase4.service;
+
+import com.addingdatabase.assigment_dms_phase4.model.Employee;
+import com.addingdatabase.assigment_dms_phase4.model.PayrollGroup;
+import com.addingdatabase.assigment_dms_phase4.model.PayrollReport;
+import com.addingdatabase.assigment_dms_phase4.model.SalaryGroup;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PayrollServiceTests {
+
+    private static final String DEPARTMENT = "Payroll";
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void reportsEachDepartmentAndFlagAndRebuildsOnlyAfterAWrite() {
+        List<Employee> employees = new ArrayList<>();
+        for (int salary = 100; salary >= 1; salary--) {
+            employees.add(new Employee("Payroll " + salary, "Clerk", salary * 10, LocalDate.of(2019, 1, 1),
+                    DEPARTMENT, salary % 10 != 0));
+        }
+        employeeService.saveAllEmployees(employees);
+        List<Long> ids = new ArrayList<>();
+        employees.forEach(e -> ids.add(e.getId()));
+        try {
+            PayrollReport report = payrollService.getReport();
+            assertSame(report, payrollService.getReport(), "unchanged employees are answered from the cache");
+
+            PayrollGroup department = row(report.getDepartments(), null);
+            assertEquals(100, department.getHeadcount());
+            assertEquals(50500, department.getTotalSalary());
+            assertEquals(505, department.getMeanSalary());
+            assertEquals(500, department.getP50());
+            assertEquals(900, department.getP90());
+            assertEquals(990, department.getP99());
+
+            PayrollGroup inactive = row(report.getGroups(), false);
+            assertEquals(10, inactive.getHeadcount());
+            assertEquals(500, inactive.getP50());
+            assertEquals(900, inactive.getP90());
+            assertEquals(1000, inactive.getP99());
+            assertEquals(90, row(report.getGroups(), true).getHeadcount());
+            assertTrue(report.getTotal().getHeadcount() >= 100);
+
+            Employee extra = new Employee("Payroll Extra", "Clerk", 5000, LocalDate.of(2019, 1, 1), DEPARTMENT, true);
+            employeeService.saveEmployee(extra);
+            ids.add(extra.getId());
+            PayrollReport rebuilt = payrollService.getReport();
+            assertNotSame(report, rebuilt);
+            assertEquals(101, row(rebuilt.getDepartments(), null).getHeadcount());
+            assertEquals(5000, row(rebuilt.getGroups(), true).getP99());
+        } finally {
+            employeeService.deleteEmployees(ids);
+        }
+    }
+
+    @Test
+    void unsortedGroupsAreSortedOnAllCoresAboveTheThreshold() {
+        SalaryGroup active = new SalaryGroup("B", true, 0);
+        SalaryGroup inactive = new SalaryGroup("B", false, 0);
+        SalaryGroup other = new SalaryGroup("A", true, 0);
+        for (int salary = 20_000; salary >= 1; salary--) {
+            SalaryGroup group = salary % 4 == 0 ? inactive : salary % 4 == 1 ? other : active;
+            group.add(salary);
+            group.addTotals(1, salary);
+        }
+
+        PayrollReport report = new PayrollService(null, null, 1000).buildReport(List.of(other, inactive, active));
+        assertEquals(20_000, report.getTotal().getHeadcount());
+        assertEquals(10_000, report.getTotal().getP50());
+        assertEquals(18_000, report.getTotal().getP90());
+        assertEquals(19_800, report.getTotal().getP99());
+        assertEquals(List.of("A", "B"), report.getDepartments().stream().map(PayrollGroup::getDepartment).toList());
+        assertEquals(15_000, report.getDepartments().get(1).getHeadcount());
+        assertEquals(3, report.getGroups().size());
+    }
+
+    @Test
+    void percentilesUseTheNearestRankAndAreNaNWithoutSalaries() {
+        double[] sorted = {10, 20, 30, 40};
+        assertEquals(20, PayrollService.percentile(sorted, 4, 50));
+        assertEquals(40, PayrollService.percentile(sorted, 4, 90));
+        assertEquals(10, PayrollService.percentile(sorted, 1, 99));
+        assertTrue(Double.isNaN(PayrollService.percentile(sorted, 0, 50)));
+
+        PayrollReport empty = new PayrollService(null, null, 1000).buildReport(List.of());
+        assertEquals(0, empty.getTotal().getHeadcount());
+        assertTrue(Double.isNaN(empty.getTotal().getMeanSalary()));
+        assertTrue(empty.getDepartments().isEmpty());
+    }
+
+    private static PayrollGroup row(List<PayrollGroup> rows, Boolean active) {
+        return rows.stream()
+                .filter(g -> DEPARTMENT.equals(g.getDepartment()) && Objects.equals(active, g.getActive()))
+                .findFirst().orElseThrow();
+    }
+}